@@ -48,6 +48,9 @@ dependencies {
     // Rest
     implementation("org.springframework.boot:spring-boot-starter-web")
 
+    // Métricas (Micrometer)
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
+
     // Cache
     implementation("org.springframework.boot:spring-boot-starter-cache")
 
@@ -83,6 +86,9 @@ dependencies {
     // csv
     implementation("com.opencsv:opencsv:5.7.1")
 
+    // Zip (compresión de entradas en paralelo)
+    implementation("org.apache.commons:commons-compress:1.26.2")
+
     // Test
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -5,9 +5,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.auth.dto.TokenVerificado;
 import org.example.vivesbankproject.rest.auth.services.jwt.JwtService;
-
-import org.example.vivesbankproject.rest.users.services.UserService;
+import org.example.vivesbankproject.rest.users.services.UserPrincipalResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -28,6 +28,12 @@ import java.io.IOException;
  * <p>Se utiliza junto con el servicio de gestión de JWT y un servicio de usuarios para
  * validar las credenciales de acceso.</p>
  *
+ * <p>Cada token se decodifica y verifica una sola vez con {@link JwtService#verifyToken(String)}, que
+ * reutiliza la verificación de peticiones anteriores con el mismo token; la comprobación posterior del
+ * usuario y la caducidad se hace sobre ese resultado, sin volver a verificar la firma. El usuario se
+ * obtiene de la caché de {@link UserPrincipalResolver}, así que en la mayoría de peticiones no se consulta
+ * la base de datos.</p>
+ *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
  * @version 1.0-SNAPSHOT
  */
@@ -35,18 +41,18 @@ import java.io.IOException;
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
-    private final UserService authUsersService;
+    private final UserPrincipalResolver userPrincipalResolver;
 
     /**
      * Constructor para inicializar los servicios necesarios.
      *
      * @param jwtService Servicio para la gestión de tokens JWT.
-     * @param authUsersService Servicio para la gestión de usuarios.
+     * @param userPrincipalResolver Resolución con caché del usuario autenticado.
      */
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtService, UserService authUsersService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UserPrincipalResolver userPrincipalResolver) {
         this.jwtService = jwtService;
-        this.authUsersService = authUsersService;
+        this.userPrincipalResolver = userPrincipalResolver;
     }
 
     /**
@@ -65,6 +71,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         log.info("Iniciando el filtro de autenticación");
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
+        final TokenVerificado token;
         UserDetails userDetails = null;
         String userName = null;
 
@@ -80,7 +87,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
         // Lo primero que debemos ver es que el token es válido
         try {
-            userName = jwtService.extractUserName(jwt);
+            token = jwtService.verifyToken(jwt);
+            userName = token.username();
         } catch (Exception e) {
             log.info("Token no válido");
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token no autorizado o no válido");
@@ -92,15 +100,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Comprobamos que el usuario existe y que el token es válido
             log.info("Comprobando usuario y token");
             try {
-                userDetails = authUsersService.loadUserByUsername(userName);
+                userDetails = userPrincipalResolver.resolver(userName);
             } catch (Exception e) {
                 log.info("Usuario no encontrado: {}", userName);
                 response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Usuario no autorizado");
                 return;
             }
-            authUsersService.loadUserByUsername(userName);
             log.info("Usuario encontrado: {}", userDetails);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            if (token.esValidoPara(userDetails.getUsername())) {
                 log.info("JWT válido");
                 // Si es válido, lo autenticamos en el contexto de seguridad
                 SecurityContext context = SecurityContextHolder.createEmptyContext();
@@ -12,8 +12,8 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -38,6 +38,8 @@ import static org.springframework.security.config.http.SessionCreationPolicy.STA
 public class SecurityConfig {
     private final UserDetailsService userService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService passwordUpgradeService;
 
     @Value("${api.version}")
     private String apiVersion;
@@ -47,11 +49,16 @@ public class SecurityConfig {
      *
      * @param userService Servicio de gestión de usuarios.
      * @param jwtAuthenticationFilter Filtro de autenticación JWT.
+     * @param passwordEncoder Codificador BCrypt que calcula los hashes en su propio grupo de hilos.
+     * @param passwordUpgradeService Servicio que guarda los hashes recalculados al iniciar sesión.
      */
     @Autowired
-    public SecurityConfig(UserDetailsService userService, JwtAuthenticationFilter jwtAuthenticationFilter) {
+    public SecurityConfig(UserDetailsService userService, JwtAuthenticationFilter jwtAuthenticationFilter,
+                          PasswordEncoder passwordEncoder, UserDetailsPasswordService passwordUpgradeService) {
         this.userService = userService;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.passwordEncoder = passwordEncoder;
+        this.passwordUpgradeService = passwordUpgradeService;
     }
 
     /**
@@ -95,18 +102,10 @@ public class SecurityConfig {
         return http.build();
     }
 
-    /**
-     * Configura el codificador de contraseñas utilizando BCrypt.
-     *
-     * @return Instancia de PasswordEncoder.
-     */
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     /**
      * Proveedor de autenticación que utiliza los detalles del usuario y el codificador de contraseñas.
+     * Si el hash de un usuario se generó con un coste de BCrypt menor que el configurado, se recalcula y
+     * guarda al iniciar sesión.
      *
      * @return Instancia de AuthenticationProvider configurada.
      */
@@ -114,7 +113,8 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        authProvider.setUserDetailsPasswordService(passwordUpgradeService);
         return authProvider;
     }
 
@@ -0,0 +1,114 @@
+package org.example.vivesbankproject.config.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuración de las cachés de la aplicación.
+ * <p>
+ * Define un {@link TwoLevelCacheManager} con una caché local Caffeine en cada nodo (L1) delante de las
+ * cachés compartidas en Redis (L2), y el contenedor que recibe por Redis pub/sub las invalidaciones
+ * publicadas por el resto de nodos.
+ * </p>
+ * <p>
+ * El tamaño máximo y la caducidad se leen de {@code cache.l1.*} y {@code cache.l2.*}, y pueden
+ * ajustarse para una caché concreta con {@code cache.<nombre>.l1.*} y {@code cache.<nombre>.l2.*}.
+ * La caducidad de la L1 acota además el tiempo que un nodo puede servir un valor desactualizado si
+ * pierde un mensaje de invalidación. Las cachés de Redis se vacían con {@link ScanUnlinkBatchStrategy}.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Configuration
+@Slf4j
+public class CacheConfiguration {
+
+    @Value("${cache.nombres:cliente,cuenta,tarjeta,usuario,Movimientos,tipo_Cuentas,iban_usuario,usuario_principal}")
+    private List<String> nombres;
+
+    @Value("${cache.l1.tamano-maximo:10000}")
+    private long tamanoMaximoL1;
+
+    @Value("${cache.l1.ttl-segundos:60}")
+    private long ttlL1;
+
+    @Value("${cache.l2.ttl-segundos:600}")
+    private long ttlL2;
+
+    @Value("${cache.l2.lote-vaciado:1000}")
+    private int loteVaciado;
+
+    @Value("${cache.canal-invalidacion:cache:invalidaciones}")
+    private String canalInvalidacion;
+
+    /**
+     * Crea el gestor de cachés de dos niveles y sus cachés conocidas.
+     *
+     * @param connectionFactory Conexión con Redis
+     * @param environment       Entorno del que se leen los ajustes por caché
+     * @param meterRegistry     Registro de métricas
+     * @return Gestor de cachés de la aplicación
+     */
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory, Environment environment,
+                                             MeterRegistry meterRegistry) {
+        Map<String, RedisCacheConfiguration> configuraciones = new HashMap<>();
+        for (String nombre : nombres) {
+            long ttl = environment.getProperty("cache." + nombre + ".l2.ttl-segundos", Long.class, ttlL2);
+            configuraciones.put(nombre, RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofSeconds(ttl)));
+        }
+        RedisCacheWriter writer = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory,
+                new ScanUnlinkBatchStrategy(loteVaciado));
+        RedisCacheManager remoto = RedisCacheManager.builder(writer)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofSeconds(ttlL2)))
+                .withInitialCacheConfigurations(configuraciones)
+                .build();
+        remoto.afterPropertiesSet();
+
+        StringRedisTemplate plantilla = new StringRedisTemplate(connectionFactory);
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(
+                remoto,
+                nombre -> new TwoLevelCacheManager.Ajustes(
+                        environment.getProperty("cache." + nombre + ".l1.tamano-maximo", Long.class, tamanoMaximoL1),
+                        Duration.ofSeconds(environment.getProperty("cache." + nombre + ".l1.ttl-segundos", Long.class, ttlL1))),
+                mensaje -> plantilla.convertAndSend(canalInvalidacion, mensaje),
+                meterRegistry);
+        nombres.forEach(cacheManager::getCache);
+        return cacheManager;
+    }
+
+    /**
+     * Suscribe el gestor de cachés al canal de invalidación para descartar las copias locales
+     * modificadas en otros nodos.
+     *
+     * @param connectionFactory Conexión con Redis
+     * @param cacheManager      Gestor de cachés de dos niveles
+     * @return Contenedor de la suscripción
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidacionListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(canalInvalidacion));
+        log.info("Invalidación de cachés suscrita al canal {}", canalInvalidacion);
+        return container;
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.vivesbankproject.config.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.cache.BatchStrategy;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estrategia de vaciado de las cachés de Redis que recorre las claves con {@code SCAN} y las elimina
+ * con {@code UNLINK} en lotes.
+ * <p>
+ * Sustituye a {@code KEYS patrón}, que recorre todo el espacio de claves en una sola orden y bloquea
+ * Redis para el resto de clientes mientras dura. {@code SCAN} devuelve las claves por páginas y
+ * {@code UNLINK} libera la memoria en segundo plano, de modo que ninguna orden individual tarda más
+ * que lo que cuesta procesar un lote.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Slf4j
+public class ScanUnlinkBatchStrategy implements BatchStrategy {
+
+    private final int tamanoLote;
+
+    /**
+     * Crea la estrategia.
+     *
+     * @param tamanoLote Claves pedidas en cada {@code SCAN} y eliminadas en cada {@code UNLINK}
+     */
+    public ScanUnlinkBatchStrategy(int tamanoLote) {
+        if (tamanoLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor que cero");
+        }
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Elimina las claves de la caché que coinciden con el patrón.
+     *
+     * @param connection Conexión con Redis
+     * @param name       Nombre de la caché
+     * @param pattern    Patrón de las claves a eliminar
+     * @return Número de claves eliminadas
+     */
+    @Override
+    public long cleanCache(RedisConnection connection, String name, byte[] pattern) {
+        ScanOptions opciones = ScanOptions.scanOptions().match(pattern).count(tamanoLote).build();
+        List<byte[]> lote = new ArrayList<>(tamanoLote);
+        long eliminadas = 0;
+
+        try (Cursor<byte[]> cursor = connection.keyCommands().scan(opciones)) {
+            while (cursor.hasNext()) {
+                lote.add(cursor.next());
+                if (lote.size() == tamanoLote) {
+                    eliminadas += unlink(connection, lote);
+                }
+            }
+        }
+        eliminadas += unlink(connection, lote);
+
+        log.debug("Vaciada la caché {} de Redis: {} claves eliminadas", name, eliminadas);
+        return eliminadas;
+    }
+
+    private static long unlink(RedisConnection connection, List<byte[]> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        Long eliminadas = connection.keyCommands().unlink(lote.toArray(new byte[0][]));
+        lote.clear();
+        return eliminadas != null ? eliminadas : 0;
+    }
+}
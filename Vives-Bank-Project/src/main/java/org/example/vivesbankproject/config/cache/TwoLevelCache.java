@@ -0,0 +1,184 @@
+package org.example.vivesbankproject.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * Caché de dos niveles: una caché local Caffeine (L1) delante de una caché compartida en Redis (L2).
+ * <p>
+ * Las lecturas se sirven desde la L1 y, si no está la entrada, desde la L2, copiando el valor a la L1.
+ * Las escrituras y eliminaciones se aplican a ambos niveles y se publican para que el resto de nodos
+ * descarten su copia local. Las claves de la L1 son su representación en texto, igual que en Redis,
+ * para poder invalidarlas desde otro nodo.
+ * </p>
+ * <p>
+ * La L1 guarda los propios objetos, así que un acierto en la L1 no deserializa nada y todas las peticiones
+ * reciben la misma instancia. Los valores cacheados se tratan como inmutables: quien los obtiene de la caché
+ * no debe modificarlos y, si necesita cambiar algo, trabaja sobre una copia. Los valores que llegan de la L2
+ * ya son una instancia nueva, deserializada de Redis.
+ * </p>
+ * <p>
+ * Registra los aciertos y fallos de cada nivel en la métrica {@code cache.accesos}, etiquetada con el
+ * nombre de la caché, el nivel y el resultado.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Slf4j
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remoto;
+    private final BiConsumer<String, String> invalidador;
+
+    private final Counter aciertosL1;
+    private final Counter fallosL1;
+    private final Counter aciertosL2;
+    private final Counter fallosL2;
+
+    /**
+     * Crea la caché de dos niveles.
+     *
+     * @param name        Nombre de la caché
+     * @param local       Caché local Caffeine (L1) de los valores cacheados
+     * @param remoto      Caché compartida en Redis (L2)
+     * @param invalidador Publica la invalidación de una clave (o de toda la caché si la clave es {@code null})
+     *                    al resto de nodos
+     * @param registry    Registro de métricas
+     */
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remoto,
+                         BiConsumer<String, String> invalidador, MeterRegistry registry) {
+        super(true);
+        this.name = name;
+        this.local = local;
+        this.remoto = remoto;
+        this.invalidador = invalidador;
+        this.aciertosL1 = contador(registry, "l1", "acierto");
+        this.fallosL1 = contador(registry, "l1", "fallo");
+        this.aciertosL2 = contador(registry, "l2", "acierto");
+        this.fallosL2 = contador(registry, "l2", "fallo");
+        Gauge.builder("cache.l1.tamano", local, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                .description("Entradas en la caché local")
+                .tag("cache", name)
+                .register(registry);
+    }
+
+    private Counter contador(MeterRegistry registry, String nivel, String resultado) {
+        return Counter.builder("cache.accesos")
+                .description("Accesos a la caché por nivel y resultado")
+                .tag("cache", name)
+                .tag("nivel", nivel)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String clave = claveLocal(key);
+        Object almacenado = local.getIfPresent(clave);
+        if (almacenado != null) {
+            aciertosL1.increment();
+            return almacenado;
+        }
+        fallosL1.increment();
+
+        ValueWrapper remota = remoto.get(key);
+        if (remota == null) {
+            fallosL2.increment();
+            return null;
+        }
+        aciertosL2.increment();
+        almacenado = toStoreValue(remota.get());
+        local.put(clave, almacenado);
+        return almacenado;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object almacenado = lookup(key);
+        if (almacenado == null) {
+            // Caffeine bloquea por clave, así que en cada nodo solo un hilo carga el valor ausente
+            almacenado = local.get(claveLocal(key), clave -> toStoreValue(remoto.get(key, valueLoader)));
+        }
+        return (T) fromStoreValue(almacenado);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remoto.put(key, value);
+        local.put(claveLocal(key), toStoreValue(value));
+        publicar(claveLocal(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existente = remoto.putIfAbsent(key, value);
+        if (existente == null) {
+            local.put(claveLocal(key), toStoreValue(value));
+            publicar(claveLocal(key));
+        } else {
+            local.put(claveLocal(key), toStoreValue(existente.get()));
+        }
+        return existente;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remoto.evict(key);
+        local.invalidate(claveLocal(key));
+        publicar(claveLocal(key));
+    }
+
+    @Override
+    public void clear() {
+        remoto.clear();
+        local.invalidateAll();
+        publicar(null);
+    }
+
+    /**
+     * Descarta la copia local de una clave sin tocar Redis. Se usa al recibir la invalidación de otro nodo.
+     *
+     * @param clave Clave en texto, o {@code null} para vaciar toda la caché local
+     */
+    public void invalidarLocal(String clave) {
+        if (clave == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(clave);
+        }
+    }
+
+    private void publicar(String clave) {
+        try {
+            invalidador.accept(name, clave);
+        } catch (RuntimeException e) {
+            // La caducidad de la L1 acota el tiempo que otros nodos pueden servir el valor anterior
+            log.warn("No se ha podido publicar la invalidación de la caché {}: {}", name, e.getMessage());
+        }
+    }
+
+    private static String claveLocal(Object key) {
+        return key.toString();
+    }
+}
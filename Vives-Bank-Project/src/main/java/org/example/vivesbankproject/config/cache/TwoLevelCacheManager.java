@@ -0,0 +1,133 @@
+package org.example.vivesbankproject.config.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Gestor de cachés de dos niveles: Caffeine en cada nodo (L1) delante de Redis (L2).
+ * <p>
+ * Crea una {@link TwoLevelCache} por nombre de caché con el tamaño máximo y la caducidad local de
+ * {@link Ajustes}, y recibe por el canal de invalidación los cambios hechos en otros nodos para
+ * descartar la copia local afectada. Los mensajes publicados por este mismo nodo se ignoran.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Slf4j
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private final CacheManager remoto;
+    private final Function<String, Ajustes> ajustes;
+    private final Consumer<String> publicador;
+    private final MeterRegistry registry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String nodo = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Counter invalidacionesRecibidas;
+
+    /**
+     * Crea el gestor de cachés.
+     *
+     * @param remoto     Gestor de las cachés de Redis (L2)
+     * @param ajustes    Tamaño máximo y caducidad de la caché local para cada nombre de caché
+     * @param publicador Envía un mensaje al canal de invalidación
+     * @param registry   Registro de métricas
+     */
+    public TwoLevelCacheManager(CacheManager remoto, Function<String, Ajustes> ajustes,
+                                Consumer<String> publicador, MeterRegistry registry) {
+        this.remoto = remoto;
+        this.ajustes = ajustes;
+        this.publicador = publicador;
+        this.registry = registry;
+        this.invalidacionesRecibidas = Counter.builder("cache.invalidaciones.recibidas")
+                .description("Invalidaciones recibidas de otros nodos")
+                .register(registry);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::crear);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private TwoLevelCache crear(String name) {
+        Ajustes ajustesCache = ajustes.apply(name);
+        log.info("Creando caché {} (L1: {} entradas, {})", name, ajustesCache.tamanoMaximo(), ajustesCache.ttl());
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(ajustesCache.tamanoMaximo())
+                .expireAfterWrite(ajustesCache.ttl())
+                .build();
+        return new TwoLevelCache(name, local, remoto.getCache(name), this::publicar, registry);
+    }
+
+    private void publicar(String cache, String clave) {
+        try {
+            publicador.accept(objectMapper.writeValueAsString(new Invalidacion(nodo, cache, clave)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se ha podido serializar la invalidación", e);
+        }
+    }
+
+    /**
+     * Aplica a la caché local una invalidación publicada por otro nodo.
+     *
+     * @param message Mensaje recibido del canal de invalidación
+     * @param pattern Patrón de suscripción
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Invalidacion invalidacion;
+        try {
+            invalidacion = objectMapper.readValue(message.getBody(), Invalidacion.class);
+        } catch (IOException e) {
+            log.warn("Mensaje de invalidación de caché no válido: {}", e.getMessage());
+            return;
+        }
+        if (nodo.equals(invalidacion.nodo())) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(invalidacion.cache());
+        if (cache != null) {
+            invalidacionesRecibidas.increment();
+            cache.invalidarLocal(invalidacion.clave());
+        }
+    }
+
+    /**
+     * Tamaño máximo y caducidad de la caché local de una caché.
+     *
+     * @param tamanoMaximo Número máximo de entradas
+     * @param ttl          Tiempo desde la escritura tras el que caduca una entrada
+     */
+    public record Ajustes(long tamanoMaximo, Duration ttl) {
+    }
+
+    /**
+     * Mensaje de invalidación entre nodos. Una clave {@code null} invalida toda la caché.
+     */
+    record Invalidacion(String nodo, String cache, String clave) {
+    }
+}
@@ -0,0 +1,403 @@
+package org.example.vivesbankproject.config.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Filtro que hace idempotentes los endpoints de movimientos de dinero del usuario autenticado
+ * ({@code POST /me/transferencia}, {@code /me/pagotarjeta}, {@code /me/ingresonomina}, {@code /me/domiciliacion}
+ * y {@code /me/transferencias/batch}) cuando el cliente envía la cabecera {@value #CABECERA}.
+ *
+ * <p>La primera petición con una clave reserva la clave en Redis para el usuario, se ejecuta y guarda el estado,
+ * el tipo de contenido y el cuerpo de la respuesta durante el tiempo configurado. Los reintentos con la misma clave
+ * reciben la respuesta guardada sin volver a ejecutar la operación, y los que llegan mientras la primera sigue en
+ * curso esperan a su resultado. Una clave reutilizada con otra petición se rechaza con 422.</p>
+ *
+ * <p>La reserva caduca a los {@code idempotencia.en-curso-ms} para no bloquear la clave si el nodo cae, y se
+ * renueva mientras la petición sigue ejecutándose, de modo que una petición lenta no pierde su reserva y un
+ * reintento no la ejecuta por segunda vez.</p>
+ *
+ * <p>Solo se guardan las respuestas correctas y los errores del cliente que no dependen del momento; tras un error
+ * del servidor, un conflicto de concurrencia (409) o un 429 la clave se libera para poder reintentar.</p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    /**
+     * Cabecera con la clave de idempotencia enviada por el cliente.
+     */
+    public static final String CABECERA = "Idempotency-Key";
+
+    /**
+     * Cabecera añadida a las respuestas devueltas desde Redis.
+     */
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private static final int LONGITUD_MAXIMA_CLAVE = 100;
+    private static final long INTERVALO_CONSULTA_MS = 50;
+    /**
+     * Renueva la reserva solo si sigue siendo la de esta ejecución.
+     */
+    private static final RedisScript<Long> RENOVAR = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+                    "return 0", Long.class);
+
+    private static final Set<String> ENDPOINTS = Set.of(
+            "/me/transferencia", "/me/pagotarjeta", "/me/ingresonomina", "/me/domiciliacion", "/me/transferencias/batch");
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, CompletableFuture<RespuestaGuardada>> enCurso = new ConcurrentHashMap<>();
+    private final String apiVersion;
+    private final Duration ttl;
+    private final Duration ttlEnCurso;
+    private final Duration esperaMaxima;
+    private final ScheduledExecutorService renovaciones;
+
+    private final Counter repetidas;
+    private final Counter agrupadas;
+
+    /**
+     * Constructor del filtro de idempotencia.
+     *
+     * @param redisTemplate Cliente de Redis con claves y valores de texto
+     * @param meterRegistry Registro de métricas
+     * @param apiVersion    Versión de la API con la que empiezan las rutas
+     * @param ttlHoras      Horas que se conserva la respuesta de una clave
+     * @param enCursoMs     Milisegundos que dura la reserva de una clave mientras se ejecuta la petición
+     * @param esperaMs      Milisegundos que espera una petición repetida a que termine la original
+     */
+    @Autowired
+    public IdempotencyKeyFilter(@Qualifier("stringRedisTemplate") RedisTemplate<String, String> redisTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${api.version}") String apiVersion,
+                                @Value("${idempotencia.ttl-horas:24}") long ttlHoras,
+                                @Value("${idempotencia.en-curso-ms:30000}") long enCursoMs,
+                                @Value("${idempotencia.espera-ms:10000}") long esperaMs) {
+        this.redisTemplate = redisTemplate;
+        this.apiVersion = apiVersion.startsWith("/") ? apiVersion : "/" + apiVersion;
+        this.ttl = Duration.ofHours(ttlHoras);
+        this.ttlEnCurso = Duration.ofMillis(enCursoMs);
+        this.esperaMaxima = Duration.ofMillis(esperaMs);
+        this.renovaciones = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "idempotencia-renovacion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.repetidas = Counter.builder("idempotencia.repetidas")
+                .description("Peticiones respondidas con la respuesta guardada de su clave de idempotencia")
+                .register(meterRegistry);
+        this.agrupadas = Counter.builder("idempotencia.agrupadas")
+                .description("Peticiones repetidas que esperaron a la ejecución en curso de su clave")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Solo se filtran las peticiones POST a los endpoints de movimientos de dinero que traen la cabecera.
+     *
+     * @param request La solicitud HTTP entrante.
+     * @return true si la petición no necesita control de idempotencia
+     */
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod()) || !StringUtils.hasText(request.getHeader(CABECERA))) {
+            return true;
+        }
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        return !ruta.startsWith(apiVersion) || !ENDPOINTS.contains(ruta.substring(apiVersion.length()));
+    }
+
+    /**
+     * Ejecuta la petición una sola vez por usuario y clave, o devuelve la respuesta ya guardada.
+     *
+     * @param request     La solicitud HTTP entrante.
+     * @param response    La respuesta HTTP saliente.
+     * @param filterChain Cadena de filtros para procesar la solicitud.
+     * @throws ServletException Si ocurre un error durante el filtrado.
+     * @throws IOException      Si ocurre un error de E/S.
+     */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String clave = request.getHeader(CABECERA);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            // Sin usuario no hay a quién asociar la clave; la seguridad rechazará la petición
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (clave.length() > LONGITUD_MAXIMA_CLAVE) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    "La cabecera " + CABECERA + " no puede superar los " + LONGITUD_MAXIMA_CLAVE + " caracteres");
+            return;
+        }
+
+        CuerpoCacheadoRequest peticion = new CuerpoCacheadoRequest(request);
+        String claveRedis = "idempotencia:" + authentication.getName() + ":" + clave;
+        String huella = huella(peticion);
+
+        String reserva = serializar(new RespuestaGuardada(huella, false, 0, null, null));
+        Boolean reservada = redisTemplate.opsForValue().setIfAbsent(claveRedis, reserva, ttlEnCurso);
+        if (Boolean.TRUE.equals(reservada)) {
+            ejecutar(claveRedis, reserva, huella, peticion, response, filterChain);
+            return;
+        }
+
+        RespuestaGuardada guardada = esperarResultado(claveRedis);
+        if (guardada == null) {
+            response.sendError(HttpServletResponse.SC_CONFLICT,
+                    "La petición con esta " + CABECERA + " sigue en curso o ha fallado, vuelva a intentarlo");
+        } else if (!guardada.huella().equals(huella)) {
+            response.sendError(422, "La " + CABECERA + " ya se ha utilizado con otra petición");
+        } else {
+            repetidas.increment();
+            log.info("Devolviendo la respuesta guardada para la clave de idempotencia {}", clave);
+            escribir(guardada, response);
+        }
+    }
+
+    /**
+     * Detiene la renovación de las reservas al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        renovaciones.shutdownNow();
+    }
+
+    /**
+     * Ejecuta la petición original y guarda su respuesta, avisando a las peticiones repetidas de este nodo.
+     * Mientras se ejecuta, renueva la reserva cada tercio de su caducidad.
+     */
+    private void ejecutar(String claveRedis, String reserva, String huella, HttpServletRequest request,
+                          HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        CompletableFuture<RespuestaGuardada> resultado = new CompletableFuture<>();
+        enCurso.put(claveRedis, resultado);
+        long intervalo = Math.max(1, ttlEnCurso.toMillis() / 3);
+        ScheduledFuture<?> renovacion = renovaciones.scheduleWithFixedDelay(
+                () -> renovar(claveRedis, reserva), intervalo, intervalo, TimeUnit.MILLISECONDS);
+        ContentCachingResponseWrapper respuesta = new ContentCachingResponseWrapper(response);
+        RespuestaGuardada guardada = null;
+        try {
+            filterChain.doFilter(request, respuesta);
+            if (guardable(respuesta.getStatus())) {
+                guardada = new RespuestaGuardada(huella, true, respuesta.getStatus(), respuesta.getContentType(),
+                        new String(respuesta.getContentAsByteArray(), StandardCharsets.UTF_8));
+                redisTemplate.opsForValue().set(claveRedis, serializar(guardada), ttl);
+            } else {
+                redisTemplate.delete(claveRedis);
+            }
+        } catch (ServletException | IOException | RuntimeException e) {
+            redisTemplate.delete(claveRedis);
+            throw e;
+        } finally {
+            renovacion.cancel(false);
+            enCurso.remove(claveRedis);
+            resultado.complete(guardada);
+            respuesta.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Alarga la reserva de una clave mientras sigue siendo la de la ejecución en curso. Si ya se ha guardado
+     * la respuesta o se ha liberado la clave no hace nada, así que no importa que llegue tarde.
+     */
+    private void renovar(String claveRedis, String reserva) {
+        try {
+            redisTemplate.execute(RENOVAR, List.of(claveRedis), reserva, String.valueOf(ttlEnCurso.toMillis()));
+        } catch (RuntimeException e) {
+            log.warn("No se ha podido renovar la reserva de la clave de idempotencia {}: {}", claveRedis, e.getMessage());
+        }
+    }
+
+    /**
+     * Espera a que termine la ejecución de una clave reservada: en este nodo, a su resultado; en otro nodo,
+     * consultando Redis hasta que se guarde la respuesta o se libere la clave.
+     *
+     * @return La respuesta guardada, o null si la ejecución original falló o no terminó a tiempo
+     */
+    private RespuestaGuardada esperarResultado(String claveRedis) throws IOException {
+        CompletableFuture<RespuestaGuardada> local = enCurso.get(claveRedis);
+        if (local != null) {
+            agrupadas.increment();
+            try {
+                return local.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | TimeoutException e) {
+                return null;
+            }
+        }
+
+        long limite = System.nanoTime() + esperaMaxima.toNanos();
+        boolean esperando = false;
+        while (true) {
+            String valor = redisTemplate.opsForValue().get(claveRedis);
+            if (valor == null) {
+                return null;
+            }
+            RespuestaGuardada guardada = objectMapper.readValue(valor, RespuestaGuardada.class);
+            if (guardada.completada() || System.nanoTime() > limite) {
+                return guardada.completada() ? guardada : null;
+            }
+            if (!esperando) {
+                agrupadas.increment();
+                esperando = true;
+            }
+            try {
+                Thread.sleep(INTERVALO_CONSULTA_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private static boolean guardable(int status) {
+        return (status >= 200 && status < 300)
+                || (status >= 400 && status < 500 && status != HttpServletResponse.SC_CONFLICT && status != 429);
+    }
+
+    private void escribir(RespuestaGuardada guardada, HttpServletResponse response) throws IOException {
+        response.setStatus(guardada.status());
+        response.setHeader(CABECERA_REPETIDA, "true");
+        if (guardada.contentType() != null) {
+            response.setContentType(guardada.contentType());
+        }
+        byte[] cuerpo = guardada.cuerpo() != null ? guardada.cuerpo().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        response.setContentLength(cuerpo.length);
+        response.getOutputStream().write(cuerpo);
+    }
+
+    private String serializar(RespuestaGuardada guardada) {
+        try {
+            return objectMapper.writeValueAsString(guardada);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se ha podido serializar la respuesta idempotente", e);
+        }
+    }
+
+    private static String huella(CuerpoCacheadoRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(request.cuerpo);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Respuesta guardada (o reserva en curso, si {@code completada} es false) de una clave de idempotencia.
+     *
+     * @param huella      Resumen del método, la ruta y el cuerpo de la petición original
+     * @param completada  Si la petición original ha terminado
+     * @param status      Código de estado de la respuesta
+     * @param contentType Tipo de contenido de la respuesta
+     * @param cuerpo      Cuerpo de la respuesta
+     */
+    record RespuestaGuardada(String huella, boolean completada, int status, String contentType, String cuerpo) {
+    }
+
+    /**
+     * Petición cuyo cuerpo se lee una vez al principio para calcular la huella y se puede volver a leer después.
+     */
+    private static class CuerpoCacheadoRequest extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        CuerpoCacheadoRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.cuerpo = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * El cuerpo ya está en memoria: se avisa de que hay datos, si los hay, y de que se han leído todos.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.vivesbankproject.config.websockets;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Cola de envío de una sesión WebSocket.
+ *
+ * <p>
+ * Quien envía solo deja el mensaje en la cola y vuelve; un hilo virtual propio de la sesión la vacía en
+ * orden escribiendo en el socket. Así un cliente que no lee solo retiene a su propio hilo y nunca al
+ * trabajador del {@link NotificationDispatcher} ni a las demás sesiones.
+ * </p>
+ *
+ * <p>
+ * La cola está acotada por los bytes pendientes, contando el mensaje que se está escribiendo. Si al
+ * encolar se supera ese límite, o el envío en curso dura más del tiempo permitido, se lanza
+ * {@link SessionLimitExceededException} para que el handler cierre la sesión. Un mensaje siempre se
+ * admite si la cola está vacía y no hay ningún envío en curso, aunque supere el límite por sí solo.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+final class ColaEnvioSesion {
+
+    private final WebSocketSession session;
+    private final long limiteTiempoEnvioNanos;
+    private final int limiteBufferBytes;
+    private final BiConsumer<ColaEnvioSesion, Exception> alFallar;
+    private final BlockingQueue<TextMessage> pendientes = new LinkedBlockingQueue<>();
+    private final AtomicLong bytesPendientes = new AtomicLong();
+
+    private volatile boolean enviando;
+    private volatile long inicioEnvio;
+    private volatile boolean detenida;
+    private Thread hilo;
+
+    /**
+     * Crea la cola de envío de una sesión. No envía nada hasta llamar a {@link #iniciar(String)}.
+     *
+     * @param session             Sesión WebSocket original
+     * @param limiteTiempoEnvioMs Milisegundos que puede durar un envío antes de rechazar nuevos mensajes
+     * @param limiteBufferBytes   Bytes pendientes de envío que puede acumular la sesión
+     * @param alFallar            Se invoca desde el hilo de la sesión si una escritura falla
+     */
+    ColaEnvioSesion(WebSocketSession session, int limiteTiempoEnvioMs, int limiteBufferBytes,
+                    BiConsumer<ColaEnvioSesion, Exception> alFallar) {
+        this.session = session;
+        this.limiteTiempoEnvioNanos = TimeUnit.MILLISECONDS.toNanos(limiteTiempoEnvioMs);
+        this.limiteBufferBytes = limiteBufferBytes;
+        this.alFallar = alFallar;
+    }
+
+    /**
+     * Arranca el hilo virtual que vacía la cola.
+     *
+     * @param nombre Nombre del hilo
+     */
+    synchronized void iniciar(String nombre) {
+        if (hilo == null && !detenida) {
+            hilo = Thread.ofVirtual().name(nombre).start(this::vaciar);
+        }
+    }
+
+    /**
+     * Deja un mensaje en la cola sin esperar a que se escriba.
+     *
+     * @param message Mensaje a enviar
+     * @throws SessionLimitExceededException si la sesión supera el tiempo de envío o los bytes pendientes
+     */
+    void encolar(TextMessage message) throws SessionLimitExceededException {
+        if (enviando && System.nanoTime() - inicioEnvio > limiteTiempoEnvioNanos) {
+            throw new SessionLimitExceededException(
+                    "El envío en curso supera el límite de " + TimeUnit.NANOSECONDS.toMillis(limiteTiempoEnvioNanos) + " ms",
+                    CloseStatus.SESSION_NOT_RELIABLE);
+        }
+        int tamano = message.getPayloadLength();
+        long total = bytesPendientes.addAndGet(tamano);
+        if (total > limiteBufferBytes && total != tamano) {
+            bytesPendientes.addAndGet(-tamano);
+            throw new SessionLimitExceededException(
+                    "Los mensajes pendientes superan el límite de " + limiteBufferBytes + " bytes",
+                    CloseStatus.SESSION_NOT_RELIABLE);
+        }
+        pendientes.add(message);
+    }
+
+    /**
+     * Detiene el hilo de la sesión y descarta los mensajes pendientes. No cierra la sesión.
+     */
+    synchronized void detener() {
+        detenida = true;
+        pendientes.clear();
+        if (hilo != null) {
+            hilo.interrupt();
+        }
+    }
+
+    /**
+     * @return {@code true} si la sesión sigue abierta y su cola no se ha detenido
+     */
+    boolean isOpen() {
+        return !detenida && session.isOpen();
+    }
+
+    /**
+     * @return Sesión WebSocket original
+     */
+    WebSocketSession getSession() {
+        return session;
+    }
+
+    private void vaciar() {
+        try {
+            while (!detenida) {
+                TextMessage message = pendientes.take();
+                inicioEnvio = System.nanoTime();
+                enviando = true;
+                try {
+                    session.sendMessage(message);
+                } finally {
+                    enviando = false;
+                    bytesPendientes.addAndGet(-message.getPayloadLength());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            if (!detenida) {
+                alFallar.accept(this, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.vivesbankproject.config.websockets;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Bus de notificaciones WebSocket entre nodos sobre Redis pub/sub.
+ *
+ * <p>
+ * Cada nodo solo conoce las sesiones WebSocket abiertas contra él, así que una notificación para un usuario
+ * no se entrega directamente: se publica en Redis y todos los nodos la reciben y la entregan a sus sesiones
+ * locales de ese usuario, si las tienen. Los canales se reparten por nombre de usuario
+ * ({@code <canal>:<partición>}), de modo que las notificaciones de un usuario viajan siempre por el mismo
+ * canal y llegan en el orden en que se publicaron.
+ * </p>
+ *
+ * <p>
+ * El mensaje JSON se publica tal cual, precedido de la entidad y el usuario en una línea cada uno, sin
+ * volver a serializarlo. La suscripción entrega los mensajes en el hilo que los lee de Redis, así que quien
+ * se suscribe no debe bloquear.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+@Tag(name = "NotificationBus", description = "Bus de notificaciones WebSocket entre nodos sobre Redis pub/sub")
+public class NotificationBus {
+
+    private static final char SEPARADOR = '\n';
+
+    private final StringRedisTemplate plantilla;
+    private final RedisMessageListenerContainer container;
+    private final String canal;
+    private final int particiones;
+    private final Counter publicadas;
+
+    /**
+     * Crea el bus sobre la conexión con Redis.
+     *
+     * @param connectionFactory Conexión con Redis
+     * @param meterRegistry     Registro de métricas
+     * @param canal             Prefijo de los canales de notificaciones
+     * @param particiones       Número de canales entre los que se reparten los usuarios
+     */
+    @Autowired
+    public NotificationBus(RedisConnectionFactory connectionFactory, MeterRegistry meterRegistry,
+                           @Value("${websocket.notificaciones.canal:websocket:notificaciones}") String canal,
+                           @Value("${websocket.notificaciones.particiones-canal:16}") int particiones) {
+        this.plantilla = new StringRedisTemplate(connectionFactory);
+        this.canal = canal;
+        this.particiones = Math.max(1, particiones);
+        this.container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        // Los mensajes de un canal se entregan uno tras otro y en orden; el suscriptor solo los encola
+        container.setTaskExecutor(new SyncTaskExecutor());
+        this.publicadas = Counter.builder("websocket.notificaciones.publicadas")
+                .description("Notificaciones WebSocket publicadas en Redis por este nodo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publica una notificación para que la entreguen los nodos que tienen sesiones del usuario.
+     *
+     * @param entidad  Entidad del handler WebSocket por el que se entrega
+     * @param username Usuario destinatario
+     * @param mensaje  Mensaje en formato JSON
+     */
+    @Operation(summary = "Publicar notificación", description = "Publica en Redis una notificación WebSocket para un usuario")
+    public void publicar(String entidad, String username, String mensaje) {
+        plantilla.convertAndSend(canal(username), codificar(entidad, username, mensaje));
+        publicadas.increment();
+    }
+
+    /**
+     * Suscribe un receptor a todos los canales de notificaciones y empieza a recibir.
+     *
+     * @param receptor Receptor de los mensajes publicados por cualquier nodo
+     */
+    @Operation(summary = "Suscribir receptor", description = "Suscribe un receptor a los canales de notificaciones WebSocket")
+    public void suscribir(MessageListener receptor) {
+        List<ChannelTopic> canales = IntStream.range(0, particiones)
+                .mapToObj(particion -> new ChannelTopic(canal + ":" + particion))
+                .toList();
+        container.addMessageListener(receptor, canales);
+        container.afterPropertiesSet();
+        container.start();
+        log.info("Notificaciones WebSocket suscritas a {} canales {}:*", particiones, canal);
+    }
+
+    /**
+     * Cancela la suscripción al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void detener() throws Exception {
+        container.destroy();
+    }
+
+    /**
+     * @param username Usuario destinatario
+     * @return Canal por el que viajan las notificaciones del usuario
+     */
+    String canal(String username) {
+        return canal + ":" + Math.floorMod(username.hashCode(), particiones);
+    }
+
+    /**
+     * Compone el cuerpo publicado: entidad y usuario en una línea cada uno seguidos del mensaje.
+     *
+     * @param entidad  Entidad del handler
+     * @param username Usuario destinatario
+     * @param mensaje  Mensaje en formato JSON
+     * @return Cuerpo del mensaje de Redis
+     */
+    static String codificar(String entidad, String username, String mensaje) {
+        return entidad + SEPARADOR + username + SEPARADOR + mensaje;
+    }
+
+    /**
+     * Lee un cuerpo publicado por {@link #codificar(String, String, String)}.
+     *
+     * @param cuerpo Cuerpo del mensaje de Redis
+     * @return Notificación recibida
+     * @throws IllegalArgumentException Si el cuerpo no tiene el formato esperado
+     */
+    static Notificacion decodificar(byte[] cuerpo) {
+        String texto = new String(cuerpo, StandardCharsets.UTF_8);
+        int finEntidad = texto.indexOf(SEPARADOR);
+        int finUsuario = finEntidad < 0 ? -1 : texto.indexOf(SEPARADOR, finEntidad + 1);
+        if (finUsuario < 0) {
+            throw new IllegalArgumentException("Notificación WebSocket con formato no válido");
+        }
+        return new Notificacion(texto.substring(0, finEntidad), texto.substring(finEntidad + 1, finUsuario),
+                texto.substring(finUsuario + 1));
+    }
+
+    /**
+     * Notificación recibida del bus.
+     *
+     * @param entidad  Entidad del handler WebSocket por el que se entrega
+     * @param username Usuario destinatario
+     * @param mensaje  Mensaje en formato JSON
+     */
+    record Notificacion(String entidad, String username, String mensaje) {
+    }
+}
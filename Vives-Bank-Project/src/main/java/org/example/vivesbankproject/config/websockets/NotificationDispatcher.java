@@ -0,0 +1,285 @@
+package org.example.vivesbankproject.config.websockets;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Despachador compartido de notificaciones WebSocket.
+ *
+ * <p>
+ * Es el único punto desde el que se invoca {@link WebSocketSender#sendMessageToUser(String, String)}.
+ * Los mensajes se encolan en colas acotadas, una por trabajador, y cada trabajador es un hilo virtual
+ * que las consume en orden. El trabajador se elige a partir del nombre de usuario, de modo que los
+ * mensajes de un mismo usuario se entregan en orden. El handler solo deja cada mensaje en la cola de envío
+ * de cada sesión del usuario, que se vacía en el hilo de la sesión, así que un cliente lento no retiene al
+ * trabajador.
+ * </p>
+ *
+ * <p>
+ * Cuando una cola está llena se descarta la notificación más antigua para dejar sitio a la nueva: una
+ * notificación es un aviso de cambio y la más reciente es la que refleja el estado actual. El número de
+ * hilos no crece con el volumen de notificaciones, por lo que una ráfaga de operaciones no puede agotar
+ * la memoria nativa de la JVM.
+ * </p>
+ *
+ * <p>
+ * Con un {@link NotificationBus} el despachador funciona en clúster: los trabajadores publican cada
+ * notificación en Redis en lugar de entregarla, y las que llegan del bus (publicadas por este u otro nodo)
+ * se encolan para entregarlas solo si el usuario tiene una sesión abierta en este nodo. Si la publicación
+ * falla, la notificación se entrega en las sesiones locales para no perderla también aquí.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+@Tag(name = "NotificationDispatcher", description = "Despachador acotado de notificaciones WebSocket sobre hilos virtuales")
+public class NotificationDispatcher implements MessageListener {
+
+    private final BlockingDeque<Envio>[] colas;
+    private final NotificationBus bus;
+    private final Map<String, WebSocketHandler> handlers;
+    private final Timer latencia;
+    private final Counter descartadas;
+    private final Counter errores;
+    private final Counter publicacionesFallidas;
+    private final Counter recibidasLocales;
+    private final Counter recibidasSinSesion;
+    private ExecutorService executor;
+
+    /**
+     * Crea un despachador que entrega las notificaciones solo en las sesiones de este nodo.
+     *
+     * @param meterRegistry Registro de métricas
+     * @param capacidadCola Número máximo de notificaciones pendientes entre todas las colas
+     * @param trabajadores  Número de hilos virtuales que consumen las colas
+     */
+    public NotificationDispatcher(MeterRegistry meterRegistry, int capacidadCola, int trabajadores) {
+        this(meterRegistry, capacidadCola, trabajadores, null, List.of());
+    }
+
+    /**
+     * Crea el despachador con sus colas y registra las métricas.
+     *
+     * @param meterRegistry Registro de métricas
+     * @param capacidadCola Número máximo de notificaciones pendientes entre todas las colas
+     * @param trabajadores  Número de hilos virtuales que consumen las colas
+     * @param bus           Bus entre nodos por el que se publican las notificaciones, o {@code null} para entregarlas solo en este nodo
+     * @param handlers      Handlers WebSocket de este nodo, para entregar las notificaciones recibidas del bus
+     */
+    @Autowired
+    @SuppressWarnings("unchecked")
+    public NotificationDispatcher(MeterRegistry meterRegistry,
+                                  @Value("${websocket.notificaciones.capacidad-cola:10000}") int capacidadCola,
+                                  @Value("${websocket.notificaciones.trabajadores:8}") int trabajadores,
+                                  NotificationBus bus, List<WebSocketHandler> handlers) {
+        this.bus = bus;
+        this.handlers = handlers.stream()
+                .collect(Collectors.toMap(WebSocketHandler::getEntity, Function.identity()));
+        int capacidadPorCola = Math.max(1, capacidadCola / trabajadores);
+        this.colas = new BlockingDeque[trabajadores];
+        for (int i = 0; i < trabajadores; i++) {
+            colas[i] = new LinkedBlockingDeque<>(capacidadPorCola);
+        }
+        Gauge.builder("websocket.notificaciones.cola", this, NotificationDispatcher::pendientes)
+                .description("Notificaciones WebSocket pendientes de envío")
+                .register(meterRegistry);
+        this.latencia = Timer.builder("websocket.notificaciones.latencia")
+                .description("Tiempo desde que se encola una notificación WebSocket hasta que se envía")
+                .register(meterRegistry);
+        this.descartadas = Counter.builder("websocket.notificaciones.descartadas")
+                .description("Notificaciones WebSocket descartadas por cola llena")
+                .register(meterRegistry);
+        this.errores = Counter.builder("websocket.notificaciones.errores")
+                .description("Notificaciones WebSocket cuyo envío ha fallado")
+                .register(meterRegistry);
+        this.publicacionesFallidas = Counter.builder("websocket.notificaciones.publicacion.fallidas")
+                .description("Notificaciones WebSocket que no se han podido publicar en Redis y se han entregado solo en este nodo")
+                .register(meterRegistry);
+        this.recibidasLocales = recibidas(meterRegistry, "sesion_local");
+        this.recibidasSinSesion = recibidas(meterRegistry, "sin_sesion");
+    }
+
+    /**
+     * Arranca un hilo virtual por cola para consumir las notificaciones.
+     */
+    @PostConstruct
+    @Operation(summary = "Iniciar despachador", description = "Arranca los hilos virtuales que envían las notificaciones encoladas")
+    public void iniciar() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ws-notificaciones-", 0).factory());
+        for (BlockingDeque<Envio> cola : colas) {
+            executor.submit(() -> consumir(cola));
+        }
+        if (bus != null) {
+            bus.suscribir(this);
+        }
+        log.info("Despachador de notificaciones WebSocket iniciado con {} trabajadores", colas.length);
+    }
+
+    /**
+     * Detiene los trabajadores. Las notificaciones pendientes se descartan.
+     */
+    @PreDestroy
+    @Operation(summary = "Detener despachador", description = "Detiene los hilos virtuales del despachador")
+    public void detener() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Encola una notificación para un usuario. Nunca bloquea al llamante: si la cola está llena
+     * se descarta la notificación más antigua.
+     *
+     * @param destino  Handler WebSocket por el que se enviará el mensaje
+     * @param username Nombre del usuario destinatario
+     * @param mensaje  Mensaje en formato JSON
+     */
+    @Operation(summary = "Encolar notificación", description = "Encola una notificación WebSocket para un usuario sin bloquear al llamante")
+    @Parameter(name = "destino", description = "Handler WebSocket por el que se enviará el mensaje", required = true)
+    @Parameter(name = "username", description = "Nombre del usuario destinatario", required = true)
+    @Parameter(name = "mensaje", description = "Mensaje en formato JSON", required = true)
+    public void enviar(WebSocketSender destino, String username, String mensaje) {
+        if (destino == null || username == null) {
+            log.warn("No se ha podido encolar la notificación, falta el handler o el usuario destinatario");
+            return;
+        }
+        encolar(new Envio(destino, username, mensaje, System.nanoTime(), bus != null));
+    }
+
+    /**
+     * Recibe una notificación del bus y la encola para entregarla si el usuario tiene alguna sesión abierta
+     * en este nodo. Se ejecuta en el hilo de la suscripción, así que solo encola.
+     *
+     * @param message Mensaje publicado en el bus
+     * @param pattern Patrón de suscripción
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        NotificationBus.Notificacion notificacion;
+        try {
+            notificacion = NotificationBus.decodificar(message.getBody());
+        } catch (IllegalArgumentException e) {
+            log.warn("Descartada una notificación del bus con formato no válido");
+            return;
+        }
+        WebSocketHandler destino = handlers.get(notificacion.entidad());
+        if (destino == null || !destino.isConectado(notificacion.username())) {
+            recibidasSinSesion.increment();
+            return;
+        }
+        recibidasLocales.increment();
+        encolar(new Envio(destino, notificacion.username(), notificacion.mensaje(), System.nanoTime(), false));
+    }
+
+    private void encolar(Envio envio) {
+        String username = envio.username();
+        BlockingDeque<Envio> cola = colas[Math.floorMod(username.hashCode(), colas.length)];
+        while (!cola.offerLast(envio)) {
+            Envio descartado = cola.pollFirst();
+            if (descartado != null) {
+                descartadas.increment();
+                log.warn("Cola de notificaciones llena, descartada la notificación más antigua para el usuario {}", descartado.username());
+            }
+        }
+    }
+
+    /**
+     * @return Número de notificaciones pendientes de envío
+     */
+    public int pendientes() {
+        return Arrays.stream(colas).mapToInt(BlockingDeque::size).sum();
+    }
+
+    /**
+     * Bucle de un trabajador: envía en orden las notificaciones de su cola hasta que se interrumpe.
+     *
+     * @param cola Cola asignada al trabajador
+     */
+    private void consumir(BlockingDeque<Envio> cola) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Envio envio;
+            try {
+                envio = cola.takeFirst();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                if (envio.publicar()) {
+                    publicar(envio);
+                } else {
+                    envio.destino().sendMessageToUser(envio.username(), envio.mensaje());
+                }
+            } catch (Exception e) {
+                errores.increment();
+                log.error("Error al enviar el mensaje a través del servicio WebSocket", e);
+            } finally {
+                latencia.record(System.nanoTime() - envio.encolado(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Publica una notificación en el bus; si Redis no responde, la entrega en las sesiones de este nodo.
+     *
+     * @param envio Notificación a publicar
+     */
+    private void publicar(Envio envio) throws Exception {
+        if (envio.destino() instanceof WebSocketHandler handler) {
+            try {
+                bus.publicar(handler.getEntity(), envio.username(), envio.mensaje());
+                return;
+            } catch (RuntimeException e) {
+                publicacionesFallidas.increment();
+                log.warn("No se ha podido publicar la notificación para el usuario {} en Redis, se entrega solo en este nodo: {}",
+                        envio.username(), e.getMessage());
+            }
+        }
+        envio.destino().sendMessageToUser(envio.username(), envio.mensaje());
+    }
+
+    private static Counter recibidas(MeterRegistry meterRegistry, String resultado) {
+        return Counter.builder("websocket.notificaciones.recibidas")
+                .description("Notificaciones WebSocket recibidas del bus por este nodo")
+                .tag("resultado", resultado)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Notificación pendiente de envío.
+     *
+     * @param destino  Handler WebSocket por el que se enviará
+     * @param username Usuario destinatario
+     * @param mensaje  Mensaje en formato JSON
+     * @param encolado Instante en nanosegundos en el que se encoló
+     * @param publicar {@code true} si se publica en el bus y {@code false} si se entrega en este nodo
+     */
+    private record Envio(WebSocketSender destino, String username, String mensaje, long encolado, boolean publicar) {
+    }
+}
@@ -19,6 +19,11 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
  * Además, la configuración incluye seguridad mediante interceptores personalizados.
  * </p>
  *
+ * <p>
+ * Los handlers descartan las sesiones cuyo envío tarda más de {@code websocket.sesion.limite-tiempo-envio-ms}
+ * o que acumulan más de {@code websocket.sesion.limite-buffer-bytes} bytes pendientes.
+ * </p>
+ *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
  * @version 1.0-SNAPSHOT
  */
@@ -31,6 +36,12 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Value("${api.version}")
     private String apiVersion;
 
+    @Value("${websocket.sesion.limite-tiempo-envio-ms:10000}")
+    private int limiteTiempoEnvioMs = 10_000;
+
+    @Value("${websocket.sesion.limite-buffer-bytes:524288}")
+    private int limiteBufferBytes = 524_288;
+
     /**
      * Registra los endpoints WebSocket para los recursos de movimientos, tarjetas y cuentas.
      * <p>
@@ -64,7 +75,7 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Bean
     @Operation(summary = "Crear handler para Movimientos", description = "Crea el handler para manejar las operaciones de Movimientos en el WebSocket")
     public WebSocketHandler webSocketMovimientosHandler() {
-        return new WebSocketHandler("Movimientos");
+        return new WebSocketHandler("Movimientos", limiteTiempoEnvioMs, limiteBufferBytes);
     }
 
     /**
@@ -78,7 +89,7 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Bean
     @Operation(summary = "Crear handler para Tarjetas", description = "Crea el handler para manejar las operaciones de Tarjetas en el WebSocket")
     public WebSocketHandler webSocketTarjetasHandler() {
-        return new WebSocketHandler("Tarjetas");
+        return new WebSocketHandler("Tarjetas", limiteTiempoEnvioMs, limiteBufferBytes);
     }
 
     /**
@@ -92,6 +103,6 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Bean
     @Operation(summary = "Crear handler para Cuentas", description = "Crea el handler para manejar las operaciones de Cuentas en el WebSocket")
     public WebSocketHandler webSocketCuentasHandler() {
-        return new WebSocketHandler("Cuentas");
+        return new WebSocketHandler("Cuentas", limiteTiempoEnvioMs, limiteBufferBytes);
     }
 }
\ No newline at end of file
@@ -11,15 +11,16 @@ import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.io.IOException;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * Clase encargada de manejar la lógica de las sesiones WebSocket.
@@ -31,6 +32,16 @@ import java.util.concurrent.CopyOnWriteArraySet;
  * y desconexión.
  * </p>
  *
+ * <p>
+ * Un usuario puede tener varias sesiones abiertas a la vez (por ejemplo, la web y el móvil) y todas reciben
+ * sus mensajes. Cada sesión tiene su propia {@link ColaEnvioSesion} acotada, que vacía un hilo virtual de la
+ * sesión: quien envía (el trabajador del {@link NotificationDispatcher} de ese usuario) solo encola el mensaje
+ * y vuelve, de modo que un cliente que no lee no retiene al trabajador ni a las demás sesiones. Los mensajes
+ * llegan a cada sesión en el orden en que se encolan. La sesión que supera el tiempo de envío o los bytes
+ * pendientes configurados se cierra y se descarta; al cerrarla se libera también el hilo que estuviera
+ * atascado escribiendo en ella.
+ * </p>
+ *
  * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
  * @version 1.0-SNAPSHOT
  */
@@ -39,11 +50,18 @@ import java.util.concurrent.CopyOnWriteArraySet;
 @Tag(name = "WebSocketHandler", description = "Clase para manejar la lógica de conexión y envío de mensajes mediante WebSocket")
 public class WebSocketHandler extends TextWebSocketHandler implements SubProtocolCapable, WebSocketSender {
 
+    private static final int LIMITE_TIEMPO_ENVIO_MS = 10_000;
+    private static final int LIMITE_BUFFER_BYTES = 512 * 1024;
+
     private final String entity;
-    private final Set<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
+    private final int limiteTiempoEnvioMs;
+    private final int limiteBufferBytes;
 
-    // Este mapa almacena la relación entre el nombre de usuario y su sesión de WebSocket.
-    private final Map<String, WebSocketSession> userSessionsMap = new ConcurrentHashMap<>();
+    // Sesiones abiertas, cada una con su cola de envío
+    private final Map<WebSocketSession, ColaEnvioSesion> sessions = new ConcurrentHashMap<>();
+
+    // Este mapa almacena la relación entre el nombre de usuario y sus sesiones de WebSocket.
+    private final Map<String, Set<ColaEnvioSesion>> userSessionsMap = new ConcurrentHashMap<>();
 
     /**
      * Constructor principal para establecer la entidad a la que está asociado este handler.
@@ -51,7 +69,20 @@ public class WebSocketHandler extends TextWebSocketHandler implements SubProtoco
      * @param entity Nombre de la entidad relacionada con el handler.
      */
     public WebSocketHandler(String entity) {
+        this(entity, LIMITE_TIEMPO_ENVIO_MS, LIMITE_BUFFER_BYTES);
+    }
+
+    /**
+     * Crea el handler con los límites de envío de sus sesiones.
+     *
+     * @param entity              Nombre de la entidad relacionada con el handler.
+     * @param limiteTiempoEnvioMs Milisegundos que puede durar un envío a una sesión antes de descartarla.
+     * @param limiteBufferBytes   Bytes pendientes de envío que puede acumular una sesión antes de descartarla.
+     */
+    public WebSocketHandler(String entity, int limiteTiempoEnvioMs, int limiteBufferBytes) {
         this.entity = entity;
+        this.limiteTiempoEnvioMs = limiteTiempoEnvioMs;
+        this.limiteBufferBytes = limiteBufferBytes;
     }
 
     /**
@@ -71,16 +102,18 @@ public class WebSocketHandler extends TextWebSocketHandler implements SubProtoco
 
         // Recuperar el nombre de usuario desde los atributos de la sesión
         String username = (String) session.getAttributes().get("username");
+        ColaEnvioSesion cola = new ColaEnvioSesion(session, limiteTiempoEnvioMs, limiteBufferBytes, this::envioFallido);
 
         if (username != null) {
-            userSessionsMap.put(username, session);
+            userSessionsMap.computeIfAbsent(username, clave -> ConcurrentHashMap.newKeySet()).add(cola);
             log.info("Usuario: " + username + " añadido a mapa de sesiones");
         }
 
-        sessions.add(session);
+        sessions.put(session, cola);
+        cola.iniciar("ws-" + entity + "-" + session.getId());
         TextMessage message = new TextMessage("Updates Web socket: " + entity + " - Vives Bank");
         log.info("Servidor envía: {}", message);
-        session.sendMessage(message);
+        enviar(cola, message);
     }
 
     /**
@@ -94,14 +127,7 @@ public class WebSocketHandler extends TextWebSocketHandler implements SubProtoco
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         log.info("Cerrando la conexión con el servidor: {}", status);
 
-        String username = (String) session.getAttributes().get("username");
-
-        if (username != null) {
-            userSessionsMap.remove(username);
-            log.info("Usuario: {} eliminado del mapa de sesiones", username);
-        }
-
-        sessions.remove(session);
+        descartar(session);
         log.info("Conexión cerrada con el servidor: " + status);
     }
 
@@ -114,13 +140,7 @@ public class WebSocketHandler extends TextWebSocketHandler implements SubProtoco
     @Operation(summary = "Enviar mensaje a todas las sesiones", description = "Envía un mensaje a todas las sesiones activas")
     public void sendMessage(String message) throws IOException {
         log.info("Enviar mensaje de cambios en la entidad: " + entity + " : " + message);
-
-        for (WebSocketSession session : sessions) {
-            if (session.isOpen()) {
-                log.info("Servidor WS envía: " + message);
-                session.sendMessage(new TextMessage(message));
-            }
-        }
+        enviar(sessions.values(), new TextMessage(message));
     }
 
     /**
@@ -135,29 +155,45 @@ public class WebSocketHandler extends TextWebSocketHandler implements SubProtoco
 
         log.info("Enviar mensaje de cambios en la entidad: " + entity + " a usuario: " + username + " : " + message);
 
-        WebSocketSession session = userSessionsMap.get(username);
+        Set<ColaEnvioSesion> sesionesUsuario = userSessionsMap.get(username);
 
-        if (session != null && session.isOpen()) {
-            session.sendMessage(new TextMessage(message));
-            log.info("Servidor WS envía a " + username + " : " + message);
+        if (sesionesUsuario != null && !sesionesUsuario.isEmpty()) {
+            enviar(sesionesUsuario, new TextMessage(message));
+            log.info("Servidor WS envía a " + username + " (" + sesionesUsuario.size() + " sesiones) : " + message);
         } else {
             log.info("Usuario: " + username + " no conectado, no se le envió cambios en la entidad: " + entity);
         }
 
     }
 
+    /**
+     * @return Nombre de la entidad a la que está asociado este handler
+     */
+    public String getEntity() {
+        return entity;
+    }
+
+    /**
+     * Indica si un usuario tiene una sesión abierta en este nodo.
+     *
+     * @param username Nombre de usuario
+     * @return {@code true} si el usuario tiene una sesión abierta en este handler
+     */
+    public boolean isConectado(String username) {
+        Set<ColaEnvioSesion> sesionesUsuario = userSessionsMap.get(username);
+        return sesionesUsuario != null && sesionesUsuario.stream().anyMatch(ColaEnvioSesion::isOpen);
+    }
+
     /**
      * Envía mensajes periódicos a todas las sesiones activas cada segundo.
      */
     @Scheduled(fixedRate = 1000)
     @Operation(summary = "Enviar mensajes periódicos", description = "Envía un mensaje periódico a todas las sesiones cada segundo")
     public void sendPeriodicMessages() throws IOException {
-        for (WebSocketSession session : sessions) {
-            if (session.isOpen()) {
-                String broadcast = "Mensaje periódico del servidor: " + LocalTime.now();
-                session.sendMessage(new TextMessage(broadcast));
-                log.info("Mensaje periódico enviado: {}", broadcast);
-            }
+        if (!sessions.isEmpty()) {
+            String broadcast = "Mensaje periódico del servidor: " + LocalTime.now();
+            enviar(sessions.values(), new TextMessage(broadcast));
+            log.info("Mensaje periódico enviado: {}", broadcast);
         }
     }
 
@@ -178,4 +214,77 @@ public class WebSocketHandler extends TextWebSocketHandler implements SubProtoco
         return List.of("subprotocol.demo.websocket");
     }
 
-}
\ No newline at end of file
+    /**
+     * Encola el mismo mensaje en varias sesiones.
+     *
+     * @param destinos Sesiones destinatarias
+     * @param message  Mensaje a enviar
+     */
+    private void enviar(Collection<ColaEnvioSesion> destinos, TextMessage message) {
+        for (ColaEnvioSesion cola : destinos) {
+            enviar(cola, message);
+        }
+    }
+
+    /**
+     * Encola un mensaje en una sesión sin esperar a que se escriba. Si la sesión supera sus límites se
+     * cierra y se descarta.
+     *
+     * @param cola    Cola de envío de la sesión destinataria
+     * @param message Mensaje a enviar
+     */
+    private void enviar(ColaEnvioSesion cola, TextMessage message) {
+        if (!cola.isOpen()) {
+            return;
+        }
+        try {
+            cola.encolar(message);
+        } catch (SessionLimitExceededException e) {
+            log.warn("Sesión WebSocket {} de {} descartada por cliente lento: {}", cola.getSession().getId(), entity, e.getMessage());
+            cerrar(cola, e.getStatus());
+        }
+    }
+
+    /**
+     * Cierra y descarta la sesión cuya escritura ha fallado. Se invoca desde el hilo de la sesión.
+     *
+     * @param cola  Cola de envío de la sesión
+     * @param error Error de la escritura
+     */
+    private void envioFallido(ColaEnvioSesion cola, Exception error) {
+        log.warn("Error al enviar por la sesión WebSocket {} de {}, se descarta: {}", cola.getSession().getId(), entity, error.getMessage());
+        cerrar(cola, CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    private void cerrar(ColaEnvioSesion cola, CloseStatus status) {
+        descartar(cola.getSession());
+        try {
+            cola.getSession().close(status);
+        } catch (IOException e) {
+            log.debug("Error al cerrar la sesión WebSocket {}: {}", cola.getSession().getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Quita una sesión de las sesiones abiertas y de las de su usuario y detiene su cola de envío.
+     *
+     * @param session Sesión original
+     */
+    private void descartar(WebSocketSession session) {
+        ColaEnvioSesion cola = sessions.remove(session);
+        if (cola == null) {
+            return;
+        }
+        cola.detener();
+        String username = (String) session.getAttributes().get("username");
+
+        if (username != null) {
+            userSessionsMap.computeIfPresent(username, (clave, sesionesUsuario) -> {
+                sesionesUsuario.remove(cola);
+                return sesionesUsuario.isEmpty() ? null : sesionesUsuario;
+            });
+            log.info("Sesión del usuario: {} eliminada del mapa de sesiones", username);
+        }
+    }
+
+}
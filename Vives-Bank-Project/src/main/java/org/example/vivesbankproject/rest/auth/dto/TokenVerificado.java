@@ -0,0 +1,44 @@
+package org.example.vivesbankproject.rest.auth.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+/**
+ * Resultado de verificar la firma de un token JWT: el usuario al que pertenece y cuándo caduca.
+ * Es lo único que se conserva de un token ya verificado, de modo que las siguientes peticiones con el
+ * mismo token no repiten la verificación RSA.
+ *
+ * @param username   Nombre de usuario (subject) del token
+ * @param expiracion Instante de caducidad del token, o {@code null} si no tiene
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Schema(description = "Token JWT cuya firma ya se ha verificado")
+public record TokenVerificado(
+        @Schema(description = "Nombre de usuario del token", example = "userName")
+        String username,
+        @Schema(description = "Instante de caducidad del token", example = "2024-12-09T14:30:00Z")
+        Instant expiracion
+) {
+
+    /**
+     * Indica si el token ha caducado en un instante dado.
+     *
+     * @param ahora Instante de referencia
+     * @return true si el token ya no es válido en ese instante
+     */
+    public boolean caducado(Instant ahora) {
+        return expiracion != null && !expiracion.isAfter(ahora);
+    }
+
+    /**
+     * Indica si el token pertenece al usuario indicado y todavía no ha caducado.
+     *
+     * @param usuario Nombre de usuario
+     * @return true si el token es válido para ese usuario
+     */
+    public boolean esValidoPara(String usuario) {
+        return username != null && username.equals(usuario) && !caducado(Instant.now());
+    }
+}
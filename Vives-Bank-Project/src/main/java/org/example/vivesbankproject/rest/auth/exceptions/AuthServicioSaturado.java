@@ -0,0 +1,28 @@
+package org.example.vivesbankproject.rest.auth.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción que se lanza cuando no se puede atender un registro o inicio de sesión porque todos los hilos
+ * que calculan los hashes de las contraseñas están ocupados y su cola de espera está llena.
+ * <p>
+ * Se responde al momento con un 429 para que el cliente reintente más tarde, en lugar de dejar la petición
+ * esperando y ocupando un hilo del servidor.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class AuthServicioSaturado extends AuthException {
+
+    /**
+     * Constructor de la excepción para el servicio de autenticación saturado.
+     *
+     * @param message Mensaje detallado que describe el error.
+     */
+    public AuthServicioSaturado(String message) {
+        super(message);
+    }
+}
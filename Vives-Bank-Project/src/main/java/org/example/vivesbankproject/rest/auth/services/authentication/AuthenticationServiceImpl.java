@@ -21,7 +21,6 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -59,18 +58,19 @@ public class AuthenticationServiceImpl implements AuthenticationService {
      * Registra un nuevo usuario en el sistema.
      * <p>
      * Este método verifica si las contraseñas coinciden, codifica la contraseña, guarda el usuario en la base de datos
-     * y devuelve un token JWT para el nuevo usuario registrado.
+     * y devuelve un token JWT para el nuevo usuario registrado. El hash de la contraseña se calcula antes de abrir
+     * la transacción de guardado, para no retener una conexión de la base de datos mientras espera su turno.
      * </p>
      *
      * @param request Detalles de la solicitud de registro, incluyendo nombre de usuario, contraseña y confirmación.
      * @return JwtAuthResponse Respuesta con el token JWT generado tras el registro exitoso.
      */
     @Override
-    @Transactional
     @Operation(summary = "Registrar un nuevo usuario en el sistema", description = "Este endpoint registra un nuevo usuario si las credenciales son válidas.", responses = {
             @ApiResponse(responseCode = "200", description = "Usuario creado exitosamente",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = JwtAuthResponse.class))),
-            @ApiResponse(responseCode = "400", description = "El usuario ya existe en la base de datos o las contraseñas no coinciden")
+            @ApiResponse(responseCode = "400", description = "El usuario ya existe en la base de datos o las contraseñas no coinciden"),
+            @ApiResponse(responseCode = "429", description = "Demasiadas peticiones de autenticación en curso")
     })
     public JwtAuthResponse signUp(UserSignUpRequest request) {
         log.info("Creando usuario: {}", request);
@@ -106,7 +106,8 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     @Operation(summary = "Autenticar usuario", description = "Este endpoint autentica las credenciales de un usuario para iniciar sesión.", responses = {
             @ApiResponse(responseCode = "200", description = "Inicio de sesión exitoso con un token válido",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = JwtAuthResponse.class))),
-            @ApiResponse(responseCode = "401", description = "Usuario o contraseña incorrectos")
+            @ApiResponse(responseCode = "401", description = "Usuario o contraseña incorrectos"),
+            @ApiResponse(responseCode = "429", description = "Demasiadas peticiones de autenticación en curso")
     })
     public JwtAuthResponse signIn(UserSignInRequest request) {
         log.info("Autenticando usuario: {}", request);
@@ -0,0 +1,177 @@
+package org.example.vivesbankproject.rest.auth.services.authentication;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.auth.exceptions.AuthServicioSaturado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Codificador de contraseñas BCrypt que calcula los hashes en un grupo de hilos propio y acotado.
+ * <p>
+ * Cada hash BCrypt ocupa un núcleo durante decenas de milisegundos, así que en un pico de inicios de sesión
+ * (o un ataque de relleno de credenciales) calcularlos en los hilos del servidor deja sin hilos al resto de
+ * la API. Aquí solo se calculan a la vez tantos hashes como hilos tiene el grupo y, cuando además la cola de
+ * espera está llena, la petición se rechaza al momento con {@link AuthServicioSaturado} (429).
+ * </p>
+ * <p>
+ * El coste de BCrypt es configurable; al subirlo, {@link #upgradeEncoding(String)} indica qué hashes se
+ * generaron con un coste menor para que se vuelvan a calcular al iniciar sesión.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class BCryptPasswordHasher implements PasswordEncoder {
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor ejecutor;
+    private final Timer espera;
+    private final Timer codificacion;
+    private final Timer comprobacion;
+    private final Counter rechazadas;
+
+    /**
+     * Crea el codificador con su grupo de hilos.
+     *
+     * @param coste         Coste (log2 de las rondas) de los hashes nuevos
+     * @param hilos         Hashes que se calculan a la vez (0 para usar todos los núcleos)
+     * @param cola          Hashes que pueden esperar turno antes de rechazar las peticiones
+     * @param meterRegistry Registro de métricas
+     */
+    @Autowired
+    public BCryptPasswordHasher(@Value("${seguridad.bcrypt.coste:10}") int coste,
+                                @Value("${seguridad.bcrypt.hilos:0}") int hilos,
+                                @Value("${seguridad.bcrypt.cola:64}") int cola,
+                                MeterRegistry meterRegistry) {
+        this(new BCryptPasswordEncoder(coste), hilos, cola, meterRegistry);
+    }
+
+    BCryptPasswordHasher(PasswordEncoder delegado, int hilos, int cola, MeterRegistry meterRegistry) {
+        this.delegado = delegado;
+        int tamano = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = new ThreadPoolExecutor(tamano, tamano, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, cola)),
+                tarea -> new Thread(tarea, "bcrypt-" + contador.getAndIncrement()),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.espera = Timer.builder("auth.bcrypt.espera")
+                .description("Tiempo que espera un hash de contraseña en la cola antes de calcularse")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.codificacion = duracion(meterRegistry, "codificar");
+        this.comprobacion = duracion(meterRegistry, "comprobar");
+        this.rechazadas = Counter.builder("auth.bcrypt.rechazadas")
+                .description("Peticiones rechazadas por tener la cola de hashes llena")
+                .register(meterRegistry);
+        Gauge.builder("auth.bcrypt.cola", ejecutor, e -> e.getQueue().size())
+                .description("Hashes de contraseñas esperando un hilo libre")
+                .register(meterRegistry);
+        Gauge.builder("auth.bcrypt.activos", ejecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Hashes de contraseñas calculándose en este momento")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Calcula el hash de una contraseña en el grupo de hilos.
+     *
+     * @param rawPassword Contraseña en claro
+     * @return Hash BCrypt de la contraseña
+     * @throws AuthServicioSaturado Si la cola de hashes está llena
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(codificacion, () -> delegado.encode(rawPassword));
+    }
+
+    /**
+     * Comprueba una contraseña contra su hash en el grupo de hilos.
+     *
+     * @param rawPassword     Contraseña en claro
+     * @param encodedPassword Hash guardado
+     * @return {@code true} si la contraseña corresponde al hash
+     * @throws AuthServicioSaturado Si la cola de hashes está llena
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(comprobacion, () -> delegado.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Indica si un hash se generó con un coste menor que el configurado. Solo lee la cabecera del hash, así
+     * que se resuelve en el hilo que llama.
+     *
+     * @param encodedPassword Hash guardado
+     * @return {@code true} si conviene volver a calcular el hash
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Detiene el grupo de hilos al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    private <T> T ejecutar(Timer duracion, Callable<T> hash) {
+        long encolado = System.nanoTime();
+        Future<T> resultado;
+        try {
+            resultado = ejecutor.submit(() -> {
+                espera.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return duracion.recordCallable(hash);
+            });
+        } catch (RejectedExecutionException e) {
+            rechazadas.increment();
+            log.warn("Cola de hashes de contraseñas llena ({} en espera), rechazando la petición", ejecutor.getQueue().size());
+            throw new AuthServicioSaturado("Hay demasiadas peticiones de autenticación en curso, inténtelo de nuevo en unos segundos");
+        }
+
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthServicioSaturado("Se ha interrumpido la espera del hash de la contraseña");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Timer duracion(MeterRegistry meterRegistry, String operacion) {
+        return Timer.builder("auth.bcrypt.duracion")
+                .description("Tiempo de cálculo de un hash de contraseña")
+                .tag("operacion", operacion)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.vivesbankproject.rest.auth.services.authentication;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.users.models.User;
+import org.example.vivesbankproject.rest.users.repositories.UserRepository;
+import org.example.vivesbankproject.rest.users.services.UserPrincipalResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Guarda el nuevo hash de la contraseña de un usuario cuando el proveedor de autenticación lo recalcula al
+ * iniciar sesión, por ejemplo porque se generó con un coste de BCrypt menor que el configurado. El usuario
+ * no nota nada: su contraseña es la misma y el hash se actualiza con la que acaba de presentar.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Service
+@Slf4j
+public class PasswordUpgradeService implements UserDetailsPasswordService {
+
+    private final UserRepository userRepository;
+
+    @Autowired
+    public PasswordUpgradeService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Sustituye el hash de la contraseña del usuario autenticado y descarta su principal de la caché
+     * {@value UserPrincipalResolver#CACHE}, para que la siguiente petición lo cargue de nuevo.
+     *
+     * @param user        Usuario que acaba de iniciar sesión
+     * @param newPassword Hash recalculado de su contraseña
+     * @return El usuario con el nuevo hash
+     */
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = UserPrincipalResolver.CACHE, key = "#user.username")
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        log.info("Actualizando el hash de la contraseña del usuario: {}", user.getUsername());
+        userRepository.updatePasswordByUsername(user.getUsername(), newPassword);
+        if (user instanceof User usuario) {
+            usuario.setPassword(newPassword);
+        }
+        return user;
+    }
+}
@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.example.vivesbankproject.rest.auth.dto.TokenVerificado;
 import org.springframework.security.core.userdetails.UserDetails;
 
 /**
@@ -31,6 +32,20 @@ public interface JwtService {
     })
     String extractUserName(String token);
 
+    /**
+     * Verifica la firma y la caducidad de un token JWT. Un mismo token solo se verifica una vez mientras
+     * siga en la caché de tokens verificados.
+     *
+     * @param token Token JWT que se verificará.
+     * @return Usuario y caducidad del token.
+     * @throws com.auth0.jwt.exceptions.JWTVerificationException si el token no es válido o ha caducado.
+     */
+    @Operation(summary = "Verificar un token JWT", description = "Este método verifica el token JWT proporcionado y devuelve su usuario y su caducidad.", responses = {
+            @ApiResponse(responseCode = "200", description = "Token verificado"),
+            @ApiResponse(responseCode = "401", description = "Token inválido")
+    })
+    TokenVerificado verifyToken(String token);
+
     /**
      * Genera un token JWT para el usuario proporcionado.
      *
@@ -1,11 +1,13 @@
 package org.example.vivesbankproject.rest.auth.services.jwt;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.auth.dto.TokenVerificado;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
@@ -17,7 +19,6 @@ import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 
 import org.springframework.core.io.Resource;
 import org.springframework.util.StreamUtils;
@@ -30,6 +31,11 @@ import java.security.spec.X509EncodedKeySpec;
 /**
  * Implementation of the JwtService interface, responsible for JWT token operations like creation, validation,
  * and extraction of user information. Uses RSA-based keys for security.
+ * <p>
+ * The RSA algorithm and the verifier are built once at startup and shared by every request (both are
+ * thread-safe). Each token is verified a single time: the result is kept in {@link TokenVerificadoCache}
+ * until the token expires, so later requests with the same token skip the RSA signature check.
+ * </p>
  *  @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
  *  @version 1.0-SNAPSHOT
  */
@@ -41,20 +47,27 @@ public class JwtServiceImpl implements JwtService {
     @Value("${jwt.expiration:86400}")
     private Long jwtExpiration;
 
-    private final RSAPrivateKey privateKey;
-    private final RSAPublicKey publicKey;
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+    private final TokenVerificadoCache tokenVerificadoCache;
 
     /**
-     * Constructor to initialize RSA private and public keys from specified resources.
+     * Constructor to initialize RSA private and public keys from specified resources and build the
+     * shared verifier.
      *
      * @param privateKeyResource Path to the RSA private key file.
      * @param publicKeyResource Path to the RSA public key file.
+     * @param tokenVerificadoCache Cache of already verified tokens.
      * @throws Exception if there is an issue with key loading or parsing.
      */
     public JwtServiceImpl(@Value("classpath:private_key_pkcs8.pem") Resource privateKeyResource,
-                          @Value("classpath:public_key.pem") Resource publicKeyResource) throws Exception {
-        this.privateKey = loadPrivateKey(privateKeyResource);
-        this.publicKey = loadPublicKey(publicKeyResource);
+                          @Value("classpath:public_key.pem") Resource publicKeyResource,
+                          TokenVerificadoCache tokenVerificadoCache) throws Exception {
+        RSAPrivateKey privateKey = loadPrivateKey(privateKeyResource);
+        RSAPublicKey publicKey = loadPublicKey(publicKeyResource);
+        this.algorithm = Algorithm.RSA256(publicKey, privateKey);
+        this.verifier = JWT.require(algorithm).build();
+        this.tokenVerificadoCache = tokenVerificadoCache;
     }
 
     /**
@@ -100,8 +113,16 @@ public class JwtServiceImpl implements JwtService {
             description = "Extracts the username (subject) from the provided JWT token.")
     @ApiResponse(responseCode = "200", description = "Username extracted successfully")
     public String extractUserName(String token) {
-        log.info("Extracting username from token " + token);
-        return extractClaim(token, DecodedJWT::getSubject);
+        return verifyToken(token).username();
+    }
+
+    @Override
+    @Operation(summary = "Verify JWT token",
+            description = "Verifies the signature and expiration of the provided JWT token once and caches the result.")
+    @ApiResponse(responseCode = "200", description = "Token verified")
+    @ApiResponse(responseCode = "401", description = "Invalid token or expired token")
+    public TokenVerificado verifyToken(String token) {
+        return tokenVerificadoCache.get(token, this::verify);
     }
 
     @Override
@@ -119,25 +140,19 @@ public class JwtServiceImpl implements JwtService {
     @ApiResponse(responseCode = "200", description = "Token is valid")
     @ApiResponse(responseCode = "401", description = "Invalid token or expired token")
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        log.info("Validating token " + token + " for user " + userDetails.getUsername());
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return verifyToken(token).esValidoPara(userDetails.getUsername());
     }
 
     /**
-     * Extracts a claim from the provided JWT token using a given resolver function.
+     * Decodes and verifies a JWT token with the shared verifier. Only called on a cache miss.
      *
-     * @param token            JWT token to decode.
-     * @param claimsResolvers Function to resolve the desired claim from the token's decoded claims.
-     * @param <T>              Type of the claim expected to extract.
-     * @return Extracted claim value.
+     * @param token JWT token to verify.
+     * @return Subject and expiration of the token.
      */
-    private <T> T extractClaim(String token, Function<DecodedJWT, T> claimsResolvers) {
-        log.info("Extracting claim from token " + token);
-        final DecodedJWT decodedJWT = JWT.require(Algorithm.RSA256(publicKey, privateKey))
-                .build()
-                .verify(token);
-        return claimsResolvers.apply(decodedJWT);
+    private TokenVerificado verify(String token) {
+        log.debug("Verifying token signature");
+        final DecodedJWT decodedJWT = verifier.verify(token);
+        return new TokenVerificado(decodedJWT.getSubject(), decodedJWT.getExpiresAtAsInstant());
     }
 
     /**
@@ -148,7 +163,6 @@ public class JwtServiceImpl implements JwtService {
      * @return Generated JWT token as a string.
      */
     private String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        Algorithm algorithm = Algorithm.RSA256(publicKey, privateKey);
         Date now = new Date();
         Date expirationDate = new Date(now.getTime() + (1000 * jwtExpiration));
 
@@ -161,27 +175,6 @@ public class JwtServiceImpl implements JwtService {
                 .sign(algorithm);
     }
 
-    /**
-     * Checks whether the token is expired.
-     *
-     * @param token JWT token.
-     * @return true if expired, false otherwise.
-     */
-    private boolean isTokenExpired(String token) {
-        Date expirationDate = extractExpiration(token);
-        return expirationDate.before(new Date());
-    }
-
-    /**
-     * Extracts expiration date from a JWT token.
-     *
-     * @param token JWT token.
-     * @return Expiration date from token's claims.
-     */
-    private Date extractExpiration(String token) {
-        return extractClaim(token, DecodedJWT::getExpiresAt);
-    }
-
     /**
      * Creates the JWT token header.
      *
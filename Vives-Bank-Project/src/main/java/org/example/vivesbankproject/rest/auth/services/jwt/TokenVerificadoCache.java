@@ -0,0 +1,114 @@
+package org.example.vivesbankproject.rest.auth.services.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.auth.dto.TokenVerificado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Caché local de tokens JWT ya verificados.
+ * <p>
+ * Guarda, por el hash SHA-256 del token (nunca el token en claro), el usuario y la caducidad obtenidos al
+ * verificar su firma. Cada entrada caduca con el propio token, o antes si se alcanza la caducidad máxima
+ * configurada, y el número de entradas está acotado. Los tokens que no superan la verificación no se
+ * guardan. La caché es de cada nodo: verificar un token solo depende de la clave pública, así que no hay
+ * nada que invalidar entre nodos.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class TokenVerificadoCache {
+
+    private final Cache<String, TokenVerificado> tokens;
+
+    @Autowired
+    public TokenVerificadoCache(@Value("${jwt.cache.tamano-maximo:100000}") long tamanoMaximo,
+                                @Value("${jwt.cache.ttl-maximo-segundos:600}") long ttlMaximoSegundos,
+                                MeterRegistry registry) {
+        this(tamanoMaximo, Duration.ofSeconds(ttlMaximoSegundos), Ticker.systemTicker());
+        CaffeineCacheMetrics.monitor(registry, tokens, "jwt_tokens_verificados");
+    }
+
+    TokenVerificadoCache(long tamanoMaximo, Duration ttlMaximo, Ticker ticker) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfter(new CaducidadDelToken(ttlMaximo))
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Obtiene un token verificado, verificándolo solo si no está en la caché.
+     *
+     * @param token     Token JWT
+     * @param verificar Verificación del token; las excepciones que lance se propagan y el token no se guarda
+     * @return El token verificado
+     */
+    public TokenVerificado get(String token, Function<String, TokenVerificado> verificar) {
+        return tokens.get(hash(token), clave -> verificar.apply(token));
+    }
+
+    /**
+     * Número de tokens guardados. Solo se utiliza en las pruebas y métricas.
+     *
+     * @return Número aproximado de entradas
+     */
+    public long size() {
+        return tokens.estimatedSize();
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Todas las JVM tienen que implementar SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Caducidad de cada entrada: la del token, limitada a la caducidad máxima.
+     */
+    private record CaducidadDelToken(Duration ttlMaximo) implements Expiry<String, TokenVerificado> {
+
+        @Override
+        public long expireAfterCreate(String clave, TokenVerificado token, long ahora) {
+            Duration ttl = ttlMaximo;
+            if (token.expiracion() != null) {
+                Duration restante = Duration.between(Instant.now(), token.expiracion());
+                ttl = restante.compareTo(ttl) < 0 ? restante : ttl;
+            }
+            return Math.max(0, ttl.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String clave, TokenVerificado token, long ahora, long duracionActual) {
+            return expireAfterCreate(clave, token, ahora);
+        }
+
+        @Override
+        public long expireAfterRead(String clave, TokenVerificado token, long ahora, long duracionActual) {
+            return duracionActual;
+        }
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -89,4 +91,16 @@ public interface ClienteRepository extends JpaRepository<Cliente, Long>, JpaSpec
             required = true
     )
     Optional<Cliente> findByUserGuid(String userGuid);
+
+    /**
+     * Recupera en una única consulta los clientes con los GUID indicados.
+     *
+     * @param guids Los GUID de los clientes.
+     * @return Los clientes encontrados; los GUID sin cliente no aparecen.
+     */
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Busca en una única consulta los clientes con los GUID indicados",
+            required = true
+    )
+    List<Cliente> findByGuidIn(Collection<String> guids);
 }
\ No newline at end of file
@@ -21,13 +21,14 @@ import org.example.vivesbankproject.rest.cuenta.mappers.TipoCuentaMapper;
 import org.example.vivesbankproject.rest.cuenta.models.TipoCuenta;
 import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
 import org.example.vivesbankproject.rest.cuenta.repositories.TipoCuentaRepository;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
 import org.example.vivesbankproject.rest.storage.images.services.StorageImagesService;
 import org.example.vivesbankproject.rest.tarjeta.models.TipoTarjeta;
 import org.example.vivesbankproject.rest.tarjeta.repositories.TarjetaRepository;
 import org.example.vivesbankproject.rest.users.exceptions.UserNotFoundById;
 import org.example.vivesbankproject.rest.users.models.User;
 import org.example.vivesbankproject.rest.users.repositories.UserRepository;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.example.vivesbankproject.rest.users.services.UserPrincipalResolver;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
@@ -35,7 +36,6 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.*;
@@ -58,20 +58,20 @@ public class ClienteServiceImpl implements ClienteService {
     private final StorageImagesService storageImagesService;
     private final TarjetaRepository tarjetaRepository;
     private final CuentaRepository cuentaRepository;
-    private final RedisTemplate<String, String> redisTemplate;
     private final TipoCuentaRepository tipoCuentaRepository;
     private final TipoCuentaMapper tipoCuentaMapper;
+    private final CuentaUsuarioResolver cuentaUsuarioResolver;
 
-    public ClienteServiceImpl(ClienteRepository clienteRepository, ClienteMapper clienteMapper, UserRepository userRepository, StorageImagesService storageImagesService, TarjetaRepository tarjetaRepository, CuentaRepository cuentaRepository, @Qualifier("stringRedisTemplate") RedisTemplate<String, String> redisTemplate, TipoCuentaRepository tipoCuentaRepository, TipoCuentaMapper tipoCuentaMapper) {
+    public ClienteServiceImpl(ClienteRepository clienteRepository, ClienteMapper clienteMapper, UserRepository userRepository, StorageImagesService storageImagesService, TarjetaRepository tarjetaRepository, CuentaRepository cuentaRepository, TipoCuentaRepository tipoCuentaRepository, TipoCuentaMapper tipoCuentaMapper, CuentaUsuarioResolver cuentaUsuarioResolver) {
         this.clienteRepository = clienteRepository;
         this.clienteMapper = clienteMapper;
         this.userRepository = userRepository;
         this.storageImagesService = storageImagesService;
         this.cuentaRepository = cuentaRepository;
         this.tarjetaRepository = tarjetaRepository;
-        this.redisTemplate = redisTemplate;
         this.tipoCuentaRepository = tipoCuentaRepository;
         this.tipoCuentaMapper = tipoCuentaMapper;
+        this.cuentaUsuarioResolver = cuentaUsuarioResolver;
     }
     /**
      * Obtiene una lista de clientes aplicando filtros opcionales.
@@ -168,7 +168,7 @@ public class ClienteServiceImpl implements ClienteService {
     @Operation(summary = "Guardar un nuevo cliente", description = "Crea un nuevo cliente con la información proporcionada")
     @ApiResponse(responseCode = "201", description = "Cliente creado exitosamente")
     @ApiResponse(responseCode = "400", description = "Usuario ya asignado a otro cliente")
-    @CachePut
+    @CachePut(key = "#result.guid")
     public ClienteResponse save( @Parameter(description = "Información para crear el cliente", required = true) ClienteRequestSave clienteRequestSave) {
         log.info("Guardando cliente");
         // Buscamos si existe algún cliente con el usuario adjunto ya asignado
@@ -212,7 +212,7 @@ public class ClienteServiceImpl implements ClienteService {
      */
 
     @Override
-    @CachePut
+    @CachePut(key = "#id")
     @Operation(summary = "Update Client Information",
             description = "Updates a client's information, including email, phone, and user association.")
     @ApiResponses(value = {
@@ -278,6 +278,7 @@ public class ClienteServiceImpl implements ClienteService {
         );
         cliente.setIsDeleted(true);
         clienteRepository.save(cliente);
+        cuentaUsuarioResolver.invalidarCliente(id);
     }
 
     /**
@@ -327,7 +328,7 @@ public class ClienteServiceImpl implements ClienteService {
      */
 
     @Override
-    @CachePut
+    @CachePut(key = "#guid")
     @Operation(summary = "Update authenticated user's information", description = "Allows an authenticated user to update their phone number, email, or address if applicable.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User data updated successfully"),
@@ -384,7 +385,7 @@ public class ClienteServiceImpl implements ClienteService {
     @Operation(summary = "Ejecutar derecho al olvido", description = "Elimina la información personal del cliente en la base de datos")
     @ApiResponse(responseCode = "200", description = "Derecho al olvido ejecutado correctamente")
     @ApiResponse(responseCode = "404", description = "Cliente no encontrado")
-    @CacheEvict(value = {"cliente", "usuario", "cuenta", "tarjeta"}, allEntries = true)
+    @CacheEvict(value = {"cliente", "usuario", "cuenta", "tarjeta", CuentaUsuarioResolver.CACHE, UserPrincipalResolver.CACHE}, allEntries = true)
     public String derechoAlOlvido( @Parameter(description = "GUID del usuario para ejecutar derecho al olvido", required = true) String userGuid) {
         User usuario = userRepository.findByGuid(userGuid).orElseThrow(
                 () -> new UserNotFoundById(userGuid)
@@ -405,11 +406,6 @@ public class ClienteServiceImpl implements ClienteService {
         tarjetaRepository.flush();
         cuentaRepository.flush();
 
-        clearCacheByPrefix("clientes");
-        clearCacheByPrefix("usuarios");
-        clearCacheByPrefix("cuentas");
-        clearCacheByPrefix("tarjetas");
-
         return "El cliente con guid '" + cliente.getGuid() + "' ejerció su derecho al olvido borrando todos sus datos personales";
     }
 
@@ -450,7 +446,7 @@ public class ClienteServiceImpl implements ClienteService {
      * @throws ClienteNotFound Si el cliente no existe en la base de datos.
      */
 
-    @CachePut
+    @CachePut(key = "#id")
     @Override
     @Operation(summary = "Update Cliente DNI Photo", description = "Updates the DNI photo of the specified client.")
     @ApiResponses(value = {
@@ -484,7 +480,7 @@ public class ClienteServiceImpl implements ClienteService {
      * @throws ClienteNotFound Si el cliente no existe en la base de datos.
      */
 
-    @CachePut
+    @CachePut(key = "#id")
     @Override
     @Operation(summary = "Update Cliente Profile Photo", description = "Updates the profile photo of the specified client.")
     @ApiResponses(value = {
@@ -534,18 +530,5 @@ public class ClienteServiceImpl implements ClienteService {
                 .tiposCuentas(tiposCuentasResponse)
                 .build();
     }
-    /**
-     * Limpia la caché de Redis para las claves que coincidan con un prefijo específico.
-     *
-     * @param cachePrefix Prefijo de las claves que se desean eliminar de la caché de Redis.
-     */
-
-    @Operation(summary = "Clear Cache", description = "Clears the Redis cache by specific prefix.")
-    private void clearCacheByPrefix(@Parameter(description = "Cache prefix to match and clear", required = true) String cachePrefix) {
-        Set<String> keys = redisTemplate.keys(cachePrefix + "::" + "*");
-        if (!keys.isEmpty()) {
-            redisTemplate.delete(keys);
-        }
-    }
 
 }
\ No newline at end of file
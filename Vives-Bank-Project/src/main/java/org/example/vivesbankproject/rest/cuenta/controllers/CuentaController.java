@@ -12,17 +12,22 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaRequest;
 import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaRequestUpdate;
 import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaResponse;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.SaldoDiarioResponse;
 import org.example.vivesbankproject.rest.cuenta.models.Cuenta;
 import org.example.vivesbankproject.rest.cuenta.services.CuentaService;
+import org.example.vivesbankproject.rest.cuenta.services.SaldoDiarioService;
+import org.example.vivesbankproject.rest.users.models.User;
 import org.example.vivesbankproject.utils.pagination.PageResponse;
 import org.example.vivesbankproject.utils.pagination.PaginationLinksUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -30,8 +35,10 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -51,11 +58,13 @@ import java.util.Optional;
 public class CuentaController {
     private final CuentaService cuentaService;
     private final PaginationLinksUtils paginationLinksUtils;
+    private final SaldoDiarioService saldoDiarioService;
 
     @Autowired
-    public CuentaController(CuentaService cuentaService, PaginationLinksUtils paginationLinksUtils) {
+    public CuentaController(CuentaService cuentaService, PaginationLinksUtils paginationLinksUtils, SaldoDiarioService saldoDiarioService) {
         this.cuentaService = cuentaService;
         this.paginationLinksUtils = paginationLinksUtils;
+        this.saldoDiarioService = saldoDiarioService;
     }
 
     /**
@@ -145,6 +154,61 @@ public class CuentaController {
     public ResponseEntity<CuentaResponse> getByIban(@PathVariable String iban) {
         return ResponseEntity.ok(cuentaService.getByIban(iban));
     }
+
+    /**
+     * Obtiene el saldo de una cuenta día a día entre dos fechas.
+     *
+     * @param iban  IBAN de la cuenta
+     * @param desde Primer día, incluido
+     * @param hasta Último día, incluido
+     * @return Saldo de apertura y cierre, ingresos, cargos y operaciones de cada día
+     */
+    @Operation(summary = "Obtiene el histórico de saldos de una cuenta", description = "Devuelve el saldo de la cuenta día a día entre dos fechas.")
+    @Parameters({
+            @Parameter(name = "desde", description = "Primer día (ISO 8601)", example = "2024-12-01", required = true),
+            @Parameter(name = "hasta", description = "Último día (ISO 8601)", example = "2024-12-31", required = true)
+    })
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Histórico de saldos de la cuenta"),
+            @ApiResponse(responseCode = "400", description = "Intervalo de fechas no válido"),
+            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada por IBAN")
+    })
+    @GetMapping("/iban/{iban}/saldos")
+    public ResponseEntity<List<SaldoDiarioResponse>> getHistoricoSaldos(
+            @PathVariable String iban,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(saldoDiarioService.getHistorico(iban, desde, hasta));
+    }
+
+    /**
+     * Obtiene el saldo día a día de una cuenta del usuario autenticado.
+     *
+     * @param user  Usuario autenticado
+     * @param iban  IBAN de la cuenta
+     * @param desde Primer día, incluido
+     * @param hasta Último día, incluido
+     * @return Saldo de apertura y cierre, ingresos, cargos y operaciones de cada día
+     */
+    @Operation(summary = "Obtiene el histórico de saldos de una cuenta del usuario autenticado", description = "Devuelve el saldo día a día de una cuenta propia entre dos fechas.")
+    @Parameters({
+            @Parameter(name = "desde", description = "Primer día (ISO 8601)", example = "2024-12-01", required = true),
+            @Parameter(name = "hasta", description = "Último día (ISO 8601)", example = "2024-12-31", required = true)
+    })
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Histórico de saldos de la cuenta"),
+            @ApiResponse(responseCode = "400", description = "Intervalo de fechas no válido"),
+            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada por IBAN o de otro usuario")
+    })
+    @GetMapping("/me/{iban}/saldos")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<SaldoDiarioResponse>> getHistoricoSaldosMe(
+            @AuthenticationPrincipal User user,
+            @PathVariable String iban,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ResponseEntity.ok(saldoDiarioService.getHistoricoUsuario(user, iban, desde, hasta));
+    }
     /**
      * Crea una nueva cuenta.
      *
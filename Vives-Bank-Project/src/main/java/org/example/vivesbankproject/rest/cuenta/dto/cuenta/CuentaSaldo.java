@@ -0,0 +1,36 @@
+package org.example.vivesbankproject.rest.cuenta.dto.cuenta;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección reducida de una cuenta con los datos necesarios para validar operaciones de saldo en bloque:
+ * IBAN, saldo actual y GUID del cliente propietario. Se obtiene con una única consulta sin cargar las
+ * relaciones de la entidad {@link org.example.vivesbankproject.rest.cuenta.models.Cuenta}.
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Schema(description = "Proyección de una cuenta con su IBAN, saldo y cliente propietario")
+public interface CuentaSaldo {
+
+    /**
+     * @return IBAN de la cuenta
+     */
+    @Schema(description = "Código IBAN de la cuenta", example = "ES9121000418450200051332")
+    String getIban();
+
+    /**
+     * @return Saldo actual de la cuenta
+     */
+    @Schema(description = "Saldo actual de la cuenta", example = "1500.75")
+    BigDecimal getSaldo();
+
+    /**
+     * @return GUID del cliente propietario de la cuenta
+     */
+    @Schema(description = "Identificador del cliente propietario de la cuenta", example = "123e4567-e89b-12d3-a456-426614174000")
+    String getClienteGuid();
+}
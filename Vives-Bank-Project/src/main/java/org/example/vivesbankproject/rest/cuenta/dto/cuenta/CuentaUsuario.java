@@ -0,0 +1,28 @@
+package org.example.vivesbankproject.rest.cuenta.dto.cuenta;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Proyección que relaciona el IBAN de una cuenta con el nombre de usuario de su propietario.
+ * Se obtiene con una única consulta sobre cuentas, clientes y usuarios y se utiliza para dirigir
+ * las notificaciones de movimientos al usuario correcto.
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Schema(description = "Proyección de una cuenta con el nombre de usuario de su propietario")
+public interface CuentaUsuario {
+
+    /**
+     * @return IBAN de la cuenta
+     */
+    @Schema(description = "Código IBAN de la cuenta", example = "ES9121000418450200051332")
+    String getIban();
+
+    /**
+     * @return Nombre de usuario del propietario de la cuenta
+     */
+    @Schema(description = "Nombre de usuario del propietario de la cuenta", example = "userName")
+    String getUsername();
+}
@@ -0,0 +1,43 @@
+package org.example.vivesbankproject.rest.cuenta.dto.cuenta;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Clase de respuesta con el saldo de una cuenta en un día concreto.
+ * Los días sin operaciones se devuelven con el saldo de cierre del día anterior y sin ingresos ni cargos.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoDiarioResponse implements Serializable {
+
+    @Schema(description = "Día", example = "2024-12-08", required = true)
+    private LocalDate fecha;
+
+    @Schema(description = "Saldo al empezar el día", example = "1000.00", required = true)
+    private BigDecimal saldoApertura;
+
+    @Schema(description = "Saldo al terminar el día", example = "1250.50", required = true)
+    private BigDecimal saldoCierre;
+
+    @Schema(description = "Total abonado durante el día", example = "300.50", required = true)
+    private BigDecimal ingresos;
+
+    @Schema(description = "Total cargado durante el día", example = "50.00", required = true)
+    private BigDecimal cargos;
+
+    @Schema(description = "Número de operaciones del día", example = "3", required = true)
+    private Integer operaciones;
+}
@@ -0,0 +1,32 @@
+package org.example.vivesbankproject.rest.cuenta.exceptions.cuenta;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Excepción personalizada que se lanza cuando el intervalo de fechas pedido para el histórico de saldos
+ * de una cuenta no es válido: la fecha inicial es posterior a la final o abarca demasiados días.
+ * Extiende la clase base {@link CuentaException} para manejo centralizado de excepciones relacionadas con cuentas.
+ *
+ * <p>Esta excepción se asocia con el estado HTTP 400 (BAD_REQUEST).</p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CuentaIntervaloSaldosInvalido extends CuentaException {
+
+    /**
+     * Constructor para crear una instancia de {@code CuentaIntervaloSaldosInvalido} con un mensaje que indica
+     * el intervalo pedido y el máximo de días permitido.
+     *
+     * @param desde   Fecha inicial pedida
+     * @param hasta   Fecha final pedida
+     * @param maxDias Días que puede abarcar el intervalo como máximo
+     */
+    public CuentaIntervaloSaldosInvalido(LocalDate desde, LocalDate hasta, int maxDias) {
+        super("El intervalo de saldos del " + desde + " al " + hasta + " no es válido: la fecha inicial debe ser anterior a la final y abarcar como máximo " + maxDias + " días");
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.vivesbankproject.rest.cuenta.exceptions.cuenta;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+
+/**
+ * Excepción personalizada que se lanza cuando una operación sobre el saldo de varias cuentas no ha podido
+ * completarse tras agotar los reintentos por conflictos de concurrencia (bloqueos o serialización).
+ * Extiende la clase base {@link CuentaException} para manejo centralizado de excepciones relacionadas con cuentas.
+ *
+ * <p>Esta excepción se asocia con el estado HTTP 409 (CONFLICT); el cliente puede reintentar la operación.</p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CuentaOperacionAbortada extends CuentaException {
+
+    /**
+     * Constructor para crear una instancia de {@code CuentaOperacionAbortada}.
+     *
+     * @param ibanes   Las cuentas implicadas en la operación
+     * @param intentos Número de intentos realizados
+     */
+    public CuentaOperacionAbortada(Collection<String> ibanes, int intentos) {
+        super("No se ha podido completar la operación sobre las cuentas " + ibanes + " tras " + intentos + " intentos por concurrencia");
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.vivesbankproject.rest.cuenta.exceptions.cuenta;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.math.BigDecimal;
+
+/**
+ * Excepción personalizada que se lanza cuando una cuenta no tiene saldo suficiente para realizar un cargo.
+ * Extiende la clase base {@link CuentaException} para manejo centralizado de excepciones relacionadas con cuentas.
+ *
+ * <p>Esta excepción se asocia con el estado HTTP 400 (BAD_REQUEST).</p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CuentaSaldoInsuficiente extends CuentaException {
+
+    /**
+     * Constructor para crear una instancia de {@code CuentaSaldoInsuficiente} con un mensaje que indica
+     * la cuenta y la cantidad que no se ha podido cargar.
+     *
+     * @param iban     El IBAN de la cuenta sin saldo suficiente
+     * @param cantidad La cantidad que se intentaba cargar
+     */
+    public CuentaSaldoInsuficiente(String iban, BigDecimal cantidad) {
+        super("La cuenta con IBAN " + iban + " no tiene saldo suficiente para cargar " + cantidad);
+    }
+}
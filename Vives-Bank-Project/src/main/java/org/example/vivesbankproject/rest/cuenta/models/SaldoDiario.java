@@ -0,0 +1,90 @@
+package org.example.vivesbankproject.rest.cuenta.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Resumen diario del saldo de una cuenta: saldo al empezar y al terminar el día, total abonado y total
+ * cargado, y número de operaciones. Se actualiza en la misma transacción que cada cambio de saldo, de modo
+ * que el histórico de saldos de una cuenta se lee con una fila por día en lugar de recorrer sus movimientos.
+ *
+ * <p>Solo existen filas para los días en los que la cuenta tuvo operaciones; el resto de días el saldo es
+ * el de cierre del último día con fila.</p>
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@Builder
+@Entity
+@Table(name = "saldos_diarios",
+        uniqueConstraints = @UniqueConstraint(name = "uk_saldos_diarios_iban_fecha", columnNames = {"iban", "fecha"}))
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoDiario {
+
+    /**
+     * Identificador único del resumen, generado automáticamente por la base de datos.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(description = "Identificador único del resumen diario.", example = "1")
+    private Long id;
+
+    /**
+     * IBAN de la cuenta.
+     */
+    @Column(name = "iban", nullable = false)
+    @Schema(description = "IBAN de la cuenta.", example = "ES9121000418450200051332")
+    private String iban;
+
+    /**
+     * Día del resumen.
+     */
+    @Column(name = "fecha", nullable = false)
+    @Schema(description = "Día del resumen.", example = "2024-12-08")
+    private LocalDate fecha;
+
+    /**
+     * Saldo antes de la primera operación del día.
+     */
+    @Column(name = "saldo_apertura", nullable = false, precision = 10, scale = 2)
+    @Schema(description = "Saldo al empezar el día.", example = "1000.00")
+    private BigDecimal saldoApertura;
+
+    /**
+     * Saldo después de la última operación del día.
+     */
+    @Column(name = "saldo_cierre", nullable = false, precision = 10, scale = 2)
+    @Schema(description = "Saldo al terminar el día.", example = "1250.50")
+    private BigDecimal saldoCierre;
+
+    /**
+     * Total abonado en la cuenta durante el día.
+     */
+    @Column(name = "ingresos", nullable = false, precision = 12, scale = 2)
+    @Schema(description = "Total abonado durante el día.", example = "300.50")
+    private BigDecimal ingresos;
+
+    /**
+     * Total cargado en la cuenta durante el día.
+     */
+    @Column(name = "cargos", nullable = false, precision = 12, scale = 2)
+    @Schema(description = "Total cargado durante el día.", example = "50.00")
+    private BigDecimal cargos;
+
+    /**
+     * Número de operaciones de saldo del día.
+     */
+    @Column(name = "operaciones", nullable = false)
+    @Schema(description = "Número de operaciones del día.", example = "3")
+    private Integer operaciones;
+}
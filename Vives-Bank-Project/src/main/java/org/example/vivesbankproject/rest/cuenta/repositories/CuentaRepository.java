@@ -2,12 +2,20 @@ package org.example.vivesbankproject.rest.cuenta.repositories;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaSaldo;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaUsuario;
 import org.example.vivesbankproject.rest.cuenta.models.Cuenta;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -61,4 +69,139 @@ public interface CuentaRepository extends JpaRepository<Cuenta, Long>, JpaSpecif
     @Operation(summary = "Buscar una cuenta por el identificador de la tarjeta", description = "Devuelve una cuenta si existe una tarjeta coincidente con el identificador proporcionado.")
     @Parameter(name = "id", description = "Identificador de la tarjeta para la búsqueda", required = true)
     Optional<Cuenta> findByTarjetaId(Long id);
+
+    /**
+     * Resta una cantidad del saldo de una cuenta en una única sentencia, solo si el saldo es suficiente.
+     * La condición sobre el saldo se evalúa en la propia base de datos, por lo que dos cargos
+     * concurrentes sobre la misma cuenta nunca se pisan entre sí.
+     *
+     * @param iban     IBAN de la cuenta a debitar
+     * @param cantidad Cantidad a restar del saldo
+     * @return Número de filas actualizadas (0 si la cuenta no existe o no tiene saldo suficiente)
+     */
+    @Operation(summary = "Debitar saldo de una cuenta", description = "Resta la cantidad indicada si la cuenta existe y tiene saldo suficiente.")
+    @Parameter(name = "iban", description = "IBAN de la cuenta a debitar", required = true)
+    @Parameter(name = "cantidad", description = "Cantidad a restar del saldo", required = true)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cuenta c SET c.saldo = c.saldo - :cantidad, c.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE c.iban = :iban AND c.isDeleted = false AND c.saldo >= :cantidad")
+    int debitarSaldo(@Param("iban") String iban, @Param("cantidad") BigDecimal cantidad);
+
+    /**
+     * Suma una cantidad al saldo de una cuenta en una única sentencia.
+     *
+     * @param iban     IBAN de la cuenta a acreditar
+     * @param cantidad Cantidad a sumar al saldo
+     * @return Número de filas actualizadas (0 si la cuenta no existe)
+     */
+    @Operation(summary = "Acreditar saldo en una cuenta", description = "Suma la cantidad indicada al saldo de la cuenta si existe.")
+    @Parameter(name = "iban", description = "IBAN de la cuenta a acreditar", required = true)
+    @Parameter(name = "cantidad", description = "Cantidad a sumar al saldo", required = true)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Cuenta c SET c.saldo = c.saldo + :cantidad, c.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE c.iban = :iban AND c.isDeleted = false")
+    int acreditarSaldo(@Param("iban") String iban, @Param("cantidad") BigDecimal cantidad);
+
+    /**
+     * Obtiene únicamente el saldo de una cuenta activa, sin cargar la entidad ni sus relaciones.
+     *
+     * @param iban IBAN de la cuenta
+     * @return Opcional con el saldo si la cuenta existe
+     */
+    @Operation(summary = "Obtener el saldo de una cuenta por su IBAN", description = "Devuelve solo el saldo de la cuenta, sin cargar sus relaciones.")
+    @Parameter(name = "iban", description = "IBAN de la cuenta", required = true)
+    @Query("SELECT c.saldo FROM Cuenta c WHERE c.iban = :iban AND c.isDeleted = false")
+    Optional<BigDecimal> findSaldoByIban(@Param("iban") String iban);
+
+    /**
+     * Obtiene en una única consulta el IBAN, el saldo y el cliente propietario de las cuentas indicadas,
+     * sin cargar el resto de relaciones de la entidad.
+     *
+     * @param ibanes IBANs de las cuentas a buscar
+     * @return Proyecciones de las cuentas encontradas que no están eliminadas
+     */
+    @Operation(summary = "Buscar saldos por IBANs", description = "Devuelve IBAN, saldo y cliente de las cuentas indicadas en una única consulta.")
+    @Parameter(name = "ibanes", description = "IBANs de las cuentas a buscar", required = true)
+    @Query("SELECT c.iban AS iban, c.saldo AS saldo, cl.guid AS clienteGuid FROM Cuenta c JOIN c.cliente cl WHERE c.iban IN :ibanes AND c.isDeleted = false")
+    List<CuentaSaldo> findAllByIbanIn(@Param("ibanes") Collection<String> ibanes);
+
+    /**
+     * Obtiene el nombre de usuario propietario de cada una de las cuentas indicadas con una única
+     * consulta que une cuentas, clientes y usuarios.
+     *
+     * @param ibanes IBANs de las cuentas a buscar
+     * @return Pares IBAN y nombre de usuario de las cuentas encontradas
+     */
+    @Operation(summary = "Buscar usuarios por IBANs", description = "Devuelve el nombre de usuario propietario de cada cuenta indicada en una única consulta.")
+    @Parameter(name = "ibanes", description = "IBANs de las cuentas a buscar", required = true)
+    @Query("SELECT c.iban AS iban, u.username AS username FROM Cuenta c JOIN c.cliente cl JOIN cl.user u WHERE c.iban IN :ibanes")
+    List<CuentaUsuario> findUsernamesByIbanIn(@Param("ibanes") Collection<String> ibanes);
+
+    /**
+     * Obtiene los IBANs de todas las cuentas de los clientes de un usuario.
+     *
+     * @param userGuid Identificador del usuario
+     * @return IBANs de las cuentas del usuario
+     */
+    @Operation(summary = "Buscar IBANs por usuario", description = "Devuelve los IBANs de todas las cuentas de los clientes de un usuario.")
+    @Parameter(name = "userGuid", description = "Identificador del usuario", required = true)
+    @Query("SELECT c.iban FROM Cuenta c JOIN c.cliente cl JOIN cl.user u WHERE u.guid = :userGuid")
+    List<String> findIbanesByUserGuid(@Param("userGuid") String userGuid);
+
+    /**
+     * Obtiene los IBANs de todas las cuentas de un cliente.
+     *
+     * @param clienteGuid Identificador del cliente
+     * @return IBANs de las cuentas del cliente
+     */
+    @Operation(summary = "Buscar IBANs por cliente", description = "Devuelve los IBANs de todas las cuentas de un cliente.")
+    @Parameter(name = "clienteGuid", description = "Identificador del cliente", required = true)
+    @Query("SELECT c.iban FROM Cuenta c JOIN c.cliente cl WHERE cl.guid = :clienteGuid")
+    List<String> findIbanesByClienteGuid(@Param("clienteGuid") String clienteGuid);
+
+    /**
+     * Obtiene cuáles de los GUID indicados pertenecen ya a una cuenta, sin cargar las cuentas.
+     *
+     * @param guids GUID de las cuentas a comprobar
+     * @return GUID de las cuentas existentes
+     */
+    @Operation(summary = "Buscar GUID de cuentas existentes", description = "Devuelve en una única consulta los GUID indicados que ya tienen cuenta.")
+    @Parameter(name = "guids", description = "GUID de las cuentas a comprobar", required = true)
+    @Query("SELECT c.guid FROM Cuenta c WHERE c.guid IN :guids")
+    List<String> findGuidsByGuidIn(@Param("guids") Collection<String> guids);
+
+    /**
+     * Obtiene el GUID de las cuentas indicadas por IBAN, sin cargar las cuentas.
+     *
+     * @param ibanes IBANs de las cuentas
+     * @return GUID de las cuentas encontradas
+     */
+    @Operation(summary = "Buscar GUID de cuentas por IBAN", description = "Devuelve en una única consulta el GUID de las cuentas indicadas por IBAN.")
+    @Parameter(name = "ibanes", description = "IBANs de las cuentas", required = true)
+    @Query("SELECT c.guid FROM Cuenta c WHERE c.iban IN :ibanes")
+    List<String> findGuidsByIbanIn(@Param("ibanes") Collection<String> ibanes);
+
+    /**
+     * Bloquea las filas de las cuentas indicadas en orden ascendente de identificador.
+     * Tomar siempre los bloqueos en el mismo orden evita interbloqueos entre transferencias
+     * cruzadas (A→B y B→A) sobre las mismas cuentas.
+     *
+     * @param ibanes IBANs de las cuentas a bloquear
+     * @return Identificadores de las cuentas bloqueadas, en el orden en que se bloquearon
+     */
+    @Operation(summary = "Bloquear cuentas en orden", description = "Toma un bloqueo de escritura sobre las cuentas en orden ascendente de identificador.")
+    @Parameter(name = "ibanes", description = "IBANs de las cuentas a bloquear", required = true)
+    @Query(value = "SELECT id FROM cuentas WHERE iban IN (:ibanes) AND is_deleted = false ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> bloquearPorIbanes(@Param("ibanes") Collection<String> ibanes);
+
+    /**
+     * Establece el tiempo máximo de espera por bloqueos para la transacción actual.
+     *
+     * @param lockTimeout Tiempo máximo en formato PostgreSQL, por ejemplo {@code 2000ms}
+     * @return El valor establecido
+     */
+    @Operation(summary = "Establecer el tiempo de espera de bloqueos", description = "Limita la espera por bloqueos de fila en la transacción actual.")
+    @Parameter(name = "lockTimeout", description = "Tiempo máximo de espera por bloqueos", required = true)
+    @Query(value = "SELECT set_config('lock_timeout', :lockTimeout, true)", nativeQuery = true)
+    String establecerLockTimeout(@Param("lockTimeout") String lockTimeout);
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+package org.example.vivesbankproject.rest.cuenta.repositories;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.vivesbankproject.rest.cuenta.models.SaldoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de los resúmenes diarios de saldo de las cuentas.
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Repository
+@Tag(name = "SaldoDiarioRepository", description = "Repositorio para los resúmenes diarios de saldo de las cuentas")
+public interface SaldoDiarioRepository extends JpaRepository<SaldoDiario, Long> {
+
+    /**
+     * Suma una variación de saldo al resumen del día de una cuenta, creándolo si es la primera operación
+     * del día. Debe ejecutarse después de actualizar el saldo de la cuenta y en la misma transacción: el
+     * saldo de cierre se toma de la cuenta y el de apertura, solo al crear el resumen, se obtiene restando
+     * la variación. La fila de la cuenta ya está bloqueada por la actualización del saldo, así que las
+     * operaciones concurrentes sobre una cuenta actualizan su resumen de una en una.
+     *
+     * @param iban      IBAN de la cuenta
+     * @param fecha     Día de la operación
+     * @param variacion Variación de saldo aplicada: positiva en un abono y negativa en un cargo
+     * @return Número de resúmenes creados o actualizados
+     */
+    @Operation(summary = "Registrar variación de saldo", description = "Acumula una variación de saldo en el resumen diario de la cuenta")
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO saldos_diarios (iban, fecha, saldo_apertura, saldo_cierre, ingresos, cargos, operaciones) " +
+            "SELECT c.iban, :fecha, c.saldo - :variacion, c.saldo, GREATEST(:variacion, 0), GREATEST(-:variacion, 0), 1 " +
+            "FROM cuentas c WHERE c.iban = :iban " +
+            "ON CONFLICT (iban, fecha) DO UPDATE SET " +
+            "saldo_cierre = EXCLUDED.saldo_cierre, " +
+            "ingresos = saldos_diarios.ingresos + EXCLUDED.ingresos, " +
+            "cargos = saldos_diarios.cargos + EXCLUDED.cargos, " +
+            "operaciones = saldos_diarios.operaciones + 1", nativeQuery = true)
+    int registrarVariacion(@Param("iban") String iban, @Param("fecha") LocalDate fecha, @Param("variacion") BigDecimal variacion);
+
+    /**
+     * Obtiene los resúmenes de una cuenta entre dos días, ambos incluidos.
+     *
+     * @param iban  IBAN de la cuenta
+     * @param desde Primer día
+     * @param hasta Último día
+     * @return Resúmenes ordenados por día
+     */
+    @Operation(summary = "Resúmenes de saldo por intervalo", description = "Obtiene los resúmenes diarios de una cuenta entre dos fechas")
+    List<SaldoDiario> findByIbanAndFechaBetweenOrderByFechaAsc(String iban, LocalDate desde, LocalDate hasta);
+
+    /**
+     * Obtiene el último resumen de una cuenta anterior a un día.
+     *
+     * @param iban  IBAN de la cuenta
+     * @param fecha Día límite, no incluido
+     * @return El resumen más reciente anterior al día, si existe
+     */
+    @Operation(summary = "Último resumen anterior a una fecha", description = "Obtiene el resumen diario más reciente de una cuenta antes de una fecha")
+    Optional<SaldoDiario> findFirstByIbanAndFechaLessThanOrderByFechaDesc(String iban, LocalDate fecha);
+
+    /**
+     * Obtiene el primer resumen de una cuenta a partir de un día.
+     *
+     * @param iban  IBAN de la cuenta
+     * @param fecha Día inicial, incluido
+     * @return El resumen más antiguo desde el día, si existe
+     */
+    @Operation(summary = "Primer resumen desde una fecha", description = "Obtiene el resumen diario más antiguo de una cuenta desde una fecha")
+    Optional<SaldoDiario> findFirstByIbanAndFechaGreaterThanEqualOrderByFechaAsc(String iban, LocalDate fecha);
+}
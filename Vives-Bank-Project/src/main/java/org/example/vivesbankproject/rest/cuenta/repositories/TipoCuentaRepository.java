@@ -5,9 +5,13 @@ import io.swagger.v3.oas.annotations.Parameter;
 import org.example.vivesbankproject.rest.cuenta.models.TipoCuenta;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repositorio para realizar operaciones de base de datos sobre la entidad TipoCuenta.
@@ -40,4 +44,15 @@ public interface TipoCuentaRepository extends JpaRepository<TipoCuenta, Long>, J
     @Operation(summary = "Buscar un tipo de cuenta por su identificador GUID", description = "Devuelve un tipo de cuenta si existe un GUID coincidente.")
     @Parameter(name = "guid", description = "Identificador global único del tipo de cuenta", required = true)
     Optional<TipoCuenta> findByGuid(String guid);
-}
\ No newline at end of file
+
+    /**
+     * Obtiene cuáles de los nombres indicados corresponden ya a un tipo de cuenta.
+     *
+     * @param nombres Nombres de tipos de cuenta
+     * @return Los nombres que ya existen
+     */
+    @Operation(summary = "Buscar los nombres de tipo de cuenta existentes", description = "Devuelve, de los nombres indicados, los que ya tienen un tipo de cuenta.")
+    @Parameter(name = "nombres", description = "Nombres de tipos de cuenta", required = true)
+    @Query("SELECT t.nombre FROM TipoCuenta t WHERE t.nombre IN :nombres")
+    Set<String> findNombresByNombreIn(@Param("nombres") Collection<String> nombres);
+}
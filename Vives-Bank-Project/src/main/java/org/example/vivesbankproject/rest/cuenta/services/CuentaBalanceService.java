@@ -0,0 +1,79 @@
+package org.example.vivesbankproject.rest.cuenta.services;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaSaldo;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio para modificar el saldo de las cuentas de forma atómica.
+ * A diferencia de {@link CuentaService#update}, no carga la entidad ni sus relaciones ni envía notificaciones:
+ * cada operación se resuelve con una sentencia UPDATE condicional sobre la base de datos.
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+public interface CuentaBalanceService {
+
+    /**
+     * Resta una cantidad del saldo de una cuenta si tiene saldo suficiente.
+     *
+     * @param iban     IBAN de la cuenta a debitar
+     * @param cantidad Cantidad a restar, mayor que cero
+     */
+    @Operation(summary = "Debitar una cuenta", description = "Resta la cantidad del saldo de la cuenta de forma atómica.")
+    @Parameter(name = "iban", description = "IBAN de la cuenta a debitar", required = true)
+    @Parameter(name = "cantidad", description = "Cantidad a restar", required = true)
+    void debitar(String iban, BigDecimal cantidad);
+
+    /**
+     * Suma una cantidad al saldo de una cuenta.
+     *
+     * @param iban     IBAN de la cuenta a acreditar
+     * @param cantidad Cantidad a sumar, mayor que cero
+     */
+    @Operation(summary = "Acreditar una cuenta", description = "Suma la cantidad al saldo de la cuenta de forma atómica.")
+    @Parameter(name = "iban", description = "IBAN de la cuenta a acreditar", required = true)
+    @Parameter(name = "cantidad", description = "Cantidad a sumar", required = true)
+    void acreditar(String iban, BigDecimal cantidad);
+
+    /**
+     * Mueve una cantidad de una cuenta a otra dentro de una misma transacción.
+     * Si el abono falla, el cargo se deshace.
+     *
+     * @param ibanOrigen  IBAN de la cuenta que se debita
+     * @param ibanDestino IBAN de la cuenta que se acredita
+     * @param cantidad    Cantidad a transferir, mayor que cero
+     */
+    @Operation(summary = "Transferir saldo entre cuentas", description = "Debita la cuenta origen y acredita la cuenta destino en una única transacción.")
+    @Parameter(name = "ibanOrigen", description = "IBAN de la cuenta origen", required = true)
+    @Parameter(name = "ibanDestino", description = "IBAN de la cuenta destino", required = true)
+    @Parameter(name = "cantidad", description = "Cantidad a transferir", required = true)
+    void transferir(String ibanOrigen, String ibanDestino, BigDecimal cantidad);
+
+    /**
+     * Obtiene el saldo y el cliente propietario de varias cuentas con una única consulta.
+     *
+     * @param ibanes IBANs de las cuentas
+     * @return Saldos de las cuentas encontradas
+     */
+    @Operation(summary = "Obtener saldos de varias cuentas", description = "Devuelve IBAN, saldo y cliente de las cuentas indicadas en una única consulta.")
+    @Parameter(name = "ibanes", description = "IBANs de las cuentas", required = true)
+    List<CuentaSaldo> getSaldos(Collection<String> ibanes);
+
+    /**
+     * Aplica a cada cuenta su variación neta de saldo: las negativas se debitan y las positivas se acreditan.
+     * Se ejecuta en una única transacción; si alguna cuenta no existe o no tiene saldo suficiente, no se aplica ninguna.
+     *
+     * @param variaciones Variación neta de saldo por IBAN
+     */
+    @Operation(summary = "Aplicar variaciones netas de saldo", description = "Debita o acredita a cada cuenta su variación neta en una única transacción.")
+    @Parameter(name = "variaciones", description = "Variación neta de saldo por IBAN", required = true)
+    void aplicarVariaciones(Map<String, BigDecimal> variaciones);
+}
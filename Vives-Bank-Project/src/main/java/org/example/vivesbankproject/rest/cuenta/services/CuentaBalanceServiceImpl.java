@@ -0,0 +1,233 @@
+package org.example.vivesbankproject.rest.cuenta.services;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaSaldo;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFoundByIban;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaOperacionAbortada;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaSaldoInsuficiente;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.example.vivesbankproject.rest.cuenta.repositories.SaldoDiarioRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementación del servicio de saldos de cuentas.
+ * <p>
+ * Cada movimiento de saldo se traduce en una sentencia {@code UPDATE cuentas SET saldo = saldo ± x}
+ * condicionada en la propia base de datos, de modo que las operaciones concurrentes sobre una misma
+ * cuenta se serializan en la fila y no se pierden actualizaciones. Solo cuando la sentencia no afecta
+ * a ninguna fila se consulta el saldo para distinguir entre cuenta inexistente y saldo insuficiente.
+ * </p>
+ * <p>
+ * Tras cada cambio de saldo se acumula la variación en el resumen diario de la cuenta
+ * ({@link SaldoDiarioRepository}) dentro de la misma transacción, mientras la fila de la cuenta sigue bloqueada.
+ * </p>
+ * <p>
+ * Las sentencias no pasan por la caché de cuentas, así que al confirmarse la transacción se invalidan
+ * las entradas de las cuentas modificadas para que {@link CuentaService#getById(String)} no devuelva
+ * un saldo antiguo. Si la transacción se deshace, la caché no se toca.
+ * </p>
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Service
+@Slf4j
+public class CuentaBalanceServiceImpl implements CuentaBalanceService {
+    private static final String CACHE_CUENTAS = "cuenta";
+
+    private final CuentaRepository cuentaRepository;
+    private final CuentaTransferenciaExecutor transferenciaExecutor;
+    private final SaldoDiarioRepository saldoDiarioRepository;
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public CuentaBalanceServiceImpl(CuentaRepository cuentaRepository, CuentaTransferenciaExecutor transferenciaExecutor, SaldoDiarioRepository saldoDiarioRepository, CacheManager cacheManager) {
+        this.cuentaRepository = cuentaRepository;
+        this.transferenciaExecutor = transferenciaExecutor;
+        this.saldoDiarioRepository = saldoDiarioRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Resta una cantidad del saldo de una cuenta si tiene saldo suficiente.
+     *
+     * @param iban     IBAN de la cuenta a debitar
+     * @param cantidad Cantidad a restar, mayor que cero
+     * @throws CuentaNotFoundByIban     Si la cuenta no existe
+     * @throws CuentaSaldoInsuficiente Si la cuenta no tiene saldo suficiente
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "Debitar una cuenta", description = "Resta la cantidad del saldo de la cuenta de forma atómica.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Saldo debitado correctamente"),
+            @ApiResponse(responseCode = "400", description = "Saldo insuficiente"),
+            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada por IBAN")
+    })
+    public void debitar(String iban, BigDecimal cantidad) {
+        log.info("Debitando {} de la cuenta con IBAN {}", cantidad, iban);
+        if (cuentaRepository.debitarSaldo(iban, cantidad) == 0) {
+            cuentaRepository.findSaldoByIban(iban).orElseThrow(() -> new CuentaNotFoundByIban(iban));
+            throw new CuentaSaldoInsuficiente(iban, cantidad);
+        }
+        saldoDiarioRepository.registrarVariacion(iban, LocalDate.now(), cantidad.negate());
+        invalidarCacheTrasConfirmar(iban);
+    }
+
+    /**
+     * Suma una cantidad al saldo de una cuenta.
+     *
+     * @param iban     IBAN de la cuenta a acreditar
+     * @param cantidad Cantidad a sumar, mayor que cero
+     * @throws CuentaNotFoundByIban Si la cuenta no existe
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "Acreditar una cuenta", description = "Suma la cantidad al saldo de la cuenta de forma atómica.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Saldo acreditado correctamente"),
+            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada por IBAN")
+    })
+    public void acreditar(String iban, BigDecimal cantidad) {
+        log.info("Acreditando {} en la cuenta con IBAN {}", cantidad, iban);
+        if (cuentaRepository.acreditarSaldo(iban, cantidad) == 0) {
+            throw new CuentaNotFoundByIban(iban);
+        }
+        saldoDiarioRepository.registrarVariacion(iban, LocalDate.now(), cantidad);
+        invalidarCacheTrasConfirmar(iban);
+    }
+
+    /**
+     * Mueve una cantidad de una cuenta a otra dentro de una misma transacción.
+     * <p>
+     * Ambas cuentas se bloquean en orden antes de modificarlas mediante {@link CuentaTransferenciaExecutor},
+     * que además reintenta la transferencia si la base de datos la aborta por concurrencia.
+     * </p>
+     *
+     * @param ibanOrigen  IBAN de la cuenta que se debita
+     * @param ibanDestino IBAN de la cuenta que se acredita
+     * @param cantidad    Cantidad a transferir, mayor que cero
+     * @throws CuentaNotFoundByIban     Si alguna de las cuentas no existe
+     * @throws CuentaSaldoInsuficiente Si la cuenta origen no tiene saldo suficiente
+     * @throws CuentaOperacionAbortada  Si no se completa tras agotar los reintentos por concurrencia
+     */
+    @Override
+    @Operation(summary = "Transferir saldo entre cuentas", description = "Debita la cuenta origen y acredita la cuenta destino en una única transacción.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Transferencia de saldo realizada correctamente"),
+            @ApiResponse(responseCode = "400", description = "Saldo insuficiente en la cuenta origen"),
+            @ApiResponse(responseCode = "404", description = "Cuenta origen o destino no encontrada por IBAN"),
+            @ApiResponse(responseCode = "409", description = "Transferencia abortada por conflictos de concurrencia")
+    })
+    public void transferir(String ibanOrigen, String ibanDestino, BigDecimal cantidad) {
+        log.info("Transfiriendo {} de la cuenta {} a la cuenta {}", cantidad, ibanOrigen, ibanDestino);
+        transferenciaExecutor.ejecutar(List.of(ibanOrigen, ibanDestino), () -> {
+            debitar(ibanOrigen, cantidad);
+            acreditar(ibanDestino, cantidad);
+            return null;
+        });
+    }
+
+    /**
+     * Obtiene el saldo y el cliente propietario de varias cuentas con una única consulta.
+     *
+     * @param ibanes IBANs de las cuentas
+     * @return Saldos de las cuentas encontradas
+     */
+    @Override
+    @Operation(summary = "Obtener saldos de varias cuentas", description = "Devuelve IBAN, saldo y cliente de las cuentas indicadas en una única consulta.")
+    public List<CuentaSaldo> getSaldos(Collection<String> ibanes) {
+        log.info("Obteniendo saldos de {} cuentas", ibanes.size());
+        return cuentaRepository.findAllByIbanIn(ibanes);
+    }
+
+    /**
+     * Aplica a cada cuenta su variación neta de saldo con una única sentencia por cuenta.
+     * Los cargos se aplican antes que los abonos para que un saldo insuficiente aborte la operación
+     * antes de modificar las cuentas destino.
+     *
+     * @param variaciones Variación neta de saldo por IBAN
+     * @throws CuentaNotFoundByIban     Si alguna cuenta no existe
+     * @throws CuentaSaldoInsuficiente Si alguna cuenta no tiene saldo suficiente para su cargo neto
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "Aplicar variaciones netas de saldo", description = "Debita o acredita a cada cuenta su variación neta en una única transacción.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Variaciones aplicadas correctamente"),
+            @ApiResponse(responseCode = "400", description = "Saldo insuficiente en alguna cuenta"),
+            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada por IBAN")
+    })
+    public void aplicarVariaciones(Map<String, BigDecimal> variaciones) {
+        log.info("Aplicando variaciones de saldo sobre {} cuentas", variaciones.size());
+        variaciones.forEach((iban, variacion) -> {
+            if (variacion.signum() < 0) {
+                debitar(iban, variacion.negate());
+            }
+        });
+        variaciones.forEach((iban, variacion) -> {
+            if (variacion.signum() > 0) {
+                acreditar(iban, variacion);
+            }
+        });
+    }
+
+    /**
+     * Programa la invalidación de la cuenta en la caché para cuando se confirme la transacción en curso.
+     * Las cuentas modificadas en una misma transacción se acumulan y se invalidan juntas, resolviendo
+     * sus GUID con una única consulta. Sin transacción activa se invalida al momento.
+     *
+     * @param iban IBAN de la cuenta modificada
+     */
+    private void invalidarCacheTrasConfirmar(String iban) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidarCache(Set.of(iban));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<String> pendientes = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pendientes == null) {
+            Set<String> ibanes = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, ibanes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidarCache(ibanes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CuentaBalanceServiceImpl.this);
+                }
+            });
+            pendientes = ibanes;
+        }
+        pendientes.add(iban);
+    }
+
+    private void invalidarCache(Collection<String> ibanes) {
+        Cache cache = cacheManager.getCache(CACHE_CUENTAS);
+        if (cache == null || ibanes.isEmpty()) {
+            return;
+        }
+        cuentaRepository.findGuidsByIbanIn(ibanes).forEach(cache::evict);
+    }
+}
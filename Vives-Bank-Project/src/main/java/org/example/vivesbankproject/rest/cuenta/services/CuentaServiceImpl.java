@@ -28,6 +28,7 @@ import org.example.vivesbankproject.rest.tarjeta.repositories.TarjetaRepository;
 import org.example.vivesbankproject.rest.users.exceptions.UserNotFoundById;
 import org.example.vivesbankproject.rest.users.models.User;
 import org.example.vivesbankproject.rest.users.repositories.UserRepository;
+import org.example.vivesbankproject.config.websockets.NotificationDispatcher;
 import org.example.vivesbankproject.config.websockets.WebSocketConfig;
 import org.example.vivesbankproject.config.websockets.WebSocketHandler;
 import org.example.vivesbankproject.websocket.notifications.models.Notification;
@@ -43,6 +44,7 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -68,13 +70,15 @@ public class CuentaServiceImpl implements CuentaService{
 
     private final UserRepository userRepository;
     private final WebSocketConfig webSocketConfig;
+    private final NotificationDispatcher notificationDispatcher;
     private final ObjectMapper mapper;
+    private final CuentaUsuarioResolver cuentaUsuarioResolver;
     // Para los test
     @Setter
     private WebSocketHandler webSocketService;
 
     @Autowired
-    public CuentaServiceImpl(CuentaRepository cuentaRepository, CuentaMapper cuentaMapper, TipoCuentaRepository tipoCuentaRepository, TarjetaRepository tarjetaRepository, ClienteRepository clienteRepository, WebSocketConfig webSocketConfig, UserRepository userRepository) {
+    public CuentaServiceImpl(CuentaRepository cuentaRepository, CuentaMapper cuentaMapper, TipoCuentaRepository tipoCuentaRepository, TarjetaRepository tarjetaRepository, ClienteRepository clienteRepository, WebSocketConfig webSocketConfig, UserRepository userRepository, NotificationDispatcher notificationDispatcher, CuentaUsuarioResolver cuentaUsuarioResolver) {
         this.cuentaRepository = cuentaRepository;
         this.cuentaMapper = cuentaMapper;
         this.tipoCuentaRepository = tipoCuentaRepository;
@@ -83,6 +87,8 @@ public class CuentaServiceImpl implements CuentaService{
 
         this.userRepository = userRepository;
         this.webSocketConfig = webSocketConfig;
+        this.notificationDispatcher = notificationDispatcher;
+        this.cuentaUsuarioResolver = cuentaUsuarioResolver;
         webSocketService = webSocketConfig.webSocketCuentasHandler();
         mapper = new ObjectMapper();
     }
@@ -230,7 +236,7 @@ public class CuentaServiceImpl implements CuentaService{
      * @return La cuenta guardada con su información mapeada.
      */
     @Override
-    @CachePut
+    @CachePut(key = "#result.guid")
     @Operation(summary = "Guardar una nueva cuenta", description = "Crea una cuenta en el sistema con la información proporcionada.")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Cuenta creada exitosamente"),
@@ -286,7 +292,8 @@ public class CuentaServiceImpl implements CuentaService{
      * @version 1.0-SNAPSHOT
      */
     @Override
-    @CachePut
+    @CachePut(key = "#id")
+    @CacheEvict(cacheNames = CuentaUsuarioResolver.CACHE, key = "#result.iban")
     @Operation(
             summary = "Actualizar información de la cuenta",
             description = "Actualiza la información de una cuenta específica, incluyendo su tipo de cuenta, tarjeta y cliente asociado."
@@ -363,6 +370,7 @@ public class CuentaServiceImpl implements CuentaService{
         );
         cuentaExistente.setIsDeleted(true);
         cuentaRepository.save(cuentaExistente);
+        cuentaUsuarioResolver.invalidar(List.of(cuentaExistente.getIban()));
 
         CuentaResponse cuentaResponse = cuentaMapper.toCuentaResponse(cuentaExistente, cuentaExistente.getTipoCuenta().getGuid(), cuentaExistente.getTarjeta().getGuid(), cuentaExistente.getCliente().getGuid());
 
@@ -451,10 +459,10 @@ public class CuentaServiceImpl implements CuentaService{
     }
 
     /**
-     * Hace la llamada al método para enviar mensaje al usuario concreto
+     * Encola el mensaje para el usuario concreto en el despachador de notificaciones
      * @param userName  Usuario al que se enviará el mensaje
      * @param json      Mensaje a enviar
-     * @see WebSocketHandler
+     * @see NotificationDispatcher
      *
      * @author Jaime León, Natalia González,
      *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
@@ -462,13 +470,6 @@ public class CuentaServiceImpl implements CuentaService{
      */
     private void sendMessageUser(String userName, String json){
         log.info("Enviando mensaje al cliente ws del usuario");
-        Thread senderThread = new Thread(() -> {
-            try {
-                webSocketService.sendMessageToUser(userName,json);
-            } catch (Exception e) {
-                log.error("Error al enviar el mensaje a través del servicio WebSocket", e);
-            }
-        });
-        senderThread.start();
+        notificationDispatcher.enviar(webSocketService, userName, json);
     }
 }
\ No newline at end of file
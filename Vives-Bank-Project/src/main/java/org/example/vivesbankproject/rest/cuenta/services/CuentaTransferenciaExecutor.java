@@ -0,0 +1,142 @@
+package org.example.vivesbankproject.rest.cuenta.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaOperacionAbortada;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Ejecutor de operaciones que modifican el saldo de varias cuentas a la vez.
+ * <p>
+ * Cada intento abre una transacción, limita la espera por bloqueos con {@code lock_timeout}, bloquea
+ * las filas de las cuentas implicadas en orden ascendente de identificador y ejecuta la operación.
+ * Al bloquear siempre en el mismo orden, dos transferencias cruzadas (A→B y B→A) se esperan en lugar
+ * de interbloquearse. Si la base de datos aborta el intento por un conflicto de concurrencia
+ * (interbloqueo, fallo de serialización o tiempo de espera agotado), se reintenta con un retardo
+ * exponencial con jitter hasta agotar los intentos configurados.
+ * </p>
+ * <p>
+ * Métricas publicadas: {@code cuentas.transferencias.bloqueo.espera} (tiempo de espera por los bloqueos),
+ * {@code cuentas.transferencias.reintentos} y {@code cuentas.transferencias.abortadas}.
+ * </p>
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class CuentaTransferenciaExecutor {
+    private final CuentaRepository cuentaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer esperaBloqueo;
+    private final Counter reintentos;
+    private final Counter abortadas;
+
+    @Value("${cuentas.transferencias.lock-timeout-ms:2000}")
+    private long lockTimeoutMs = 2000;
+
+    @Value("${cuentas.transferencias.max-intentos:4}")
+    private int maxIntentos = 4;
+
+    @Value("${cuentas.transferencias.backoff-base-ms:20}")
+    private long backoffBaseMs = 20;
+
+    @Autowired
+    public CuentaTransferenciaExecutor(CuentaRepository cuentaRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.cuentaRepository = cuentaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.esperaBloqueo = Timer.builder("cuentas.transferencias.bloqueo.espera")
+                .description("Tiempo de espera por los bloqueos de las cuentas de una transferencia")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.reintentos = Counter.builder("cuentas.transferencias.reintentos")
+                .description("Intentos repetidos por conflictos de concurrencia")
+                .register(meterRegistry);
+        this.abortadas = Counter.builder("cuentas.transferencias.abortadas")
+                .description("Operaciones abortadas tras agotar los reintentos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta una operación con las cuentas indicadas bloqueadas en orden.
+     * <p>
+     * Si ya existe una transacción activa, la operación se ejecuta dentro de ella sin reintentos:
+     * quien abrió esa transacción es el responsable de repetirla completa.
+     * </p>
+     *
+     * @param ibanes    IBANs de las cuentas que la operación va a modificar
+     * @param operacion Operación a ejecutar con las cuentas bloqueadas
+     * @param <T>       Tipo del resultado de la operación
+     * @return El resultado de la operación
+     * @throws CuentaOperacionAbortada Si la operación no se completa tras agotar los reintentos
+     */
+    public <T> T ejecutar(Collection<String> ibanes, Supplier<T> operacion) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            bloquear(ibanes);
+            return operacion.get();
+        }
+
+        for (int intento = 1; ; intento++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    bloquear(ibanes);
+                    return operacion.get();
+                });
+            } catch (ConcurrencyFailureException e) {
+                if (intento >= maxIntentos) {
+                    abortadas.increment();
+                    log.error("Operación sobre las cuentas {} abortada tras {} intentos", ibanes, intento, e);
+                    throw new CuentaOperacionAbortada(ibanes, intento);
+                }
+                reintentos.increment();
+                log.warn("Conflicto de concurrencia sobre las cuentas {} (intento {}): {}", ibanes, intento, e.getMessage());
+                esperar(ibanes, intento);
+            }
+        }
+    }
+
+    /**
+     * Bloquea las cuentas en orden ascendente de identificador con un tiempo de espera acotado.
+     *
+     * @param ibanes IBANs de las cuentas a bloquear
+     */
+    private void bloquear(Collection<String> ibanes) {
+        cuentaRepository.establecerLockTimeout(lockTimeoutMs + "ms");
+        long inicio = System.nanoTime();
+        cuentaRepository.bloquearPorIbanes(ibanes);
+        esperaBloqueo.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Espera antes de un nuevo intento con retardo exponencial y jitter completo,
+     * para que las transacciones en conflicto no vuelvan a coincidir.
+     *
+     * @param ibanes  IBANs de las cuentas de la operación
+     * @param intento Número del intento que acaba de fallar
+     */
+    private void esperar(Collection<String> ibanes, int intento) {
+        long maximo = backoffBaseMs << Math.min(intento - 1, 10);
+        long retardo = ThreadLocalRandom.current().nextLong(maximo + 1);
+        try {
+            Thread.sleep(retardo);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CuentaOperacionAbortada(ibanes, intento);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.vivesbankproject.rest.cuenta.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaUsuario;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Resuelve el nombre de usuario propietario de una cuenta a partir de su IBAN.
+ * <p>
+ * Sustituye la cadena cuenta → cliente → usuario (tres consultas por destinatario) con la que se
+ * dirigían las notificaciones de movimientos. Los IBANs que no están en la caché {@value #CACHE} se
+ * resuelven juntos con una única consulta que une cuentas, clientes y usuarios, y el resultado se
+ * guarda en la caché.
+ * </p>
+ * <p>
+ * La caché se invalida siempre por IBAN: al actualizar o eliminar una cuenta, la de esa cuenta, y al
+ * modificar o eliminar un usuario o un cliente, las de todas sus cuentas, que se obtienen con una
+ * única consulta.
+ * </p>
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class CuentaUsuarioResolver {
+
+    /**
+     * Nombre de la caché IBAN → nombre de usuario.
+     */
+    public static final String CACHE = "iban_usuario";
+
+    private final CuentaRepository cuentaRepository;
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public CuentaUsuarioResolver(CuentaRepository cuentaRepository, CacheManager cacheManager) {
+        this.cuentaRepository = cuentaRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Obtiene el nombre de usuario propietario de una cuenta.
+     *
+     * @param iban IBAN de la cuenta
+     * @return Nombre de usuario, o {@code null} si la cuenta no existe
+     */
+    public String getUsername(String iban) {
+        return getUsernames(List.of(iban)).get(iban);
+    }
+
+    /**
+     * Obtiene el nombre de usuario propietario de cada una de las cuentas indicadas. Las cuentas que
+     * no están en caché se consultan juntas en una única sentencia.
+     *
+     * @param ibanes IBANs de las cuentas
+     * @return Nombre de usuario por IBAN; las cuentas que no existen no aparecen
+     */
+    public Map<String, String> getUsernames(Collection<String> ibanes) {
+        Map<String, String> usernames = new HashMap<>();
+        Set<String> pendientes = new HashSet<>();
+        Cache cache = cacheManager.getCache(CACHE);
+
+        for (String iban : ibanes) {
+            String username = cache != null ? cache.get(iban, String.class) : null;
+            if (username != null) {
+                usernames.put(iban, username);
+            } else {
+                pendientes.add(iban);
+            }
+        }
+
+        if (!pendientes.isEmpty()) {
+            log.debug("Resolviendo el usuario de {} cuentas sin caché", pendientes.size());
+            for (CuentaUsuario cuentaUsuario : cuentaRepository.findUsernamesByIbanIn(pendientes)) {
+                usernames.put(cuentaUsuario.getIban(), cuentaUsuario.getUsername());
+                if (cache != null) {
+                    cache.put(cuentaUsuario.getIban(), cuentaUsuario.getUsername());
+                }
+            }
+        }
+        return usernames;
+    }
+
+    /**
+     * Elimina de la caché las cuentas de un usuario, para cuando cambia su nombre de usuario o se elimina.
+     *
+     * @param userGuid Identificador del usuario
+     */
+    public void invalidarUsuario(String userGuid) {
+        invalidar(cuentaRepository.findIbanesByUserGuid(userGuid));
+    }
+
+    /**
+     * Elimina de la caché las cuentas de un cliente.
+     *
+     * @param clienteGuid Identificador del cliente
+     */
+    public void invalidarCliente(String clienteGuid) {
+        invalidar(cuentaRepository.findIbanesByClienteGuid(clienteGuid));
+    }
+
+    /**
+     * Elimina de la caché las cuentas indicadas.
+     *
+     * @param ibanes IBANs de las cuentas
+     */
+    public void invalidar(Collection<String> ibanes) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) {
+            return;
+        }
+        for (String iban : ibanes) {
+            cache.evict(iban);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.vivesbankproject.rest.cuenta.services;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.SaldoDiarioResponse;
+import org.example.vivesbankproject.rest.users.models.User;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Servicio de consulta del histórico de saldos diarios de las cuentas.
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+public interface SaldoDiarioService {
+
+    /**
+     * Obtiene el saldo de una cuenta día a día entre dos fechas, ambas incluidas.
+     *
+     * @param iban  IBAN de la cuenta
+     * @param desde Primer día
+     * @param hasta Último día
+     * @return Un elemento por día, ordenados por fecha
+     */
+    @Operation(summary = "Histórico de saldos", description = "Devuelve el saldo de la cuenta día a día entre dos fechas")
+    List<SaldoDiarioResponse> getHistorico(
+            @Parameter(description = "IBAN de la cuenta", required = true) String iban,
+            @Parameter(description = "Primer día", required = true) LocalDate desde,
+            @Parameter(description = "Último día", required = true) LocalDate hasta);
+
+    /**
+     * Obtiene el histórico de saldos de una cuenta del usuario autenticado.
+     *
+     * @param user  Usuario autenticado
+     * @param iban  IBAN de la cuenta
+     * @param desde Primer día
+     * @param hasta Último día
+     * @return Un elemento por día, ordenados por fecha
+     */
+    @Operation(summary = "Histórico de saldos del usuario", description = "Devuelve el saldo día a día de una cuenta del usuario autenticado")
+    List<SaldoDiarioResponse> getHistoricoUsuario(
+            @Parameter(description = "Usuario autenticado", required = true) User user,
+            @Parameter(description = "IBAN de la cuenta", required = true) String iban,
+            @Parameter(description = "Primer día", required = true) LocalDate desde,
+            @Parameter(description = "Último día", required = true) LocalDate hasta);
+}
@@ -0,0 +1,163 @@
+package org.example.vivesbankproject.rest.cuenta.services;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.SaldoDiarioResponse;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaIntervaloSaldosInvalido;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFoundByIban;
+import org.example.vivesbankproject.rest.cuenta.models.SaldoDiario;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.example.vivesbankproject.rest.cuenta.repositories.SaldoDiarioRepository;
+import org.example.vivesbankproject.rest.users.models.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Implementación del servicio de histórico de saldos diarios.
+ * <p>
+ * El histórico se construye a partir de los resúmenes de {@link SaldoDiarioRepository}, que solo existen
+ * para los días con operaciones: se leen los resúmenes del intervalo con una única consulta y los días
+ * sin resumen se completan con el saldo de cierre del día anterior. El coste depende del número de días
+ * pedidos y no del número de movimientos de la cuenta.
+ * </p>
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Service
+@Slf4j
+public class SaldoDiarioServiceImpl implements SaldoDiarioService {
+    private final SaldoDiarioRepository saldoDiarioRepository;
+    private final CuentaRepository cuentaRepository;
+    private final CuentaUsuarioResolver cuentaUsuarioResolver;
+    private final int maxDias;
+
+    @Autowired
+    public SaldoDiarioServiceImpl(SaldoDiarioRepository saldoDiarioRepository,
+                                  CuentaRepository cuentaRepository,
+                                  CuentaUsuarioResolver cuentaUsuarioResolver,
+                                  @Value("${saldos-diarios.max-dias:366}") int maxDias) {
+        this.saldoDiarioRepository = saldoDiarioRepository;
+        this.cuentaRepository = cuentaRepository;
+        this.cuentaUsuarioResolver = cuentaUsuarioResolver;
+        this.maxDias = maxDias;
+    }
+
+    /**
+     * Obtiene el saldo de una cuenta día a día entre dos fechas, ambas incluidas. Los días posteriores
+     * a hoy no se devuelven.
+     *
+     * @param iban  IBAN de la cuenta
+     * @param desde Primer día
+     * @param hasta Último día
+     * @return Un elemento por día, ordenados por fecha
+     * @throws CuentaIntervaloSaldosInvalido Si el intervalo está invertido o supera el máximo de días
+     * @throws CuentaNotFoundByIban          Si la cuenta no existe
+     */
+    @Override
+    @Operation(summary = "Histórico de saldos", description = "Devuelve el saldo de la cuenta día a día entre dos fechas")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Histórico de saldos obtenido correctamente"),
+            @ApiResponse(responseCode = "400", description = "Intervalo de fechas no válido"),
+            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada por IBAN")
+    })
+    public List<SaldoDiarioResponse> getHistorico(String iban, LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta) || ChronoUnit.DAYS.between(desde, hasta) >= maxDias) {
+            throw new CuentaIntervaloSaldosInvalido(desde, hasta, maxDias);
+        }
+        log.info("Obteniendo el histórico de saldos de la cuenta {} del {} al {}", iban, desde, hasta);
+
+        LocalDate hoy = LocalDate.now();
+        LocalDate ultimo = hasta.isAfter(hoy) ? hoy : hasta;
+        List<SaldoDiario> resumenes = desde.isAfter(ultimo)
+                ? List.of()
+                : saldoDiarioRepository.findByIbanAndFechaBetweenOrderByFechaAsc(iban, desde, ultimo);
+        BigDecimal saldo = saldoInicial(iban, desde, ultimo, resumenes);
+
+        List<SaldoDiarioResponse> historico = new ArrayList<>();
+        Iterator<SaldoDiario> iterator = resumenes.iterator();
+        SaldoDiario siguiente = iterator.hasNext() ? iterator.next() : null;
+        for (LocalDate dia = desde; !dia.isAfter(ultimo); dia = dia.plusDays(1)) {
+            if (siguiente != null && siguiente.getFecha().equals(dia)) {
+                historico.add(toResponse(siguiente));
+                saldo = siguiente.getSaldoCierre();
+                siguiente = iterator.hasNext() ? iterator.next() : null;
+            } else {
+                historico.add(sinOperaciones(dia, saldo));
+            }
+        }
+        return historico;
+    }
+
+    /**
+     * Obtiene el histórico de saldos de una cuenta del usuario autenticado. Las cuentas de otros
+     * usuarios se tratan como inexistentes.
+     *
+     * @param user  Usuario autenticado
+     * @param iban  IBAN de la cuenta
+     * @param desde Primer día
+     * @param hasta Último día
+     * @return Un elemento por día, ordenados por fecha
+     * @throws CuentaNotFoundByIban Si la cuenta no existe o no pertenece al usuario
+     */
+    @Override
+    @Operation(summary = "Histórico de saldos del usuario", description = "Devuelve el saldo día a día de una cuenta del usuario autenticado")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Histórico de saldos obtenido correctamente"),
+            @ApiResponse(responseCode = "400", description = "Intervalo de fechas no válido"),
+            @ApiResponse(responseCode = "404", description = "Cuenta no encontrada por IBAN o de otro usuario")
+    })
+    public List<SaldoDiarioResponse> getHistoricoUsuario(User user, String iban, LocalDate desde, LocalDate hasta) {
+        if (!user.getUsername().equals(cuentaUsuarioResolver.getUsername(iban))) {
+            throw new CuentaNotFoundByIban(iban);
+        }
+        return getHistorico(iban, desde, hasta);
+    }
+
+    /**
+     * Saldo de la cuenta al empezar el primer día del intervalo: el cierre del último resumen anterior,
+     * la apertura del primer resumen posterior o, si la cuenta no tiene operaciones registradas, su saldo actual.
+     */
+    private BigDecimal saldoInicial(String iban, LocalDate desde, LocalDate ultimo, List<SaldoDiario> resumenes) {
+        return saldoDiarioRepository.findFirstByIbanAndFechaLessThanOrderByFechaDesc(iban, desde)
+                .map(SaldoDiario::getSaldoCierre)
+                .or(() -> resumenes.stream().findFirst().map(SaldoDiario::getSaldoApertura))
+                .or(() -> saldoDiarioRepository.findFirstByIbanAndFechaGreaterThanEqualOrderByFechaAsc(iban, ultimo.plusDays(1))
+                        .map(SaldoDiario::getSaldoApertura))
+                .or(() -> cuentaRepository.findSaldoByIban(iban))
+                .orElseThrow(() -> new CuentaNotFoundByIban(iban));
+    }
+
+    private SaldoDiarioResponse toResponse(SaldoDiario saldoDiario) {
+        return SaldoDiarioResponse.builder()
+                .fecha(saldoDiario.getFecha())
+                .saldoApertura(saldoDiario.getSaldoApertura())
+                .saldoCierre(saldoDiario.getSaldoCierre())
+                .ingresos(saldoDiario.getIngresos())
+                .cargos(saldoDiario.getCargos())
+                .operaciones(saldoDiario.getOperaciones())
+                .build();
+    }
+
+    private SaldoDiarioResponse sinOperaciones(LocalDate fecha, BigDecimal saldo) {
+        return SaldoDiarioResponse.builder()
+                .fecha(fecha)
+                .saldoApertura(saldo)
+                .saldoCierre(saldo)
+                .ingresos(BigDecimal.ZERO)
+                .cargos(BigDecimal.ZERO)
+                .operaciones(0)
+                .build();
+    }
+}
@@ -85,7 +85,7 @@ public class TipoCuentaServiceImpl implements TipoCuentaService {
     }
 
     @Override
-    @CachePut
+    @CachePut(key = "#result.guid")
     @Operation(summary = "Guardar un nuevo tipo de cuenta",
             description = "Crea un nuevo tipo de cuenta en la base de datos.")
     @Parameter(name = "tipoCuentaRequest", description = "Información para crear un nuevo tipo de cuenta", required = true)
@@ -103,7 +103,7 @@ public class TipoCuentaServiceImpl implements TipoCuentaService {
             description = "Actualiza la información de un tipo de cuenta utilizando su identificador.")
     @Parameter(name = "id", description = "Identificador del tipo de cuenta a actualizar", required = true)
     @Parameter(name = "tipoCuentaRequest", description = "Información para actualizar el tipo de cuenta", required = true)
-    @CachePut
+    @CachePut(key = "#id")
     public TipoCuentaResponse update(String id, TipoCuentaRequest tipoCuentaRequest) {
         log.info("Actualizando tipo de cuenta con id {}", id);
         var tipoCuenta = tipoCuentaRepository.findByGuid(id).orElseThrow(() -> new TipoCuentaNotFound(id));
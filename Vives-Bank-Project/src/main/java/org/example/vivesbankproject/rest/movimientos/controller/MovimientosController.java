@@ -7,17 +7,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.extern.slf4j.Slf4j;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoRequest;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoResponse;
 import org.example.vivesbankproject.rest.movimientos.services.MovimientosService;
 import org.example.vivesbankproject.rest.movimientos.services.MovimientosServiceImpl;
+import org.example.vivesbankproject.utils.pagination.CursorPageResponse;
 import org.example.vivesbankproject.utils.pagination.PageResponse;
 import org.example.vivesbankproject.utils.pagination.PaginationLinksUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -26,6 +30,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 /**
@@ -97,6 +102,45 @@ public class MovimientosController {
                 .body(PageResponse.of(movimientos, sortBy, direction));
     }
 
+    /**
+     * Obtiene una página de movimientos, del más reciente al más antiguo, paginando por cursor.
+     * A diferencia de {@link #getAll}, el coste no crece con la profundidad de la página y el total
+     * solo se calcula si se solicita.
+     *
+     * @param cursor  Cursor devuelto en la página anterior; sin él se obtiene la primera página.
+     * @param size    El tamaño de la página (por defecto es 10).
+     * @param total   Si se debe incluir el número total de movimientos (por defecto es false).
+     * @param request El objeto HttpServletRequest para obtener la URL base de la solicitud.
+     * @return ResponseEntity con la página de movimientos y el cursor de la siguiente.
+     */
+    @Operation(
+            summary = "Obtener movimientos por cursor",
+            description = "Recupera los movimientos del más reciente al más antiguo paginando por cursor, sin coste adicional en páginas profundas"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Página de movimientos recuperada exitosamente",
+                    content = @Content(schema = @Schema(implementation = CursorPageResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor o parámetros inválidos"),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<MovimientoResponse>> getAllByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "false") boolean total,
+            HttpServletRequest request
+    ) {
+        log.info("Obteniendo movimientos por cursor");
+        var movimientos = service.getAllByCursor(cursor, size, total);
+
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString())
+                .query(request.getQueryString());
+
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createCursorLinkHeader(movimientos, uriBuilder))
+                .body(movimientos);
+    }
+
     /**
      * Obtiene un movimiento por su identificador único (GUID).
      *
@@ -121,26 +165,47 @@ public class MovimientosController {
     }
 
     /**
-     * Obtiene un movimiento basado en el identificador de cliente.
+     * Obtiene el historial de movimientos de un cliente, del más reciente al más antiguo, paginado por cursor.
      *
-     * @param clienteId El identificador del cliente.
-     * @return ResponseEntity con la información del movimiento.
+     * @param clienteId            El identificador del cliente.
+     * @param desde                Fecha de creación mínima (incluida).
+     * @param hasta                Fecha de creación máxima (incluida).
+     * @param cursor               Cursor devuelto en la página anterior; sin él se obtiene la primera página.
+     * @param size                 El tamaño de la página (por defecto es 10).
+     * @param incluirDomiciliacion Si se debe incluir la domiciliación de cada movimiento (por defecto es false).
+     * @param request              El objeto HttpServletRequest para obtener la URL base de la solicitud.
+     * @return ResponseEntity con la página de movimientos del cliente.
      */
     @Operation(
-            summary = "Obtener movimiento por ID de cliente",
-            description = "Recupera un movimiento específico utilizando el identificador del cliente"
+            summary = "Obtener movimientos por ID de cliente",
+            description = "Recupera el historial de movimientos de un cliente, filtrable por fechas y paginado por cursor"
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Movimiento encontrado con éxito",
-                    content = @Content(schema = @Schema(implementation = MovimientoResponse.class))),
-            @ApiResponse(responseCode = "404", description = "Movimiento no encontrado"),
+            @ApiResponse(responseCode = "200", description = "Movimientos del cliente recuperados con éxito",
+                    content = @Content(schema = @Schema(implementation = CursorPageResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor o parámetros inválidos"),
+            @ApiResponse(responseCode = "404", description = "Cliente no encontrado"),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     @GetMapping("/cliente/{clienteId}")
-    public ResponseEntity<MovimientoResponse> getByClienteGuid(@PathVariable String clienteId) {
-        log.info("Obteniendo movimiento con id de cliente: {}", clienteId);
-        MovimientoResponse movimiento = service.getByClienteGuid(clienteId);
-        return ResponseEntity.ok(movimiento);
+    public ResponseEntity<CursorPageResponse<MovimientoResponse>> getByClienteGuid(
+            @PathVariable String clienteId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "false") boolean incluirDomiciliacion,
+            HttpServletRequest request
+    ) {
+        log.info("Obteniendo movimientos con id de cliente: {}", clienteId);
+        var movimientos = service.getByClienteGuid(clienteId, desde, hasta, cursor, size, incluirDomiciliacion);
+
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString())
+                .query(request.getQueryString());
+
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createCursorLinkHeader(movimientos, uriBuilder))
+                .body(movimientos);
     }
 
     /**
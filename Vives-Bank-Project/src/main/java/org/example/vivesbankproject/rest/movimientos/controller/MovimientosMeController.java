@@ -5,17 +5,25 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.extern.slf4j.Slf4j;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoResponse;
+import org.example.vivesbankproject.rest.movimientos.dto.TransferenciasBatchRequest;
+import org.example.vivesbankproject.rest.movimientos.dto.TransferenciasBatchResponse;
 import org.example.vivesbankproject.rest.movimientos.models.Domiciliacion;
 import org.example.vivesbankproject.rest.movimientos.models.IngresoDeNomina;
 import org.example.vivesbankproject.rest.movimientos.models.PagoConTarjeta;
 import org.example.vivesbankproject.rest.movimientos.models.Transferencia;
 import org.example.vivesbankproject.rest.movimientos.services.MovimientosService;
 import org.example.vivesbankproject.rest.users.models.User;
+import org.example.vivesbankproject.utils.pagination.CursorPageResponse;
+import org.example.vivesbankproject.utils.pagination.PaginationLinksUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -23,7 +31,9 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 /**
@@ -42,15 +52,63 @@ import java.util.Map;
 public class MovimientosMeController {
 
     private final MovimientosService movimientosService;
+    private final PaginationLinksUtils paginationLinksUtils;
 
     /**
-     * Constructor para inyectar la dependencia de servicio.
+     * Constructor para inyectar las dependencias requeridas.
      *
-     * @param movimientosService Servicio para la lógica de negocio relacionada con movimientos personales.
+     * @param movimientosService   Servicio para la lógica de negocio relacionada con movimientos personales.
+     * @param paginationLinksUtils Utilidad para la creación de enlaces de paginación.
      */
     @Autowired
-    public MovimientosMeController(MovimientosService movimientosService) {
+    public MovimientosMeController(MovimientosService movimientosService, PaginationLinksUtils paginationLinksUtils) {
         this.movimientosService = movimientosService;
+        this.paginationLinksUtils = paginationLinksUtils;
+    }
+
+    /**
+     * Obtiene el historial de movimientos del usuario autenticado, del más reciente al más antiguo,
+     * paginado por cursor y filtrable por fechas.
+     *
+     * @param user                 El usuario autenticado.
+     * @param desde                Fecha de creación mínima (incluida).
+     * @param hasta                Fecha de creación máxima (incluida).
+     * @param cursor               Cursor devuelto en la página anterior; sin él se obtiene la primera página.
+     * @param size                 El tamaño de la página (por defecto es 20).
+     * @param incluirDomiciliacion Si se debe incluir la domiciliación de cada movimiento (por defecto es false).
+     * @param request              El objeto HttpServletRequest para obtener la URL base de la solicitud.
+     * @return ResponseEntity con la página de movimientos del usuario.
+     */
+    @Operation(
+            summary = "Obtener movimientos del usuario",
+            description = "Recupera el historial de movimientos del usuario autenticado, filtrable por fechas y paginado por cursor"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Movimientos recuperados con éxito",
+                    content = @Content(schema = @Schema(implementation = CursorPageResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Cursor o parámetros inválidos"),
+            @ApiResponse(responseCode = "404", description = "El usuario no tiene cliente"),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @GetMapping("/movimientos")
+    public ResponseEntity<CursorPageResponse<MovimientoResponse>> getMovimientos(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime hasta,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+            @RequestParam(defaultValue = "false") boolean incluirDomiciliacion,
+            HttpServletRequest request
+    ) {
+        log.info("Obteniendo Movimientos del usuario");
+        var movimientos = movimientosService.getMovimientosUsuario(user, desde, hasta, cursor, size, incluirDomiciliacion);
+
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString())
+                .query(request.getQueryString());
+
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createCursorLinkHeader(movimientos, uriBuilder))
+                .body(movimientos);
     }
 
     /**
@@ -157,6 +215,34 @@ public class MovimientosMeController {
         return ResponseEntity.ok(movimientosService.saveTransferencia(user, request));
     }
 
+    /**
+     * Crea un lote de transferencias para el usuario autenticado.
+     * Cada transferencia del lote devuelve su propio estado; las rechazadas no impiden que se realicen las demás.
+     *
+     * @param user    El usuario autenticado.
+     * @param request Objeto TransferenciasBatchRequest con las transferencias del lote.
+     * @return ResponseEntity con el resultado de cada transferencia y el resumen del lote.
+     */
+    @Operation(
+            summary = "Crear lote de transferencias",
+            description = "Valida y aplica un lote de transferencias para el usuario autenticado, con un resultado por transferencia"
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lote de transferencias procesado",
+                    content = @Content(schema = @Schema(implementation = TransferenciasBatchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Parámetros inválidos"),
+            @ApiResponse(responseCode = "409", description = "Lote abortado por conflictos de concurrencia"),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+    })
+    @PostMapping("/transferencias/batch")
+    public ResponseEntity<TransferenciasBatchResponse> createMovimientosTransferenciaBatch(
+            @AuthenticationPrincipal User user,
+            @RequestBody @Valid TransferenciasBatchRequest request
+    ) {
+        log.info("Creando lote de {} Movimientos de Transferencia", request.getTransferencias().size());
+        return ResponseEntity.ok(movimientosService.saveTransferenciasBatch(user, request.getTransferencias()));
+    }
+
     /**
      * Revoca una transferencia para el usuario autenticado.
      *
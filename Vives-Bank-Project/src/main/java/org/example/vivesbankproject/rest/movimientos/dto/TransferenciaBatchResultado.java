@@ -0,0 +1,55 @@
+package org.example.vivesbankproject.rest.movimientos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Clase que representa el resultado de una transferencia dentro de un lote.
+ * Si la transferencia se ha realizado incluye el movimiento creado; si se ha rechazado, el motivo.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransferenciaBatchResultado {
+
+    /**
+     * Estado de una transferencia del lote.
+     */
+    public enum Estado {
+        /** La transferencia se ha realizado. */
+        REALIZADA,
+        /** La transferencia no ha superado las validaciones y no se ha aplicado. */
+        RECHAZADA
+    }
+
+    /**
+     * Posición de la transferencia en el lote, empezando en cero.
+     */
+    @Schema(description = "Posición de la transferencia en el lote, empezando en cero", example = "0")
+    private int indice;
+
+    /**
+     * Estado final de la transferencia.
+     */
+    @Schema(description = "Estado final de la transferencia", example = "REALIZADA")
+    private Estado estado;
+
+    /**
+     * Motivo del rechazo, solo si la transferencia se ha rechazado.
+     */
+    @Schema(description = "Motivo del rechazo", example = "El saldo de la cuenta ES9121000418450200051332 es insuficiente")
+    private String error;
+
+    /**
+     * Movimiento creado, solo si la transferencia se ha realizado.
+     */
+    @Schema(description = "Movimiento creado para el ordenante", implementation = MovimientoResponse.class)
+    private MovimientoResponse movimiento;
+}
@@ -0,0 +1,35 @@
+package org.example.vivesbankproject.rest.movimientos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.vivesbankproject.rest.movimientos.models.Transferencia;
+
+import java.util.List;
+
+/**
+ * Clase que representa la solicitud para realizar un lote de transferencias, por ejemplo una remesa de nóminas
+ * o de pagos a proveedores. Todas las transferencias deben partir de cuentas del cliente autenticado.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransferenciasBatchRequest {
+
+    /**
+     * Transferencias del lote, en el orden en que deben aplicarse.
+     */
+    @NotEmpty(message = "El lote debe contener al menos una transferencia")
+    @Size(max = 10000, message = "El lote no puede contener más de 10000 transferencias")
+    @Schema(description = "Transferencias del lote, en el orden en que deben aplicarse")
+    private List<@Valid Transferencia> transferencias;
+}
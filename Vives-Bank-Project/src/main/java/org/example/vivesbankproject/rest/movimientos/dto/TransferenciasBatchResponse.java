@@ -0,0 +1,46 @@
+package org.example.vivesbankproject.rest.movimientos.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Clase de respuesta para un lote de transferencias, con el resumen del lote y el resultado de cada transferencia.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TransferenciasBatchResponse {
+
+    /**
+     * Número total de transferencias del lote.
+     */
+    @Schema(description = "Número total de transferencias del lote", example = "100")
+    private int total;
+
+    /**
+     * Número de transferencias realizadas.
+     */
+    @Schema(description = "Número de transferencias realizadas", example = "98")
+    private int realizadas;
+
+    /**
+     * Número de transferencias rechazadas.
+     */
+    @Schema(description = "Número de transferencias rechazadas", example = "2")
+    private int rechazadas;
+
+    /**
+     * Resultado de cada transferencia, en el mismo orden que la solicitud.
+     */
+    @Schema(description = "Resultado de cada transferencia, en el mismo orden que la solicitud")
+    private List<TransferenciaBatchResultado> resultados;
+}
@@ -0,0 +1,24 @@
+package org.example.vivesbankproject.rest.movimientos.exceptions.movimientos;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para manejar el caso en el que el cursor de paginación enviado por el cliente no es válido.
+ * Devuelve un error HTTP 400 (BAD REQUEST) al ser lanzada.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CursorInvalidoException extends MovimientosException {
+
+    /**
+     * Constructor para la excepción CursorInvalidoException.
+     *
+     * @param cursor El cursor recibido.
+     */
+    public CursorInvalidoException(String cursor) {
+        super("El cursor de paginación '" + cursor + "' no es válido");
+    }
+}
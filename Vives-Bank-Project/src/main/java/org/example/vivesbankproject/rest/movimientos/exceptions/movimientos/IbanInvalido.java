@@ -0,0 +1,24 @@
+package org.example.vivesbankproject.rest.movimientos.exceptions.movimientos;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción lanzada cuando un IBAN no tiene un formato válido o no supera la comprobación módulo 97.
+ * Devuelve un error HTTP 400 (BAD REQUEST) al ser lanzada.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class IbanInvalido extends MovimientosException {
+
+    /**
+     * Constructor para crear una excepción IbanInvalido con el IBAN que no es válido.
+     *
+     * @param iban El IBAN con formato no válido.
+     */
+    public IbanInvalido(String iban) {
+        super("El iban " + iban + " no tiene un formato válido");
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.vivesbankproject.rest.movimientos.exceptions.movimientos;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción lanzada cuando una transferencia tiene la misma cuenta como origen y como destino.
+ * Devuelve un error HTTP 400 (BAD REQUEST) al ser lanzada.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class TransferenciaMismaCuenta extends MovimientosException {
+
+    /**
+     * Constructor para crear una excepción TransferenciaMismaCuenta con el IBAN repetido.
+     *
+     * @param iban El IBAN usado como origen y destino.
+     */
+    public TransferenciaMismaCuenta(String iban) {
+        super("La cuenta de origen y la de destino no pueden ser la misma: " + iban);
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.vivesbankproject.rest.movimientos.exceptions.movimientos;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción lanzada cuando se intenta revocar una transferencia que ya se ha revocado.
+ * Devuelve un error HTTP 409 (CONFLICT) al ser lanzada.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class TransferenciaYaRevocada extends MovimientosException {
+
+    /**
+     * Constructor para crear una excepción TransferenciaYaRevocada con el guid de la transferencia.
+     *
+     * @param guid Identificador único de la transferencia que ya estaba revocada.
+     */
+    public TransferenciaYaRevocada(String guid) {
+        super("La transferencia con guid '" + guid + "' ya ha sido revocada");
+    }
+}
@@ -9,6 +9,8 @@ import lombok.*;
 import org.bson.types.ObjectId;
 import org.example.vivesbankproject.utils.generators.IdGenerator;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -26,9 +28,18 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(collection = "domiciliaciones")
+@CompoundIndexes({
+        @CompoundIndex(name = "activa_particion_proximaEjecucion_idx", def = "{'activa': 1, 'particion': 1, 'proximaEjecucion': 1}")
+})
 @Schema(description = "Clase para representar una domiciliación en el sistema financiero")
 public class Domiciliacion {
 
+    /**
+     * Número de particiones en las que se reparten las domiciliaciones entre los nodos de la aplicación.
+     * Cambiarlo exige recalcular el campo {@code particion} de los documentos existentes.
+     */
+    public static final int PARTICIONES = 64;
+
     /**
      * Identificador único de la domiciliación generado automáticamente.
      */
@@ -109,6 +120,45 @@ public class Domiciliacion {
     @Schema(description = "Última fecha de ejecución de la domiciliación", example = "2024-12-08T10:00:00")
     private LocalDateTime ultimaEjecucion = LocalDateTime.now(); // Última vez que se realizó el cargo
 
+    /**
+     * Fecha a partir de la cual la domiciliación debe volver a ejecutarse. Se calcula a partir de la
+     * última ejecución y la periodicidad, y junto a {@code activa} forma el índice con el que el
+     * programador localiza las domiciliaciones vencidas.
+     */
+    @Schema(description = "Próxima fecha de ejecución de la domiciliación", example = "2025-01-08T10:00:00")
+    private LocalDateTime proximaEjecucion;
+
+    /**
+     * Partición a la que pertenece la domiciliación, calculada a partir del IBAN de origen. Cada partición
+     * la ejecuta un único nodo, el que tiene su concesión.
+     */
+    @Schema(description = "Partición de ejecución de la domiciliación", example = "17")
+    private Integer particion;
+
+    /**
+     * Registra una ejecución (o el alta) de la domiciliación en la fecha indicada y calcula la
+     * siguiente según su periodicidad. Asigna también la partición si todavía no la tiene.
+     *
+     * @param fecha Fecha de la ejecución
+     */
+    public void programarSiguienteEjecucion(LocalDateTime fecha) {
+        this.ultimaEjecucion = fecha;
+        this.proximaEjecucion = periodicidad.siguienteEjecucion(fecha);
+        if (particion == null && ibanOrigen != null) {
+            this.particion = particionDe(ibanOrigen);
+        }
+    }
+
+    /**
+     * Calcula la partición que corresponde a un IBAN de origen.
+     *
+     * @param ibanOrigen IBAN de origen
+     * @return Partición entre 0 y {@link #PARTICIONES} - 1
+     */
+    public static int particionDe(String ibanOrigen) {
+        return Math.floorMod(ibanOrigen.hashCode(), PARTICIONES);
+    }
+
     /**
      * Convierte el campo `id` de tipo ObjectId en una cadena hexadecimal para su uso en las respuestas JSON.
      *
@@ -11,6 +11,9 @@ import org.bson.types.ObjectId;
 import org.example.vivesbankproject.utils.generators.IdGenerator;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -25,6 +28,10 @@ import java.time.LocalDateTime;
  */
 @Document("movimientos")
 @TypeAlias("Movimiento")
+@CompoundIndexes({
+        @CompoundIndex(name = "createdAt_id_idx", def = "{'createdAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "clienteGuid_createdAt_id_idx", def = "{'clienteGuid': 1, 'createdAt': -1, '_id': -1}")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -41,9 +48,11 @@ public class Movimiento {
     private ObjectId id = new ObjectId();
 
     /**
-     * GUID único para identificar este movimiento.
+     * GUID único para identificar este movimiento. El índice único sirve las búsquedas por GUID y las
+     * restauraciones, que insertan los movimientos de la copia de seguridad filtrando por él.
      */
     @Builder.Default
+    @Indexed(name = "guid_idx", unique = true)
     @Schema(description = "GUID único para identificar el movimiento", example = "e4f2d782-b34d-4dc2-b672-8c1a72a6bb42")
     private String guid = IdGenerator.generarId();
 
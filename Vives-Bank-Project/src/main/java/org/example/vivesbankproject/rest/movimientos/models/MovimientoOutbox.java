@@ -0,0 +1,96 @@
+package org.example.vivesbankproject.rest.movimientos.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada de la bandeja de salida (outbox) de movimientos, almacenada en PostgreSQL.
+ * <p>
+ * Se escribe en la misma transacción JPA que el cambio de saldo de las cuentas, de modo que un movimiento
+ * nunca se pierde aunque la aplicación caiga antes de llegar a MongoDB. Un proceso en segundo plano
+ * ({@link org.example.vivesbankproject.rest.movimientos.utils.MovimientoOutboxRelay}) publica las entradas
+ * pendientes en la colección {@code movimientos} y las marca como entregadas.
+ * </p>
+ *
+ * @author Jaime León, Natalia González,
+ *         German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@Builder
+@Entity
+@Table(name = "movimientos_outbox", indexes = {
+        @Index(name = "idx_movimientos_outbox_pendientes", columnList = "entregado, id")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovimientoOutbox {
+
+    /**
+     * Operación a aplicar sobre la colección de movimientos.
+     */
+    public enum Operacion {
+        /** Inserción de un movimiento nuevo. */
+        ALTA,
+        /** Sustitución de un movimiento existente, por ejemplo al revocar una transferencia. */
+        ACTUALIZACION
+    }
+
+    /**
+     * Identificador secuencial de la entrada, que fija el orden de publicación.
+     * Se obtiene de una secuencia con reserva por bloques para poder insertar lotes grandes con JDBC batch.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimientos_outbox_seq")
+    @SequenceGenerator(name = "movimientos_outbox_seq", sequenceName = "movimientos_outbox_seq", allocationSize = 50)
+    @Schema(description = "Identificador secuencial de la entrada del outbox", example = "1")
+    private Long id;
+
+    /**
+     * GUID del movimiento al que corresponde la entrada.
+     */
+    @Column(nullable = false)
+    @Schema(description = "GUID del movimiento", example = "e4f2d782-b34d-4dc2-b672-8c1a72a6bb42")
+    private String guid;
+
+    /**
+     * Operación a aplicar en MongoDB.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Schema(description = "Operación a aplicar sobre la colección de movimientos", example = "ALTA")
+    private Operacion operacion;
+
+    /**
+     * Documento del movimiento en formato Extended JSON de MongoDB, con su {@code _id} ya asignado.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    @Schema(description = "Documento del movimiento en formato Extended JSON")
+    private String documento;
+
+    /**
+     * Indica si la entrada ya se ha publicado en MongoDB.
+     */
+    @Builder.Default
+    @Column(nullable = false)
+    @Schema(description = "Indica si la entrada ya se ha publicado en MongoDB", example = "false")
+    private Boolean entregado = false;
+
+    /**
+     * Fecha y hora de creación de la entrada.
+     */
+    @CreationTimestamp
+    @Column(updatable = false, nullable = false)
+    @Schema(description = "Fecha de creación de la entrada", example = "2024-12-08T14:30:00")
+    private LocalDateTime createdAt;
+
+    /**
+     * Fecha y hora en la que la entrada se publicó en MongoDB.
+     */
+    @Schema(description = "Fecha de publicación de la entrada en MongoDB", example = "2024-12-08T14:30:01")
+    private LocalDateTime entregadoAt;
+}
@@ -3,6 +3,8 @@ package org.example.vivesbankproject.rest.movimientos.models;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.time.LocalDateTime;
+
 /**
  * Enum que representa las opciones de periodicidad para una domiciliación o movimiento recurrente.
  * Contempla las opciones más comunes para definir el intervalo de ejecución de una operación.
@@ -35,5 +37,20 @@ public enum Periodicidad {
      * Representa la ejecución anual.
      */
     @Schema(description = "Ejecutar de manera anual")
-    ANUAL
+    ANUAL;
+
+    /**
+     * Calcula la fecha de la siguiente ejecución a partir de la fecha de una ejecución.
+     *
+     * @param fecha Fecha de la ejecución
+     * @return Fecha de la siguiente ejecución
+     */
+    public LocalDateTime siguienteEjecucion(LocalDateTime fecha) {
+        return switch (this) {
+            case DIARIA -> fecha.plusDays(1);
+            case SEMANAL -> fecha.plusWeeks(1);
+            case MENSUAL -> fecha.plusMonths(1);
+            case ANUAL -> fecha.plusYears(1);
+        };
+    }
 }
\ No newline at end of file
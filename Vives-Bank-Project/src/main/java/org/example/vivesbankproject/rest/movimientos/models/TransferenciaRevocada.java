@@ -0,0 +1,44 @@
+package org.example.vivesbankproject.rest.movimientos.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revocación de una transferencia, almacenada en PostgreSQL.
+ * <p>
+ * Se inserta en la misma transacción que devuelve el dinero, con el GUID del movimiento de origen como clave,
+ * de modo que una transferencia solo se revoca una vez aunque MongoDB aún no refleje la revocación anterior
+ * porque el outbox no la ha publicado.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@Builder
+@Entity
+@Table(name = "transferencias_revocadas")
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferenciaRevocada {
+
+    /**
+     * GUID del movimiento de origen de la transferencia revocada.
+     */
+    @Id
+    @Column(nullable = false, updatable = false)
+    @Schema(description = "GUID del movimiento de origen de la transferencia", example = "e4f2d782-b34d-4dc2-b672-8c1a72a6bb42")
+    private String guid;
+
+    /**
+     * Fecha y hora de la revocación.
+     */
+    @CreationTimestamp
+    @Column(updatable = false, nullable = false)
+    @Schema(description = "Fecha de la revocación", example = "2024-12-08T14:30:00")
+    private LocalDateTime createdAt;
+}
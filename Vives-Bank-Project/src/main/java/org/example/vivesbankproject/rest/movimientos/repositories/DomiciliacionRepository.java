@@ -4,10 +4,16 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.bson.types.ObjectId;
 import org.example.vivesbankproject.rest.movimientos.models.Domiciliacion;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para realizar operaciones de acceso a la base de datos
@@ -38,4 +44,45 @@ public interface DomiciliacionRepository extends MongoRepository<Domiciliacion,
      */
     @Operation(summary = "Buscar domiciliación por cliente GUID", description = "Obtiene una domiciliación de la base de datos utilizando el GUID del cliente")
     Optional<Domiciliacion> findByClienteGuid(String clienteGuid);
-}
\ No newline at end of file
+
+    /**
+     * Recorre las domiciliaciones activas de las particiones indicadas cuya próxima ejecución es anterior o
+     * igual a la fecha indicada, ordenadas por fecha. Utiliza el índice {activa, particion, proximaEjecucion}
+     * y lee el cursor por lotes, así que cuando no hay nada pendiente el coste es una consulta al índice.
+     * El stream debe cerrarse.
+     *
+     * @param particiones Particiones cuyas domiciliaciones se buscan
+     * @param fecha       Fecha hasta la que se consideran vencidas
+     * @return Stream de las domiciliaciones vencidas
+     */
+    @Meta(cursorBatchSize = 500)
+    @Operation(summary = "Buscar domiciliaciones vencidas", description = "Recorre por lotes las domiciliaciones activas de unas particiones cuya próxima ejecución ya ha llegado")
+    Stream<Domiciliacion> findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(Collection<Integer> particiones, LocalDateTime fecha);
+
+    /**
+     * Recorre las domiciliaciones activas a las que les falta la próxima ejecución o la partición,
+     * como las guardadas antes de existir esos campos. El stream debe cerrarse.
+     *
+     * @return Stream de las domiciliaciones sin programar
+     */
+    @Meta(cursorBatchSize = 500)
+    @Query("{ 'activa': true, $or: [ { 'proximaEjecucion': null }, { 'particion': null } ] }")
+    @Operation(summary = "Buscar domiciliaciones sin programar", description = "Recorre las domiciliaciones activas sin próxima ejecución o partición calculadas")
+    Stream<Domiciliacion> findSinProgramar();
+
+    /**
+     * Cambia la última y la próxima ejecución de una domiciliación activa solo si su próxima ejecución sigue
+     * siendo la que se leyó. La comprobación y la escritura son una única operación atómica sobre el
+     * documento, así que de dos nodos que intenten ejecutar el mismo vencimiento solo uno lo consigue.
+     *
+     * @param id               Identificador de la domiciliación
+     * @param proximaLeida     Próxima ejecución que se leyó de la domiciliación
+     * @param ultimaEjecucion  Nueva fecha de la última ejecución
+     * @param proximaEjecucion Nueva fecha de la próxima ejecución
+     * @return Número de documentos modificados (0 si otro nodo ya la ha reprogramado)
+     */
+    @Query("{ '_id': ?0, 'activa': true, 'proximaEjecucion': ?1 }")
+    @Update("{ '$set': { 'ultimaEjecucion': ?2, 'proximaEjecucion': ?3 } }")
+    @Operation(summary = "Reprogramar domiciliación de forma condicional", description = "Actualiza la última y la próxima ejecución si la próxima ejecución no ha cambiado desde que se leyó")
+    long reprogramarSiNoHaCambiado(ObjectId id, LocalDateTime proximaLeida, LocalDateTime ultimaEjecucion, LocalDateTime proximaEjecucion);
+}
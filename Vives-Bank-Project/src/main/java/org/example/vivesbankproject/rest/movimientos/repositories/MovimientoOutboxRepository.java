@@ -0,0 +1,63 @@
+package org.example.vivesbankproject.rest.movimientos.repositories;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.vivesbankproject.rest.movimientos.models.MovimientoOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio de la bandeja de salida (outbox) de movimientos en PostgreSQL.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Repository
+@Tag(name = "MovimientoOutboxRepository", description = "Repositorio para la bandeja de salida de movimientos")
+public interface MovimientoOutboxRepository extends JpaRepository<MovimientoOutbox, Long> {
+
+    /**
+     * Obtiene y bloquea un lote de entradas pendientes en orden de creación.
+     * Las filas ya bloqueadas por otra instancia se saltan, de modo que varios relays
+     * pueden trabajar en paralelo sin publicar dos veces el mismo lote.
+     *
+     * @param limite Número máximo de entradas a obtener
+     * @return Entradas pendientes de publicar
+     */
+    @Operation(summary = "Bloquear entradas pendientes", description = "Obtiene un lote de entradas pendientes saltando las bloqueadas por otras instancias")
+    @Parameter(name = "limite", description = "Número máximo de entradas", required = true)
+    @Query(value = "SELECT * FROM movimientos_outbox WHERE entregado = false ORDER BY id LIMIT :limite FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<MovimientoOutbox> bloquearPendientes(@Param("limite") int limite);
+
+    /**
+     * Marca como entregadas las entradas indicadas.
+     *
+     * @param ids Identificadores de las entradas publicadas
+     * @return Número de entradas marcadas
+     */
+    @Operation(summary = "Marcar entradas como entregadas", description = "Marca como entregadas las entradas publicadas en MongoDB")
+    @Parameter(name = "ids", description = "Identificadores de las entradas", required = true)
+    @Modifying
+    @Query("UPDATE MovimientoOutbox o SET o.entregado = true, o.entregadoAt = CURRENT_TIMESTAMP WHERE o.id IN :ids")
+    int marcarEntregados(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Elimina las entradas entregadas antes de la fecha indicada.
+     *
+     * @param fecha Fecha límite de entrega
+     * @return Número de entradas eliminadas
+     */
+    @Operation(summary = "Purgar entradas entregadas", description = "Elimina las entradas entregadas antes de una fecha")
+    @Parameter(name = "fecha", description = "Fecha límite de entrega", required = true)
+    @Modifying
+    @Query("DELETE FROM MovimientoOutbox o WHERE o.entregado = true AND o.entregadoAt < :fecha")
+    int eliminarEntregadosAntesDe(@Param("fecha") LocalDateTime fecha);
+}
@@ -4,10 +4,17 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.bson.types.ObjectId;
 import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repositorio para realizar operaciones de acceso a la base de datos
@@ -21,6 +28,12 @@ import java.util.Optional;
 @Tag(name = "MovimientosRepository", description = "Repositorio para operaciones de base de datos con movimientos")
 public interface MovimientosRepository extends MongoRepository<Movimiento, ObjectId> {
 
+    /**
+     * Movimientos de un cliente desde una fecha y anteriores a una posición {@code (createdAt, _id)}.
+     */
+    String HISTORIAL_CLIENTE = "{ 'clienteGuid': ?0, 'createdAt': { $gte: ?1 }, " +
+            "$or: [ { 'createdAt': { $lt: ?2 } }, { 'createdAt': ?2, '_id': { $lt: ?3 } } ] }";
+
     /**
      * Busca un movimiento utilizando su identificador único (GUID).
      *
@@ -31,11 +44,94 @@ public interface MovimientosRepository extends MongoRepository<Movimiento, Objec
     Optional<Movimiento> findByGuid(String guid);
 
     /**
-     * Busca un movimiento utilizando el identificador del cliente.
+     * Obtiene todos los movimientos de un cliente, del más reciente al más antiguo.
      *
-     * @param clienteId El identificador del cliente asociado al movimiento.
-     * @return Un objeto Optional que contiene el movimiento si se encuentra.
+     * @param clienteGuid El identificador del cliente asociado a los movimientos.
+     * @return Los movimientos del cliente.
+     */
+    @Operation(summary = "Buscar movimientos por cliente GUID", description = "Obtiene todos los movimientos de un cliente ordenados por fecha de creación descendente")
+    List<Movimiento> findAllByClienteGuidOrderByCreatedAtDesc(String clienteGuid);
+
+    /**
+     * Obtiene una página del historial de un cliente dentro de un intervalo de fechas, a partir de una
+     * posición {@code (createdAt, _id)} y sin la domiciliación embebida. La consulta recorre el índice
+     * {@code {clienteGuid: 1, createdAt: -1, _id: -1}}.
+     *
+     * @param clienteGuid El identificador del cliente.
+     * @param desde       Fecha de creación mínima (incluida).
+     * @param createdAt   Fecha de creación de la posición; se devuelven los movimientos anteriores a ella.
+     * @param id          Identificador de la posición, para desempatar movimientos con la misma fecha.
+     * @param pageable    Tamaño y orden de la página ({@code createdAt} y {@code _id} descendentes).
+     * @return Los movimientos de la página, sin domiciliación.
+     */
+    @Operation(summary = "Historial de movimientos de un cliente", description = "Obtiene una página del historial de un cliente por cursor y fechas, sin la domiciliación")
+    @Query(value = HISTORIAL_CLIENTE, fields = "{ 'domiciliacion': 0 }")
+    List<Movimiento> findHistorialCliente(String clienteGuid, LocalDateTime desde, LocalDateTime createdAt, ObjectId id, Pageable pageable);
+
+    /**
+     * Igual que {@link #findHistorialCliente}, pero devolviendo también la domiciliación embebida.
+     *
+     * @param clienteGuid El identificador del cliente.
+     * @param desde       Fecha de creación mínima (incluida).
+     * @param createdAt   Fecha de creación de la posición; se devuelven los movimientos anteriores a ella.
+     * @param id          Identificador de la posición, para desempatar movimientos con la misma fecha.
+     * @param pageable    Tamaño y orden de la página ({@code createdAt} y {@code _id} descendentes).
+     * @return Los movimientos de la página, completos.
+     */
+    @Operation(summary = "Historial completo de movimientos de un cliente", description = "Obtiene una página del historial de un cliente por cursor y fechas, con la domiciliación")
+    @Query(HISTORIAL_CLIENTE)
+    List<Movimiento> findHistorialClienteConDomiciliacion(String clienteGuid, LocalDateTime desde, LocalDateTime createdAt, ObjectId id, Pageable pageable);
+
+    /**
+     * Obtiene la primera página de movimientos sin calcular el total, para la paginación por clave.
+     *
+     * @param pageable Tamaño y orden de la página ({@code createdAt} y {@code _id} descendentes).
+     * @return Los movimientos de la página.
+     */
+    @Operation(summary = "Primera página de movimientos por clave", description = "Obtiene los movimientos más recientes sin contar el total")
+    List<Movimiento> findAllBy(Pageable pageable);
+
+    /**
+     * Obtiene los movimientos anteriores a una posición {@code (createdAt, _id)}, para la paginación por clave.
+     * La consulta recorre el índice {@code {createdAt: -1, _id: -1}} desde la posición, sin saltar documentos.
+     *
+     * @param createdAt Fecha de creación del último movimiento de la página anterior.
+     * @param id        Identificador del último movimiento de la página anterior.
+     * @param pageable  Tamaño y orden de la página ({@code createdAt} y {@code _id} descendentes).
+     * @return Los movimientos de la página.
+     */
+    @Operation(summary = "Página de movimientos por clave", description = "Obtiene los movimientos anteriores a un cursor (createdAt, _id)")
+    @Query("{ $or: [ { 'createdAt': { $lt: ?0 } }, { 'createdAt': ?0, '_id': { $lt: ?1 } } ] }")
+    List<Movimiento> findAnterioresA(LocalDateTime createdAt, ObjectId id, Pageable pageable);
+
+    /**
+     * Recorre todos los movimientos leyendo el cursor por lotes, sin cargar la colección en memoria.
+     * Se usa para las exportaciones completas. El stream debe cerrarse.
+     *
+     * @return Stream de todos los movimientos
+     */
+    @Meta(cursorBatchSize = 1000)
+    @Operation(summary = "Recorrer todos los movimientos", description = "Recorre por lotes todos los movimientos mediante un cursor")
+    Stream<Movimiento> streamAllBy();
+
+    /**
+     * Recorre los movimientos de un cliente del más reciente al más antiguo leyendo el cursor por lotes,
+     * sobre el índice {@code {clienteGuid: 1, createdAt: -1, _id: -1}}. El stream debe cerrarse.
+     *
+     * @param clienteGuid El identificador único del cliente.
+     * @return Stream de los movimientos del cliente
+     */
+    @Meta(cursorBatchSize = 1000)
+    @Operation(summary = "Recorrer los movimientos de un cliente", description = "Recorre por lotes los movimientos de un cliente, del más reciente al más antiguo")
+    Stream<Movimiento> streamByClienteGuidOrderByCreatedAtDescIdDesc(String clienteGuid);
+
+    /**
+     * Recorre los identificadores de los clientes que tienen movimientos. El stream debe cerrarse.
+     *
+     * @return Stream de los GUID de cliente distintos
      */
-    @Operation(summary = "Buscar movimiento por cliente GUID", description = "Obtiene un movimiento de la base de datos utilizando el identificador del cliente")
-    Optional<Movimiento> findByClienteGuid(String clienteId);
-}
\ No newline at end of file
+    @Meta(allowDiskUse = true)
+    @Aggregation(pipeline = { "{ $group: { _id: '$clienteGuid' } }" })
+    @Operation(summary = "Clientes con movimientos", description = "Recorre los GUID distintos de los clientes que tienen movimientos")
+    Stream<String> findClienteGuids();
+}
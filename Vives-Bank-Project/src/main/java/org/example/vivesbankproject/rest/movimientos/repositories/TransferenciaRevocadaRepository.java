@@ -0,0 +1,36 @@
+package org.example.vivesbankproject.rest.movimientos.repositories;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.example.vivesbankproject.rest.movimientos.models.TransferenciaRevocada;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio de las revocaciones de transferencias en PostgreSQL.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Repository
+@Tag(name = "TransferenciaRevocadaRepository", description = "Repositorio para las revocaciones de transferencias")
+public interface TransferenciaRevocadaRepository extends JpaRepository<TransferenciaRevocada, String> {
+
+    /**
+     * Reclama la revocación de una transferencia. Si otra transacción ya la ha reclamado, la inserción no
+     * hace nada; si la está reclamando en ese momento, espera a que termine.
+     *
+     * @param guid GUID del movimiento de origen de la transferencia
+     * @return 1 si la revocación es de esta transacción, 0 si la transferencia ya estaba revocada
+     */
+    @Operation(summary = "Reclamar revocación", description = "Registra la revocación de una transferencia si no estaba ya registrada")
+    @Parameter(name = "guid", description = "GUID del movimiento de origen", required = true)
+    @Modifying
+    @Query(value = "INSERT INTO transferencias_revocadas (guid, created_at) VALUES (:guid, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (guid) DO NOTHING", nativeQuery = true)
+    int reclamar(@Param("guid") String guid);
+}
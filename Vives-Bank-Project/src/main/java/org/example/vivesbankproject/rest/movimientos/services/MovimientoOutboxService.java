@@ -0,0 +1,69 @@
+package org.example.vivesbankproject.rest.movimientos.services;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Servicio de la bandeja de salida (outbox) de movimientos.
+ * Permite registrar movimientos en PostgreSQL dentro de la transacción que modifica los saldos
+ * y publicarlos más tarde en la colección de movimientos de MongoDB.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+public interface MovimientoOutboxService {
+
+    /**
+     * Registra un movimiento nuevo para insertarlo en MongoDB.
+     * Debe invocarse dentro de la transacción que modifica los saldos.
+     *
+     * @param movimiento Movimiento a insertar
+     */
+    @Operation(summary = "Registrar alta de movimiento", description = "Registra en el outbox un movimiento nuevo dentro de la transacción en curso")
+    @Parameter(name = "movimiento", description = "Movimiento a insertar", required = true)
+    void registrarAlta(Movimiento movimiento);
+
+    /**
+     * Registra varios movimientos nuevos para insertarlos en MongoDB.
+     * Debe invocarse dentro de la transacción que modifica los saldos.
+     *
+     * @param movimientos Movimientos a insertar
+     */
+    @Operation(summary = "Registrar altas de movimientos", description = "Registra en el outbox varios movimientos nuevos dentro de la transacción en curso")
+    @Parameter(name = "movimientos", description = "Movimientos a insertar", required = true)
+    void registrarAltas(List<Movimiento> movimientos);
+
+    /**
+     * Registra la nueva versión de un movimiento existente para sustituirlo en MongoDB.
+     * Debe invocarse dentro de la transacción que modifica los saldos.
+     *
+     * @param movimiento Movimiento actualizado
+     */
+    @Operation(summary = "Registrar actualización de movimiento", description = "Registra en el outbox la nueva versión de un movimiento dentro de la transacción en curso")
+    @Parameter(name = "movimiento", description = "Movimiento actualizado", required = true)
+    void registrarActualizacion(Movimiento movimiento);
+
+    /**
+     * Publica en MongoDB un lote de entradas pendientes y las marca como entregadas.
+     *
+     * @param limite Número máximo de entradas a publicar
+     * @return Número de entradas publicadas
+     */
+    @Operation(summary = "Publicar movimientos pendientes", description = "Publica en MongoDB un lote de entradas pendientes del outbox")
+    @Parameter(name = "limite", description = "Número máximo de entradas a publicar", required = true)
+    int publicarPendientes(int limite);
+
+    /**
+     * Elimina las entradas entregadas antes de la fecha indicada.
+     *
+     * @param fecha Fecha límite de entrega
+     * @return Número de entradas eliminadas
+     */
+    @Operation(summary = "Purgar entradas entregadas", description = "Elimina del outbox las entradas ya publicadas antes de una fecha")
+    @Parameter(name = "fecha", description = "Fecha límite de entrega", required = true)
+    int purgarEntregados(LocalDateTime fecha);
+}
@@ -0,0 +1,195 @@
+package org.example.vivesbankproject.rest.movimientos.services;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
+import org.example.vivesbankproject.rest.movimientos.models.MovimientoOutbox;
+import org.example.vivesbankproject.rest.movimientos.repositories.MovimientoOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Implementación del servicio de la bandeja de salida (outbox) de movimientos.
+ * <p>
+ * Los movimientos se serializan con el conversor de MongoDB, por lo que el documento publicado es
+ * idéntico al que escribiría {@code MovimientosRepository.save}, incluido su {@code _id}. Como el
+ * {@code _id} queda fijado al registrar la entrada, volver a publicarla tras un fallo no duplica el
+ * movimiento: la inserción repetida se rechaza por clave duplicada y se da por entregada.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Service
+@Slf4j
+public class MovimientoOutboxServiceImpl implements MovimientoOutboxService {
+    private final MovimientoOutboxRepository outboxRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Counter publicados;
+
+    @Autowired
+    public MovimientoOutboxServiceImpl(MovimientoOutboxRepository outboxRepository, MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.publicados = Counter.builder("movimientos.outbox.publicados")
+                .description("Entradas del outbox publicadas en MongoDB")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra un movimiento nuevo para insertarlo en MongoDB.
+     *
+     * @param movimiento Movimiento a insertar
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Operation(summary = "Registrar alta de movimiento", description = "Registra en el outbox un movimiento nuevo dentro de la transacción en curso")
+    public void registrarAlta(Movimiento movimiento) {
+        registrar(movimiento, MovimientoOutbox.Operacion.ALTA);
+    }
+
+    /**
+     * Registra varios movimientos nuevos para insertarlos en MongoDB con un único {@code saveAll}.
+     *
+     * @param movimientos Movimientos a insertar
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Operation(summary = "Registrar altas de movimientos", description = "Registra en el outbox varios movimientos nuevos dentro de la transacción en curso")
+    public void registrarAltas(List<Movimiento> movimientos) {
+        log.info("Registrando en el outbox {} movimientos", movimientos.size());
+        outboxRepository.saveAll(movimientos.stream()
+                .map(movimiento -> toOutbox(movimiento, MovimientoOutbox.Operacion.ALTA))
+                .toList());
+    }
+
+    /**
+     * Registra la nueva versión de un movimiento existente para sustituirlo en MongoDB.
+     *
+     * @param movimiento Movimiento actualizado
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Operation(summary = "Registrar actualización de movimiento", description = "Registra en el outbox la nueva versión de un movimiento dentro de la transacción en curso")
+    public void registrarActualizacion(Movimiento movimiento) {
+        registrar(movimiento, MovimientoOutbox.Operacion.ACTUALIZACION);
+    }
+
+    /**
+     * Publica en MongoDB un lote de entradas pendientes y las marca como entregadas.
+     * Las altas se insertan con un único {@code insertMany} no ordenado y después se aplican
+     * las actualizaciones en orden, de modo que una revocación nunca llega antes que su alta.
+     *
+     * @param limite Número máximo de entradas a publicar
+     * @return Número de entradas publicadas
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "Publicar movimientos pendientes", description = "Publica en MongoDB un lote de entradas pendientes del outbox")
+    public int publicarPendientes(int limite) {
+        List<MovimientoOutbox> pendientes = outboxRepository.bloquearPendientes(limite);
+        if (pendientes.isEmpty()) {
+            return 0;
+        }
+
+        MongoCollection<Document> coleccion = mongoTemplate.getCollection(mongoTemplate.getCollectionName(Movimiento.class));
+
+        List<Document> altas = pendientes.stream()
+                .filter(p -> p.getOperacion() == MovimientoOutbox.Operacion.ALTA)
+                .map(p -> Document.parse(p.getDocumento()))
+                .toList();
+        if (!altas.isEmpty()) {
+            insertarIgnorandoDuplicados(coleccion, altas);
+        }
+
+        List<WriteModel<Document>> actualizaciones = pendientes.stream()
+                .filter(p -> p.getOperacion() == MovimientoOutbox.Operacion.ACTUALIZACION)
+                .map(p -> Document.parse(p.getDocumento()))
+                .<WriteModel<Document>>map(d -> new ReplaceOneModel<>(Filters.eq("_id", d.get("_id")), d, new ReplaceOptions().upsert(true)))
+                .toList();
+        if (!actualizaciones.isEmpty()) {
+            coleccion.bulkWrite(actualizaciones, new BulkWriteOptions().ordered(true));
+        }
+
+        outboxRepository.marcarEntregados(pendientes.stream().map(MovimientoOutbox::getId).toList());
+        publicados.increment(pendientes.size());
+        log.debug("Publicadas {} entradas del outbox de movimientos", pendientes.size());
+        return pendientes.size();
+    }
+
+    /**
+     * Elimina las entradas entregadas antes de la fecha indicada.
+     *
+     * @param fecha Fecha límite de entrega
+     * @return Número de entradas eliminadas
+     */
+    @Override
+    @Transactional
+    @Operation(summary = "Purgar entradas entregadas", description = "Elimina del outbox las entradas ya publicadas antes de una fecha")
+    public int purgarEntregados(LocalDateTime fecha) {
+        int eliminadas = outboxRepository.eliminarEntregadosAntesDe(fecha);
+        log.info("Eliminadas {} entradas entregadas del outbox de movimientos", eliminadas);
+        return eliminadas;
+    }
+
+    /**
+     * Guarda el movimiento en el outbox.
+     *
+     * @param movimiento Movimiento a registrar
+     * @param operacion  Operación a aplicar en MongoDB
+     */
+    private void registrar(Movimiento movimiento, MovimientoOutbox.Operacion operacion) {
+        log.info("Registrando en el outbox el movimiento {} ({})", movimiento.getGuid(), operacion);
+        outboxRepository.save(toOutbox(movimiento, operacion));
+    }
+
+    /**
+     * Serializa el movimiento con el conversor de MongoDB y construye la entrada del outbox.
+     *
+     * @param movimiento Movimiento a serializar
+     * @param operacion  Operación a aplicar en MongoDB
+     * @return Entrada del outbox
+     */
+    private MovimientoOutbox toOutbox(Movimiento movimiento, MovimientoOutbox.Operacion operacion) {
+        Document documento = new Document();
+        mongoTemplate.getConverter().write(movimiento, documento);
+        return MovimientoOutbox.builder()
+                .guid(movimiento.getGuid())
+                .operacion(operacion)
+                .documento(documento.toJson())
+                .build();
+    }
+
+    /**
+     * Inserta los documentos en bloque tratando como ya entregados los que existan previamente,
+     * lo que ocurre cuando un lote se publica de nuevo tras un fallo al marcarlo como entregado.
+     *
+     * @param coleccion  Colección de movimientos
+     * @param documentos Documentos a insertar
+     */
+    private void insertarIgnorandoDuplicados(MongoCollection<Document> coleccion, List<Document> documentos) {
+        try {
+            coleccion.insertMany(documentos, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            boolean soloDuplicados = e.getWriteErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!soloDuplicados) {
+                throw e;
+            }
+            log.warn("{} movimientos del outbox ya estaban publicados", e.getWriteErrors().size());
+        }
+    }
+}
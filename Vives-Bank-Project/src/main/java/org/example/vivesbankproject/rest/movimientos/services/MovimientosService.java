@@ -5,15 +5,20 @@ import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import org.bson.types.ObjectId;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoRequest;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoResponse;
+import org.example.vivesbankproject.rest.movimientos.dto.TransferenciasBatchResponse;
 import org.example.vivesbankproject.rest.movimientos.models.Domiciliacion;
 import org.example.vivesbankproject.rest.movimientos.models.IngresoDeNomina;
 import org.example.vivesbankproject.rest.movimientos.models.PagoConTarjeta;
 import org.example.vivesbankproject.rest.movimientos.models.Transferencia;
 import org.example.vivesbankproject.rest.users.models.User;
+import org.example.vivesbankproject.utils.pagination.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * Interfaz de servicio para la lógica de negocios relacionada con movimientos.
  * Contiene métodos para obtener, guardar y manejar operaciones relacionadas
@@ -33,6 +38,17 @@ public interface MovimientosService {
     @Operation(summary = "Obtener todos los movimientos paginados", description = "Retorna una lista paginada de todos los movimientos en formato MovimientoResponse")
     Page<MovimientoResponse> getAll(Pageable pageable);
 
+    /**
+     * Obtiene una página de movimientos, del más reciente al más antiguo, paginando por clave.
+     *
+     * @param cursor Cursor devuelto en la página anterior, o null para la primera página.
+     * @param size Número máximo de movimientos de la página.
+     * @param incluirTotal Si se debe calcular el número total de movimientos.
+     * @return Una página de respuestas de tipo MovimientoResponse con el cursor de la siguiente.
+     */
+    @Operation(summary = "Obtener movimientos paginados por cursor", description = "Retorna una página de movimientos a partir de un cursor, sin saltar documentos ni contar el total salvo que se pida")
+    CursorPageResponse<MovimientoResponse> getAllByCursor(String cursor, int size, boolean incluirTotal);
+
     /**
      * Obtiene un movimiento específico utilizando su identificador interno (_id).
      *
@@ -52,13 +68,34 @@ public interface MovimientosService {
     MovimientoResponse getByGuid(String guidMovimiento);
 
     /**
-     * Obtiene un movimiento específico utilizando el identificador del cliente.
+     * Obtiene una página del historial de movimientos de un cliente, del más reciente al más antiguo.
      *
-     * @param idCliente El identificador del cliente asociado al movimiento.
-     * @return El movimiento correspondiente en formato MovimientoResponse.
+     * @param clienteGuid El identificador del cliente.
+     * @param desde Fecha de creación mínima (incluida), o null para no limitarla.
+     * @param hasta Fecha de creación máxima (incluida), o null para no limitarla.
+     * @param cursor Cursor devuelto en la página anterior, o null para la primera página.
+     * @param size Número máximo de movimientos de la página.
+     * @param incluirDomiciliacion Si se debe devolver la domiciliación embebida en cada movimiento.
+     * @return Una página de respuestas de tipo MovimientoResponse con el cursor de la siguiente.
+     */
+    @Operation(summary = "Obtener los movimientos de un cliente", description = "Retorna una página del historial de movimientos de un cliente, filtrable por fechas")
+    CursorPageResponse<MovimientoResponse> getByClienteGuid(String clienteGuid, LocalDateTime desde, LocalDateTime hasta,
+                                                            String cursor, int size, boolean incluirDomiciliacion);
+
+    /**
+     * Obtiene una página del historial de movimientos del usuario autenticado, del más reciente al más antiguo.
+     *
+     * @param user Usuario autenticado.
+     * @param desde Fecha de creación mínima (incluida), o null para no limitarla.
+     * @param hasta Fecha de creación máxima (incluida), o null para no limitarla.
+     * @param cursor Cursor devuelto en la página anterior, o null para la primera página.
+     * @param size Número máximo de movimientos de la página.
+     * @param incluirDomiciliacion Si se debe devolver la domiciliación embebida en cada movimiento.
+     * @return Una página de respuestas de tipo MovimientoResponse con el cursor de la siguiente.
      */
-    @Operation(summary = "Obtener un movimiento por el GUID del cliente", description = "Retorna un movimiento específico utilizando el identificador del cliente")
-    MovimientoResponse getByClienteGuid(String idCliente);
+    @Operation(summary = "Obtener los movimientos del usuario autenticado", description = "Retorna una página del historial de movimientos del usuario autenticado, filtrable por fechas")
+    CursorPageResponse<MovimientoResponse> getMovimientosUsuario(@AuthenticationPrincipal User user, LocalDateTime desde, LocalDateTime hasta,
+                                                                 String cursor, int size, boolean incluirDomiciliacion);
 
     /**
      * Guarda un nuevo movimiento en la base de datos.
@@ -109,6 +146,18 @@ public interface MovimientosService {
     @Operation(summary = "Guardar una transferencia", description = "Crea una nueva transferencia en la base de datos")
     MovimientoResponse saveTransferencia(@AuthenticationPrincipal User user, @RequestBody Transferencia transferencia);
 
+    /**
+     * Guarda un lote de transferencias del usuario autenticado.
+     * Cada transferencia se valida por separado; las válidas se aplican juntas en una única transacción
+     * y las rechazadas se devuelven con su motivo.
+     *
+     * @param user Usuario autenticado.
+     * @param transferencias Transferencias del lote, en el orden en que deben aplicarse.
+     * @return El resultado de cada transferencia y el resumen del lote.
+     */
+    @Operation(summary = "Guardar un lote de transferencias", description = "Valida y aplica un lote de transferencias en una única transacción, con un resultado por transferencia")
+    TransferenciasBatchResponse saveTransferenciasBatch(@AuthenticationPrincipal User user, List<Transferencia> transferencias);
+
     /**
      * Revoca una transferencia específica.
      *
@@ -13,14 +13,21 @@ import org.bson.types.ObjectId;
 
 import org.example.vivesbankproject.rest.cliente.exceptions.ClienteNotFoundByUser;
 import org.example.vivesbankproject.rest.cliente.service.ClienteService;
-import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaResponse;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaSaldo;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaException;
 import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFound;
 import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFoundByClienteGuid;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFoundByIban;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaSaldoInsuficiente;
 import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFoundByTarjetaId;
-import org.example.vivesbankproject.rest.cuenta.mappers.CuentaMapper;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaBalanceService;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaTransferenciaExecutor;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
 import org.example.vivesbankproject.rest.cuenta.services.CuentaService;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoRequest;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoResponse;
+import org.example.vivesbankproject.rest.movimientos.dto.TransferenciaBatchResultado;
+import org.example.vivesbankproject.rest.movimientos.dto.TransferenciasBatchResponse;
 import org.example.vivesbankproject.rest.movimientos.exceptions.domiciliacion.DuplicatedDomiciliacionException;
 import org.example.vivesbankproject.rest.movimientos.exceptions.domiciliacion.SaldoInsuficienteException;
 import org.example.vivesbankproject.rest.movimientos.exceptions.movimientos.*;
@@ -28,11 +35,11 @@ import org.example.vivesbankproject.rest.movimientos.mappers.MovimientoMapper;
 import org.example.vivesbankproject.rest.movimientos.models.*;
 import org.example.vivesbankproject.rest.movimientos.repositories.DomiciliacionRepository;
 import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
-import org.example.vivesbankproject.rest.tarjeta.dto.TarjetaResponse;
+import org.example.vivesbankproject.rest.movimientos.repositories.TransferenciaRevocadaRepository;
 import org.example.vivesbankproject.rest.tarjeta.exceptions.TarjetaNotFoundByNumero;
 import org.example.vivesbankproject.rest.tarjeta.service.TarjetaService;
 import org.example.vivesbankproject.rest.users.models.User;
-import org.example.vivesbankproject.rest.users.services.UserService;
+import org.example.vivesbankproject.config.websockets.NotificationDispatcher;
 import org.example.vivesbankproject.config.websockets.WebSocketConfig;
 import org.example.vivesbankproject.config.websockets.WebSocketHandler;
 import org.example.vivesbankproject.websocket.notifications.dto.DomiciliacionResponse;
@@ -41,6 +48,8 @@ import org.example.vivesbankproject.websocket.notifications.dto.PagoConTarjetaRe
 import org.example.vivesbankproject.websocket.notifications.dto.TransferenciaResponse;
 import org.example.vivesbankproject.websocket.notifications.mappers.NotificationMapper;
 import org.example.vivesbankproject.websocket.notifications.models.Notification;
+import org.example.vivesbankproject.utils.pagination.CursorPageResponse;
+import org.example.vivesbankproject.utils.pagination.KeysetCursor;
 import org.example.vivesbankproject.utils.validators.ValidarCif;
 import org.example.vivesbankproject.utils.validators.ValidarIban;
 import org.example.vivesbankproject.utils.validators.ValidarTarjeta;
@@ -49,11 +58,15 @@ import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
 /**
  * Implementación del servicio para gestionar operaciones relacionadas con movimientos.
  * Implementa la interfaz MovimientosService con funcionalidades para obtener movimientos
@@ -66,15 +79,23 @@ import java.time.LocalDateTime;
 @CacheConfig(cacheNames = {"Movimientos"})
 public class MovimientosServiceImpl implements MovimientosService {
 
+    private static final LocalDateTime INICIO_HISTORIAL = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime FIN_HISTORIAL = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final ObjectId ULTIMO_ID = new ObjectId("ffffffffffffffffffffffff");
+
     private final ClienteService clienteService;
     private final MovimientosRepository movimientosRepository;
     private final DomiciliacionRepository domiciliacionRepository;
     private final CuentaService cuentaService;
     private final MovimientoMapper movimientosMapper;
     private final TarjetaService tarjetaService;
-    private final CuentaMapper cuentaMapper;
-    private final UserService userService;
+    private final CuentaBalanceService cuentaBalanceService;
+    private final CuentaTransferenciaExecutor cuentaTransferenciaExecutor;
+    private final MovimientoOutboxService movimientoOutboxService;
     private final WebSocketConfig webSocketConfig;
+    private final NotificationDispatcher notificationDispatcher;
+    private final CuentaUsuarioResolver cuentaUsuarioResolver;
+    private final TransferenciaRevocadaRepository transferenciaRevocadaRepository;
     private final ObjectMapper mapper;
     private final NotificationMapper notificationMapper;
     // Para los test
@@ -89,26 +110,34 @@ public class MovimientosServiceImpl implements MovimientosService {
      * @param movimientosMapper         Mapeador para convertir modelos de datos de movimientos
      * @param domiciliacionRepository    Repositorio para operaciones relacionadas con domiciliaciones
      * @param tarjetaService            Servicio para trabajar con movimientos de tarjetas
-     * @param userService               Servicio para operaciones relacionadas con usuarios
      * @param webSocketConfig           Configuración relacionada con conexiones WebSocket
      * @param notificationMapper        Mapeador para manejar operaciones de notificaciones
-     * @param cuentaMapper              Mapeador para traducir modelos de datos de cuentas
+     * @param cuentaBalanceService      Servicio para modificar de forma atómica el saldo de las cuentas
+     * @param cuentaTransferenciaExecutor Ejecutor que bloquea las cuentas y agrupa saldo y movimientos en una transacción
+     * @param movimientoOutboxService   Servicio del outbox donde se registran los movimientos antes de publicarlos en MongoDB
+     * @param notificationDispatcher    Despachador compartido de notificaciones WebSocket
+     * @param cuentaUsuarioResolver     Resolución en caché del usuario propietario de una cuenta por su IBAN
+     * @param transferenciaRevocadaRepository Repositorio donde se reclama la revocación de cada transferencia
      */
 
 
     @Autowired
-    public MovimientosServiceImpl( CuentaService cuentaService, MovimientosRepository movimientosRepository, ClienteService clienteService, MovimientoMapper movimientosMapper, DomiciliacionRepository domiciliacionRepository, TarjetaService tarjetaService, UserService userService, WebSocketConfig webSocketConfig, NotificationMapper notificationMapper, CuentaMapper cuentaMapper) {
+    public MovimientosServiceImpl( CuentaService cuentaService, MovimientosRepository movimientosRepository, ClienteService clienteService, MovimientoMapper movimientosMapper, DomiciliacionRepository domiciliacionRepository, TarjetaService tarjetaService, WebSocketConfig webSocketConfig, NotificationMapper notificationMapper, CuentaBalanceService cuentaBalanceService, CuentaTransferenciaExecutor cuentaTransferenciaExecutor, MovimientoOutboxService movimientoOutboxService, NotificationDispatcher notificationDispatcher, CuentaUsuarioResolver cuentaUsuarioResolver, TransferenciaRevocadaRepository transferenciaRevocadaRepository) {
         this.clienteService = clienteService;
         this.movimientosRepository = movimientosRepository;
         this.movimientosMapper = movimientosMapper;
         this.domiciliacionRepository = domiciliacionRepository;
         this.cuentaService = cuentaService;
         this.tarjetaService = tarjetaService;
-        this.cuentaMapper = cuentaMapper;
+        this.cuentaBalanceService = cuentaBalanceService;
+        this.cuentaTransferenciaExecutor = cuentaTransferenciaExecutor;
+        this.movimientoOutboxService = movimientoOutboxService;
 
 
-        this.userService = userService;
         this.webSocketConfig = webSocketConfig;
+        this.notificationDispatcher = notificationDispatcher;
+        this.cuentaUsuarioResolver = cuentaUsuarioResolver;
+        this.transferenciaRevocadaRepository = transferenciaRevocadaRepository;
 
         webSocketService = webSocketConfig.webSocketMovimientosHandler();
         mapper = new ObjectMapper();
@@ -128,6 +157,34 @@ public class MovimientosServiceImpl implements MovimientosService {
         return movimientosRepository.findAll(pageable).map(movimientosMapper::toMovimientoResponse);
     }
 
+    /**
+     * Recupera una página de movimientos paginando por clave sobre {@code (createdAt, _id)}.
+     * Se lee un movimiento de más para saber si hay página siguiente sin contar el total.
+     *
+     * @param cursor Cursor devuelto en la página anterior, o null para la primera página
+     * @param size Número máximo de movimientos de la página
+     * @param incluirTotal Si se debe calcular el número total de movimientos
+     * @return Una página de objetos {@link MovimientoResponse} con el cursor de la siguiente
+     * @throws CursorInvalidoException si el cursor no es válido
+     */
+    @Override
+    @Operation(summary = "Obtener movimientos por cursor", description = "Recupera una página de movimientos paginando por fecha de creación e identificador")
+    public CursorPageResponse<MovimientoResponse> getAllByCursor(String cursor, int size, boolean incluirTotal) {
+        log.info("Encontrando Movimientos por cursor: {}", cursor);
+        Pageable pageable = paginaPorCursor(size);
+        List<Movimiento> movimientos;
+        if (cursor == null || cursor.isBlank()) {
+            movimientos = movimientosRepository.findAllBy(pageable);
+        } else {
+            KeysetCursor posicion = posicion(cursor);
+            movimientos = movimientosRepository.findAnterioresA(posicion.createdAt(), new ObjectId(posicion.id()), pageable);
+        }
+        Long total = incluirTotal ? movimientosRepository.count() : null;
+        return CursorPageResponse.of(movimientos, size, m -> new KeysetCursor(m.getCreatedAt(), m.get_id()),
+                        total, "createdAt", "desc")
+                .map(movimientosMapper::toMovimientoResponse);
+    }
+
     /**
      * Recupera un movimiento por su ID de forma segura utilizando almacenamiento en caché.
      *
@@ -167,25 +224,105 @@ public class MovimientosServiceImpl implements MovimientosService {
                 .orElseThrow(() -> new MovimientoNotFound(guidMovimiento));
     }
     /**
-     * Recupera los movimientos de un cliente específico utilizando su identificador GUID.
+     * Recupera una página del historial de movimientos de un cliente, del más reciente al más antiguo.
      *
-     * @param ClienteGuid El identificador único del cliente (GUID).
-     * @return El primer movimiento encontrado relacionado con el cliente.
-     * @throws ClienteHasNoMovements Si el cliente no tiene movimientos o no existe.
+     * @param clienteGuid El identificador único del cliente (GUID).
+     * @param desde Fecha de creación mínima (incluida), o null para no limitarla.
+     * @param hasta Fecha de creación máxima (incluida), o null para no limitarla.
+     * @param cursor Cursor devuelto en la página anterior, o null para la primera página.
+     * @param size Número máximo de movimientos de la página.
+     * @param incluirDomiciliacion Si se debe devolver la domiciliación embebida en cada movimiento.
+     * @return Una página de objetos {@link MovimientoResponse} con el cursor de la siguiente.
+     * @throws CursorInvalidoException si el cursor no es válido.
      */
     @Override
-    @Cacheable
     @Operation(summary = "Obtener movimientos por el identificador del cliente",
-            description = "Recupera movimientos para un cliente específico utilizando su identificador GUID.")
+            description = "Recupera una página del historial de movimientos de un cliente utilizando su identificador GUID.")
     @ApiResponse(responseCode = "200", description = "Operación exitosa",
-            content = @Content(mediaType = "application/json", schema = @Schema(implementation = MovimientoResponse.class)))
-    @ApiResponse(responseCode = "404", description = "Cliente no tiene movimientos o no existe")
-    public MovimientoResponse getByClienteGuid(String ClienteGuid) {
-        log.info("Encontrando Movimientos por idCliente: {}", ClienteGuid);
-        clienteService.getById(ClienteGuid);
-        return movimientosRepository.findByClienteGuid(ClienteGuid)
-                .map(movimientosMapper::toMovimientoResponse)
-                .orElseThrow(() -> new ClienteHasNoMovements(ClienteGuid));
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageResponse.class)))
+    @ApiResponse(responseCode = "404", description = "El cliente no existe")
+    public CursorPageResponse<MovimientoResponse> getByClienteGuid(String clienteGuid, LocalDateTime desde, LocalDateTime hasta,
+                                                                   String cursor, int size, boolean incluirDomiciliacion) {
+        log.info("Encontrando Movimientos por idCliente: {}", clienteGuid);
+        clienteService.getById(clienteGuid);
+        return historialCliente(clienteGuid, desde, hasta, cursor, size, incluirDomiciliacion);
+    }
+
+    /**
+     * Recupera una página del historial de movimientos del cliente del usuario autenticado.
+     *
+     * @param user Usuario autenticado.
+     * @param desde Fecha de creación mínima (incluida), o null para no limitarla.
+     * @param hasta Fecha de creación máxima (incluida), o null para no limitarla.
+     * @param cursor Cursor devuelto en la página anterior, o null para la primera página.
+     * @param size Número máximo de movimientos de la página.
+     * @param incluirDomiciliacion Si se debe devolver la domiciliación embebida en cada movimiento.
+     * @return Una página de objetos {@link MovimientoResponse} con el cursor de la siguiente.
+     * @throws CursorInvalidoException si el cursor no es válido.
+     */
+    @Override
+    @Operation(summary = "Obtener los movimientos del usuario autenticado",
+            description = "Recupera una página del historial de movimientos del cliente del usuario autenticado.")
+    @ApiResponse(responseCode = "200", description = "Operación exitosa",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = CursorPageResponse.class)))
+    @ApiResponse(responseCode = "404", description = "El usuario no tiene cliente")
+    public CursorPageResponse<MovimientoResponse> getMovimientosUsuario(User user, LocalDateTime desde, LocalDateTime hasta,
+                                                                        String cursor, int size, boolean incluirDomiciliacion) {
+        log.info("Encontrando Movimientos del usuario: {}", user.getGuid());
+        var cliente = clienteService.getUserAuthenticatedByGuid(user.getGuid());
+        return historialCliente(cliente.getGuid(), desde, hasta, cursor, size, incluirDomiciliacion);
+    }
+
+    /**
+     * Lee una página del historial de un cliente sobre el índice {@code {clienteGuid, createdAt, _id}}.
+     * Sin cursor, la página empieza en {@code hasta} (incluida); con cursor, justo después de su posición.
+     */
+    private CursorPageResponse<MovimientoResponse> historialCliente(String clienteGuid, LocalDateTime desde, LocalDateTime hasta,
+                                                                    String cursor, int size, boolean incluirDomiciliacion) {
+        LocalDateTime createdAt;
+        ObjectId id;
+        if (cursor == null || cursor.isBlank()) {
+            createdAt = hasta != null ? hasta : FIN_HISTORIAL;
+            id = ULTIMO_ID;
+        } else {
+            KeysetCursor posicion = posicion(cursor);
+            createdAt = posicion.createdAt();
+            id = new ObjectId(posicion.id());
+        }
+        LocalDateTime inicio = desde != null ? desde : INICIO_HISTORIAL;
+        Pageable pageable = paginaPorCursor(size);
+
+        List<Movimiento> movimientos = incluirDomiciliacion
+                ? movimientosRepository.findHistorialClienteConDomiciliacion(clienteGuid, inicio, createdAt, id, pageable)
+                : movimientosRepository.findHistorialCliente(clienteGuid, inicio, createdAt, id, pageable);
+        return CursorPageResponse.of(movimientos, size, m -> new KeysetCursor(m.getCreatedAt(), m.get_id()),
+                        null, "createdAt", "desc")
+                .map(movimientosMapper::toMovimientoResponse);
+    }
+
+    /**
+     * Página de {@code size + 1} movimientos ordenados por {@code createdAt} e {@code _id} descendentes;
+     * el movimiento de más indica si hay página siguiente.
+     */
+    private static Pageable paginaPorCursor(int size) {
+        return PageRequest.of(0, size + 1, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+    }
+
+    /**
+     * Decodifica el cursor recibido del cliente.
+     *
+     * @throws CursorInvalidoException si el cursor no es válido
+     */
+    private static KeysetCursor posicion(String cursor) {
+        try {
+            KeysetCursor posicion = KeysetCursor.decode(cursor);
+            if (!ObjectId.isValid(posicion.id())) {
+                throw new CursorInvalidoException(cursor);
+            }
+            return posicion;
+        } catch (IllegalArgumentException e) {
+            throw new CursorInvalidoException(cursor);
+        }
     }
     /**
      * Guarda un nuevo movimiento en el repositorio después de validar la existencia del cliente.
@@ -194,7 +331,7 @@ public class MovimientosServiceImpl implements MovimientosService {
      * @return El objeto {@link MovimientoResponse} del movimiento guardado.
      */
     @Override
-    @CachePut
+    @CachePut(key = "#result.guid")
     @Operation(summary = "Guardar un movimiento",
             description = "Crea y guarda un nuevo movimiento en el repositorio, actualizando la caché.")
     @ApiResponse(responseCode = "200", description = "Movimiento guardado exitosamente",
@@ -264,11 +401,11 @@ public class MovimientosServiceImpl implements MovimientosService {
         }
 
         // Guardar la domiciliación
-        domiciliacion.setUltimaEjecucion(LocalDateTime.now()); // Registro inicial
+        domiciliacion.programarSiguienteEjecucion(LocalDateTime.now()); // Registro inicial y primera ejecución
         domiciliacion.setClienteGuid(cliente.getGuid()); // Asigno el id del cliente al domiciliación
 
         // Notificación al cliente
-        onChangeDomiciliacion(Notification.Tipo.CREATE,domiciliacion);
+        onChangeDomiciliacion(Notification.Tipo.CREATE, domiciliacion, user.getUsername());
 
         // Retornar respuesta
         return domiciliacionRepository.save(domiciliacion);
@@ -319,21 +456,21 @@ public class MovimientosServiceImpl implements MovimientosService {
             throw new NegativeAmount(cantidadNomina);
         }
 
-        // sumar al cliente
-        var saldoActual = new BigDecimal(clienteCuenta.getSaldo());
-        clienteCuenta.setSaldo(String.valueOf(saldoActual.add(cantidadNomina)));
-        cuentaService.update(clienteCuenta.getGuid(), cuentaMapper.toCuentaRequestUpdate(clienteCuenta));
-
         // Crear el movimiento
         Movimiento movimineto = Movimiento.builder()
                 .clienteGuid(cliente.getGuid())
                 .ingresoDeNomina(ingresoDeNomina)
                 .build();
 
-        // Guardar el movimiento
-        Movimiento saved = movimientosRepository.save(movimineto);
-        onChangeIngresoNomina(Notification.Tipo.CREATE,ingresoDeNomina);
-        return movimientosMapper.toMovimientoResponse(saved);
+        // sumar al cliente y registrar el movimiento en la misma transacción
+        cuentaTransferenciaExecutor.ejecutar(List.of(clienteCuenta.getIban()), () -> {
+            cuentaBalanceService.acreditar(clienteCuenta.getIban(), cantidadNomina);
+            movimientoOutboxService.registrarAlta(movimineto);
+            return null;
+        });
+
+        onChangeIngresoNomina(Notification.Tipo.CREATE, ingresoDeNomina, cuentaUsuarioResolver.getUsername(clienteCuenta.getIban()));
+        return movimientosMapper.toMovimientoResponse(movimineto);
     }
     /**
      * Guarda un pago realizado con tarjeta después de realizar las siguientes validaciones:
@@ -401,22 +538,22 @@ public class MovimientosServiceImpl implements MovimientosService {
             throw new SaldoInsuficienteException(cuentaAsociadaATarjeta.getIban(), saldoActual);
         }
 
-        // restar al cliente
-        saldoActual = saldoActual.subtract(cantidadTarjeta);
-        cuentaAsociadaATarjeta.setSaldo(String.valueOf(saldoActual));
-        cuentaService.update(cuentaAsociadaATarjeta.getGuid(), cuentaMapper.toCuentaRequestUpdate(cuentaAsociadaATarjeta));
-
         //crear el movimiento
         Movimiento movimiento = Movimiento.builder()
                 .clienteGuid(cliente.getGuid())
                 .pagoConTarjeta(pagoConTarjeta)
                 .build();
 
-        // Guardar el movimiento
-        Movimiento saved = movimientosRepository.save(movimiento);
-        onChangePagoConTarjeta(Notification.Tipo.CREATE,pagoConTarjeta);
+        // restar al cliente y registrar el movimiento en la misma transacción
+        cuentaTransferenciaExecutor.ejecutar(List.of(cuentaAsociadaATarjeta.getIban()), () -> {
+            cuentaBalanceService.debitar(cuentaAsociadaATarjeta.getIban(), cantidadTarjeta);
+            movimientoOutboxService.registrarAlta(movimiento);
+            return null;
+        });
+
+        onChangePagoConTarjeta(Notification.Tipo.CREATE, pagoConTarjeta, user.getUsername());
 
-        return movimientosMapper.toMovimientoResponse(saved);
+        return movimientosMapper.toMovimientoResponse(movimiento);
 
     }
     /**
@@ -480,17 +617,6 @@ public class MovimientosServiceImpl implements MovimientosService {
             throw new SaldoInsuficienteException(cuentaOrigen.getIban(), saldoActual);
         }
 
-        // restar al cliente
-        saldoActual = saldoActual.subtract(cantidadTranseferencia);
-        cuentaOrigen.setSaldo(String.valueOf(saldoActual));
-        cuentaService.update(cuentaOrigen.getGuid(), cuentaMapper.toCuentaRequestUpdate(cuentaOrigen));
-
-        // sumar al cliente de la cuenta destino
-        var saldoActualDestino = new BigDecimal(cuentaDestino.getSaldo());
-        saldoActualDestino = saldoActualDestino.add(cantidadTranseferencia);
-        cuentaDestino.setSaldo(String.valueOf(saldoActualDestino));
-        cuentaService.update(cuentaDestino.getGuid(), cuentaMapper.toCuentaRequestUpdate(cuentaDestino));
-
         // crear el movimiento al cliente destino
         log.info("Crear movimiento destino");
         Movimiento movimientoDestino = Movimiento.builder()
@@ -498,10 +624,6 @@ public class MovimientosServiceImpl implements MovimientosService {
                 .transferencia(transferencia)
                 .build();
 
-        // Guardar el movimiento destino
-        log.info("Guardar movimiento destino");
-        movimientosRepository.save(movimientoDestino);
-
         // crear el movimiento al cliente origen
         Movimiento movimientoOrigen = Movimiento.builder()
                 .clienteGuid(cliente.getGuid())
@@ -514,18 +636,200 @@ public class MovimientosServiceImpl implements MovimientosService {
                         .build())
                 .build();
 
-        // Guardar el movimiento origen
-        var saved = movimientosRepository.save(movimientoOrigen);
-        onChangeTransferencia(Notification.Tipo.CREATE,transferencia);
+        // restar al cliente origen, sumar al cliente destino y registrar ambos movimientos en la misma transacción
+        cuentaTransferenciaExecutor.ejecutar(List.of(cuentaOrigen.getIban(), cuentaDestino.getIban()), () -> {
+            cuentaBalanceService.transferir(cuentaOrigen.getIban(), cuentaDestino.getIban(), cantidadTranseferencia);
+            movimientoOutboxService.registrarAlta(movimientoDestino);
+            movimientoOutboxService.registrarAlta(movimientoOrigen);
+            return null;
+        });
+        onChangeTransferencia(Notification.Tipo.CREATE, transferencia, user.getUsername(), cuentaUsuarioResolver.getUsername(cuentaDestino.getIban()));
+
+        return movimientosMapper.toMovimientoResponse(movimientoOrigen);
+    }
+    /**
+     * Guarda un lote de transferencias del usuario autenticado.
+     * <p>
+     * El cliente se resuelve una sola vez y todas las cuentas implicadas se obtienen con una única consulta,
+     * después de bloquearlas en orden. Cada transferencia se valida en memoria contra el saldo que dejan las
+     * anteriores del lote; las rechazadas no afectan al resto. Los cambios de saldo de las transferencias
+     * válidas se compensan por cuenta y se aplican con una sentencia por cuenta, y todos los movimientos se
+     * registran en el outbox con una única inserción, todo dentro de la misma transacción.
+     * </p>
+     *
+     * @param user El usuario autenticado que intenta realizar la operación.
+     * @param transferencias Transferencias del lote, en el orden en que deben aplicarse.
+     * @return El resultado de cada transferencia y el resumen del lote.
+     * @throws ClienteNotFoundByUser Si el cliente no existe en el sistema.
+     */
+    @Override
+    @Operation(summary = "Guardar lote de transferencias",
+            description = "Valida y aplica un lote de transferencias en una única transacción, con un resultado por transferencia.")
+    @ApiResponse(responseCode = "200", description = "Lote de transferencias procesado",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransferenciasBatchResponse.class)))
+    public TransferenciasBatchResponse saveTransferenciasBatch(User user, List<Transferencia> transferencias) {
+        log.info("Guardando lote de {} transferencias", transferencias.size());
+
+        // Validar que el cliente existe (una sola vez para todo el lote)
+        var cliente = clienteService.getUserAuthenticatedByGuid(user.getGuid());
+        if (cliente == null) {
+            throw new ClienteNotFoundByUser(user.getGuid());
+        }
+
+        // Reunir todas las cuentas implicadas en el lote
+        Set<String> ibanes = new HashSet<>();
+        transferencias.forEach(t -> {
+            ibanes.add(t.getIban_Origen());
+            ibanes.add(t.getIban_Destino());
+        });
+
+        List<TransferenciaBatchResultado> resultados = new ArrayList<>(transferencias.size());
+        List<Transferencia> realizadas = new ArrayList<>();
+
+        cuentaTransferenciaExecutor.ejecutar(ibanes, () -> {
+            // Si el ejecutor reintenta la transacción, se vuelve a validar el lote desde cero
+            resultados.clear();
+            realizadas.clear();
+
+            Map<String, CuentaSaldo> cuentas = new HashMap<>();
+            cuentaBalanceService.getSaldos(ibanes).forEach(c -> cuentas.put(c.getIban(), c));
+            Map<String, BigDecimal> saldos = new HashMap<>();
+            cuentas.forEach((iban, c) -> saldos.put(iban, c.getSaldo()));
+
+            Map<String, BigDecimal> variaciones = new HashMap<>();
+            List<Movimiento> movimientos = new ArrayList<>();
+
+            for (int i = 0; i < transferencias.size(); i++) {
+                Transferencia transferencia = transferencias.get(i);
+                try {
+                    validarTransferenciaBatch(transferencia, cliente.getGuid(), cuentas, saldos);
+                } catch (MovimientosException | CuentaException e) {
+                    resultados.add(TransferenciaBatchResultado.builder()
+                            .indice(i)
+                            .estado(TransferenciaBatchResultado.Estado.RECHAZADA)
+                            .error(e.getMessage())
+                            .build());
+                    continue;
+                }
+
+                // Acumular el cambio de saldo de cada cuenta
+                String ibanOrigen = transferencia.getIban_Origen();
+                String ibanDestino = transferencia.getIban_Destino();
+                BigDecimal cantidad = transferencia.getCantidad();
+                saldos.merge(ibanOrigen, cantidad.negate(), BigDecimal::add);
+                saldos.merge(ibanDestino, cantidad, BigDecimal::add);
+                variaciones.merge(ibanOrigen, cantidad.negate(), BigDecimal::add);
+                variaciones.merge(ibanDestino, cantidad, BigDecimal::add);
+
+                // crear los movimientos del cliente destino y del cliente origen
+                Movimiento movimientoDestino = Movimiento.builder()
+                        .clienteGuid(cuentas.get(ibanDestino).getClienteGuid())
+                        .transferencia(transferencia)
+                        .build();
+                Movimiento movimientoOrigen = Movimiento.builder()
+                        .clienteGuid(cliente.getGuid())
+                        .transferencia(Transferencia.builder()
+                                .iban_Origen(ibanOrigen)
+                                .iban_Destino(ibanDestino)
+                                .cantidad(cantidad.negate())
+                                .nombreBeneficiario(transferencia.getNombreBeneficiario())
+                                .movimientoDestino(movimientoDestino.getGuid())
+                                .build())
+                        .build();
+                movimientos.add(movimientoDestino);
+                movimientos.add(movimientoOrigen);
+                realizadas.add(transferencia);
+
+                resultados.add(TransferenciaBatchResultado.builder()
+                        .indice(i)
+                        .estado(TransferenciaBatchResultado.Estado.REALIZADA)
+                        .movimiento(movimientosMapper.toMovimientoResponse(movimientoOrigen))
+                        .build());
+            }
+
+            // Aplicar los saldos netos y registrar todos los movimientos en la misma transacción
+            if (!movimientos.isEmpty()) {
+                cuentaBalanceService.aplicarVariaciones(variaciones);
+                movimientoOutboxService.registrarAltas(movimientos);
+            }
+            return null;
+        });
+
+        // Resolver de una vez los usuarios de todas las cuentas destino
+        Map<String, String> usernamesDestino = cuentaUsuarioResolver.getUsernames(
+                realizadas.stream().map(Transferencia::getIban_Destino).collect(Collectors.toSet()));
+        realizadas.forEach(t -> onChangeTransferencia(Notification.Tipo.CREATE, t, user.getUsername(), usernamesDestino.get(t.getIban_Destino())));
+
+        log.info("Lote de transferencias procesado: {} realizadas, {} rechazadas", realizadas.size(), transferencias.size() - realizadas.size());
+        return TransferenciasBatchResponse.builder()
+                .total(transferencias.size())
+                .realizadas(realizadas.size())
+                .rechazadas(transferencias.size() - realizadas.size())
+                .resultados(resultados)
+                .build();
+    }
+
+    /**
+     * Valida en memoria una transferencia de un lote contra las cuentas obtenidas y los saldos acumulados.
+     *
+     * @param transferencia La transferencia a validar.
+     * @param clienteGuid GUID del cliente autenticado.
+     * @param cuentas Cuentas implicadas en el lote por IBAN.
+     * @param saldos Saldo de cada cuenta tras aplicar las transferencias anteriores del lote.
+     * @throws IbanInvalido Si el IBAN de origen o el de destino no es válido.
+     * @throws TransferenciaMismaCuenta Si la cuenta origen y la destino son la misma.
+     * @throws CuentaNotFoundByIban Si alguna de las cuentas no existe.
+     * @throws UnknownIban Si la cuenta origen no pertenece al cliente.
+     * @throws NegativeAmount Si la cantidad no es mayor que cero.
+     * @throws CuentaSaldoInsuficiente Si la cuenta origen no tiene saldo suficiente.
+     */
+    private void validarTransferenciaBatch(Transferencia transferencia, String clienteGuid, Map<String, CuentaSaldo> cuentas, Map<String, BigDecimal> saldos) {
+        // Validar Iban correcto
+        if (!ValidarIban.validateIban(transferencia.getIban_Origen())) {
+            throw new IbanInvalido(transferencia.getIban_Origen());
+        }
+        if (!ValidarIban.validateIban(transferencia.getIban_Destino())) {
+            throw new IbanInvalido(transferencia.getIban_Destino());
+        }
+        if (transferencia.getIban_Origen().equals(transferencia.getIban_Destino())) {
+            throw new TransferenciaMismaCuenta(transferencia.getIban_Origen());
+        }
 
-        return movimientosMapper.toMovimientoResponse(saved);
+        var cuentaOrigen = cuentas.get(transferencia.getIban_Origen());
+        if (cuentaOrigen == null) {
+            throw new CuentaNotFoundByIban(transferencia.getIban_Origen());
+        }
+        if (!clienteGuid.equals(cuentaOrigen.getClienteGuid())) {
+            throw new UnknownIban(transferencia.getIban_Origen());
+        }
+        if (!cuentas.containsKey(transferencia.getIban_Destino())) {
+            throw new CuentaNotFoundByIban(transferencia.getIban_Destino());
+        }
+        var cantidad = transferencia.getCantidad();
+        if (cantidad == null || cantidad.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new NegativeAmount(cantidad);
+        }
+        if (saldos.get(transferencia.getIban_Origen()).compareTo(cantidad) < 0) {
+            throw new CuentaSaldoInsuficiente(transferencia.getIban_Origen(), cantidad);
+        }
     }
     /**
      * Revoca una transferencia específica identificada por su GUID.
      * Esta operación realiza una serie de validaciones, como verificar la validez de la solicitud,
      * la propiedad de la cuenta de origen, y si la transferencia se encuentra dentro del plazo de revocación permitido.
      * Además, revierte la transferencia ajustando el saldo de las cuentas involucradas y marca los movimientos
-     * relacionados como eliminados.
+     * relacionados como eliminados. Los movimientos solo se marcan como eliminados y se notifican si la
+     * transacción que ajusta los saldos se confirma.
+     * <p>
+     * Los movimientos se leen de MongoDB, que el outbox actualiza de forma asíncrona: una transferencia
+     * recién creada puede responder {@link MovimientoNotFound} hasta que el outbox la publique (cada
+     * {@code movimientos.outbox.intervalo-ms}).
+     * </p>
+     * <p>
+     * Por ese mismo retraso, que el movimiento de MongoDB no esté marcado como eliminado no garantiza que no
+     * se haya revocado ya: la revocación se reclama en PostgreSQL, en la transacción que devuelve el dinero,
+     * y solo la primera la consigue.
+     * </p>
      *
      * @param user                   El usuario que solicita la revocación de la transferencia
      * @param movimientoTransferenciaGuid El identificador único de la transferencia a revocar
@@ -534,6 +838,7 @@ public class MovimientosServiceImpl implements MovimientosService {
      * @throws TransferenciaNoRevocableException si la transferencia no puede ser revocada
      * @throws MovimientoIsNotTransferenciaException si el movimiento no es una transferencia
      * @throws UnknownIban si el usuario no es el propietario de la cuenta de origen
+     * @throws TransferenciaYaRevocada si la transferencia ya se ha revocado
      */
     @Override
     @Operation(
@@ -545,7 +850,7 @@ public class MovimientosServiceImpl implements MovimientosService {
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = MovimientoResponse.class))),
             @ApiResponse(responseCode = "400", description = "Parámetros inválidos o solicitud no válida"),
             @ApiResponse(responseCode = "404", description = "Movimiento no encontrado"),
-            @ApiResponse(responseCode = "409", description = "La transferencia no puede ser revocada"),
+            @ApiResponse(responseCode = "409", description = "La transferencia ya ha sido revocada"),
             @ApiResponse(responseCode = "500", description = "Error interno del servidor")
     })
     public MovimientoResponse revocarTransferencia(User user, String movimientoTransferenciaGuid) {
@@ -571,40 +876,43 @@ public class MovimientosServiceImpl implements MovimientosService {
             throw new UnknownIban(movimientoOriginal.getTransferencia().getIban_Origen());
         }
 
-        // Obtener las cuentas involucradas
-        var cuentaOrigen = cuentaService.getByIban(movimientoOriginal.getTransferencia().getIban_Origen());
-        var cuentaDestino = cuentaService.getByIban(movimientoOriginal.getTransferencia().getIban_Destino());
-
-        // Revertir la transferencia
-
-        // Restar de la cuenta destino
-        BigDecimal cantidadTransferencia = movimientoOriginal.getTransferencia().getCantidad();
-
-        BigDecimal saldoDestino = new BigDecimal(cuentaDestino.getSaldo());
-        saldoDestino = saldoDestino.add(cantidadTransferencia);
-        cuentaDestino.setSaldo(saldoDestino.toString());
-        cuentaService.update(cuentaDestino.getGuid(), cuentaMapper.toCuentaRequestUpdate(cuentaDestino));
-
-        // Sumar a la cuenta origen
-        BigDecimal saldoOrigen = new BigDecimal(cuentaOrigen.getSaldo());
-        saldoOrigen = saldoOrigen.subtract(cantidadTransferencia);
-        cuentaOrigen.setSaldo(saldoOrigen.toString());
-        cuentaService.update(cuentaOrigen.getGuid(), cuentaMapper.toCuentaRequestUpdate(cuentaOrigen));
+        // Verificar que no se haya revocado ya (MongoDB puede no reflejar aún una revocación reciente)
+        if (Boolean.TRUE.equals(movimientoOriginal.getIsDeleted())) {
+            throw new TransferenciaYaRevocada(movimientoTransferenciaGuid);
+        }
 
         // Marcar el movimiento original como revocado (si es necesario)
         var movimientoOriginalDestino = movimientosRepository.findByGuid(movimientoOriginal.getTransferencia().getMovimientoDestino()).orElseThrow(
                 () -> new MovimientoNotFound(movimientoOriginal.getTransferencia().getMovimientoDestino())
         );
 
-        // Marcar ambos movimientos como eliminados
-        movimientoOriginal.setIsDeleted(true);
-            onChangeTransferencia(Notification.Tipo.DELETE,movimientoOriginal.getTransferencia());
-        movimientoOriginalDestino.setIsDeleted(true);
-            onChangeTransferencia(Notification.Tipo.DELETE,movimientoOriginalDestino.getTransferencia());
-        movimientosRepository.save(movimientoOriginalDestino);
-            onChangeTransferencia(Notification.Tipo.CREATE,movimientoOriginalDestino.getTransferencia());
-        movimientosRepository.save(movimientoOriginal);
-            onChangeTransferencia(Notification.Tipo.CREATE,movimientoOriginal.getTransferencia());
+        String ibanOrigen = movimientoOriginal.getTransferencia().getIban_Origen();
+        String ibanDestino = movimientoOriginal.getTransferencia().getIban_Destino();
+        // El ordenante es el usuario autenticado; el beneficiario se resuelve una sola vez
+        String usernameOrigen = user.getUsername();
+        String usernameDestino = cuentaUsuarioResolver.getUsername(ibanDestino);
+
+        // Revertir la transferencia (restar de la cuenta destino y sumar a la cuenta origen),
+        // marcar ambos movimientos como eliminados y registrarlos en la misma transacción
+        BigDecimal cantidadTransferencia = movimientoOriginal.getTransferencia().getCantidad().abs();
+        cuentaTransferenciaExecutor.ejecutar(List.of(ibanDestino, ibanOrigen), () -> {
+            // Solo la primera revocación de la transferencia devuelve el dinero
+            if (transferenciaRevocadaRepository.reclamar(movimientoOriginal.getGuid()) == 0) {
+                throw new TransferenciaYaRevocada(movimientoTransferenciaGuid);
+            }
+            cuentaBalanceService.transferir(ibanDestino, ibanOrigen, cantidadTransferencia);
+            movimientoOriginal.setIsDeleted(true);
+            movimientoOriginalDestino.setIsDeleted(true);
+            movimientoOutboxService.registrarActualizacion(movimientoOriginalDestino);
+            movimientoOutboxService.registrarActualizacion(movimientoOriginal);
+            return null;
+        });
+
+        // Notificar solo cuando la revocación se ha confirmado
+        onChangeTransferencia(Notification.Tipo.DELETE,movimientoOriginal.getTransferencia(), usernameOrigen, usernameDestino);
+        onChangeTransferencia(Notification.Tipo.DELETE,movimientoOriginalDestino.getTransferencia(), usernameOrigen, usernameDestino);
+        onChangeTransferencia(Notification.Tipo.CREATE,movimientoOriginalDestino.getTransferencia(), usernameOrigen, usernameDestino);
+        onChangeTransferencia(Notification.Tipo.CREATE,movimientoOriginal.getTransferencia(), usernameOrigen, usernameDestino);
 
 
         return movimientosMapper.toMovimientoResponse(movimientoOriginal);
@@ -615,6 +923,7 @@ public class MovimientosServiceImpl implements MovimientosService {
      *
      * @param tipo El tipo de operación de notificación que se enviará.
      * @param data Información relacionada con el ingreso de nómina que se notificará.
+     * @param userName Nombre del usuario propietario de la cuenta de destino.
      */
     @Operation(
             summary = "Enviar notificación de ingreso de nómina",
@@ -624,7 +933,7 @@ public class MovimientosServiceImpl implements MovimientosService {
             @ApiResponse(responseCode = "200", description = "Notificación enviada correctamente"),
             @ApiResponse(responseCode = "500", description = "Error interno al enviar la notificación")
     })
-    void onChangeIngresoNomina(Notification.Tipo tipo, IngresoDeNomina data) {
+    void onChangeIngresoNomina(Notification.Tipo tipo, IngresoDeNomina data, String userName) {
         log.info("Servicio de Movimientos onChange con tipo: {} y datos: {}", tipo, data);
 
         if (webSocketService == null) {
@@ -642,11 +951,6 @@ public class MovimientosServiceImpl implements MovimientosService {
 
             String json = mapper.writeValueAsString(notificacion);
 
-            // Recuperar el cliente del usuario logueado
-            String clienteId = cuentaService.getByIban(data.getIban_Destino()).getClienteId();
-            String userId = clienteService.getById(clienteId).getUserId();
-            String userName = userService.getById(userId).getUsername();
-
             sendMessageUser(userName, json);
 
         } catch (JsonProcessingException e) {
@@ -659,6 +963,8 @@ public class MovimientosServiceImpl implements MovimientosService {
      *
      * @param tipo El tipo de operación de notificación que se enviará.
      * @param data Información relacionada con la transferencia que se notificará.
+     * @param userNameOrigen Nombre del usuario ordenante.
+     * @param userNameDestino Nombre del usuario beneficiario.
      */
     @Operation(
             summary = "Enviar notificación de transferencia",
@@ -668,7 +974,7 @@ public class MovimientosServiceImpl implements MovimientosService {
             @ApiResponse(responseCode = "200", description = "Notificación enviada correctamente"),
             @ApiResponse(responseCode = "500", description = "Error interno al enviar la notificación")
     })
-    void onChangeTransferencia(Notification.Tipo tipo, Transferencia data) {
+    void onChangeTransferencia(Notification.Tipo tipo, Transferencia data, String userNameOrigen, String userNameDestino) {
         log.info("Servicio de Movimientos onChange con tipo: {} y datos: {}", tipo, data);
 
         if (webSocketService == null) {
@@ -686,19 +992,9 @@ public class MovimientosServiceImpl implements MovimientosService {
 
             String json = mapper.writeValueAsString(notificacion);
 
-            // Notificar tanto al ordenante como al beneficiario
-
-            // Recuperar el cliente del usuario logueado (beneficiario)
-            String clienteId = cuentaService.getByIban(data.getIban_Destino()).getClienteId();
-            String userId = clienteService.getById(clienteId).getUserId();
-            String userName = userService.getById(userId).getUsername();
-            sendMessageUser(userName, json);
-
-            // Recuperar el cliente del usuario logueado (ordenante)
-            clienteId = cuentaService.getByIban(data.getIban_Origen()).getClienteId();
-            userId = clienteService.getById(clienteId).getUserId();
-            userName = userService.getById(userId).getUsername();
-            sendMessageUser(userName, json);
+            // Notificar tanto al beneficiario como al ordenante
+            sendMessageUser(userNameDestino, json);
+            sendMessageUser(userNameOrigen, json);
 
         } catch (JsonProcessingException e) {
             log.error("Error al convertir la notificación a JSON", e);
@@ -711,6 +1007,7 @@ public class MovimientosServiceImpl implements MovimientosService {
      *
      * @param tipo El tipo de operación de notificación que se enviará.
      * @param data Información relacionada con la domiciliación que se notificará.
+     * @param userName Nombre del usuario propietario de la cuenta de origen.
      */
     @Operation(
             summary = "Enviar notificación de domiciliación",
@@ -721,7 +1018,7 @@ public class MovimientosServiceImpl implements MovimientosService {
             @ApiResponse(responseCode = "500", description = "Error interno al enviar la notificación")
     })
 
-    void onChangeDomiciliacion(Notification.Tipo tipo, Domiciliacion data) {
+    void onChangeDomiciliacion(Notification.Tipo tipo, Domiciliacion data, String userName) {
         log.info("Servicio de Movimientos onChange con tipo: {} y datos: {}", tipo, data);
 
         if (webSocketService == null) {
@@ -739,11 +1036,6 @@ public class MovimientosServiceImpl implements MovimientosService {
 
             String json = mapper.writeValueAsString(notificacion);
 
-            // Recuperar el cliente del usuario logueado
-            String clienteId = cuentaService.getByIban(data.getIbanOrigen()).getClienteId();
-            String userId = clienteService.getById(clienteId).getUserId();
-            String userName = userService.getById(userId).getUsername();
-
             sendMessageUser(userName, json);
 
         } catch (JsonProcessingException e) {
@@ -756,6 +1048,7 @@ public class MovimientosServiceImpl implements MovimientosService {
      *
      * @param tipo El tipo de operación de notificación que se enviará.
      * @param data Información relacionada con el pago con tarjeta que se notificará.
+     * @param userName Nombre del usuario titular de la tarjeta.
      */
     @Operation(
             summary = "Enviar notificación de pago con tarjeta",
@@ -765,7 +1058,7 @@ public class MovimientosServiceImpl implements MovimientosService {
             @ApiResponse(responseCode = "200", description = "Notificación enviada correctamente"),
             @ApiResponse(responseCode = "500", description = "Error interno al enviar la notificación")
     })
-    void onChangePagoConTarjeta(Notification.Tipo tipo, PagoConTarjeta data) {
+    void onChangePagoConTarjeta(Notification.Tipo tipo, PagoConTarjeta data, String userName) {
         log.info("Servicio de Movimientos onChange con tipo: {} y datos: {}", tipo, data);
 
         if (webSocketService == null) {
@@ -783,13 +1076,6 @@ public class MovimientosServiceImpl implements MovimientosService {
 
             String json = mapper.writeValueAsString(notificacion);
 
-            // Recuperar el cliente del usuario logueado
-            TarjetaResponse tarjeta = tarjetaService.getByNumeroTarjeta(data.getNumeroTarjeta());
-            CuentaResponse cuenta =cuentaService.getByNumTarjeta(tarjeta.getNumeroTarjeta());
-            String clienteId = cuenta.getClienteId();
-            String userId = clienteService.getById(clienteId).getUserId();
-            String userName = userService.getById(userId).getUsername();
-
             sendMessageUser(userName, json);
 
         } catch (JsonProcessingException e) {
@@ -799,30 +1085,23 @@ public class MovimientosServiceImpl implements MovimientosService {
 
     /**
      * Envía un mensaje al usuario específico utilizando el servicio WebSocket.
-     * El mensaje es enviado de forma asíncrona para evitar bloquear el hilo principal.
+     * El mensaje se encola en el despachador compartido para no bloquear el hilo principal.
      *
      * @param userName El nombre del usuario al que se enviará el mensaje.
      * @param json Mensaje en formato JSON que se enviará.
-     * @see WebSocketHandler
+     * @see NotificationDispatcher
      */
 
     @Operation(
             summary = "Enviar mensaje a usuario específico",
-            description = "Envía un mensaje JSON al usuario mediante WebSocket de forma asíncrona para evitar bloqueos en el hilo principal."
+            description = "Encola un mensaje JSON para el usuario en el despachador de notificaciones WebSocket para evitar bloqueos en el hilo principal."
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Mensaje enviado correctamente"),
-            @ApiResponse(responseCode = "500", description = "Error interno al enviar el mensaje a través del servicio WebSocket")
+            @ApiResponse(responseCode = "200", description = "Mensaje encolado correctamente"),
+            @ApiResponse(responseCode = "500", description = "Error interno al encolar el mensaje")
     })
     private void sendMessageUser(String userName, String json){
         log.info("Enviando mensaje al cliente ws del usuario");
-        Thread senderThread = new Thread(() -> {
-            try {
-                webSocketService.sendMessageToUser(userName,json);
-            } catch (Exception e) {
-                log.error("Error al enviar el mensaje a través del servicio WebSocket", e);
-            }
-        });
-        senderThread.start();
+        notificationDispatcher.enviar(webSocketService, userName, json);
     }
 }
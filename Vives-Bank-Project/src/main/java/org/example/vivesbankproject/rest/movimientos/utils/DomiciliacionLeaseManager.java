@@ -0,0 +1,233 @@
+package org.example.vivesbankproject.rest.movimientos.utils;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.movimientos.models.Domiciliacion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * DomiciliacionLeaseManager
+ *
+ * <p>Reparte las particiones de domiciliaciones entre los nodos de la aplicación mediante concesiones
+ * (leases) con caducidad guardadas en Redis, de modo que cada partición la ejecuta un único nodo.</p>
+ *
+ * <p>Cada nodo se anuncia en un conjunto ordenado con la hora a la que caduca su latido. Con la lista de
+ * nodos vivos, ordenada igual en todos ellos, cada nodo se queda las particiones {@code p} tales que
+ * {@code p % nodos == posición} y libera el resto. Una partición solo se ejecuta si se tiene su concesión,
+ * así que durante un reparto el nodo que entra espera a que el anterior la libere o a que caduque. Las
+ * concesiones se renuevan periódicamente mientras el nodo sigue vivo.</p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class DomiciliacionLeaseManager {
+
+    /**
+     * Adquiere la concesión si está libre o la renueva si ya es de este nodo.
+     */
+    private static final RedisScript<Long> ADQUIRIR = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+                    "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return 1 end " +
+                    "return 0", Long.class);
+
+    /**
+     * Renueva la concesión solo si sigue siendo de este nodo.
+     */
+    private static final RedisScript<Long> RENOVAR = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end " +
+                    "return 0", Long.class);
+
+    /**
+     * Libera la concesión solo si es de este nodo.
+     */
+    private static final RedisScript<Long> LIBERAR = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+                    "return redis.call('DEL', KEYS[1]) end " +
+                    "return 0", Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final String prefijo;
+    private final int particiones;
+    private final Duration ttl;
+    private final String nodo = UUID.randomUUID().toString();
+
+    private volatile Set<Integer> propias = Set.of();
+
+    /**
+     * Constructor del gestor de concesiones de las domiciliaciones.
+     *
+     * @param redisTemplate Cliente de Redis con claves y valores de texto
+     * @param ttlMs         Caducidad de las concesiones y del latido del nodo, en milisegundos
+     */
+    @Autowired
+    public DomiciliacionLeaseManager(@Qualifier("stringRedisTemplate") RedisTemplate<String, String> redisTemplate,
+                                     @Value("${domiciliaciones.reparto.ttl-ms:30000}") long ttlMs) {
+        this(redisTemplate, "domiciliaciones", Domiciliacion.PARTICIONES, Duration.ofMillis(ttlMs));
+    }
+
+    /**
+     * Crea un gestor de concesiones.
+     *
+     * @param redisTemplate Cliente de Redis con claves y valores de texto
+     * @param prefijo       Prefijo de las claves en Redis
+     * @param particiones   Número de particiones
+     * @param ttl           Caducidad de las concesiones y del latido del nodo
+     */
+    public DomiciliacionLeaseManager(RedisTemplate<String, String> redisTemplate, String prefijo, int particiones, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.prefijo = prefijo;
+        this.particiones = particiones;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Renueva el latido del nodo, recalcula el reparto y adquiere las concesiones de las particiones
+     * asignadas a este nodo, liberando las demás.
+     *
+     * @return Particiones cuya concesión tiene este nodo
+     */
+    public synchronized Set<Integer> adquirir() {
+        try {
+            List<String> nodos = latido();
+            int posicion = nodos.indexOf(nodo);
+            Set<Integer> adquiridas = new TreeSet<>();
+            for (int particion = 0; particion < particiones; particion++) {
+                if (particion % nodos.size() == posicion) {
+                    if (ejecutar(ADQUIRIR, particion)) {
+                        adquiridas.add(particion);
+                    }
+                } else if (propias.contains(particion)) {
+                    ejecutar(LIBERAR, particion);
+                }
+            }
+            propias = Collections.unmodifiableSet(adquiridas);
+            log.debug("Nodo {} de {} con {} particiones de domiciliaciones", posicion + 1, nodos.size(), propias.size());
+            return propias;
+        } catch (RuntimeException e) {
+            propias = Set.of();
+            throw e;
+        }
+    }
+
+    /**
+     * Renueva el latido y las concesiones que ya tiene este nodo. El latido se renueva aunque el nodo no
+     * tenga ninguna concesión, para que siga contando en el reparto. Si alguna concesión se ha perdido deja
+     * de considerarse propia, de modo que sus domiciliaciones pendientes no se ejecutan.
+     */
+    @Scheduled(fixedDelayString = "${domiciliaciones.reparto.renovacion-ms:10000}")
+    public synchronized void renovar() {
+        try {
+            latido();
+            Set<Integer> renovadas = new TreeSet<>();
+            for (Integer particion : propias) {
+                if (ejecutar(RENOVAR, particion)) {
+                    renovadas.add(particion);
+                }
+            }
+            if (renovadas.size() < propias.size()) {
+                log.warn("Perdidas {} concesiones de domiciliaciones", propias.size() - renovadas.size());
+            }
+            propias = Collections.unmodifiableSet(renovadas);
+        } catch (RuntimeException e) {
+            log.error("No se han podido renovar las concesiones de domiciliaciones", e);
+            propias = Set.of();
+        }
+    }
+
+    /**
+     * Indica si este nodo tiene la concesión de una partición.
+     *
+     * @param particion Partición
+     * @return true si la partición es de este nodo
+     */
+    public boolean posee(int particion) {
+        return propias.contains(particion);
+    }
+
+    /**
+     * Comprueba en Redis que la concesión de una partición sigue siendo de este nodo y, si es así, la renueva.
+     * A diferencia de {@link #posee(int)}, no se fía del estado local, que puede haberse quedado atrás si la
+     * concesión ha caducado entre dos renovaciones. Si se ha perdido, deja de considerarse propia.
+     *
+     * @param particion Partición
+     * @return true si la concesión sigue siendo de este nodo
+     */
+    public boolean confirmar(int particion) {
+        if (!propias.contains(particion)) {
+            return false;
+        }
+        try {
+            if (ejecutar(RENOVAR, particion)) {
+                return true;
+            }
+            log.warn("Perdida la concesión de la partición {} de domiciliaciones", particion);
+        } catch (RuntimeException e) {
+            log.warn("No se ha podido comprobar la concesión de la partición {} de domiciliaciones: {}", particion, e.getMessage());
+        }
+        descartar(particion);
+        return false;
+    }
+
+    /**
+     * Libera todas las concesiones y retira el nodo del reparto al cerrar la aplicación.
+     */
+    @PreDestroy
+    public synchronized void liberarTodas() {
+        try {
+            for (Integer particion : propias) {
+                ejecutar(LIBERAR, particion);
+            }
+            redisTemplate.opsForZSet().remove(claveNodos(), nodo);
+        } catch (RuntimeException e) {
+            log.warn("No se han podido liberar las concesiones de domiciliaciones: {}", e.getMessage());
+        } finally {
+            propias = Set.of();
+        }
+    }
+
+    /**
+     * Anuncia el nodo, descarta los nodos cuyo latido ha caducado y devuelve los vivos ordenados.
+     */
+    private List<String> latido() {
+        long ahora = System.currentTimeMillis();
+        redisTemplate.opsForZSet().add(claveNodos(), nodo, ahora + ttl.toMillis());
+        redisTemplate.opsForZSet().removeRangeByScore(claveNodos(), Double.NEGATIVE_INFINITY, ahora);
+        Set<String> vivos = redisTemplate.opsForZSet().range(claveNodos(), 0, -1);
+        List<String> nodos = new ArrayList<>(vivos != null ? vivos : Set.of(nodo));
+        if (!nodos.contains(nodo)) {
+            nodos.add(nodo);
+        }
+        Collections.sort(nodos);
+        return nodos;
+    }
+
+    private synchronized void descartar(int particion) {
+        Set<Integer> restantes = new TreeSet<>(propias);
+        restantes.remove(particion);
+        propias = Collections.unmodifiableSet(restantes);
+    }
+
+    private boolean ejecutar(RedisScript<Long> script, int particion) {
+        Long resultado = redisTemplate.execute(script, List.of(prefijo + ":particion:" + particion),
+                nodo, String.valueOf(ttl.toMillis()));
+        return resultado != null && resultado == 1L;
+    }
+
+    private String claveNodos() {
+        return prefijo + ":nodos";
+    }
+}
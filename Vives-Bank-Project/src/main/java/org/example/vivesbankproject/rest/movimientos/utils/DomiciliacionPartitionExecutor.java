@@ -0,0 +1,219 @@
+package org.example.vivesbankproject.rest.movimientos.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.movimientos.models.Domiciliacion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * DomiciliacionPartitionExecutor
+ *
+ * <p>Ejecuta en paralelo las domiciliaciones vencidas repartiéndolas en particiones por el hash del IBAN de
+ * origen. Cada partición la atiende un único trabajador, de modo que los cargos contra una misma cuenta se
+ * ejecutan de uno en uno y en orden, mientras que cuentas distintas avanzan a la vez.</p>
+ *
+ * <p>Las colas de las particiones están acotadas: si los trabajadores no dan abasto, la lectura del cursor
+ * se detiene hasta que haya sitio, así que nunca se cargan en memoria todas las domiciliaciones vencidas.</p>
+ *
+ * <p>Publica las métricas {@code domiciliaciones.procesadas}, {@code domiciliaciones.errores},
+ * {@code domiciliaciones.pendientes}, {@code domiciliaciones.pasada} y, por partición,
+ * {@code domiciliaciones.particion.retraso} (segundos transcurridos desde el vencimiento de la domiciliación
+ * en curso).</p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class DomiciliacionPartitionExecutor {
+
+    /**
+     * Marca de fin de pasada que se encola en cada partición.
+     */
+    private static final Domiciliacion FIN = new Domiciliacion();
+
+    private final int particiones;
+    private final int capacidadCola;
+    private final ExecutorService trabajadores;
+
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final AtomicLong[] retrasos;
+    private final Counter procesadas;
+    private final Counter errores;
+    private final Timer pasada;
+
+    /**
+     * Crea el ejecutor con un trabajador por partición.
+     *
+     * @param meterRegistry Registro de métricas
+     * @param particiones   Número de particiones y de trabajadores
+     * @param capacidadCola Domiciliaciones que puede tener en espera cada partición
+     */
+    @Autowired
+    public DomiciliacionPartitionExecutor(MeterRegistry meterRegistry,
+                                          @Value("${domiciliaciones.ejecucion.particiones:8}") int particiones,
+                                          @Value("${domiciliaciones.ejecucion.capacidad-cola:1000}") int capacidadCola) {
+        this.particiones = Math.max(1, particiones);
+        this.capacidadCola = Math.max(1, capacidadCola);
+        AtomicInteger contador = new AtomicInteger();
+        this.trabajadores = Executors.newFixedThreadPool(this.particiones,
+                tarea -> new Thread(tarea, "domiciliaciones-" + contador.getAndIncrement()));
+
+        this.procesadas = Counter.builder("domiciliaciones.procesadas")
+                .description("Domiciliaciones vencidas procesadas")
+                .register(meterRegistry);
+        this.errores = Counter.builder("domiciliaciones.errores")
+                .description("Domiciliaciones cuyo procesamiento terminó con un error no controlado")
+                .register(meterRegistry);
+        this.pasada = Timer.builder("domiciliaciones.pasada")
+                .description("Duración de cada pasada del programador de domiciliaciones")
+                .register(meterRegistry);
+        Gauge.builder("domiciliaciones.pendientes", pendientes, AtomicInteger::get)
+                .description("Domiciliaciones vencidas leídas y aún no procesadas")
+                .register(meterRegistry);
+
+        this.retrasos = new AtomicLong[this.particiones];
+        for (int i = 0; i < this.particiones; i++) {
+            AtomicLong retraso = new AtomicLong();
+            retrasos[i] = retraso;
+            Gauge.builder("domiciliaciones.particion.retraso", retraso, AtomicLong::get)
+                    .description("Segundos desde el vencimiento de la domiciliación en curso de la partición")
+                    .baseUnit("seconds")
+                    .tag("particion", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Procesa todas las domiciliaciones del stream y espera a que terminen.
+     *
+     * @param vencidas Domiciliaciones vencidas; el stream lo cierra quien lo abre
+     * @param accion   Procesamiento de una domiciliación
+     * @return Número de domiciliaciones procesadas
+     */
+    public long ejecutar(Stream<Domiciliacion> vencidas, Consumer<Domiciliacion> accion) {
+        long inicio = System.nanoTime();
+        List<BlockingQueue<Domiciliacion>> colas = new ArrayList<>(particiones);
+        List<Future<Long>> resultados = new ArrayList<>(particiones);
+        for (int i = 0; i < particiones; i++) {
+            BlockingQueue<Domiciliacion> cola = new ArrayBlockingQueue<>(capacidadCola);
+            int particion = i;
+            colas.add(cola);
+            resultados.add(trabajadores.submit(() -> consumir(particion, cola, accion)));
+        }
+
+        try {
+            vencidas.forEach(domiciliacion -> encolar(colas.get(particion(domiciliacion)), domiciliacion));
+        } finally {
+            colas.forEach(cola -> encolar(cola, FIN));
+        }
+
+        long total = 0;
+        for (Future<Long> resultado : resultados) {
+            total += esperar(resultado);
+        }
+        pasada.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (total > 0) {
+            log.info("Procesadas {} domiciliaciones en {} particiones", total, particiones);
+        }
+        return total;
+    }
+
+    /**
+     * Calcula la partición de una domiciliación a partir de su IBAN de origen.
+     *
+     * @param domiciliacion Domiciliación
+     * @return Índice de la partición
+     */
+    int particion(Domiciliacion domiciliacion) {
+        String iban = domiciliacion.getIbanOrigen();
+        return iban == null ? 0 : Math.floorMod(iban.hashCode(), particiones);
+    }
+
+    private void encolar(BlockingQueue<Domiciliacion> cola, Domiciliacion domiciliacion) {
+        try {
+            if (domiciliacion != FIN) {
+                pendientes.incrementAndGet();
+            }
+            cola.put(domiciliacion);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpida la lectura de domiciliaciones vencidas", e);
+        }
+    }
+
+    private long consumir(int particion, BlockingQueue<Domiciliacion> cola, Consumer<Domiciliacion> accion)
+            throws InterruptedException {
+        long procesadasParticion = 0;
+        try {
+            while (true) {
+                Domiciliacion domiciliacion = cola.take();
+                if (domiciliacion == FIN) {
+                    return procesadasParticion;
+                }
+                retrasos[particion].set(retraso(domiciliacion));
+                try {
+                    accion.accept(domiciliacion);
+                } catch (RuntimeException e) {
+                    errores.increment();
+                    log.error("Error al procesar la domiciliación {}", domiciliacion.getGuid(), e);
+                } finally {
+                    pendientes.decrementAndGet();
+                    procesadas.increment();
+                    procesadasParticion++;
+                }
+            }
+        } finally {
+            retrasos[particion].set(0);
+        }
+    }
+
+    private static long retraso(Domiciliacion domiciliacion) {
+        LocalDateTime vencimiento = domiciliacion.getProximaEjecucion();
+        return vencimiento == null ? 0 : Math.max(0, Duration.between(vencimiento, LocalDateTime.now()).toSeconds());
+    }
+
+    private static long esperar(Future<Long> resultado) {
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpida la espera de los trabajadores de domiciliaciones", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error en un trabajador de domiciliaciones", e.getCause());
+        }
+    }
+
+    /**
+     * Número de domiciliaciones leídas y aún no procesadas.
+     *
+     * @return Domiciliaciones pendientes
+     */
+    public int pendientes() {
+        return pendientes.get();
+    }
+
+    /**
+     * Detiene los trabajadores al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        trabajadores.shutdownNow();
+    }
+}
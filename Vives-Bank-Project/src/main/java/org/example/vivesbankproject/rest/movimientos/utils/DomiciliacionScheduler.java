@@ -5,17 +5,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.example.vivesbankproject.rest.cliente.service.ClienteService;
-import org.example.vivesbankproject.rest.cuenta.mappers.CuentaMapper;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaSaldoInsuficiente;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaBalanceService;
 import org.example.vivesbankproject.rest.cuenta.services.CuentaService;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaTransferenciaExecutor;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
 import org.example.vivesbankproject.rest.movimientos.exceptions.domiciliacion.DomiciliacionException;
 import org.example.vivesbankproject.rest.movimientos.exceptions.domiciliacion.SaldoInsuficienteException;
 import org.example.vivesbankproject.rest.movimientos.mappers.MovimientoMapper;
 import org.example.vivesbankproject.rest.movimientos.models.Domiciliacion;
 import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
 import org.example.vivesbankproject.rest.movimientos.repositories.DomiciliacionRepository;
-import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
-import org.example.vivesbankproject.rest.users.services.UserService;
+import org.example.vivesbankproject.rest.movimientos.services.MovimientoOutboxService;
+import org.example.vivesbankproject.config.websockets.NotificationDispatcher;
 import org.example.vivesbankproject.config.websockets.WebSocketConfig;
 import org.example.vivesbankproject.config.websockets.WebSocketHandler;
 import org.example.vivesbankproject.websocket.notifications.dto.DomiciliacionResponse;
@@ -29,6 +31,8 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 /**
  * DomiciliacionScheduler
  *
@@ -44,14 +48,17 @@ import java.util.List;
 public class DomiciliacionScheduler {
 
     private final DomiciliacionRepository domiciliacionRepository;
-    private final MovimientosRepository movimientosRepository;
+    private final MovimientoOutboxService movimientoOutboxService;
     private final CuentaService cuentaService;
-    private final CuentaMapper cuentaMapper;
-    private final UserService userService;
+    private final CuentaBalanceService cuentaBalanceService;
+    private final CuentaTransferenciaExecutor cuentaTransferenciaExecutor;
     private final WebSocketConfig webSocketConfig;
+    private final NotificationDispatcher notificationDispatcher;
     private final ObjectMapper mapper;
     private final NotificationMapper notificationMapper;
-    private final ClienteService clienteService;
+    private final CuentaUsuarioResolver cuentaUsuarioResolver;
+    private final DomiciliacionPartitionExecutor domiciliacionPartitionExecutor;
+    private final DomiciliacionLeaseManager domiciliacionLeaseManager;
     /**
      * WebSocket handler para enviar notificaciones a los clientes.
      */
@@ -61,24 +68,30 @@ public class DomiciliacionScheduler {
      * Constructor para la inicialización de dependencias necesarias para el servicio.
      *
      * @param domiciliacionRepository El repositorio de domiciliaciones.
-     * @param movimientosRepository  El repositorio de movimientos.
+     * @param movimientoOutboxService El outbox donde se registran los movimientos.
      * @param cuentaService         El servicio de cuentas.
-     * @param userService           El servicio de usuarios.
      * @param webSocketConfig       La configuración para WebSocket.
      * @param notificationMapper    El mapper para convertir objetos de notificación.
-     * @param cuentaMapper          El mapper para convertir las cuentas.
-     * @param clienteService       El servicio para obtener clientes.
+     * @param cuentaBalanceService  El servicio para modificar el saldo de las cuentas.
+     * @param cuentaTransferenciaExecutor El ejecutor que agrupa saldo y movimiento en una transacción.
      * @param movimientosMapper    El mapper para manejar movimientos.
+     * @param notificationDispatcher El despachador compartido de notificaciones WebSocket.
+     * @param cuentaUsuarioResolver La resolución en caché del usuario propietario de una cuenta.
+     * @param domiciliacionPartitionExecutor El ejecutor que reparte las domiciliaciones vencidas en particiones paralelas.
+     * @param domiciliacionLeaseManager Las concesiones que reparten las particiones de domiciliaciones entre nodos.
      */
     @Autowired
-    public DomiciliacionScheduler(DomiciliacionRepository domiciliacionRepository, MovimientosRepository movimientosRepository, CuentaService cuentaService, UserService userService, WebSocketConfig webSocketConfig, NotificationMapper notificationMapper, CuentaMapper cuentaMapper, ClienteService clienteService, MovimientoMapper movimientosMapper) {
+    public DomiciliacionScheduler(DomiciliacionRepository domiciliacionRepository, MovimientoOutboxService movimientoOutboxService, CuentaService cuentaService, WebSocketConfig webSocketConfig, NotificationMapper notificationMapper, CuentaBalanceService cuentaBalanceService, CuentaTransferenciaExecutor cuentaTransferenciaExecutor, MovimientoMapper movimientosMapper, NotificationDispatcher notificationDispatcher, CuentaUsuarioResolver cuentaUsuarioResolver, DomiciliacionPartitionExecutor domiciliacionPartitionExecutor, DomiciliacionLeaseManager domiciliacionLeaseManager) {
         this.domiciliacionRepository = domiciliacionRepository;
-        this.movimientosRepository = movimientosRepository;
+        this.movimientoOutboxService = movimientoOutboxService;
         this.cuentaService = cuentaService;
-        this.cuentaMapper = cuentaMapper;
-        this.clienteService = clienteService;
-        this.userService = userService;
+        this.cuentaBalanceService = cuentaBalanceService;
+        this.cuentaTransferenciaExecutor = cuentaTransferenciaExecutor;
+        this.cuentaUsuarioResolver = cuentaUsuarioResolver;
+        this.domiciliacionPartitionExecutor = domiciliacionPartitionExecutor;
+        this.domiciliacionLeaseManager = domiciliacionLeaseManager;
         this.webSocketConfig = webSocketConfig;
+        this.notificationDispatcher = notificationDispatcher;
 
         webSocketService = webSocketConfig.webSocketMovimientosHandler();
         mapper = new ObjectMapper();
@@ -86,6 +99,29 @@ public class DomiciliacionScheduler {
     }
     /**
      * Programa de ejecución periódica cada minuto para procesar domiciliaciones activas.
+     * <p>
+     * Solo lee las domiciliaciones vencidas a través del índice {activa, particion, proximaEjecucion}, de
+     * modo que un minuto sin cargos pendientes cuesta una consulta al índice por partición en lugar de
+     * recorrer la colección.
+     * Las domiciliaciones que se ejecutan avanzan su próxima ejecución según la periodicidad; las que
+     * fallan por saldo insuficiente se reintentan en la siguiente pasada.
+     * </p>
+     * <p>
+     * Las vencidas se procesan en paralelo con {@link DomiciliacionPartitionExecutor}, que mantiene en
+     * serie los cargos contra una misma cuenta.
+     * </p>
+     * <p>
+     * Con varios nodos, cada uno procesa solo las particiones cuya concesión obtiene de
+     * {@link DomiciliacionLeaseManager}. La concesión solo reparte el trabajo: como puede caducar y pasar a
+     * otro nodo en mitad de una pasada, cada domiciliación se reclama antes del cargo avanzando su próxima
+     * ejecución con una escritura condicional, y solo el nodo que la reclama la ejecuta. Antes de reclamarla
+     * se confirma en Redis que la concesión de su partición sigue siendo de este nodo.
+     * </p>
+     * <p>
+     * La pasada ocupa un hilo del programador de tareas hasta que terminan todas las particiones, así que
+     * {@code spring.task.scheduling.pool.size} debe dejar hilos libres para la renovación de las concesiones
+     * y el resto de tareas programadas.
+     * </p>
      */
     @Scheduled(cron = "0 * * * * ?")
     @Operation(
@@ -96,49 +132,94 @@ public class DomiciliacionScheduler {
         log.info("Procesando domiciliaciones periódicas");
 
         LocalDateTime ahora = LocalDateTime.now();
+        Set<Integer> particiones;
+        try {
+            particiones = domiciliacionLeaseManager.adquirir();
+        } catch (RuntimeException e) {
+            log.error("No se han podido obtener las concesiones de domiciliaciones, se reintentará", e);
+            return;
+        }
+        if (particiones.isEmpty()) {
+            log.info("Este nodo no tiene particiones de domiciliaciones asignadas");
+            return;
+        }
 
-        // Filtrar domiciliaciones activas que requieren ejecución
-        List<Domiciliacion> domiciliaciones = domiciliacionRepository.findAll()
-                .stream()
-                .filter(d -> d.getActiva() && requiereEjecucion(d, ahora))
-                .toList();
+        // Solo el nodo con la partición 0 completa los documentos sin programar
+        if (particiones.contains(0)) {
+            programarDomiciliacionesSinFecha();
+        }
 
-        for (Domiciliacion domiciliacion : domiciliaciones) {
-            try {
-                // Validar y ejecutar la domiciliación
-                log.info("Ejecutando domiciliación: {}", domiciliacion.getGuid());
-                ejecutarDomiciliacion(domiciliacion);
+        try (Stream<Domiciliacion> vencidas = domiciliacionRepository
+                .findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(particiones, ahora)) {
+            domiciliacionPartitionExecutor.ejecutar(vencidas, domiciliacion -> {
+                // La concesión puede haber caducado durante la pasada: se comprueba en Redis antes de reclamar
+                if (domiciliacionLeaseManager.confirmar(domiciliacion.getParticion())) {
+                    procesarDomiciliacion(domiciliacion, ahora);
+                }
+            });
+        }
+    }
 
-                // Actualizar última ejecución
-                domiciliacion.setUltimaEjecucion(ahora);
+    /**
+     * Calcula la próxima ejecución y la partición de las domiciliaciones activas que aún no las tienen, a
+     * partir de su última ejecución, para que entren en el índice de vencimientos.
+     */
+    private void programarDomiciliacionesSinFecha() {
+        try (Stream<Domiciliacion> sinFecha = domiciliacionRepository.findSinProgramar()) {
+            sinFecha.forEach(domiciliacion -> {
+                LocalDateTime ultima = domiciliacion.getUltimaEjecucion() != null
+                        ? domiciliacion.getUltimaEjecucion()
+                        : domiciliacion.getFechaInicio();
+                domiciliacion.programarSiguienteEjecucion(ultima);
                 domiciliacionRepository.save(domiciliacion);
-            } catch (SaldoInsuficienteException ex) {
-                log.warn("Saldo insuficiente para domiciliación: {}", domiciliacion.getGuid());
-            } catch (DomiciliacionException ex) {
-                log.error("Error al procesar domiciliación: {}", domiciliacion.getGuid(), ex);
-            }
+            });
         }
     }
+
     /**
-     * Verifica la necesidad de ejecutar una domiciliación según la periodicidad configurada.
+     * Reclama una domiciliación vencida, la ejecuta y notifica al cliente.
+     * <p>
+     * Antes del cargo se programa la siguiente ejecución con una escritura condicionada a que la próxima
+     * ejecución siga siendo la leída; si otro nodo ya la ha reclamado no se hace nada. Si el cargo no llega
+     * a confirmarse, se devuelve la domiciliación a su vencimiento para reintentarla en la siguiente pasada.
+     * </p>
      *
-     * @param domiciliacion El objeto de domiciliación.
-     * @param ahora         Fecha y hora actual para comparar.
-     * @return true si debe ejecutarse; false de lo contrario.
+     * @param domiciliacion Domiciliación vencida
+     * @param ahora         Fecha de la pasada del programador
      */
-    private boolean requiereEjecucion(Domiciliacion domiciliacion, LocalDateTime ahora) {
-        switch (domiciliacion.getPeriodicidad()) {
-            case DIARIA:
-                return domiciliacion.getUltimaEjecucion().plusDays(1).isBefore(ahora);
-            case SEMANAL:
-                return domiciliacion.getUltimaEjecucion().plusWeeks(1).isBefore(ahora);
-            case MENSUAL:
-                return domiciliacion.getUltimaEjecucion().plusMonths(1).isBefore(ahora);
-            case ANUAL:
-                return domiciliacion.getUltimaEjecucion().plusYears(1).isBefore(ahora);
-            default:
-                return false;
+    private void procesarDomiciliacion(Domiciliacion domiciliacion, LocalDateTime ahora) {
+        LocalDateTime vencimiento = domiciliacion.getProximaEjecucion();
+        LocalDateTime ultimaAnterior = domiciliacion.getUltimaEjecucion();
+
+        // Reclamar la ejecución avanzando la última y la próxima ejecución
+        domiciliacion.programarSiguienteEjecucion(ahora);
+        if (domiciliacionRepository.reprogramarSiNoHaCambiado(domiciliacion.getId(), vencimiento,
+                domiciliacion.getUltimaEjecucion(), domiciliacion.getProximaEjecucion()) == 0) {
+            log.info("La domiciliación {} ya la ha ejecutado otro nodo", domiciliacion.getGuid());
+            return;
+        }
+
+        try {
+            // Validar y ejecutar la domiciliación
+            log.info("Ejecutando domiciliación: {}", domiciliacion.getGuid());
+            ejecutarDomiciliacion(domiciliacion);
+        } catch (RuntimeException ex) {
+            // El cargo no se ha confirmado: devolver la domiciliación a su vencimiento
+            domiciliacionRepository.reprogramarSiNoHaCambiado(domiciliacion.getId(), domiciliacion.getProximaEjecucion(),
+                    ultimaAnterior, vencimiento);
+            domiciliacion.setUltimaEjecucion(ultimaAnterior);
+            domiciliacion.setProximaEjecucion(vencimiento);
+            if (ex instanceof SaldoInsuficienteException || ex instanceof CuentaSaldoInsuficiente) {
+                log.warn("Saldo insuficiente para domiciliación: {}", domiciliacion.getGuid());
+                return;
+            }
+            if (ex instanceof DomiciliacionException) {
+                log.error("Error al procesar domiciliación: {}", domiciliacion.getGuid(), ex);
+                return;
+            }
+            throw ex;
         }
+        onChangeDomiciliacionEjecutada(Notification.Tipo.EXECUTE, domiciliacion);
     }
 
     /**
@@ -158,20 +239,17 @@ public class DomiciliacionScheduler {
             throw new SaldoInsuficienteException(cuentaOrigen.getIban(), saldoActual);
         }
 
-        // Actualizar saldos
-        cuentaOrigen.setSaldo(saldoActual.subtract(cantidad).toString());
-
-        cuentaService.update(cuentaOrigen.getGuid(), cuentaMapper.toCuentaRequestUpdate(cuentaOrigen));
-
-        // Registrar el movimiento
         Movimiento movimiento = Movimiento.builder()
                 .clienteGuid(cuentaOrigen.getClienteId())
                 .domiciliacion(domiciliacion)
                 .build();
 
-        movimientosRepository.save(movimiento);
-        onChangeDomiciliacionEjecutada(Notification.Tipo.EXECUTE, domiciliacion);
-
+        // Actualizar saldos y registrar el movimiento en la misma transacción
+        cuentaTransferenciaExecutor.ejecutar(List.of(cuentaOrigen.getIban()), () -> {
+            cuentaBalanceService.debitar(cuentaOrigen.getIban(), cantidad);
+            movimientoOutboxService.registrarAlta(movimiento);
+            return null;
+        });
     }
     /**
      * Envía una notificación utilizando WebSocket cuando una domiciliación es ejecutada.
@@ -201,10 +279,8 @@ public class DomiciliacionScheduler {
 
             String json = mapper.writeValueAsString(notificacion);
 
-            // Recuperar el cliente del usuario logueado
-            String clienteId = cuentaService.getByIban(data.getIbanOrigen()).getClienteId();
-            String userId = clienteService.getById(clienteId).getUserId();
-            String userName = userService.getById(userId).getUsername();
+            // Recuperar el usuario propietario de la cuenta de origen
+            String userName = cuentaUsuarioResolver.getUsername(data.getIbanOrigen());
 
             sendMessageUser(userName, json);
 
@@ -213,7 +289,7 @@ public class DomiciliacionScheduler {
         }
     }
     /**
-     * Envía un mensaje al cliente vía WebSocket utilizando el nombre de usuario.
+     * Encola un mensaje para el cliente en el despachador de notificaciones WebSocket.
      *
      * @param userName Nombre de usuario al que se enviará el mensaje.
      * @param json     Contenido de la notificación en formato JSON.
@@ -224,13 +300,6 @@ public class DomiciliacionScheduler {
     )
     private void sendMessageUser(String userName, String json){
         log.info("Enviando mensaje al cliente ws del usuario");
-        Thread senderThread = new Thread(() -> {
-            try {
-                webSocketService.sendMessageToUser(userName,json);
-            } catch (Exception e) {
-                log.error("Error al enviar el mensaje a través del servicio WebSocket", e);
-            }
-        });
-        senderThread.start();
+        notificationDispatcher.enviar(webSocketService, userName, json);
     }
 }
@@ -0,0 +1,69 @@
+package org.example.vivesbankproject.rest.movimientos.utils;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.movimientos.services.MovimientoOutboxService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * MovimientoOutboxRelay
+ *
+ * <p>Proceso en segundo plano que publica en MongoDB los movimientos registrados en el outbox de PostgreSQL.
+ * En cada ejecución publica lotes consecutivos hasta vaciar la cola, y una vez al día elimina las entradas
+ * entregadas que superan el periodo de retención.</p>
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class MovimientoOutboxRelay {
+    private final MovimientoOutboxService movimientoOutboxService;
+
+    @Value("${movimientos.outbox.tamano-lote:500}")
+    private int tamanoLote = 500;
+
+    @Value("${movimientos.outbox.retencion-dias:7}")
+    private int retencionDias = 7;
+
+    /**
+     * Constructor del relay del outbox de movimientos.
+     *
+     * @param movimientoOutboxService Servicio del outbox de movimientos
+     */
+    @Autowired
+    public MovimientoOutboxRelay(MovimientoOutboxService movimientoOutboxService) {
+        this.movimientoOutboxService = movimientoOutboxService;
+    }
+
+    /**
+     * Publica los movimientos pendientes en lotes hasta vaciar el outbox.
+     * Si MongoDB no está disponible, las entradas quedan pendientes y se reintentan en la siguiente ejecución.
+     */
+    @Scheduled(fixedDelayString = "${movimientos.outbox.intervalo-ms:500}")
+    @Operation(summary = "Publicar outbox de movimientos", description = "Publica en MongoDB los movimientos pendientes del outbox")
+    public void publicar() {
+        try {
+            int publicados;
+            do {
+                publicados = movimientoOutboxService.publicarPendientes(tamanoLote);
+            } while (publicados == tamanoLote);
+        } catch (RuntimeException e) {
+            log.error("Error al publicar el outbox de movimientos, se reintentará", e);
+        }
+    }
+
+    /**
+     * Elimina las entradas ya entregadas que superan el periodo de retención.
+     */
+    @Scheduled(cron = "${movimientos.outbox.purga-cron:0 0 3 * * ?}")
+    @Operation(summary = "Purgar outbox de movimientos", description = "Elimina las entradas entregadas que superan el periodo de retención")
+    public void purgar() {
+        movimientoOutboxService.purgarEntregados(LocalDateTime.now().minusDays(retencionDias));
+    }
+}
@@ -7,9 +7,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
-import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
 import org.example.vivesbankproject.rest.storage.backupZip.services.ZipStorageService;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
+import org.example.vivesbankproject.rest.storage.jobs.dto.StorageJobResponse;
+import org.example.vivesbankproject.rest.storage.jobs.services.StorageJobService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
@@ -18,6 +19,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
 
 /**
  * Controlador REST para gestionar operaciones relacionadas con el almacenamiento de archivos ZIP.
@@ -36,36 +39,44 @@ public class ZipStorageController {
      */
     private final ZipStorageService zipStorageService;
 
+    /**
+     * Servicio de los trabajos de almacenamiento en segundo plano.
+     */
+    private final StorageJobService storageJobService;
+
     /**
      * Constructor que inyecta el servicio de almacenamiento ZIP.
      *
      * @param zipStorageService servicio de almacenamiento ZIP.
+     * @param storageJobService servicio de trabajos de almacenamiento.
      */
     @Autowired
-    public ZipStorageController(ZipStorageService zipStorageService) {
+    public ZipStorageController(ZipStorageService zipStorageService, StorageJobService storageJobService) {
         this.zipStorageService = zipStorageService;
+        this.storageJobService = storageJobService;
     }
 
     /**
-     * Genera un archivo ZIP con los datos almacenados.
+     * Lanza en segundo plano la copia de seguridad ZIP de los datos almacenados. El estado de la copia se
+     * consulta en la ruta indicada en la cabecera {@code Location}.
      *
-     * @return respuesta con el nombre del archivo ZIP generado.
+     * @param incremental si solo se incluyen los ficheros cambiados desde la última copia.
+     * @return respuesta 202 con el trabajo de la copia.
      */
     @PostMapping("/generate")
-    @Operation(summary = "Generar un archivo ZIP", description = "Genera un archivo ZIP con los datos actuales del sistema.")
+    @Operation(summary = "Generar un archivo ZIP", description = "Lanza en segundo plano la copia de seguridad ZIP, completa o incremental, de los datos actuales del sistema.")
+    @Parameters({
+            @Parameter(name = "incremental", description = "Incluir solo los ficheros cambiados desde la última copia", example = "false")
+    })
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Archivo ZIP generado con éxito"),
-            @ApiResponse(responseCode = "500", description = "Error interno del servidor al generar el archivo ZIP")
+            @ApiResponse(responseCode = "202", description = "Copia de seguridad lanzada"),
+            @ApiResponse(responseCode = "500", description = "Error interno del servidor al lanzar la copia de seguridad")
     })
-    public ResponseEntity<String> generateZip() {
-        try {
-            String storedFilename = zipStorageService.export();
-            return ResponseEntity.ok("Archivo ZIP generado con éxito: " + storedFilename);
-        } catch (StorageInternal e) {
-            log.error("Error al generar el archivo ZIP: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error al generar el archivo ZIP.");
-        }
+    public ResponseEntity<StorageJobResponse> generateZip(@RequestParam(defaultValue = "false") boolean incremental) {
+        StorageJobResponse trabajo = storageJobService.lanzar("backupZip", job -> zipStorageService.export(incremental, job));
+        return ResponseEntity.accepted()
+                .location(URI.create("/storage/jobs/" + trabajo.getId()))
+                .body(trabajo);
     }
 
     /**
@@ -99,6 +110,33 @@ public class ZipStorageController {
         }
     }
 
+    /**
+     * Lanza en segundo plano la restauración de una copia de seguridad ZIP. El progreso se consulta en la ruta
+     * indicada en la cabecera {@code Location}.
+     *
+     * @param filename nombre del archivo ZIP que se va a restaurar.
+     * @return respuesta 202 con el trabajo de la restauración, o 404 si el archivo no existe.
+     */
+    @PostMapping("/import/{filename:.+}")
+    @Operation(summary = "Restaurar en segundo plano un archivo ZIP", description = "Lanza la restauración en streaming y por lotes de una copia de seguridad ZIP.")
+    @Parameters({
+            @Parameter(name = "filename", description = "Nombre del archivo ZIP a restaurar", example = "clientes.zip")
+    })
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Restauración lanzada"),
+            @ApiResponse(responseCode = "404", description = "Archivo no encontrado")
+    })
+    public ResponseEntity<StorageJobResponse> restoreFromZip(@PathVariable String filename) {
+        if (!Files.exists(zipStorageService.load(filename))) {
+            log.error("Archivo no encontrado: " + filename);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        StorageJobResponse trabajo = storageJobService.lanzar("restauracionZip", job -> zipStorageService.restore(new File(filename), job));
+        return ResponseEntity.accepted()
+                .location(URI.create("/storage/jobs/" + trabajo.getId()))
+                .body(trabajo);
+    }
+
     /**
      * Proporciona el contenido de un archivo ZIP especificado.
      *
@@ -0,0 +1,77 @@
+package org.example.vivesbankproject.rest.storage.backupZip.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fichero de {@code dataAdmin} registrado en el manifiesto de una copia de seguridad.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FicheroBackup {
+
+    /**
+     * Fichero JSON con una lista de clientes.
+     */
+    public static final String CLIENTES = "CLIENTES";
+
+    /**
+     * Fichero JSON con una lista de movimientos.
+     */
+    public static final String MOVIMIENTOS = "MOVIMIENTOS";
+
+    /**
+     * Cualquier otro fichero, que se copia pero no se importa.
+     */
+    public static final String OTRO = "OTRO";
+
+    @Schema(description = "Ruta del fichero relativa a dataAdmin, que es también el nombre de su entrada en el ZIP.", example = "admin_clientes_2024-12-08.json")
+    private String nombre;
+
+    @Schema(description = "Contenido del fichero: CLIENTES, MOVIMIENTOS u OTRO.", example = "CLIENTES")
+    private String contenido;
+
+    @Schema(description = "Tamaño del fichero en bytes.", example = "18342")
+    private long tamano;
+
+    @Schema(description = "Última modificación del fichero en milisegundos desde 1970.", example = "1733650200000")
+    private long modificado;
+
+    @Schema(description = "SHA-256 del contenido del fichero en hexadecimal.")
+    private String sha256;
+
+    @Schema(description = "Nivel de compresión de su entrada; 0 si se guarda sin comprimir.", example = "6")
+    private int nivel;
+
+    @Schema(description = "ZIP que contiene la versión actual del fichero: esta copia u otra anterior si no ha cambiado.", example = "clientes.zip")
+    private String backup;
+
+    /**
+     * Deduce el contenido de un fichero a partir del nombre con el que lo generan las exportaciones JSON,
+     * comprimidas o no.
+     *
+     * @param nombre Ruta del fichero relativa a {@code dataAdmin}.
+     * @return {@link #CLIENTES}, {@link #MOVIMIENTOS} u {@link #OTRO}.
+     */
+    public static String contenidoDe(String nombre) {
+        String fichero = nombre.substring(nombre.lastIndexOf('/') + 1);
+        if (!fichero.endsWith(".json") && !fichero.endsWith(".json.gz")) {
+            return OTRO;
+        }
+        if (fichero.startsWith("admin_clientes_")) {
+            return CLIENTES;
+        }
+        if (fichero.startsWith("admin_movimientos_") || fichero.startsWith("movimientos_")) {
+            return MOVIMIENTOS;
+        }
+        return OTRO;
+    }
+}
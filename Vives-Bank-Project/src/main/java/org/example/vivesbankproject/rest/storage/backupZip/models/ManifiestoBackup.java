@@ -0,0 +1,56 @@
+package org.example.vivesbankproject.rest.storage.backupZip.models;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manifiesto de una copia de seguridad ZIP. Se guarda como entrada {@value #ENTRADA} dentro del ZIP y, tras
+ * cada copia correcta, como último manifiesto del almacenamiento, que es con el que se comparan las copias
+ * incrementales. Lista todos los ficheros de {@code dataAdmin} en el momento de la copia, estén o no en el ZIP.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ManifiestoBackup {
+
+    /**
+     * Nombre de la entrada del manifiesto dentro del ZIP.
+     */
+    public static final String ENTRADA = "manifest.json";
+
+    /**
+     * Copia con todos los ficheros.
+     */
+    public static final String COMPLETA = "COMPLETA";
+
+    /**
+     * Copia solo con los ficheros cambiados desde la copia anterior.
+     */
+    public static final String INCREMENTAL = "INCREMENTAL";
+
+    @Schema(description = "Tipo de copia: COMPLETA o INCREMENTAL.", example = "INCREMENTAL")
+    private String tipo;
+
+    @Schema(description = "Nombre del ZIP de esta copia.", example = "clientes_incremental_20241208_103000.zip")
+    private String fichero;
+
+    @Schema(description = "ZIP de la copia anterior con la que se comparó una copia incremental.", example = "clientes.zip")
+    private String base;
+
+    @Schema(description = "Fecha y hora de la copia.", example = "2024-12-08T10:30:00")
+    private String fecha;
+
+    @Schema(description = "Ficheros de dataAdmin en el momento de la copia.")
+    @Builder.Default
+    private List<FicheroBackup> ficheros = new ArrayList<>();
+}
@@ -1,49 +1,61 @@
 package org.example.vivesbankproject.rest.storage.backupZip.services;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.bson.types.ObjectId;
+import org.apache.commons.compress.archivers.zip.ScatterZipOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntryRequest;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.example.vivesbankproject.rest.cliente.dto.ClienteJsonZip;
-import org.example.vivesbankproject.rest.cliente.models.Cliente;
-import org.example.vivesbankproject.rest.cliente.repositories.ClienteRepository;
-import org.example.vivesbankproject.rest.cuenta.models.Cuenta;
-import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoResponse;
-import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
-import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
+import org.example.vivesbankproject.rest.storage.backupZip.models.FicheroBackup;
+import org.example.vivesbankproject.rest.storage.backupZip.models.ManifiestoBackup;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
-import org.example.vivesbankproject.rest.tarjeta.repositories.TarjetaRepository;
-import org.example.vivesbankproject.rest.users.mappers.UserMapper;
-import org.example.vivesbankproject.rest.users.models.User;
-import org.example.vivesbankproject.rest.users.repositories.UserRepository;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.ZipFile;
 /**
  * Servicio para operaciones de almacenamiento relacionadas con archivos ZIP.
  * Esta clase gestiona la creación, importación, exportación, procesamiento y eliminación de archivos ZIP.
@@ -55,31 +67,46 @@ import java.util.zip.ZipOutputStream;
 @Slf4j
 public class ZipFileSystemStorage implements ZipStorageService {
     private final Path rootLocation;
-    private final ClienteRepository clienteRepository;
-    private final UserRepository userRepository;
-    private final TarjetaRepository tarjetaRepository;
-    private final CuentaRepository cuentaRepository;
-    private final MovimientosRepository movimientosRepository;
-    private final UserMapper userMapper;
+    private final ZipRestauracionLotes zipRestauracionLotes;
+    private final ExecutorService ejecutorBackup;
+    private final int hilos;
+    private final int nivelPorDefecto;
+    private final Map<String, Integer> nivelesPorExtension;
+    private final int tamanoLote;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String ULTIMO_MANIFIESTO = "ultimo-backup.manifest.json";
+    private static final int TAMANO_BUFER = 64 * 1024;
+
     /**
      * Constructor que inyecta las dependencias necesarias para el almacenamiento.
      *
      * @param path Ruta de almacenamiento para los archivos ZIP.
-     * @param clienteRepository Repositorio para operaciones de clientes.
-     * @param movimientosRepository Repositorio para operaciones de movimientos.
-     * @param userRepository Repositorio para operaciones de usuarios.
-     * @param tarjetaRepository Repositorio para operaciones de tarjetas.
-     * @param cuentaRepository Repositorio para operaciones de cuentas.
-     * @param userMapper Manejador para convertir datos de usuario.
+     * @param zipRestauracionLotes Componente que guarda por lotes los registros restaurados.
+     * @param hilos Ficheros que se comprimen a la vez en una copia de seguridad; 0 para usar todos los núcleos.
+     * @param nivelPorDefecto Nivel de compresión de las extensiones sin nivel propio.
+     * @param niveles Niveles de compresión por extensión, como {@code pdf:0,json:6}; 0 guarda sin comprimir.
+     * @param tamanoLote Registros que se guardan juntos al restaurar una copia de seguridad.
      */
-    public ZipFileSystemStorage(@Value("${upload.root-location-2}") String path, ClienteRepository clienteRepository, MovimientosRepository movimientosRepository, UserRepository userRepository, TarjetaRepository tarjetaRepository, CuentaRepository cuentaRepository, UserMapper userMapper) {
+    public ZipFileSystemStorage(@Value("${upload.root-location-2}") String path, ZipRestauracionLotes zipRestauracionLotes,
+                                @Value("${backup.zip.hilos:0}") int hilos,
+                                @Value("${backup.zip.nivel:6}") int nivelPorDefecto,
+                                @Value("${backup.zip.niveles:pdf:0,gz:0,zip:0,png:0,jpg:0,jpeg:0}") String niveles,
+                                @Value("${backup.restauracion.lote:1000}") int tamanoLote) {
         this.rootLocation = Paths.get(path);
-        this.clienteRepository = clienteRepository;
-        this.movimientosRepository = movimientosRepository;
-        this.userRepository = userRepository;
-        this.tarjetaRepository = tarjetaRepository;
-        this.cuentaRepository = cuentaRepository;
-        this.userMapper = userMapper;
+        this.zipRestauracionLotes = zipRestauracionLotes;
+        this.hilos = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+        this.nivelPorDefecto = nivelPorDefecto;
+        this.nivelesPorExtension = leerNiveles(niveles);
+        this.tamanoLote = tamanoLote;
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutorBackup = Executors.newFixedThreadPool(this.hilos, tarea -> {
+            Thread hilo = new Thread(tarea, "backup-zip-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.objectMapper.registerModule(new JavaTimeModule());
     }
 
     /**
@@ -96,7 +123,7 @@ public class ZipFileSystemStorage implements ZipStorageService {
         }
     }
     /**
-     * Genera un archivo ZIP con datos relevantes de la carpeta `dataAdmin`.
+     * Genera una copia de seguridad completa de la carpeta `dataAdmin`.
      *
      * @return El nombre del archivo ZIP creado.
      */
@@ -107,49 +134,217 @@ public class ZipFileSystemStorage implements ZipStorageService {
             @ApiResponse(responseCode = "500", description = "Error interno en el servidor.")
     })
     public String export() {
-        String storedFilename = "clientes.zip";
-        Path zipPath = this.rootLocation.resolve(storedFilename);
+        return export(false, new StorageJob("backupZip"));
+    }
 
+    /**
+     * Genera una copia de seguridad de la carpeta `dataAdmin`. Cada fichero se comprime en un hilo del grupo
+     * de copias sobre su propio fichero temporal, con el nivel de compresión de su extensión, y el hilo que
+     * llama va añadiendo al ZIP las entradas ya comprimidas en el orden de recorrido, sin volver a
+     * comprimirlas. El ZIP lleva un manifiesto con el SHA-256 de cada fichero, que se guarda también como
+     * último manifiesto del almacenamiento.
+     *
+     * <p>Una copia incremental solo incluye los ficheros nuevos o cuyo tamaño o fecha de modificación no
+     * coinciden con los del último manifiesto; si no hay manifiesto anterior se hace una copia completa.</p>
+     *
+     * @param incremental Si solo se incluyen los ficheros cambiados desde la última copia.
+     * @param trabajo     Trabajo en el que se registran los ficheros y bytes escritos.
+     * @return El nombre del archivo ZIP creado.
+     */
+    @Override
+    @Operation(summary = "Genera una copia de seguridad ZIP completa o incremental", description = "Comprime en paralelo los ficheros de `dataAdmin` y añade un manifiesto con sus SHA-256.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "ZIP creado exitosamente."),
+            @ApiResponse(responseCode = "404", description = "La carpeta `dataAdmin` no existe."),
+            @ApiResponse(responseCode = "500", description = "Error interno en el servidor.")
+    })
+    public String export(boolean incremental, StorageJob trabajo) {
+        Path dataDir = Paths.get("dataAdmin");
+        if (!Files.exists(dataDir)) {
+            throw new StorageNotFound("La carpeta 'dataAdmin' no existe.");
+        }
+
+        Optional<ManifiestoBackup> anterior = incremental ? ultimoManifiesto() : Optional.empty();
+        if (incremental && anterior.isEmpty()) {
+            log.info("No hay copia anterior con la que comparar, se genera una copia completa");
+        }
+        LocalDateTime fecha = LocalDateTime.now();
+        String storedFilename = anterior.isPresent()
+                ? "clientes_incremental_" + fecha.format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".zip"
+                : "clientes.zip";
+        Map<String, FicheroBackup> previos = anterior.map(ManifiestoBackup::getFicheros).orElse(List.of()).stream()
+                .collect(Collectors.toMap(FicheroBackup::getNombre, fichero -> fichero, (a, b) -> b));
+
+        Path zipPath = this.rootLocation.resolve(storedFilename);
+        Path temporal = zipPath.resolveSibling(storedFilename + ".part");
+        List<Future<EntradaComprimida>> entradas = new ArrayList<>();
         try {
-            if (Files.exists(zipPath)) {
-                Files.delete(zipPath);
-                log.info("Archivo ZIP existente eliminado: {}", storedFilename);
+            List<Path> ficheros;
+            try (Stream<Path> recorrido = Files.walk(dataDir)) {
+                ficheros = recorrido.filter(file -> !Files.isDirectory(file) && incluirEnBackup(file.getFileName().toString())).toList();
             }
 
-            try (FileOutputStream fos = new FileOutputStream(zipPath.toFile());
-                 ZipOutputStream zos = new ZipOutputStream(fos)) {
-
-                Path dataDir = Paths.get("dataAdmin");
+            List<FicheroBackup> manifiesto = new ArrayList<>();
+            byte[] manifiestoJson;
+            for (Path file : ficheros) {
+                String nombre = dataDir.relativize(file).toString().replace(File.separatorChar, '/');
+                BasicFileAttributes atributos = Files.readAttributes(file, BasicFileAttributes.class);
+                FicheroBackup previo = previos.get(nombre);
+                if (previo != null && previo.getTamano() == atributos.size()
+                        && previo.getModificado() == atributos.lastModifiedTime().toMillis()) {
+                    manifiesto.add(previo);
+                    continue;
+                }
+                FicheroBackup fichero = FicheroBackup.builder()
+                        .nombre(nombre)
+                        .contenido(FicheroBackup.contenidoDe(nombre))
+                        .tamano(atributos.size())
+                        .modificado(atributos.lastModifiedTime().toMillis())
+                        .nivel(nivelCompresion(nombre))
+                        .backup(storedFilename)
+                        .build();
+                manifiesto.add(fichero);
+                entradas.add(ejecutorBackup.submit(() -> comprimir(file, fichero)));
+            }
 
-                if (!Files.exists(dataDir)) {
-                    throw new StorageNotFound("La carpeta 'dataAdmin' no existe.");
+            try (ZipArchiveOutputStream zos = new ZipArchiveOutputStream(temporal.toFile())) {
+                for (Future<EntradaComprimida> futura : entradas) {
+                    try (ScatterZipOutputStream entrada = futura.get().comprimida()) {
+                        entrada.writeTo(zos);
+                    }
+                    trabajo.avanzar(1);
                 }
 
-                Files.walk(dataDir)
-                        .filter(file -> !Files.isDirectory(file) && !file.toString().endsWith(".zip"))
-                        .forEach(file -> {
-                            try {
-                                ZipEntry zipEntry = new ZipEntry(file.getFileName().toString());
-                                zos.putNextEntry(zipEntry);
+                manifiestoJson = objectMapper.writeValueAsBytes(ManifiestoBackup.builder()
+                        .tipo(anterior.isPresent() ? ManifiestoBackup.INCREMENTAL : ManifiestoBackup.COMPLETA)
+                        .fichero(storedFilename)
+                        .base(anterior.map(ManifiestoBackup::getFichero).orElse(null))
+                        .fecha(fecha.toString())
+                        .ficheros(manifiesto)
+                        .build());
+                zos.putArchiveEntry(new ZipArchiveEntry(ManifiestoBackup.ENTRADA));
+                zos.write(manifiestoJson);
+                zos.closeArchiveEntry();
+                zos.finish();
+            }
 
-                                Files.copy(file, zos);
-                                zos.closeEntry();
+            trabajo.setBytes(Files.size(temporal));
+            Files.move(temporal, zipPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            guardarUltimoManifiesto(manifiestoJson);
+            log.info("Copia de seguridad {} generada en {} hilos: {} de {} ficheros de 'dataAdmin', {} bytes",
+                    storedFilename, hilos, entradas.size(), ficheros.size(), trabajo.getBytes().get());
+            return storedFilename;
+        } catch (IOException | UncheckedIOException e) {
+            throw new StorageInternal("Error al crear archivo ZIP con los archivos de 'dataAdmin': " + e.getMessage());
+        } catch (ExecutionException e) {
+            throw new StorageInternal("Error al comprimir un archivo de 'dataAdmin': " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageInternal("Copia de seguridad interrumpida");
+        } finally {
+            entradas.forEach(this::descartar);
+            try {
+                Files.deleteIfExists(temporal);
+            } catch (IOException e) {
+                log.warn("No se pudo eliminar el fichero temporal {}", temporal);
+            }
+        }
+    }
+
+    /**
+     * Detiene el grupo de hilos de las copias de seguridad al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        ejecutorBackup.shutdownNow();
+    }
+
+    private record EntradaComprimida(ScatterZipOutputStream comprimida) {
+    }
+
+    /**
+     * Comprime un fichero en su propio fichero temporal y calcula su SHA-256 mientras lo lee.
+     */
+    private EntradaComprimida comprimir(Path file, FicheroBackup fichero) throws IOException, NoSuchAlgorithmException {
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        ZipArchiveEntry entrada = new ZipArchiveEntry(fichero.getNombre());
+        entrada.setMethod(fichero.getNivel() == Deflater.NO_COMPRESSION ? ZipEntry.STORED : ZipEntry.DEFLATED);
+        entrada.setTime(fichero.getModificado());
+
+        ScatterZipOutputStream comprimida = ScatterZipOutputStream.fileBased(
+                Files.createTempFile("backup-", ".scatter").toFile(), fichero.getNivel());
+        try {
+            comprimida.addArchiveEntry(ZipArchiveEntryRequest.createZipArchiveEntryRequest(entrada, () -> {
+                try {
+                    return new DigestInputStream(new BufferedInputStream(Files.newInputStream(file), TAMANO_BUFER), sha256);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (IOException | RuntimeException e) {
+            comprimida.close();
+            throw e;
+        }
+        fichero.setSha256(HexFormat.of().formatHex(sha256.digest()));
+        return new EntradaComprimida(comprimida);
+    }
+
+    /**
+     * Cancela una entrada que aún no ha empezado a comprimirse o, si ya se comprimió, borra su fichero
+     * temporal. Las entradas ya añadidas al ZIP están cerradas y cerrarlas otra vez no tiene efecto.
+     */
+    private void descartar(Future<EntradaComprimida> futura) {
+        if (futura.cancel(false)) {
+            return;
+        }
+        try {
+            futura.get().comprimida().close();
+        } catch (Exception e) {
+            log.debug("Entrada de copia de seguridad descartada: {}", e.getMessage());
+        }
+    }
 
-                                log.info("Archivo agregado al ZIP: {}", file.getFileName());
-                            } catch (IOException e) {
-                                log.error("Error al agregar archivo al ZIP: {}", file.getFileName(), e);
-                            }
-                        });
+    private boolean incluirEnBackup(String nombre) {
+        return !nombre.endsWith(".zip") && !nombre.endsWith(".part") && !nombre.endsWith(ULTIMO_MANIFIESTO);
+    }
 
-                log.info("Todos los archivos de 'dataAdmin' (excepto .zip) se han agregado al archivo ZIP.");
-                return storedFilename;
+    private int nivelCompresion(String nombre) {
+        int punto = nombre.lastIndexOf('.');
+        String extension = punto < 0 ? "" : nombre.substring(punto + 1).toLowerCase(Locale.ROOT);
+        return nivelesPorExtension.getOrDefault(extension, nivelPorDefecto);
+    }
 
+    private static Map<String, Integer> leerNiveles(String niveles) {
+        Map<String, Integer> porExtension = new HashMap<>();
+        for (String nivel : niveles.split(",")) {
+            String[] partes = nivel.trim().split(":");
+            if (partes.length == 2) {
+                porExtension.put(partes[0].trim().toLowerCase(Locale.ROOT), Integer.parseInt(partes[1].trim()));
             }
+        }
+        return Map.copyOf(porExtension);
+    }
+
+    private Optional<ManifiestoBackup> ultimoManifiesto() {
+        Path manifiesto = this.rootLocation.resolve(ULTIMO_MANIFIESTO);
+        if (!Files.exists(manifiesto)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(manifiesto.toFile(), ManifiestoBackup.class));
         } catch (IOException e) {
-            throw new StorageInternal("Error al crear archivo ZIP con los archivos de 'dataAdmin': " + e.getMessage());
+            log.warn("No se pudo leer el último manifiesto de copia de seguridad, se genera una copia completa: {}", e.getMessage());
+            return Optional.empty();
         }
     }
 
+    private void guardarUltimoManifiesto(byte[] manifiestoJson) throws IOException {
+        Path manifiesto = this.rootLocation.resolve(ULTIMO_MANIFIESTO);
+        Path temporal = manifiesto.resolveSibling(ULTIMO_MANIFIESTO + ".part");
+        Files.write(temporal, manifiestoJson);
+        Files.move(temporal, manifiesto, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
     /**
      * Procesa un archivo ZIP y deserializa los datos JSON contenidos en él.
      *
@@ -162,132 +357,114 @@ public class ZipFileSystemStorage implements ZipStorageService {
             @ApiResponse(responseCode = "500", description = "Error interno al procesar el ZIP.")
     })
     public void loadFromZip(File filename) {
-        log.warn("inicio");
+        restore(filename, new StorageJob("restauracionZip"));
+    }
+
+    /**
+     * Restaura los clientes y movimientos de una copia de seguridad ZIP. El contenido de cada entrada se toma
+     * del manifiesto de la copia o, en copias sin manifiesto, del nombre del fichero; primero se restauran los
+     * clientes y después los movimientos. Cada entrada se lee en streaming, objeto a objeto, y se guarda en
+     * lotes de {@code backup.restauracion.lote} registros, de modo que la memoria no depende del tamaño de
+     * la copia. Los registros que ya existen no se modifican.
+     *
+     * @param filename Archivo ZIP para procesar.
+     * @param trabajo  Trabajo en el que se registran los registros leídos.
+     * @return Resumen de los registros restaurados.
+     */
+    @Override
+    @Operation(summary = "Restaura en streaming una copia de seguridad ZIP", description = "Lee en streaming las entradas JSON de la copia y guarda clientes y movimientos por lotes.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Datos importados exitosamente."),
+            @ApiResponse(responseCode = "404", description = "El archivo ZIP no existe."),
+            @ApiResponse(responseCode = "500", description = "Error interno al procesar el ZIP.")
+    })
+    public String restore(File filename, StorageJob trabajo) {
         Path zipFilePath = this.rootLocation.resolve(filename.toPath());
+        if (!Files.exists(zipFilePath)) {
+            throw new StorageNotFound("El archivo ZIP no existe: " + filename);
+        }
 
-        try {
-            if (!Files.exists(zipFilePath)) {
-                throw new StorageNotFound("El archivo ZIP no existe: " + filename);
-            }
+        try (ZipFile zip = new ZipFile(zipFilePath.toFile())) {
+            Map<String, String> contenidos = contenidosSegunManifiesto(zip);
 
-            try (ZipInputStream zis = new ZipInputStream(Files.newInputStream(zipFilePath))) {
-                ZipEntry entry;
-                while ((entry = zis.getNextEntry()) != null) {
-                    if (entry.getName().endsWith(".json")) {
-                        String jsonData = new String(zis.readAllBytes());
-
-                        ObjectMapper objectMapper = new ObjectMapper();
-                        JavaTimeModule module = new JavaTimeModule();
-                        module.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-                        objectMapper.registerModule(module);
-
-                        try {
-                            List<ClienteJsonZip> clienteMap = objectMapper.readValue(jsonData, new TypeReference<>() {});
-
-                            for (ClienteJsonZip clienteJson : clienteMap) {
-
-                                Set<Cuenta> cuentasVacias = new HashSet<>();
-
-                                Cliente cliente = Cliente.builder()
-                                        .id(Long.parseLong("1"))
-                                        .guid(clienteJson.getGuid())
-                                        .dni(clienteJson.getDni())
-                                        .nombre(clienteJson.getNombre())
-                                        .apellidos(clienteJson.getApellidos())
-                                        .direccion(clienteJson.getDireccion())
-                                        .email(clienteJson.getEmail())
-                                        .telefono(clienteJson.getTelefono())
-                                        .fotoPerfil(clienteJson.getFotoPerfil())
-                                        .fotoDni(clienteJson.getFotoDni())
-                                        .user(clienteJson.getUsuario())
-                                        .cuentas(cuentasVacias)
-                                        .createdAt(LocalDateTime.parse(clienteJson.getCreatedAt()))
-                                        .updatedAt(LocalDateTime.parse(clienteJson.getUpdatedAt()))
-                                        .isDeleted(clienteJson.getIsDeleted())
-                                        .build();
-
-                                if (userRepository.findByGuid(cliente.getUser().getGuid()).isEmpty()) {
-                                    User usuario = cliente.getUser();
-                                    usuario.setId(null);
-                                    userRepository.save(usuario);
-                                }
-
-                                if (clienteRepository.findByGuid(cliente.getGuid()).isEmpty()) {
-                                    cliente.setCuentas(Set.of());
-                                    var clienteSaved = clienteRepository.save(cliente);
-                                    cliente.setId(clienteSaved.getId());
-                                }
-
-                                Set<Cuenta> cuentasCliente = clienteJson.getCuentas().stream()
-                                        .map(cuentaZip ->
-                                                Cuenta.builder()
-                                                        .id(cuentaZip.getId())
-                                                        .guid(cuentaZip.getGuid())
-                                                        .iban(cuentaZip.getIban())
-                                                        .saldo(cuentaZip.getSaldo())
-                                                        .tipoCuenta(cuentaZip.getTipoCuenta())
-                                                        .tarjeta(cuentaZip.getTarjeta())
-                                                        .cliente(cliente)
-                                                        .createdAt(cuentaZip.getCreatedAt())
-                                                        .updatedAt(cuentaZip.getUpdatedAt())
-                                                        .isDeleted(cuentaZip.getIsDeleted())
-                                                        .build()
-                                        ).collect(Collectors.toSet());
-
-                                cuentasCliente.forEach(cuenta -> {
-                                    if (cuentaRepository.findByGuid(cuenta.getGuid()).isEmpty()) {
-                                        cuentaRepository.save(cuenta);
-                                    }
-                                });
-                            }
-                        } catch (Exception e1) {
-                            try {
-                                List<MovimientoResponse> movimientoMap = objectMapper.readValue(jsonData, new TypeReference<>() {});
-
-                                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-                                for (MovimientoResponse movimientoJson : movimientoMap) {
-                                    if (movimientosRepository.findByGuid(movimientoJson.getGuid()).isEmpty()) {
-                                        Movimiento nuevoMovimiento = new Movimiento();
-                                        nuevoMovimiento.setId(new ObjectId());
-                                        nuevoMovimiento.setGuid(movimientoJson.getGuid());
-                                        nuevoMovimiento.setClienteGuid(movimientoJson.getClienteGuid());
-
-                                        if (movimientoJson.getDomiciliacion() != null) {
-                                            nuevoMovimiento.setDomiciliacion(movimientoJson.getDomiciliacion());
-                                        }
-                                        if (movimientoJson.getIngresoDeNomina() != null) {
-                                            nuevoMovimiento.setIngresoDeNomina(movimientoJson.getIngresoDeNomina());
-                                        }
-                                        if (movimientoJson.getPagoConTarjeta() != null) {
-                                            nuevoMovimiento.setPagoConTarjeta(movimientoJson.getPagoConTarjeta());
-                                        }
-                                        if (movimientoJson.getTransferencia() != null) {
-                                            nuevoMovimiento.setTransferencia(movimientoJson.getTransferencia());
-                                        }
-
-                                        nuevoMovimiento.setCreatedAt(LocalDateTime.parse(movimientoJson.getCreatedAt(), formatter));
-                                        nuevoMovimiento.setIsDeleted(movimientoJson.getIsDeleted());
-
-                                        movimientosRepository.save(nuevoMovimiento);
-                                    }
-                                }
-
-                            } catch (Exception e2) {
-                                log.warn("El archivo JSON no corresponde a un tipo esperado.");
-                                log.warn(e2.getMessage());
-                            }
-                        }
-
-                        log.info("Archivo JSON del ZIP procesado correctamente.");
-                    }
-                }
+            long clientes = 0;
+            for (ZipEntry entrada : entradasCon(zip, contenidos, FicheroBackup.CLIENTES)) {
+                clientes += restaurarEntrada(zip, entrada, ClienteJsonZip.class, zipRestauracionLotes::guardarClientes, trabajo);
+            }
+            long movimientos = 0;
+            for (ZipEntry entrada : entradasCon(zip, contenidos, FicheroBackup.MOVIMIENTOS)) {
+                movimientos += restaurarEntrada(zip, entrada, MovimientoResponse.class, zipRestauracionLotes::guardarMovimientos, trabajo);
             }
+
+            String resumen = clientes + " clientes y " + movimientos + " movimientos nuevos restaurados de " + filename;
+            log.info("{} ({} registros leídos)", resumen, trabajo.getElementos().get());
+            return resumen;
         } catch (IOException e) {
             throw new StorageInternal("Fallo al procesar el archivo ZIP: " + e);
         }
     }
+
+    private Map<String, String> contenidosSegunManifiesto(ZipFile zip) throws IOException {
+        ZipEntry entradaManifiesto = zip.getEntry(ManifiestoBackup.ENTRADA);
+        if (entradaManifiesto == null) {
+            log.info("Copia de seguridad sin manifiesto, el contenido de cada entrada se deduce de su nombre");
+            return Map.of();
+        }
+        try (InputStream manifiesto = zip.getInputStream(entradaManifiesto)) {
+            return objectMapper.readValue(manifiesto, ManifiestoBackup.class).getFicheros().stream()
+                    .filter(fichero -> fichero.getContenido() != null)
+                    .collect(Collectors.toMap(FicheroBackup::getNombre, FicheroBackup::getContenido, (a, b) -> b));
+        }
+    }
+
+    private static List<ZipEntry> entradasCon(ZipFile zip, Map<String, String> contenidos, String contenido) {
+        return zip.stream()
+                .filter(entrada -> !entrada.isDirectory() && !entrada.getName().equals(ManifiestoBackup.ENTRADA))
+                .filter(entrada -> contenido.equals(contenidos.getOrDefault(entrada.getName(), FicheroBackup.contenidoDe(entrada.getName()))))
+                .map(entrada -> (ZipEntry) entrada)
+                .toList();
+    }
+
+    /**
+     * Lee una entrada JSON con una lista de registros objeto a objeto y la guarda por lotes.
+     *
+     * @return Número de registros nuevos guardados
+     */
+    private <T> long restaurarEntrada(ZipFile zip, ZipEntry entrada, Class<T> tipo, ToIntFunction<List<T>> guardar, StorageJob trabajo) throws IOException {
+        InputStream contenido = new BufferedInputStream(zip.getInputStream(entrada), TAMANO_BUFER);
+        if (entrada.getName().endsWith(".gz")) {
+            contenido = new GZIPInputStream(contenido, TAMANO_BUFER);
+        }
+
+        long nuevos = 0;
+        try (JsonParser parser = objectMapper.getFactory().createParser(contenido)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                log.warn("La entrada {} del ZIP no contiene una lista JSON, se ignora", entrada.getName());
+                return 0;
+            }
+            List<T> lote = new ArrayList<>(tamanoLote);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                lote.add(objectMapper.readValue(parser, tipo));
+                if (lote.size() == tamanoLote) {
+                    nuevos += guardarLote(lote, guardar, trabajo, entrada);
+                }
+            }
+            if (!lote.isEmpty()) {
+                nuevos += guardarLote(lote, guardar, trabajo, entrada);
+            }
+        }
+        log.info("Entrada {} del ZIP restaurada: {} registros nuevos", entrada.getName(), nuevos);
+        return nuevos;
+    }
+
+    private <T> int guardarLote(List<T> lote, ToIntFunction<List<T>> guardar, StorageJob trabajo, ZipEntry entrada) {
+        int nuevos = guardar.applyAsInt(List.copyOf(lote));
+        long leidos = trabajo.avanzar(lote.size());
+        log.debug("Restaurando {}: {} registros leídos", entrada.getName(), leidos);
+        lote.clear();
+        return nuevos;
+    }
+
     /**
      * Carga un archivo JSON desde el almacenamiento local.
      *
@@ -0,0 +1,219 @@
+package org.example.vivesbankproject.rest.storage.backupZip.services;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.example.vivesbankproject.rest.cliente.dto.ClienteJsonZip;
+import org.example.vivesbankproject.rest.cliente.models.Cliente;
+import org.example.vivesbankproject.rest.cliente.repositories.ClienteRepository;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaZip;
+import org.example.vivesbankproject.rest.cuenta.models.Cuenta;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.example.vivesbankproject.rest.movimientos.dto.MovimientoResponse;
+import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
+import org.example.vivesbankproject.rest.users.models.User;
+import org.example.vivesbankproject.rest.users.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Escribe por lotes los registros leídos de una copia de seguridad ZIP. Cada lote de clientes comprueba qué
+ * usuarios, clientes y cuentas existen ya con una consulta {@code IN} por tabla y guarda los nuevos en una
+ * única transacción; cada lote de movimientos se escribe con un único {@code bulkWrite} de MongoDB en el que
+ * cada movimiento es un upsert por GUID que solo inserta, así que los movimientos ya existentes no cambian y
+ * no hace falta consultarlos antes.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class ZipRestauracionLotes {
+
+    private static final DateTimeFormatter FORMATO_FECHA_MOVIMIENTO = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final UserRepository userRepository;
+    private final ClienteRepository clienteRepository;
+    private final CuentaRepository cuentaRepository;
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Constructor que inyecta los repositorios en los que se restauran los datos.
+     *
+     * @param userRepository    Repositorio de usuarios.
+     * @param clienteRepository Repositorio de clientes.
+     * @param cuentaRepository  Repositorio de cuentas.
+     * @param mongoTemplate     Plantilla de MongoDB con la que se escriben los movimientos.
+     */
+    @Autowired
+    public ZipRestauracionLotes(UserRepository userRepository, ClienteRepository clienteRepository, CuentaRepository cuentaRepository, MongoTemplate mongoTemplate) {
+        this.userRepository = userRepository;
+        this.clienteRepository = clienteRepository;
+        this.cuentaRepository = cuentaRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Guarda los usuarios, clientes y cuentas de un lote de clientes que aún no existen.
+     *
+     * @param lote Clientes leídos de la copia de seguridad.
+     * @return Número de clientes nuevos guardados.
+     */
+    @Transactional
+    @Operation(summary = "Restaurar un lote de clientes", description = "Guarda en una transacción los usuarios, clientes y cuentas del lote que no existen.")
+    public int guardarClientes(List<ClienteJsonZip> lote) {
+        List<ClienteJsonZip> clientesJson = lote.stream().filter(c -> c.getUsuario() != null).toList();
+
+        Map<String, User> usuarios = userRepository.findByGuidIn(clientesJson.stream().map(c -> c.getUsuario().getGuid()).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(User::getGuid, Function.identity()));
+        List<User> usuariosNuevos = new ArrayList<>();
+        for (ClienteJsonZip clienteJson : clientesJson) {
+            User usuario = clienteJson.getUsuario();
+            if (!usuarios.containsKey(usuario.getGuid())) {
+                usuario.setId(null);
+                usuarios.put(usuario.getGuid(), usuario);
+                usuariosNuevos.add(usuario);
+            }
+        }
+        userRepository.saveAll(usuariosNuevos);
+
+        Map<String, Cliente> clientes = clienteRepository.findByGuidIn(clientesJson.stream().map(ClienteJsonZip::getGuid).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Cliente::getGuid, Function.identity()));
+        List<Cliente> clientesNuevos = new ArrayList<>();
+        for (ClienteJsonZip clienteJson : clientesJson) {
+            if (!clientes.containsKey(clienteJson.getGuid())) {
+                Cliente cliente = toCliente(clienteJson, usuarios.get(clienteJson.getUsuario().getGuid()));
+                clientes.put(cliente.getGuid(), cliente);
+                clientesNuevos.add(cliente);
+            }
+        }
+        clienteRepository.saveAll(clientesNuevos);
+
+        Set<String> guidsCuentas = clientesJson.stream()
+                .filter(c -> c.getCuentas() != null)
+                .flatMap(c -> c.getCuentas().stream())
+                .map(CuentaZip::getGuid)
+                .collect(Collectors.toSet());
+        Set<String> cuentasExistentes = new HashSet<>();
+        if (!guidsCuentas.isEmpty()) {
+            cuentasExistentes.addAll(cuentaRepository.findGuidsByGuidIn(guidsCuentas));
+        }
+        List<Cuenta> cuentasNuevas = new ArrayList<>();
+        for (ClienteJsonZip clienteJson : clientesJson) {
+            if (clienteJson.getCuentas() == null) {
+                continue;
+            }
+            Cliente cliente = clientes.get(clienteJson.getGuid());
+            clienteJson.getCuentas().stream()
+                    .filter(cuentaZip -> cuentasExistentes.add(cuentaZip.getGuid()))
+                    .map(cuentaZip -> Cuenta.builder()
+                            .id(cuentaZip.getId())
+                            .guid(cuentaZip.getGuid())
+                            .iban(cuentaZip.getIban())
+                            .saldo(cuentaZip.getSaldo())
+                            .tipoCuenta(cuentaZip.getTipoCuenta())
+                            .tarjeta(cuentaZip.getTarjeta())
+                            .cliente(cliente)
+                            .createdAt(cuentaZip.getCreatedAt())
+                            .updatedAt(cuentaZip.getUpdatedAt())
+                            .isDeleted(cuentaZip.getIsDeleted())
+                            .build())
+                    .forEach(cuentasNuevas::add);
+        }
+        cuentaRepository.saveAll(cuentasNuevas);
+
+        log.debug("Lote de {} clientes restaurado: {} usuarios, {} clientes y {} cuentas nuevos",
+                lote.size(), usuariosNuevos.size(), clientesNuevos.size(), cuentasNuevas.size());
+        return clientesNuevos.size();
+    }
+
+    /**
+     * Inserta los movimientos de un lote que aún no existen con un único {@code bulkWrite} sin orden.
+     * <p>
+     * Cada movimiento se inserta con un {@code upsert} filtrado por su GUID, que tiene un índice único. Si
+     * otra restauración inserta a la vez el mismo movimiento, el índice rechaza el duplicado y el movimiento
+     * simplemente no se cuenta como nuevo.
+     * </p>
+     *
+     * @param lote Movimientos leídos de la copia de seguridad.
+     * @return Número de movimientos nuevos insertados.
+     */
+    @Operation(summary = "Restaurar un lote de movimientos", description = "Inserta con un único bulkWrite los movimientos del lote que no existen.")
+    public int guardarMovimientos(List<MovimientoResponse> lote) {
+        List<WriteModel<Document>> upserts = new ArrayList<>(lote.size());
+        for (MovimientoResponse movimientoJson : lote) {
+            Document documento = new Document();
+            mongoTemplate.getConverter().write(toMovimiento(movimientoJson), documento);
+            upserts.add(new UpdateOneModel<>(Filters.eq("guid", movimientoJson.getGuid()),
+                    new Document("$setOnInsert", documento), new UpdateOptions().upsert(true)));
+        }
+        if (upserts.isEmpty()) {
+            return 0;
+        }
+        try {
+            return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Movimiento.class))
+                    .bulkWrite(upserts, new BulkWriteOptions().ordered(false))
+                    .getUpserts()
+                    .size();
+        } catch (MongoBulkWriteException e) {
+            boolean soloDuplicados = e.getWriteErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!soloDuplicados) {
+                throw e;
+            }
+            log.warn("{} movimientos del lote los ha insertado otra restauración", e.getWriteErrors().size());
+            return e.getWriteResult().getUpserts().size();
+        }
+    }
+
+    private static Cliente toCliente(ClienteJsonZip clienteJson, User usuario) {
+        return Cliente.builder()
+                .guid(clienteJson.getGuid())
+                .dni(clienteJson.getDni())
+                .nombre(clienteJson.getNombre())
+                .apellidos(clienteJson.getApellidos())
+                .direccion(clienteJson.getDireccion())
+                .email(clienteJson.getEmail())
+                .telefono(clienteJson.getTelefono())
+                .fotoPerfil(clienteJson.getFotoPerfil())
+                .fotoDni(clienteJson.getFotoDni())
+                .user(usuario)
+                .cuentas(new HashSet<>())
+                .createdAt(LocalDateTime.parse(clienteJson.getCreatedAt()))
+                .updatedAt(LocalDateTime.parse(clienteJson.getUpdatedAt()))
+                .isDeleted(clienteJson.getIsDeleted())
+                .build();
+    }
+
+    private static Movimiento toMovimiento(MovimientoResponse movimientoJson) {
+        Movimiento movimiento = new Movimiento();
+        movimiento.setGuid(movimientoJson.getGuid());
+        movimiento.setClienteGuid(movimientoJson.getClienteGuid());
+        movimiento.setDomiciliacion(movimientoJson.getDomiciliacion());
+        movimiento.setIngresoDeNomina(movimientoJson.getIngresoDeNomina());
+        movimiento.setPagoConTarjeta(movimientoJson.getPagoConTarjeta());
+        movimiento.setTransferencia(movimientoJson.getTransferencia());
+        movimiento.setIsDeleted(movimientoJson.getIsDeleted());
+        if (movimientoJson.getCreatedAt() != null) {
+            movimiento.setCreatedAt(movimientoJson.getCreatedAt().indexOf('T') > 0
+                    ? LocalDateTime.parse(movimientoJson.getCreatedAt())
+                    : LocalDateTime.parse(movimientoJson.getCreatedAt(), FORMATO_FECHA_MOVIMIENTO));
+        }
+        return movimiento;
+    }
+}
@@ -2,6 +2,7 @@ package org.example.vivesbankproject.rest.storage.backupZip.services;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.springframework.core.io.Resource;
 
 import java.io.File;
@@ -45,6 +46,23 @@ public interface ZipStorageService {
             })
     String export();
 
+    /**
+     * Genera una copia de seguridad ZIP de la carpeta `dataAdmin`, comprimiendo los ficheros en paralelo y
+     * añadiendo un manifiesto con el SHA-256 de cada uno.
+     *
+     * @param incremental Si solo se incluyen los ficheros cambiados desde la última copia.
+     * @param trabajo     Trabajo en el que se registra el progreso de la copia.
+     * @return El nombre del archivo ZIP generado.
+     */
+    @Operation(summary = "Genera una copia de seguridad ZIP completa o incremental",
+            description = "Comprime en paralelo los ficheros de `dataAdmin` y añade un manifiesto con sus SHA-256. Una copia incremental solo incluye los ficheros cambiados desde la última copia.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "ZIP creado exitosamente."),
+                    @ApiResponse(responseCode = "404", description = "La carpeta `dataAdmin` no existe."),
+                    @ApiResponse(responseCode = "500", description = "Error interno en el servidor al crear el archivo ZIP.")
+            })
+    String export(boolean incremental, StorageJob trabajo);
+
     /**
      * Carga un archivo ZIP como recurso para su descarga.
      * Este método verifica si el recurso es accesible.
@@ -90,6 +108,22 @@ public interface ZipStorageService {
             })
     void loadFromZip(File fileToUnzip);
 
+    /**
+     * Restaura en streaming y por lotes los clientes y movimientos de una copia de seguridad ZIP.
+     *
+     * @param fileToUnzip Archivo ZIP para procesar.
+     * @param trabajo     Trabajo en el que se registra el progreso de la restauración.
+     * @return Resumen de los registros restaurados.
+     */
+    @Operation(summary = "Restaura en streaming una copia de seguridad ZIP",
+            description = "Lee en streaming las entradas JSON de la copia, identificadas por su manifiesto, y guarda clientes y movimientos por lotes.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Datos importados exitosamente."),
+                    @ApiResponse(responseCode = "404", description = "El archivo ZIP no existe."),
+                    @ApiResponse(responseCode = "500", description = "Error interno al procesar el archivo ZIP.")
+            })
+    String restore(File fileToUnzip, StorageJob trabajo);
+
     /**
      * Carga un archivo JSON desde almacenamiento local para su procesamiento.
      * Convierte el contenido JSON a una lista de objetos.
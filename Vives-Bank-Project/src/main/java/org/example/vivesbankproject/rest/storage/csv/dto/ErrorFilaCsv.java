@@ -0,0 +1,28 @@
+package org.example.vivesbankproject.rest.storage.csv.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Fila de un archivo CSV que no se ha podido importar y el motivo.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorFilaCsv implements Serializable {
+
+    @Schema(description = "Línea del archivo en la que empieza la fila (la cabecera es la línea 1)", example = "14")
+    private long linea;
+
+    @Schema(description = "Motivo por el que no se ha importado la fila", example = "El interés no puede ser negativo")
+    private String mensaje;
+}
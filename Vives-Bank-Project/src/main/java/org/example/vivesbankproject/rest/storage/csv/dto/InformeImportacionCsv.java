@@ -0,0 +1,41 @@
+package org.example.vivesbankproject.rest.storage.csv.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de la importación de un archivo CSV: filas leídas, insertadas y ya existentes, y el detalle
+ * de las filas con errores.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InformeImportacionCsv implements Serializable {
+
+    @Schema(description = "Filas de datos leídas, sin contar la cabecera ni las filas vacías", example = "1200")
+    private long filas;
+
+    @Schema(description = "Filas insertadas", example = "1180")
+    private long insertadas;
+
+    @Schema(description = "Filas omitidas porque el registro ya existía", example = "15")
+    private long existentes;
+
+    @Schema(description = "Filas con errores", example = "5")
+    private long errores;
+
+    @Schema(description = "Detalle de las filas con errores, limitado a las primeras")
+    @Builder.Default
+    private List<ErrorFilaCsv> detalleErrores = new ArrayList<>();
+}
@@ -0,0 +1,52 @@
+package org.example.vivesbankproject.rest.storage.csv.models;
+
+import java.util.Map;
+
+/**
+ * Fila de datos de un archivo CSV, con acceso a sus campos por el nombre de la columna de la cabecera.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+public class FilaCsv {
+
+    private final long linea;
+    private final Map<String, Integer> columnas;
+    private final String[] campos;
+
+    /**
+     * Crea una fila.
+     *
+     * @param linea    Línea del archivo en la que empieza la fila
+     * @param columnas Posición de cada columna, con el nombre en minúsculas
+     * @param campos   Campos de la fila
+     */
+    public FilaCsv(long linea, Map<String, Integer> columnas, String[] campos) {
+        this.linea = linea;
+        this.columnas = columnas;
+        this.campos = campos;
+    }
+
+    /**
+     * Línea del archivo en la que empieza la fila.
+     *
+     * @return Número de línea, contando la cabecera como la línea 1
+     */
+    public long getLinea() {
+        return linea;
+    }
+
+    /**
+     * Obtiene el valor de una columna sin espacios a los lados.
+     *
+     * @param columna Nombre de la columna
+     * @return Valor del campo, o una cadena vacía si la fila no llega a esa columna
+     */
+    public String valor(String columna) {
+        Integer indice = columnas.get(columna.toLowerCase());
+        if (indice == null || indice >= campos.length || campos[indice] == null) {
+            return "";
+        }
+        return campos[indice].trim();
+    }
+}
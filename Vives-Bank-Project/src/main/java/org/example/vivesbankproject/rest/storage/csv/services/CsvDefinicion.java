@@ -0,0 +1,60 @@
+package org.example.vivesbankproject.rest.storage.csv.services;
+
+import org.example.vivesbankproject.rest.storage.csv.models.FilaCsv;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Definición de un tipo de registro que se puede importar desde CSV con {@link CsvImportador}: columnas
+ * esperadas, conversión y validación de cada fila, clave con la que se detectan los duplicados y acceso a
+ * la base de datos por lotes.
+ *
+ * @param <T> Tipo de registro que se importa
+ * @param <K> Tipo de la clave única del registro
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+public interface CsvDefinicion<T, K> {
+
+    /**
+     * Columnas obligatorias en la cabecera del archivo. Pueden aparecer en cualquier orden.
+     *
+     * @return Nombres de las columnas
+     */
+    List<String> columnas();
+
+    /**
+     * Convierte y valida una fila.
+     *
+     * @param fila Fila leída del archivo
+     * @return El registro de la fila
+     * @throws IllegalArgumentException si la fila no es válida, con el motivo como mensaje
+     */
+    T leer(FilaCsv fila);
+
+    /**
+     * Clave única del registro.
+     *
+     * @param registro Registro leído
+     * @return Su clave
+     */
+    K clave(T registro);
+
+    /**
+     * Obtiene, con una sola consulta, cuáles de las claves de un lote existen ya en la base de datos.
+     *
+     * @param claves Claves del lote
+     * @return Las claves que ya existen
+     */
+    Set<K> existentes(Collection<K> claves);
+
+    /**
+     * Inserta un lote de registros nuevos. Se ejecuta dentro de la transacción del lote.
+     *
+     * @param registros Registros a insertar
+     * @return Filas insertadas por cada registro, en el mismo orden; 0 si el registro ya existía
+     */
+    int[] insertar(List<T> registros);
+}
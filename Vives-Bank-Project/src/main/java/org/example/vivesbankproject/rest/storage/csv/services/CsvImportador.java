@@ -0,0 +1,204 @@
+package org.example.vivesbankproject.rest.storage.csv.services;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.RFC4180ParserBuilder;
+import com.opencsv.exceptions.CsvMalformedLineException;
+import com.opencsv.exceptions.CsvValidationException;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.storage.csv.dto.ErrorFilaCsv;
+import org.example.vivesbankproject.rest.storage.csv.dto.InformeImportacionCsv;
+import org.example.vivesbankproject.rest.storage.csv.models.FilaCsv;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Motor de importación de archivos CSV por lotes.
+ * <p>
+ * El archivo se lee en streaming con un parser RFC 4180, de modo que admite campos entre comillas con
+ * comas, comillas escapadas y saltos de línea, y nunca se carga completo en memoria. Cada fila se convierte
+ * y valida con la {@link CsvDefinicion} del tipo de registro; las filas válidas se agrupan en lotes y, por
+ * cada lote y en una única transacción, se consulta de una vez qué registros existen ya y se insertan los
+ * nuevos. Las filas no válidas, repetidas en el archivo o de un lote que no se ha podido guardar se
+ * devuelven en el informe con su número de línea.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class CsvImportador {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+    private final int maxErrores;
+
+    @Autowired
+    public CsvImportador(PlatformTransactionManager transactionManager,
+                         @Value("${storage.csv.lote:500}") int tamanoLote,
+                         @Value("${storage.csv.max-errores:1000}") int maxErrores) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = Math.max(1, tamanoLote);
+        this.maxErrores = Math.max(0, maxErrores);
+    }
+
+    /**
+     * Importa un archivo CSV con cabecera.
+     *
+     * @param entrada    Contenido del archivo, en UTF-8
+     * @param definicion Definición del tipo de registro
+     * @param <T>        Tipo de registro
+     * @param <K>        Tipo de la clave del registro
+     * @return Informe de la importación
+     * @throws IOException              si no se puede leer el archivo
+     * @throws IllegalArgumentException si el archivo está vacío o a la cabecera le faltan columnas
+     */
+    @Operation(summary = "Importar CSV por lotes", description = "Lee un CSV en streaming, valida sus filas e inserta por lotes los registros nuevos")
+    public <T, K> InformeImportacionCsv importar(InputStream entrada, CsvDefinicion<T, K> definicion) throws IOException {
+        InformeImportacionCsv informe = InformeImportacionCsv.builder().build();
+        Map<K, Long> vistas = new HashMap<>();
+        List<FilaLeida<T, K>> lote = new ArrayList<>(tamanoLote);
+
+        try (CSVReader csv = new CSVReaderBuilder(new InputStreamReader(entrada, StandardCharsets.UTF_8))
+                .withCSVParser(new RFC4180ParserBuilder().build())
+                .build()) {
+            Map<String, Integer> columnas = leerCabecera(csv.readNext(), definicion.columnas());
+
+            while (true) {
+                long linea = csv.getLinesRead() + 1;
+                String[] campos;
+                try {
+                    campos = csv.readNext();
+                } catch (CsvMalformedLineException e) {
+                    // Una comilla sin cerrar se traga el resto del archivo: no se puede seguir leyendo
+                    informe.setFilas(informe.getFilas() + 1);
+                    registrarError(informe, linea, "Campo entre comillas sin cerrar");
+                    break;
+                }
+                if (campos == null) {
+                    break;
+                }
+                if (vacia(campos)) {
+                    continue;
+                }
+                informe.setFilas(informe.getFilas() + 1);
+
+                T registro;
+                try {
+                    registro = definicion.leer(new FilaCsv(linea, columnas, campos));
+                } catch (IllegalArgumentException e) {
+                    registrarError(informe, linea, e.getMessage());
+                    continue;
+                }
+
+                K clave = definicion.clave(registro);
+                Long anterior = vistas.putIfAbsent(clave, linea);
+                if (anterior != null) {
+                    registrarError(informe, linea, "Registro repetido en el archivo (línea " + anterior + ")");
+                    continue;
+                }
+
+                lote.add(new FilaLeida<>(linea, clave, registro));
+                if (lote.size() >= tamanoLote) {
+                    guardarLote(lote, definicion, informe);
+                    lote.clear();
+                }
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException("Fila CSV no válida", e);
+        }
+
+        if (!lote.isEmpty()) {
+            guardarLote(lote, definicion, informe);
+        }
+
+        log.info("Importación CSV terminada: {} filas, {} insertadas, {} existentes, {} con errores",
+                informe.getFilas(), informe.getInsertadas(), informe.getExistentes(), informe.getErrores());
+        return informe;
+    }
+
+    /**
+     * Obtiene la posición de cada columna de la cabecera y comprueba que estén todas las obligatorias.
+     */
+    private Map<String, Integer> leerCabecera(String[] cabecera, List<String> obligatorias) {
+        if (cabecera == null) {
+            throw new IllegalArgumentException("El archivo CSV está vacío.");
+        }
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < cabecera.length; i++) {
+            String nombre = cabecera[i] == null ? "" : cabecera[i].replace("\uFEFF", "").trim().toLowerCase();
+            columnas.putIfAbsent(nombre, i);
+        }
+        List<String> faltan = obligatorias.stream()
+                .filter(columna -> !columnas.containsKey(columna.toLowerCase()))
+                .toList();
+        if (!faltan.isEmpty()) {
+            throw new IllegalArgumentException("Faltan columnas en la cabecera del CSV: " + String.join(", ", faltan));
+        }
+        return columnas;
+    }
+
+    /**
+     * Guarda un lote en una transacción: consulta de una vez qué claves existen e inserta el resto. Si el
+     * lote no se puede guardar, todas sus filas se anotan como errores y la importación continúa.
+     */
+    private <T, K> void guardarLote(List<FilaLeida<T, K>> lote, CsvDefinicion<T, K> definicion, InformeImportacionCsv informe) {
+        try {
+            long[] resultado = transactionTemplate.execute(estado -> {
+                Set<K> existentes = definicion.existentes(lote.stream().map(FilaLeida::clave).toList());
+                List<T> nuevos = lote.stream()
+                        .filter(fila -> !existentes.contains(fila.clave()))
+                        .map(FilaLeida::registro)
+                        .toList();
+                long insertadas = 0;
+                if (!nuevos.isEmpty()) {
+                    for (int filas : definicion.insertar(nuevos)) {
+                        // Los drivers que no informan de las filas de cada sentencia devuelven SUCCESS_NO_INFO (-2)
+                        if (filas != 0) {
+                            insertadas++;
+                        }
+                    }
+                }
+                return new long[]{insertadas, lote.size() - insertadas};
+            });
+            informe.setInsertadas(informe.getInsertadas() + resultado[0]);
+            informe.setExistentes(informe.getExistentes() + resultado[1]);
+        } catch (DataAccessException e) {
+            log.error("Error al guardar un lote de {} filas del CSV", lote.size(), e);
+            String mensaje = "No se ha podido guardar el lote: " + e.getMostSpecificCause().getMessage();
+            lote.forEach(fila -> registrarError(informe, fila.linea(), mensaje));
+        }
+    }
+
+    /**
+     * Anota una fila con errores; el detalle solo se guarda para las primeras para acotar el tamaño del informe.
+     */
+    private void registrarError(InformeImportacionCsv informe, long linea, String mensaje) {
+        informe.setErrores(informe.getErrores() + 1);
+        if (informe.getDetalleErrores().size() < maxErrores) {
+            informe.getDetalleErrores().add(new ErrorFilaCsv(linea, mensaje));
+        }
+    }
+
+    private boolean vacia(String[] campos) {
+        return Arrays.stream(campos).allMatch(campo -> campo == null || campo.isBlank());
+    }
+
+    /**
+     * Fila válida pendiente de guardar.
+     */
+    private record FilaLeida<T, K>(long linea, K clave, T registro) {
+    }
+}
@@ -3,6 +3,7 @@ package org.example.vivesbankproject.rest.storage.csvProductos.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
+import org.example.vivesbankproject.rest.storage.csv.dto.InformeImportacionCsv;
 import org.example.vivesbankproject.rest.storage.csvProductos.services.CsvStorageService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -28,23 +29,24 @@ public class CsvStorageController {
     /**
      * Endpoint para importar archivos CSV.
      * Recibe un archivo CSV a través de un formulario multipart.
-     * Si el archivo es válido, se procesa mediante el servicio `csvStorageService`.
+     * Si el archivo es válido, se procesa mediante el servicio `csvStorageService` y se devuelve el informe
+     * de la importación con el detalle de las filas que no se han podido importar.
      *
      * @param file Archivo CSV que se enviará para su procesamiento.
-     * @return ResponseEntity con un mensaje indicando el resultado de la operación.
+     * @return ResponseEntity con el informe de la importación o un mensaje de error.
      */
     @PostMapping("/import")
     @Operation(summary = "Importar archivo CSV",
             description = "Procesa un archivo CSV enviado a través de un formulario para importar sus datos.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Archivo CSV importado exitosamente."),
+                    @ApiResponse(responseCode = "200", description = "Archivo CSV importado; devuelve el informe por filas."),
                     @ApiResponse(responseCode = "400", description = "Error en el archivo CSV."),
                     @ApiResponse(responseCode = "500", description = "Error interno al procesar el archivo.")
             })
-    public ResponseEntity<String> importCsv(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<?> importCsv(@RequestParam("file") MultipartFile file) {
         try {
-            csvStorageService.importCsv(file);
-            return ResponseEntity.ok("Archivo CSV importado exitosamente.");
+            InformeImportacionCsv informe = csvStorageService.importCsv(file);
+            return ResponseEntity.ok(informe);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body("Error en el archivo CSV: " + e.getMessage());
         } catch (IOException e) {
@@ -3,6 +3,7 @@ package org.example.vivesbankproject.rest.storage.csvProductos.services;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.example.vivesbankproject.rest.storage.csv.dto.InformeImportacionCsv;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -20,9 +21,10 @@ public interface CsvStorageService {
      * Importa datos desde un archivo CSV y los guarda en la base de datos.
      *
      * El método procesa el archivo CSV proporcionado y almacena sus datos en la base de datos correspondiente.
-     * Se espera que el archivo contenga un formato válido para su correcto procesamiento.
+     * Las filas no válidas no detienen la importación: se devuelven en el informe con su número de línea.
      *
      * @param file el archivo CSV que se enviará para su procesamiento y almacenamiento.
+     * @return el informe de la importación, con las filas insertadas, las ya existentes y las erróneas.
      * @throws IOException si ocurre un error al leer el contenido del archivo.
      * @throws IllegalArgumentException si el archivo tiene un formato inválido o no cumple con las expectativas definidas.
      */
@@ -47,5 +49,5 @@ public interface CsvStorageService {
                     )
             }
     )
-    void importCsv(MultipartFile file) throws IOException, IllegalArgumentException;
+    InformeImportacionCsv importCsv(MultipartFile file) throws IOException, IllegalArgumentException;
 }
\ No newline at end of file
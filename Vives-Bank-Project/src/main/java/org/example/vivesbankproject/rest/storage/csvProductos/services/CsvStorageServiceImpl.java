@@ -5,22 +5,20 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.example.vivesbankproject.rest.cuenta.dto.tipoCuenta.TipoCuentaRequest;
-import org.example.vivesbankproject.rest.cuenta.exceptions.tipoCuenta.TipoCuentaExists;
-import org.example.vivesbankproject.rest.cuenta.services.TipoCuentaService;
+import org.example.vivesbankproject.rest.storage.csv.dto.InformeImportacionCsv;
+import org.example.vivesbankproject.rest.storage.csv.services.CsvImportador;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
-import java.io.BufferedReader;
+
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
+import java.io.InputStream;
 import java.util.Objects;
 
 
 /**
  * Implementación del servicio para el procesamiento y almacenamiento de datos de archivos CSV.
- * Esta clase se encarga de leer los archivos CSV, procesar sus datos y pasarlos al servicio
- * de negocio para almacenamiento.
+ * Esta clase valida el archivo recibido y lo importa con {@link CsvImportador}, que lo lee en streaming,
+ * descarta los tipos de cuenta que ya existen y guarda los nuevos por lotes.
  *
  * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
  * @version 1.0-SNAPSHOT
@@ -30,7 +28,8 @@ import java.util.Objects;
 @Slf4j
 public class CsvStorageServiceImpl implements CsvStorageService {
 
-    private final TipoCuentaService tipoCuentaService;
+    private final CsvImportador csvImportador;
+    private final CsvTipoCuentaDefinicion csvTipoCuentaDefinicion;
 
     @Override
     @Operation(
@@ -54,48 +53,17 @@ public class CsvStorageServiceImpl implements CsvStorageService {
                     )
             }
     )
-    public void importCsv(MultipartFile file) throws IOException {
+    public InformeImportacionCsv importCsv(MultipartFile file) throws IOException {
         // Validamos la extensión del archivo
         if (!Objects.requireNonNull(file.getOriginalFilename()).endsWith(".csv")) {
             throw new IllegalArgumentException("El archivo debe tener formato CSV.");
         }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            String line;
-            boolean isFirstLine = true;
-
-            while ((line = reader.readLine()) != null) {
-                // Comprobamos si existe el encabezado
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue; // Saltar la primera línea del CSV si es el encabezado
-                }
-
-                String[] data = line.split(",");
-
-                if (data.length != 2) {
-                    log.error("Línea con formato incorrecto: {}", line);
-                    continue; // Saltar líneas con el formato incorrecto
-                }
-
-                try {
-                    // Crear el objeto TipoCuentaRequest
-                    TipoCuentaRequest tipoCuentaRequest = TipoCuentaRequest.builder()
-                            .nombre(data[0].trim())
-                            .interes(new BigDecimal(data[1].trim()))
-                            .build();
-
-                    // Intentar guardar el tipo de cuenta
-                    tipoCuentaService.save(tipoCuentaRequest);
-                    log.info("Tipo de cuenta guardado: {}", tipoCuentaRequest.getNombre());
-                } catch (TipoCuentaExists e) {
-                    log.warn("El tipo de cuenta '{}' ya existe.", data[0].trim());
-                } catch (NumberFormatException e) {
-                    log.error("Error de formato en la columna 'interes' para la línea: {}", line, e);
-                } catch (Exception e) {
-                    log.error("Error desconocido al procesar la línea: {}", line, e);
-                }
-            }
+        try (InputStream entrada = file.getInputStream()) {
+            InformeImportacionCsv informe = csvImportador.importar(entrada, csvTipoCuentaDefinicion);
+            log.info("Tipos de cuenta importados de {}: {} nuevos, {} existentes, {} filas con errores",
+                    file.getOriginalFilename(), informe.getInsertadas(), informe.getExistentes(), informe.getErrores());
+            return informe;
         } catch (IOException e) {
             throw new IOException("Error al leer el archivo CSV.", e);
         }
@@ -0,0 +1,111 @@
+package org.example.vivesbankproject.rest.storage.csvProductos.services;
+
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.cuenta.dto.tipoCuenta.TipoCuentaRequest;
+import org.example.vivesbankproject.rest.cuenta.mappers.TipoCuentaMapper;
+import org.example.vivesbankproject.rest.cuenta.models.TipoCuenta;
+import org.example.vivesbankproject.rest.cuenta.repositories.TipoCuentaRepository;
+import org.example.vivesbankproject.rest.storage.csv.models.FilaCsv;
+import org.example.vivesbankproject.rest.storage.csv.services.CsvDefinicion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Definición de la importación CSV del catálogo de tipos de cuenta (productos), con las columnas
+ * {@code nombre} e {@code interes}. Las filas se validan con las mismas restricciones que
+ * {@link TipoCuentaRequest} y los tipos de cuenta nuevos se insertan con una sentencia JDBC por lotes, ya
+ * que Hibernate no agrupa las inserciones de entidades con identificador {@code IDENTITY}.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class CsvTipoCuentaDefinicion implements CsvDefinicion<TipoCuenta, String> {
+
+    private static final String INSERT = "INSERT INTO tipo_cuenta (guid, nombre, interes, created_at, updated_at, is_deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (nombre) DO NOTHING";
+
+    private final TipoCuentaRepository tipoCuentaRepository;
+    private final TipoCuentaMapper tipoCuentaMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final Validator validator;
+
+    @Autowired
+    public CsvTipoCuentaDefinicion(TipoCuentaRepository tipoCuentaRepository, TipoCuentaMapper tipoCuentaMapper,
+                                   JdbcTemplate jdbcTemplate, Validator validator) {
+        this.tipoCuentaRepository = tipoCuentaRepository;
+        this.tipoCuentaMapper = tipoCuentaMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+    }
+
+    @Override
+    public List<String> columnas() {
+        return List.of("nombre", "interes");
+    }
+
+    @Override
+    @Operation(summary = "Leer tipo de cuenta", description = "Convierte y valida una fila del CSV de tipos de cuenta")
+    public TipoCuenta leer(FilaCsv fila) {
+        String interes = fila.valor("interes");
+        if (interes.isEmpty()) {
+            throw new IllegalArgumentException("El interés no puede estar vacío");
+        }
+        TipoCuentaRequest request;
+        try {
+            request = TipoCuentaRequest.builder()
+                    .nombre(fila.valor("nombre"))
+                    .interes(new BigDecimal(interes))
+                    .build();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El interés debe ser un número válido: " + interes);
+        }
+
+        Set<ConstraintViolation<TipoCuentaRequest>> errores = validator.validate(request);
+        if (!errores.isEmpty()) {
+            throw new IllegalArgumentException(errores.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return tipoCuentaMapper.toTipoCuenta(request);
+    }
+
+    @Override
+    public String clave(TipoCuenta tipoCuenta) {
+        return tipoCuenta.getNombre();
+    }
+
+    @Override
+    @Operation(summary = "Tipos de cuenta existentes", description = "Obtiene con una consulta los nombres de un lote que ya existen")
+    public Set<String> existentes(Collection<String> nombres) {
+        return tipoCuentaRepository.findNombresByNombreIn(nombres);
+    }
+
+    @Override
+    @Operation(summary = "Insertar tipos de cuenta", description = "Inserta un lote de tipos de cuenta con una sentencia JDBC por lotes")
+    public int[] insertar(List<TipoCuenta> tiposCuenta) {
+        log.info("Insertando un lote de {} tipos de cuenta", tiposCuenta.size());
+        // ON CONFLICT cubre los tipos de cuenta creados por otra petición entre la consulta de existentes y la inserción
+        return jdbcTemplate.batchUpdate(INSERT, tiposCuenta, tiposCuenta.size(), (ps, tipoCuenta) -> {
+            ps.setString(1, tipoCuenta.getGuid());
+            ps.setString(2, tipoCuenta.getNombre());
+            ps.setBigDecimal(3, tipoCuenta.getInteres());
+            ps.setTimestamp(4, Timestamp.valueOf(tipoCuenta.getCreatedAt()));
+            ps.setTimestamp(5, Timestamp.valueOf(tipoCuenta.getUpdatedAt()));
+            ps.setBoolean(6, tipoCuenta.getIsDeleted());
+        })[0];
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.vivesbankproject.rest.storage.jobs.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.storage.jobs.dto.StorageJobResponse;
+import org.example.vivesbankproject.rest.storage.jobs.services.StorageJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador para consultar el estado de los trabajos de almacenamiento que se ejecutan en segundo plano.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@RestController
+@Slf4j
+@RequestMapping("/storage/jobs")
+public class StorageJobController {
+
+    private final StorageJobService storageJobService;
+
+    @Autowired
+    public StorageJobController(StorageJobService storageJobService) {
+        this.storageJobService = storageJobService;
+    }
+
+    /**
+     * Obtiene el estado y el progreso de un trabajo.
+     *
+     * @param id Identificador del trabajo
+     * @return Estado del trabajo
+     */
+    @Operation(
+            summary = "Estado de un trabajo de almacenamiento",
+            description = "Devuelve el estado, los elementos procesados, los bytes escritos y la velocidad de un trabajo.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Estado del trabajo."),
+                    @ApiResponse(responseCode = "404", description = "Trabajo no encontrado.")
+            }
+    )
+    @GetMapping("/{id}")
+    public ResponseEntity<StorageJobResponse> getEstado(@PathVariable String id) {
+        return ResponseEntity.ok(storageJobService.getEstado(id));
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.vivesbankproject.rest.storage.jobs.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Clase de respuesta con el estado y el progreso de un trabajo de almacenamiento en segundo plano.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageJobResponse implements Serializable {
+
+    @Schema(description = "Identificador del trabajo", example = "3f1c2a9e-5b7d-4e2a-9c1f-0a8b7c6d5e4f")
+    private String id;
+
+    @Schema(description = "Tipo de trabajo", example = "jsonMovimientos")
+    private String tipo;
+
+    @Schema(description = "Estado del trabajo", example = "EN_CURSO")
+    private String estado;
+
+    @Schema(description = "Fichero generado, cuando el trabajo ha terminado", example = "admin_movimientos_2024-12-08.json.gz")
+    private String fichero;
+
+    @Schema(description = "Elementos procesados", example = "1250000")
+    private Long elementos;
+
+    @Schema(description = "Bytes escritos", example = "314572800")
+    private Long bytes;
+
+    @Schema(description = "Elementos procesados por segundo", example = "85000.5")
+    private Double elementosPorSegundo;
+
+    @Schema(description = "Fecha de inicio", example = "2024-12-08T14:30:00Z")
+    private String inicio;
+
+    @Schema(description = "Fecha de fin, cuando el trabajo ha terminado", example = "2024-12-08T14:34:05Z")
+    private String fin;
+
+    @Schema(description = "Descripción del error, si el trabajo ha fallado")
+    private String error;
+}
@@ -0,0 +1,112 @@
+package org.example.vivesbankproject.rest.storage.jobs.models;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado de un trabajo de almacenamiento que se ejecuta en segundo plano, como una exportación de movimientos.
+ * El trabajo lo actualiza el hilo que lo ejecuta y se consulta desde otros hilos, por lo que sus campos son
+ * volátiles o atómicos.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Getter
+public class StorageJob {
+
+    /**
+     * Fases por las que pasa un trabajo.
+     */
+    public enum Estado {
+        EN_CURSO, COMPLETADO, ERROR
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String tipo;
+    private final Instant inicio = Instant.now();
+    private final AtomicLong elementos = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile Estado estado = Estado.EN_CURSO;
+    private volatile Instant fin;
+    private volatile String fichero;
+    private volatile String error;
+
+    /**
+     * Crea un trabajo en curso.
+     *
+     * @param tipo Tipo de trabajo, por ejemplo {@code jsonMovimientos}
+     */
+    public StorageJob(String tipo) {
+        this.tipo = tipo;
+    }
+
+    /**
+     * Registra elementos procesados.
+     *
+     * @param procesados Elementos procesados desde la última llamada
+     * @return Total de elementos procesados
+     */
+    public long avanzar(long procesados) {
+        return elementos.addAndGet(procesados);
+    }
+
+    /**
+     * Registra los bytes escritos hasta el momento.
+     *
+     * @param escritos Total de bytes escritos
+     */
+    public void setBytes(long escritos) {
+        bytes.set(escritos);
+    }
+
+    /**
+     * Suma los bytes de un fichero terminado, para los trabajos que generan varios ficheros a la vez.
+     *
+     * @param escritos Bytes del fichero
+     */
+    public void sumarBytes(long escritos) {
+        bytes.addAndGet(escritos);
+    }
+
+    /**
+     * Marca el trabajo como completado.
+     *
+     * @param fichero Nombre del fichero generado
+     */
+    public void completar(String fichero) {
+        this.fichero = fichero;
+        this.fin = Instant.now();
+        this.estado = Estado.COMPLETADO;
+    }
+
+    /**
+     * Marca el trabajo como fallido.
+     *
+     * @param error Descripción del error
+     */
+    public void fallar(String error) {
+        this.error = error;
+        this.fin = Instant.now();
+        this.estado = Estado.ERROR;
+    }
+
+    /**
+     * @return Tiempo transcurrido desde el inicio hasta el fin, o hasta ahora si sigue en curso
+     */
+    public Duration getDuracion() {
+        Instant hasta = fin != null ? fin : Instant.now();
+        return Duration.between(inicio, hasta);
+    }
+
+    /**
+     * @return Elementos procesados por segundo desde el inicio
+     */
+    public double getElementosPorSegundo() {
+        long milisegundos = Math.max(1, getDuracion().toMillis());
+        return elementos.get() * 1000.0 / milisegundos;
+    }
+}
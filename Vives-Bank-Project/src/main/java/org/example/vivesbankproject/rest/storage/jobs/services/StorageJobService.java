@@ -0,0 +1,36 @@
+package org.example.vivesbankproject.rest.storage.jobs.services;
+
+import io.swagger.v3.oas.annotations.Operation;
+import org.example.vivesbankproject.rest.storage.jobs.dto.StorageJobResponse;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
+
+import java.util.function.Function;
+
+/**
+ * Servicio que ejecuta en segundo plano los trabajos de almacenamiento largos, como las exportaciones
+ * completas, y permite consultar su progreso.
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+public interface StorageJobService {
+
+    /**
+     * Lanza un trabajo en segundo plano.
+     *
+     * @param tipo  Tipo de trabajo
+     * @param tarea Tarea que recibe el trabajo para informar de su progreso y devuelve el fichero generado
+     * @return Estado inicial del trabajo
+     */
+    @Operation(summary = "Lanzar trabajo de almacenamiento", description = "Ejecuta una tarea de almacenamiento en segundo plano")
+    StorageJobResponse lanzar(String tipo, Function<StorageJob, String> tarea);
+
+    /**
+     * Obtiene el estado de un trabajo.
+     *
+     * @param id Identificador del trabajo
+     * @return Estado y progreso del trabajo
+     */
+    @Operation(summary = "Estado de un trabajo de almacenamiento", description = "Devuelve el estado y el progreso de un trabajo")
+    StorageJobResponse getEstado(String id);
+}
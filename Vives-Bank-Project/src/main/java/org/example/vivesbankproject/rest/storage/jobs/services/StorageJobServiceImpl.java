@@ -0,0 +1,143 @@
+package org.example.vivesbankproject.rest.storage.jobs.services;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
+import org.example.vivesbankproject.rest.storage.jobs.dto.StorageJobResponse;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Implementación del servicio de trabajos de almacenamiento.
+ * <p>
+ * Los trabajos se ejecutan en un grupo fijo de hilos para que varias exportaciones completas no compitan
+ * a la vez por disco y base de datos; los que llegan con todos los hilos ocupados esperan su turno. El
+ * estado de cada trabajo se guarda en memoria y los terminados se descartan pasado el tiempo de retención.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Service
+@Slf4j
+public class StorageJobServiceImpl implements StorageJobService {
+
+    private final Map<String, StorageJob> trabajos = new ConcurrentHashMap<>();
+    private final ExecutorService ejecutor;
+    private final Duration retencion;
+
+    /**
+     * Crea el servicio con su grupo de hilos.
+     *
+     * @param hilos            Trabajos que se ejecutan a la vez
+     * @param retencionMinutos Minutos que se conserva el estado de un trabajo terminado
+     */
+    @Autowired
+    public StorageJobServiceImpl(@Value("${storage.jobs.hilos:2}") int hilos,
+                                 @Value("${storage.jobs.retencion-minutos:60}") long retencionMinutos) {
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(Math.max(1, hilos),
+                tarea -> new Thread(tarea, "storage-jobs-" + contador.getAndIncrement()));
+        this.retencion = Duration.ofMinutes(retencionMinutos);
+    }
+
+    /**
+     * Lanza un trabajo en segundo plano. Si la tarea lanza una excepción el trabajo queda en estado de error.
+     *
+     * @param tipo  Tipo de trabajo
+     * @param tarea Tarea que recibe el trabajo para informar de su progreso y devuelve el fichero generado
+     * @return Estado inicial del trabajo
+     */
+    @Override
+    @Operation(
+            summary = "Lanzar trabajo de almacenamiento",
+            description = "Ejecuta una tarea de almacenamiento en segundo plano.",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Trabajo lanzado.")
+            }
+    )
+    public StorageJobResponse lanzar(String tipo, Function<StorageJob, String> tarea) {
+        descartarTerminados();
+        StorageJob trabajo = new StorageJob(tipo);
+        trabajos.put(trabajo.getId(), trabajo);
+        log.info("Lanzando trabajo de almacenamiento {} ({})", trabajo.getId(), tipo);
+
+        ejecutor.execute(() -> {
+            try {
+                trabajo.completar(tarea.apply(trabajo));
+                log.info("Trabajo de almacenamiento {} completado: {} elementos en {} ms ({} elementos/s)",
+                        trabajo.getId(), trabajo.getElementos().get(), trabajo.getDuracion().toMillis(),
+                        Math.round(trabajo.getElementosPorSegundo()));
+            } catch (RuntimeException e) {
+                log.error("Error en el trabajo de almacenamiento {}: {}", trabajo.getId(), e.getMessage());
+                trabajo.fallar(e.getMessage());
+            }
+        });
+        return toResponse(trabajo);
+    }
+
+    /**
+     * Obtiene el estado de un trabajo.
+     *
+     * @param id Identificador del trabajo
+     * @return Estado y progreso del trabajo
+     * @throws StorageNotFound Si el trabajo no existe o ya se ha descartado
+     */
+    @Override
+    @Operation(
+            summary = "Estado de un trabajo de almacenamiento",
+            description = "Devuelve el estado y el progreso de un trabajo.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Estado del trabajo."),
+                    @ApiResponse(responseCode = "404", description = "Trabajo no encontrado.")
+            }
+    )
+    public StorageJobResponse getEstado(String id) {
+        StorageJob trabajo = trabajos.get(id);
+        if (trabajo == null) {
+            throw new StorageNotFound("No existe el trabajo de almacenamiento: " + id);
+        }
+        return toResponse(trabajo);
+    }
+
+    /**
+     * Detiene los trabajos en curso al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+
+    private void descartarTerminados() {
+        Instant limite = Instant.now().minus(retencion);
+        trabajos.values().removeIf(trabajo -> trabajo.getFin() != null && trabajo.getFin().isBefore(limite));
+    }
+
+    private StorageJobResponse toResponse(StorageJob trabajo) {
+        return StorageJobResponse.builder()
+                .id(trabajo.getId())
+                .tipo(trabajo.getTipo())
+                .estado(trabajo.getEstado().name())
+                .fichero(trabajo.getFichero())
+                .elementos(trabajo.getElementos().get())
+                .bytes(trabajo.getBytes().get())
+                .elementosPorSegundo(trabajo.getElementosPorSegundo())
+                .inicio(trabajo.getInicio().toString())
+                .fin(trabajo.getFin() != null ? trabajo.getFin().toString() : null)
+                .error(trabajo.getError())
+                .build();
+    }
+}
@@ -5,6 +5,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
+import org.example.vivesbankproject.rest.storage.jobs.dto.StorageJobResponse;
+import org.example.vivesbankproject.rest.storage.jobs.services.StorageJobService;
 import org.example.vivesbankproject.rest.storage.jsonMovimientos.services.JsonMovimientosStorageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
@@ -14,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
@@ -33,35 +36,36 @@ import java.util.stream.Stream;
 public class JsonMovimientosController {
 
     private final JsonMovimientosStorageService jsonMovimientosStorageService;
+    private final StorageJobService storageJobService;
 
     @Autowired
-    public JsonMovimientosController(JsonMovimientosStorageService jsonMovimientosStorageService) {
+    public JsonMovimientosController(JsonMovimientosStorageService jsonMovimientosStorageService, StorageJobService storageJobService) {
         this.jsonMovimientosStorageService = jsonMovimientosStorageService;
+        this.storageJobService = storageJobService;
     }
 
     /**
-     * Genera un archivo JSON con todos los movimientos de clientes.
+     * Lanza en segundo plano la exportación de todos los movimientos de clientes a un archivo JSON.
+     * El progreso se consulta en {@code /storage/jobs/{id}}, que indica el archivo generado al terminar.
      *
-     * @return ResponseEntity con el nombre del archivo generado.
+     * @param comprimir Si el archivo se comprime con gzip.
+     * @return ResponseEntity con el estado inicial del trabajo de exportación.
      */
     @Operation(
             summary = "Generar archivo JSON con movimientos",
-            description = "Genera un archivo JSON con información de todos los movimientos de clientes.",
+            description = "Lanza en segundo plano la exportación de todos los movimientos de clientes a un archivo JSON, opcionalmente comprimido.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Archivo generado correctamente."),
-                    @ApiResponse(responseCode = "500", description = "Error interno al generar el archivo.")
+                    @ApiResponse(responseCode = "202", description = "Exportación lanzada; su estado se consulta en la cabecera Location."),
+                    @ApiResponse(responseCode = "500", description = "Error interno al lanzar la exportación.")
             }
     )
     @PostMapping("/generate")
-    public ResponseEntity<String> generateMovimientosJson() {
-        try {
-            String storedFilename = jsonMovimientosStorageService.storeAll();
-            return ResponseEntity.ok("Archivo JSON de movimientos generado con éxito: " + storedFilename);
-        } catch (StorageInternal e) {
-            log.error("Error al generar el archivo JSON de movimientos: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error al generar el archivo JSON de movimientos.");
-        }
+    public ResponseEntity<StorageJobResponse> generateMovimientosJson(@RequestParam(defaultValue = "false") boolean comprimir) {
+        StorageJobResponse trabajo = storageJobService.lanzar("jsonMovimientos",
+                job -> jsonMovimientosStorageService.storeAll(comprimir, job));
+        return ResponseEntity.accepted()
+                .location(URI.create("/storage/jobs/" + trabajo.getId()))
+                .body(trabajo);
     }
 
     /**
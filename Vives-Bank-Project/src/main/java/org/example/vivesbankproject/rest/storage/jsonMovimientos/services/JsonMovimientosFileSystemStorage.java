@@ -1,6 +1,8 @@
 package org.example.vivesbankproject.rest.storage.jsonMovimientos.services;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -14,6 +16,7 @@ import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
 import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
@@ -21,18 +24,21 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 /**
  * JsonMovimientosFileSystemStorage es la implementación del servicio JsonMovimientosStorageService para manejar operaciones
  * de almacenamiento de archivos JSON en el sistema de archivos. Contiene métodos para guardar, cargar, eliminar y listar archivos JSON.
@@ -44,18 +50,42 @@ import java.util.stream.Stream;
 @Slf4j
 public class JsonMovimientosFileSystemStorage implements JsonMovimientosStorageService {
 
+    /**
+     * Movimientos exportados entre cada actualización de los bytes escritos y cada traza de progreso.
+     */
+    private static final long INTERVALO_PROGRESO = 100_000;
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final Path rootLocation;
     private final MovimientosRepository movimientosRepository;
+    private final ObjectMapper objectMapper;
+    private final int tamanoBufer;
+
     /**
-     * Constructor que inicializa la ubicación raíz del almacenamiento y el repositorio de movimientos.
+     * Constructor que inicializa la ubicación raíz del almacenamiento, el repositorio de movimientos y el
+     * tamaño del búfer de escritura de las exportaciones.
      *
      * @param path Ruta base de almacenamiento para los archivos.
      * @param movimientosRepository Repositorio que interactúa con la base de datos para obtener los movimientos.
+     * @param tamanoBufer Bytes del búfer de escritura y, si se comprime, del búfer de gzip.
      */
     @Autowired
-    public JsonMovimientosFileSystemStorage(@Value("${upload.root-location}") String path, MovimientosRepository movimientosRepository) {
+    public JsonMovimientosFileSystemStorage(@Value("${upload.root-location}") String path,
+                                            MovimientosRepository movimientosRepository,
+                                            @Value("${storage.exportacion.buffer-bytes:65536}") int tamanoBufer) {
         this.rootLocation = Paths.get(path);
         this.movimientosRepository = movimientosRepository;
+        this.tamanoBufer = tamanoBufer;
+
+        this.objectMapper = new ObjectMapper();
+        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        JavaTimeModule module = new JavaTimeModule();
+        module.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(FORMATO_FECHA));
+        objectMapper.registerModule(module);
+        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+        // En la exportación se escribe un movimiento por llamada: vaciar el búfer en cada una anularía el búfer
+        objectMapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
     /**
      * Almacena un archivo JSON con todos los movimientos en el almacenamiento principal.
@@ -72,63 +102,71 @@ public class JsonMovimientosFileSystemStorage implements JsonMovimientosStorageS
             }
     )
     public String storeAll() {
-        String storedFilename = "admin_movimientos_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".json";
-        Path jsonFilePath = Path.of("dataAdmin").resolve(storedFilename);
-
-        try {
+        return storeAll(false, new StorageJob("jsonMovimientos"));
+    }
 
-            if (Files.exists(jsonFilePath)) {
-                Files.delete(jsonFilePath);
-                log.info("Archivo existente eliminado: {}", storedFilename);
+    /**
+     * Exporta todos los movimientos a un archivo JSON sin cargarlos en memoria: los lee de un cursor de
+     * MongoDB por lotes y los escribe uno a uno con un {@link JsonGenerator} sobre un {@link FileChannel}
+     * con búfer, opcionalmente comprimido con gzip. El archivo se escribe primero en un temporal propio
+     * con la extensión {@code .part} y se renombra al terminar, de modo que nunca se sirve una exportación
+     * a medias y dos exportaciones simultáneas no escriben en el mismo fichero.
+     *
+     * @param comprimir Si el archivo se comprime con gzip
+     * @param trabajo   Trabajo en el que se registran los movimientos exportados y los bytes escritos
+     * @return Nombre del archivo JSON almacenado.
+     */
+    @Override
+    @Operation(
+            summary = "Exportar todos los movimientos en streaming",
+            description = "Escribe todos los movimientos en un archivo JSON, opcionalmente comprimido, en memoria constante.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Archivo JSON almacenado con éxito."),
+                    @ApiResponse(responseCode = "500", description = "Error interno al almacenar el archivo JSON.")
             }
+    )
+    public String storeAll(boolean comprimir, StorageJob trabajo) {
+        String storedFilename = "admin_movimientos_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + (comprimir ? ".json.gz" : ".json");
+        Path jsonFilePath = Path.of("dataAdmin").resolve(storedFilename);
+        Path temporal;
+        try {
+            temporal = Files.createTempFile(jsonFilePath.getParent(), storedFilename + ".", ".part");
+        } catch (IOException e) {
+            throw new StorageInternal("Fallo al crear el archivo temporal de movimientos: " + e);
+        }
 
-            List<Movimiento> movimientos = movimientosRepository.findAll();
-
-            List<MovimientoResponse> movimientoMap = movimientos.stream()
-                    .map(movimiento -> {
-                        MovimientoResponse movimientoResponse = new MovimientoResponse();
-                        movimientoResponse.setGuid(movimiento.getGuid());
-                        movimientoResponse.setClienteGuid(movimiento.getClienteGuid());
-
-                        if (movimiento.getDomiciliacion() != null) {
-                            movimientoResponse.setDomiciliacion(movimiento.getDomiciliacion());
-                        }
-                        if (movimiento.getIngresoDeNomina() != null) {
-                            movimientoResponse.setIngresoDeNomina(movimiento.getIngresoDeNomina());
-                        }
-                        if (movimiento.getPagoConTarjeta() != null) {
-                            movimientoResponse.setPagoConTarjeta(movimiento.getPagoConTarjeta());
-                        }
-                        if (movimiento.getTransferencia() != null) {
-                            movimientoResponse.setTransferencia(movimiento.getTransferencia());
-                        }
-
-                        movimientoResponse.setCreatedAt(movimiento.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                        movimientoResponse.setIsDeleted(movimiento.getIsDeleted());
-
-                        return movimientoResponse;
-                    })
-                    .collect(Collectors.toList());
-
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-
-            JavaTimeModule module = new JavaTimeModule();
-            module.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-            objectMapper.registerModule(module);
-
-            objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        try (Stream<Movimiento> movimientos = movimientosRepository.streamAllBy();
+             FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
 
-            String jsonData = objectMapper.writeValueAsString(movimientoMap);
+            OutputStream salida = new BufferedOutputStream(Channels.newOutputStream(canal), tamanoBufer);
+            if (comprimir) {
+                salida = new GZIPOutputStream(salida, tamanoBufer);
+            }
 
-            Files.write(jsonFilePath, jsonData.getBytes());
+            try (JsonGenerator generador = objectMapper.getFactory().createGenerator(salida, JsonEncoding.UTF8)) {
+                generador.useDefaultPrettyPrinter();
+                generador.writeStartArray();
+                Iterator<Movimiento> iterador = movimientos.iterator();
+                while (iterador.hasNext()) {
+                    generador.writeObject(toResponse(iterador.next()));
+                    long exportados = trabajo.avanzar(1);
+                    if (exportados % INTERVALO_PROGRESO == 0) {
+                        trabajo.setBytes(canal.position());
+                        log.info("Exportados {} movimientos a {} ({} movimientos/s)", exportados, storedFilename, Math.round(trabajo.getElementosPorSegundo()));
+                    }
+                }
+                generador.writeEndArray();
+            }
+            trabajo.setBytes(Files.size(temporal));
 
-            log.info("Archivo JSON con movimientos almacenado: " + storedFilename);
+            Files.move(temporal, jsonFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Archivo JSON con {} movimientos almacenado: {} ({} bytes)", trabajo.getElementos().get(), storedFilename, trabajo.getBytes().get());
 
             return storedFilename;
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             throw new StorageInternal("Fallo al almacenar el archivo JSON de movimientos: " + e);
+        } finally {
+            borrarTemporal(temporal);
         }
     }
 
@@ -152,45 +190,13 @@ public class JsonMovimientosFileSystemStorage implements JsonMovimientosStorageS
         Path jsonFilePath = this.rootLocation.resolve(storedFilename);
 
         try {
-            Optional<Movimiento> movimientos = movimientosRepository.findByClienteGuid(guid);
+            List<Movimiento> movimientos = movimientosRepository.findAllByClienteGuidOrderByCreatedAtDesc(guid);
 
             List<MovimientoResponse> movimientoMap = movimientos.stream()
-                    .map(movimiento -> {
-                        MovimientoResponse movimientoResponse = new MovimientoResponse();
-                        movimientoResponse.setGuid(movimiento.getGuid());
-                        movimientoResponse.setClienteGuid(movimiento.getClienteGuid());
-
-                        if (movimiento.getDomiciliacion() != null) {
-                            movimientoResponse.setDomiciliacion(movimiento.getDomiciliacion());
-                        }
-                        if (movimiento.getIngresoDeNomina() != null) {
-                            movimientoResponse.setIngresoDeNomina(movimiento.getIngresoDeNomina());
-                        }
-                        if (movimiento.getPagoConTarjeta() != null) {
-                            movimientoResponse.setPagoConTarjeta(movimiento.getPagoConTarjeta());
-                        }
-                        if (movimiento.getTransferencia() != null) {
-                            movimientoResponse.setTransferencia(movimiento.getTransferencia());
-                        }
-
-                        movimientoResponse.setCreatedAt(movimiento.getCreatedAt().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-                        movimientoResponse.setIsDeleted(movimiento.getIsDeleted());
-
-                        return movimientoResponse;
-                    })
-                    .collect(Collectors.toList());
-
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
-
-            JavaTimeModule module = new JavaTimeModule();
-            module.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-            objectMapper.registerModule(module);
-
-            objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+                    .map(this::toResponse)
+                    .toList();
 
-            String jsonData = objectMapper.writeValueAsString(movimientoMap);
+            String jsonData = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(movimientoMap);
 
             Files.write(jsonFilePath, jsonData.getBytes());
 
@@ -318,4 +324,36 @@ public class JsonMovimientosFileSystemStorage implements JsonMovimientosStorageS
             throw new StorageInternal("No se puede eliminar el fichero " + filename + " " + e);
         }
     }
-}
\ No newline at end of file
+
+    private MovimientoResponse toResponse(Movimiento movimiento) {
+        MovimientoResponse movimientoResponse = new MovimientoResponse();
+        movimientoResponse.setGuid(movimiento.getGuid());
+        movimientoResponse.setClienteGuid(movimiento.getClienteGuid());
+
+        if (movimiento.getDomiciliacion() != null) {
+            movimientoResponse.setDomiciliacion(movimiento.getDomiciliacion());
+        }
+        if (movimiento.getIngresoDeNomina() != null) {
+            movimientoResponse.setIngresoDeNomina(movimiento.getIngresoDeNomina());
+        }
+        if (movimiento.getPagoConTarjeta() != null) {
+            movimientoResponse.setPagoConTarjeta(movimiento.getPagoConTarjeta());
+        }
+        if (movimiento.getTransferencia() != null) {
+            movimientoResponse.setTransferencia(movimiento.getTransferencia());
+        }
+
+        movimientoResponse.setCreatedAt(movimiento.getCreatedAt().format(FORMATO_FECHA));
+        movimientoResponse.setIsDeleted(movimiento.getIsDeleted());
+
+        return movimientoResponse;
+    }
+
+    private void borrarTemporal(Path temporal) {
+        try {
+            Files.deleteIfExists(temporal);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar el archivo temporal {}: {}", temporal, e.getMessage());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.vivesbankproject.rest.storage.jsonMovimientos.services;
 
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.springframework.core.io.Resource;
 
 import java.nio.file.Path;
@@ -43,6 +44,16 @@ public interface JsonMovimientosStorageService {
     )
     String storeAll();
 
+    @io.swagger.v3.oas.annotations.Operation(
+            summary = "Exportar todos los movimientos en streaming",
+            description = "Genera un archivo JSON, opcionalmente comprimido con gzip, con todos los movimientos leídos por lotes e informa del progreso en el trabajo indicado.",
+            responses = {
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Archivo JSON generado correctamente."),
+                    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Error al generar el archivo JSON.")
+            }
+    )
+    String storeAll(boolean comprimir, StorageJob trabajo);
+
     /**
      * Almacena un archivo JSON con los movimientos de un cliente específico basado en su GUID.
      *
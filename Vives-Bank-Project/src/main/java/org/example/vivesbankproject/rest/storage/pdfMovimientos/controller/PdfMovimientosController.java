@@ -5,6 +5,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
+import org.example.vivesbankproject.rest.storage.jobs.dto.StorageJobResponse;
+import org.example.vivesbankproject.rest.storage.jobs.services.StorageJobService;
 import org.example.vivesbankproject.rest.storage.pdfMovimientos.services.PdfMovimientosStorageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
@@ -14,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
@@ -33,40 +36,66 @@ import java.util.stream.Stream;
 public class PdfMovimientosController {
 
     private final PdfMovimientosStorageService pdfMovimientosStorageService;
+    private final StorageJobService storageJobService;
 
     /**
      * Constructor para inyección de dependencias en el controlador.
      *
      * @param pdfMovimientosStorageService Servicio encargado de la lógica de almacenamiento para los archivos PDF.
+     * @param storageJobService            Servicio que ejecuta en segundo plano las generaciones largas.
      */
     @Autowired
-    public PdfMovimientosController(PdfMovimientosStorageService pdfMovimientosStorageService) {
+    public PdfMovimientosController(PdfMovimientosStorageService pdfMovimientosStorageService, StorageJobService storageJobService) {
         this.pdfMovimientosStorageService = pdfMovimientosStorageService;
+        this.storageJobService = storageJobService;
     }
 
     /**
-     * Genera un archivo PDF con todos los movimientos.
+     * Lanza en segundo plano la generación de un archivo PDF con todos los movimientos.
+     * El progreso se consulta en {@code /storage/jobs/{id}}, que indica el archivo generado al terminar.
      *
-     * @return ResponseEntity con el mensaje de éxito o error en la generación del archivo PDF.
+     * @return ResponseEntity con el estado inicial del trabajo de generación.
      */
     @PostMapping("/generate")
     @Operation(
             summary = "Generar un archivo PDF con todos los movimientos",
-            description = "Genera un archivo PDF con todos los movimientos de la base de datos y lo almacena.",
+            description = "Lanza en segundo plano la generación de un archivo PDF con todos los movimientos de la base de datos.",
             responses = {
-                    @ApiResponse(responseCode = "200", description = "Archivo PDF generado con éxito."),
-                    @ApiResponse(responseCode = "500", description = "Error interno al generar el archivo PDF.")
+                    @ApiResponse(responseCode = "202", description = "Generación lanzada; su estado se consulta en la cabecera Location."),
+                    @ApiResponse(responseCode = "500", description = "Error interno al lanzar la generación.")
             }
     )
-    public ResponseEntity<String> generateMovimientosPdf() {
-        try {
-            String storedFilename = pdfMovimientosStorageService.storeAll();
-            return ResponseEntity.ok("Archivo PDF de movimientos generado con éxito: " + storedFilename);
-        } catch (StorageInternal e) {
-            log.error("Error al generar el archivo PDF de movimientos: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error al generar el archivo PDF de movimientos.");
-        }
+    public ResponseEntity<StorageJobResponse> generateMovimientosPdf() {
+        StorageJobResponse trabajo = storageJobService.lanzar("pdfMovimientos", pdfMovimientosStorageService::storeAll);
+        return ResponseEntity.accepted()
+                .location(URI.create("/storage/jobs/" + trabajo.getId()))
+                .body(trabajo);
+    }
+
+    /**
+     * Lanza en segundo plano la generación en paralelo de los extractos PDF de varios clientes.
+     *
+     * @param guids Identificadores de los clientes; si no se indican se generan los de todos los clientes con movimientos.
+     * @return ResponseEntity con el estado inicial del trabajo de generación.
+     */
+    @PostMapping("/generate/clientes")
+    @Operation(
+            summary = "Generar los extractos PDF de varios clientes",
+            description = "Lanza en segundo plano la generación en paralelo de un extracto PDF por cliente.",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Generación lanzada; su estado se consulta en la cabecera Location."),
+                    @ApiResponse(responseCode = "500", description = "Error interno al lanzar la generación.")
+            }
+    )
+    public ResponseEntity<StorageJobResponse> generateClientesPdf(@RequestBody(required = false) List<String> guids) {
+        List<String> clientes = guids != null ? guids : List.of();
+        StorageJobResponse trabajo = storageJobService.lanzar("pdfMovimientosClientes", job -> {
+            List<String> generados = pdfMovimientosStorageService.storeClientes(clientes, job);
+            return generados.size() + " extractos PDF generados";
+        });
+        return ResponseEntity.accepted()
+                .location(URI.create("/storage/jobs/" + trabajo.getId()))
+                .body(trabajo);
     }
 
     /**
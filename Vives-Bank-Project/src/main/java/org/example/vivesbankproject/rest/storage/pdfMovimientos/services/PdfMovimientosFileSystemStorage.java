@@ -1,16 +1,23 @@
 package org.example.vivesbankproject.rest.storage.pdfMovimientos.services;
 
+import com.itextpdf.kernel.exceptions.PdfException;
+import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
 import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
@@ -18,15 +25,26 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 /**
  * Implementación de almacenamiento de archivos PDF para movimientos de clientes en un almacenamiento
@@ -40,13 +58,43 @@ import java.util.stream.Stream;
 @Slf4j
 public class PdfMovimientosFileSystemStorage implements PdfMovimientosStorageService {
 
+    /**
+     * Filas que se añaden a la tabla de un extracto entre cada volcado al documento.
+     */
+    private static final int FILAS_POR_VOLCADO = 50;
+
+    private static final String[] CABECERAS = {"Fecha", "GUID", "Cliente GUID", "Tipo", "Importe", "Detalle"};
+    private static final float[] ANCHOS_COLUMNAS = {14, 18, 18, 12, 10, 28};
+    private static final float TAMANO_FUENTE = 8;
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final Path rootLocation;
     private final MovimientosRepository movimientosRepository;
+    private final ExecutorService ejecutorExtractos;
+    private final int hilos;
+    private final int tamanoBufer;
 
+    /**
+     * Constructor que inicializa la ubicación raíz del almacenamiento, el repositorio de movimientos y el
+     * grupo de hilos con el que se generan en paralelo los extractos de varios clientes.
+     *
+     * @param path                  Ruta base de almacenamiento para los archivos.
+     * @param movimientosRepository Repositorio de movimientos.
+     * @param hilos                 Extractos de clientes que se generan a la vez.
+     * @param tamanoBufer           Bytes del búfer de escritura de los extractos.
+     */
     @Autowired
-    public PdfMovimientosFileSystemStorage(@Value("${upload.root-location}") String path, MovimientosRepository movimientosRepository) {
+    public PdfMovimientosFileSystemStorage(@Value("${upload.root-location}") String path,
+                                           MovimientosRepository movimientosRepository,
+                                           @Value("${storage.pdf.hilos:4}") int hilos,
+                                           @Value("${storage.exportacion.buffer-bytes:65536}") int tamanoBufer) {
         this.rootLocation = Paths.get(path);
         this.movimientosRepository = movimientosRepository;
+        this.hilos = Math.max(1, hilos);
+        this.tamanoBufer = tamanoBufer;
+        AtomicInteger contador = new AtomicInteger();
+        this.ejecutorExtractos = Executors.newFixedThreadPool(this.hilos,
+                tarea -> new Thread(tarea, "extractos-pdf-" + contador.getAndIncrement()));
     }
     /**
      * Almacena un archivo PDF con todos los movimientos de clientes en el almacenamiento.
@@ -64,38 +112,38 @@ public class PdfMovimientosFileSystemStorage implements PdfMovimientosStorageSer
             }
     )
     public String storeAll() {
-        String storedFilename = "admin_movimientos_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".pdf";
-        Path pdfFilePath = Path.of("dataAdmin").resolve(storedFilename);
-
-        try {
-            List<Movimiento> movimientos = movimientosRepository.findAll();
-
-            PdfDocument pdfDoc = new PdfDocument(new PdfWriter(pdfFilePath.toString()));
-            Document document = new Document(pdfDoc);
-
-            document.add(new Paragraph("Movimientos de Clientes")
-                    .setFontSize(18)
-                    .setBold());
+        return storeAll(new StorageJob("pdfMovimientos"));
+    }
 
-            for (Movimiento movimiento : movimientos) {
-                document.add(new Paragraph("GUID: " + movimiento.getGuid()));
-                document.add(new Paragraph("Cliente GUID: " + movimiento.getClienteGuid()));
-                document.add(new Paragraph("Domiciliación: " + movimiento.getDomiciliacion()));
-                document.add(new Paragraph("Ingreso de Nómina: " + movimiento.getIngresoDeNomina()));
-                document.add(new Paragraph("Pago con Tarjeta: " + movimiento.getPagoConTarjeta()));
-                document.add(new Paragraph("Transferencia: " + movimiento.getTransferencia()));
-                document.add(new Paragraph("\n"));
+    /**
+     * Genera el extracto PDF de todos los movimientos leyéndolos de un cursor por lotes, sin cargarlos en memoria.
+     *
+     * @param trabajo Trabajo en el que se registran los movimientos escritos y los bytes del fichero.
+     * @return El nombre del archivo generado y almacenado.
+     * @throws StorageInternal En caso de error al generar o almacenar el archivo.
+     */
+    @Override
+    @Operation(
+            summary = "Generar en streaming un archivo PDF con todos los movimientos",
+            description = "Genera el extracto PDF de todos los movimientos en memoria constante e informa del progreso en el trabajo.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Archivo generado y almacenado correctamente."),
+                    @ApiResponse(responseCode = "500", description = "Error al almacenar el archivo PDF.")
             }
+    )
+    public String storeAll(StorageJob trabajo) {
+        String storedFilename = "admin_movimientos_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".pdf";
+        Path pdfFilePath = Path.of("dataAdmin").resolve(storedFilename);
 
-            document.close();
-
-            log.info("Archivo PDF con movimientos almacenado: " + storedFilename);
-
+        try (Stream<Movimiento> movimientos = movimientosRepository.streamAllBy()) {
+            int paginas = escribirExtracto(pdfFilePath, "Movimientos de Clientes", movimientos.iterator(), trabajo);
+            log.info("Archivo PDF con movimientos almacenado: {} ({} movimientos, {} páginas)", storedFilename, trabajo.getElementos().get(), paginas);
             return storedFilename;
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException | PdfException e) {
             throw new StorageInternal("Fallo al almacenar el archivo PDF de movimientos: " + e);
         }
     }
+
     /**
      * Almacena un archivo PDF con los movimientos de un cliente específico identificado por el GUID.
      *
@@ -115,41 +163,186 @@ public class PdfMovimientosFileSystemStorage implements PdfMovimientosStorageSer
             }
     )
     public String store(String guid) {
-        String storedFilename = "movimientos_" + guid + "_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".pdf";
-        Path pdfFilePath = this.rootLocation.resolve(storedFilename);
+        return store(guid, new StorageJob("pdfMovimientos"));
+    }
+
+    /**
+     * Genera los extractos PDF de varios clientes en paralelo, como mucho tantos a la vez como hilos tiene el
+     * grupo de extractos. Si no se indican clientes se generan los de todos los clientes con movimientos,
+     * que se leen del cursor de MongoDB a medida que hay hueco: nunca esperan turno más de dos extractos por
+     * hilo, así que el número de tareas pendientes no crece con el número de clientes.
+     * Los clientes cuyo extracto falla se registran en el log y no detienen el resto.
+     *
+     * @param guids   Identificadores de los clientes, o vacío para todos.
+     * @param trabajo Trabajo en el que se registran los movimientos escritos de todos los extractos.
+     * @return Nombres de los archivos generados.
+     * @throws StorageInternal Si se interrumpe la generación de los extractos.
+     */
+    @Override
+    @Operation(
+            summary = "Generar en paralelo los extractos PDF de varios clientes",
+            description = "Genera un extracto PDF por cliente en un grupo limitado de hilos.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Extractos generados."),
+                    @ApiResponse(responseCode = "500", description = "Error interno al generar los extractos.")
+            }
+    )
+    public List<String> storeClientes(List<String> guids, StorageJob trabajo) {
+        if (!guids.isEmpty()) {
+            return generarExtractos(guids.stream(), trabajo);
+        }
+        try (Stream<String> clientes = movimientosRepository.findClienteGuids()) {
+            return generarExtractos(clientes.filter(Objects::nonNull), trabajo);
+        }
+    }
+
+    private List<String> generarExtractos(Stream<String> clientes, StorageJob trabajo) {
+        int maximoPendientes = hilos * 2;
+        Semaphore huecos = new Semaphore(maximoPendientes);
+        List<String> generados = Collections.synchronizedList(new ArrayList<>());
+        int total = 0;
+        log.info("Generando extractos PDF de clientes en {} hilos", hilos);
 
         try {
-            Optional<Movimiento> movimientoOpt = movimientosRepository.findByClienteGuid(guid);
+            Iterator<String> iterador = clientes.iterator();
+            while (iterador.hasNext()) {
+                String guid = iterador.next();
+                huecos.acquire();
+                total++;
+                try {
+                    ejecutorExtractos.execute(() -> {
+                        try {
+                            generados.add(store(guid, trabajo));
+                        } catch (RuntimeException e) {
+                            log.error("No se pudo generar el extracto PDF del cliente {}: {}", guid, e.getMessage());
+                        } finally {
+                            huecos.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    huecos.release();
+                    throw e;
+                }
+            }
+            // Esperar a que terminen los extractos en curso
+            huecos.acquire(maximoPendientes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageInternal("Se ha interrumpido la generación de los extractos PDF");
+        }
+
+        log.info("Extractos PDF generados: {} de {}", generados.size(), total);
+        return List.copyOf(generados);
+    }
+
+    /**
+     * Detiene el grupo de hilos de los extractos al cerrar la aplicación.
+     */
+    @PreDestroy
+    public void detener() {
+        ejecutorExtractos.shutdownNow();
+    }
 
-            if (movimientoOpt.isEmpty()) {
+    private String store(String guid, StorageJob trabajo) {
+        String storedFilename = "movimientos_" + guid + "_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".pdf";
+        Path pdfFilePath = this.rootLocation.resolve(storedFilename);
+
+        try (Stream<Movimiento> movimientos = movimientosRepository.streamByClienteGuidOrderByCreatedAtDescIdDesc(guid)) {
+            Iterator<Movimiento> iterador = movimientos.iterator();
+            if (!iterador.hasNext()) {
                 throw new StorageNotFound("No se encontraron movimientos para el cliente con GUID: " + guid);
             }
 
-            Movimiento movimiento = movimientoOpt.get();
+            escribirExtracto(pdfFilePath, "Movimientos del Cliente: " + guid, iterador, trabajo);
+            log.info("Archivo PDF con movimientos del cliente almacenado: " + storedFilename);
 
-            try (PdfDocument pdfDoc = new PdfDocument(new PdfWriter(pdfFilePath.toString()));
-                 Document document = new Document(pdfDoc)) {
+            return storedFilename;
+        } catch (IOException | UncheckedIOException | PdfException e) {
+            throw new StorageInternal("Fallo al almacenar el archivo PDF de movimientos del cliente: " + e);
+        }
+    }
+
+    /**
+     * Escribe un extracto con una fila de tabla por movimiento. La tabla se crea como tabla grande de iText y
+     * se vuelca al documento cada {@value #FILAS_POR_VOLCADO} filas; con el documento en modo de volcado
+     * inmediato, cada página completa se escribe en el fichero y se libera, así que la memoria no crece con
+     * el número de movimientos. El extracto se escribe en un temporal propio con la extensión {@code .part} y
+     * se renombra al terminar, así que dos trabajos simultáneos no escriben en el mismo fichero.
+     *
+     * @return Número de páginas del extracto
+     */
+    private int escribirExtracto(Path destino, String titulo, Iterator<Movimiento> movimientos, StorageJob trabajo) throws IOException {
+        Path temporal = Files.createTempFile(destino.toAbsolutePath().getParent(), destino.getFileName() + ".", ".part");
+        try {
+            int paginas;
+            try (PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new BufferedOutputStream(Files.newOutputStream(temporal), tamanoBufer)));
+                 Document document = new Document(pdfDoc, PageSize.A4.rotate(), true)) {
+                pdfDoc.setFlushUnusedObjects(true);
 
-                document.add(new Paragraph("Movimientos del Cliente: " + guid)
+                document.add(new Paragraph(titulo)
                         .setFontSize(18)
                         .setBold());
 
-                document.add(new Paragraph("GUID: " + movimiento.getGuid()));
-                document.add(new Paragraph("Cliente GUID: " + movimiento.getClienteGuid()));
-                document.add(new Paragraph("Domiciliación: " + movimiento.getDomiciliacion()));
-                document.add(new Paragraph("Ingreso de Nómina: " + movimiento.getIngresoDeNomina()));
-                document.add(new Paragraph("Pago con Tarjeta: " + movimiento.getPagoConTarjeta()));
-                document.add(new Paragraph("Transferencia: " + movimiento.getTransferencia()));
-                document.add(new Paragraph("\n"));
+                Table tabla = new Table(UnitValue.createPercentArray(ANCHOS_COLUMNAS), true).useAllAvailableWidth();
+                for (String cabecera : CABECERAS) {
+                    tabla.addHeaderCell(new Cell().add(new Paragraph(cabecera).setBold()).setFontSize(TAMANO_FUENTE));
+                }
+                document.add(tabla);
 
-                log.info("Archivo PDF con movimientos del cliente almacenado: " + storedFilename);
+                long filas = 0;
+                while (movimientos.hasNext()) {
+                    Movimiento movimiento = movimientos.next();
+                    for (String valor : fila(movimiento)) {
+                        tabla.addCell(new Cell().add(new Paragraph(valor)).setFontSize(TAMANO_FUENTE));
+                    }
+                    trabajo.avanzar(1);
+                    if (++filas % FILAS_POR_VOLCADO == 0) {
+                        tabla.flush();
+                    }
+                }
+                tabla.complete();
+                paginas = pdfDoc.getNumberOfPages();
             }
+            trabajo.sumarBytes(Files.size(temporal));
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return paginas;
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
 
-            return storedFilename;
-        } catch (IOException e) {
-            throw new StorageInternal("Fallo al almacenar el archivo PDF de movimientos del cliente: " + e);
+    private static String[] fila(Movimiento movimiento) {
+        String fecha = movimiento.getCreatedAt() != null ? movimiento.getCreatedAt().format(FORMATO_FECHA) : "";
+        String tipo = "";
+        Object importe = null;
+        String detalle = "";
+        if (movimiento.getTransferencia() != null) {
+            tipo = "Transferencia";
+            importe = movimiento.getTransferencia().getCantidad();
+            detalle = movimiento.getTransferencia().getIban_Origen() + " -> " + movimiento.getTransferencia().getIban_Destino();
+        } else if (movimiento.getPagoConTarjeta() != null) {
+            tipo = "Pago con Tarjeta";
+            importe = movimiento.getPagoConTarjeta().getCantidad();
+            detalle = movimiento.getPagoConTarjeta().getNombreComercio();
+        } else if (movimiento.getIngresoDeNomina() != null) {
+            tipo = "Ingreso de Nómina";
+            importe = movimiento.getIngresoDeNomina().getCantidad();
+            detalle = movimiento.getIngresoDeNomina().getNombreEmpresa();
+        } else if (movimiento.getDomiciliacion() != null) {
+            tipo = "Domiciliación";
+            importe = movimiento.getDomiciliacion().getCantidad();
+            detalle = movimiento.getDomiciliacion().getNombreAcreedor();
         }
+        return new String[]{
+                fecha,
+                String.valueOf(movimiento.getGuid()),
+                String.valueOf(movimiento.getClienteGuid()),
+                tipo,
+                importe != null ? importe.toString() : "",
+                detalle != null ? detalle : ""
+        };
     }
+
     /**
      * Lista todos los archivos almacenados en el almacenamiento.
      *
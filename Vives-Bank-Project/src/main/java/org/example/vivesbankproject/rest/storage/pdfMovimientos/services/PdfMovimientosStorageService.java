@@ -2,9 +2,11 @@ package org.example.vivesbankproject.rest.storage.pdfMovimientos.services;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.springframework.core.io.Resource;
 
 import java.nio.file.Path;
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -38,6 +40,22 @@ public interface PdfMovimientosStorageService {
     )
     String storeAll();
 
+    /**
+     * Genera en streaming un archivo PDF con todos los movimientos e informa del progreso en un trabajo.
+     *
+     * @param trabajo Trabajo en el que se registran los movimientos escritos y los bytes generados.
+     * @return El nombre del archivo PDF generado y almacenado.
+     */
+    @Operation(
+            summary = "Generar en streaming un archivo PDF con todos los movimientos",
+            description = "Genera el extracto PDF de todos los movimientos leyéndolos por lotes, en memoria constante.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Archivo PDF generado y almacenado correctamente."),
+                    @ApiResponse(responseCode = "500", description = "Error interno al almacenar el archivo PDF.")
+            }
+    )
+    String storeAll(StorageJob trabajo);
+
     /**
      * Almacena un archivo PDF con los movimientos de un cliente específico identificado por su GUID.
      *
@@ -54,6 +72,23 @@ public interface PdfMovimientosStorageService {
     )
     String store(String guid);
 
+    /**
+     * Genera en paralelo los extractos PDF de varios clientes, o de todos los clientes con movimientos.
+     *
+     * @param guids   Identificadores de los clientes, o una lista vacía para todos.
+     * @param trabajo Trabajo en el que se registran los movimientos escritos y los bytes generados.
+     * @return Los nombres de los archivos PDF generados.
+     */
+    @Operation(
+            summary = "Generar en paralelo los extractos PDF de varios clientes",
+            description = "Genera un extracto PDF por cliente en un grupo limitado de hilos.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Extractos PDF generados."),
+                    @ApiResponse(responseCode = "500", description = "Error interno al generar los extractos.")
+            }
+    )
+    List<String> storeClientes(List<String> guids, StorageJob trabajo);
+
     /**
      * Recupera una lista de todos los archivos PDF almacenados en el almacenamiento.
      *
@@ -232,7 +232,7 @@ public class TarjetaServiceImpl implements TarjetaService {
      * @return TarjetaResponse con la información de la tarjeta guardada.
      */
     @Override
-    @CachePut
+    @CachePut(key = "#result.guid")
     @Operation(summary = "Crear nueva tarjeta", description = "Guarda una nueva tarjeta bancaria en el sistema")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Tarjeta creada exitosamente",
@@ -4,8 +4,13 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import org.example.vivesbankproject.rest.users.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -38,4 +43,25 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
      */
     @Schema(description = "Busca un usuario en la base de datos utilizando su nombre de usuario.")
     Optional<User> findByUsername(String username);
+
+    /**
+     * Busca en una única consulta los usuarios con los GUID indicados.
+     *
+     * @param guids Identificadores globales únicos de los usuarios.
+     * @return Los usuarios encontrados; los GUID sin usuario no aparecen.
+     */
+    @Schema(description = "Busca en una única consulta los usuarios con los GUID indicados.")
+    List<User> findByGuidIn(Collection<String> guids);
+
+    /**
+     * Sustituye el hash de la contraseña de un usuario sin cargar la entidad.
+     *
+     * @param username Nombre de usuario.
+     * @param password Nuevo hash de la contraseña.
+     * @return Número de usuarios actualizados.
+     */
+    @Schema(description = "Sustituye el hash de la contraseña de un usuario.")
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.username = :username")
+    int updatePasswordByUsername(@Param("username") String username, @Param("password") String password);
 }
\ No newline at end of file
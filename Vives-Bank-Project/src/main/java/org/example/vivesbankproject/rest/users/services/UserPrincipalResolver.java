@@ -0,0 +1,125 @@
+package org.example.vivesbankproject.rest.users.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.users.exceptions.UserNotFoundException;
+import org.example.vivesbankproject.rest.users.models.Role;
+import org.example.vivesbankproject.rest.users.models.User;
+import org.example.vivesbankproject.rest.users.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * Resuelve el usuario autenticado de cada petición a partir de su nombre de usuario.
+ * <p>
+ * El filtro JWT necesitaba en cada petición el usuario con sus roles, que se cargaba de la base de datos
+ * junto con la colección de roles. Aquí se guarda en la caché {@value #CACHE}, por nombre de usuario, un
+ * {@link Principal} inmutable con lo que necesita la autorización (identificadores, roles y si está eliminado),
+ * y a cada petición se le entrega un {@link User} nuevo construido a partir de él, de modo que nada de lo que
+ * haga con él llega a la caché ni a la base de datos.
+ * </p>
+ * <p>
+ * La caché es compartida entre nodos (Redis), así que no guarda la contraseña: el usuario entregado no la
+ * lleva. El inicio de sesión no utiliza esta caché y comprueba la contraseña siempre contra la base de datos.
+ * </p>
+ * <p>
+ * La caché tiene una caducidad corta y, al actualizar o eliminar un usuario, operaciones que incluyen el
+ * cambio de roles y de nombre de usuario, se invalida solo la entrada de ese usuario.
+ * </p>
+ *
+ * @author Jaime León, Natalia González, Germán Fernández, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Component
+@Slf4j
+public class UserPrincipalResolver {
+
+    /**
+     * Nombre de la caché nombre de usuario → usuario autenticado.
+     */
+    public static final String CACHE = "usuario_principal";
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public UserPrincipalResolver(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Obtiene el usuario autenticado con un nombre de usuario, de la caché si está en ella.
+     *
+     * @param username Nombre de usuario
+     * @return Usuario nuevo con sus roles y sin contraseña
+     * @throws UserNotFoundException si el usuario no existe
+     */
+    public User resolver(String username) {
+        Cache cache = cacheManager.getCache(CACHE);
+        Principal principal = cache != null ? cache.get(username, Principal.class) : null;
+        if (principal == null) {
+            log.debug("Cargando el usuario autenticado {} sin caché", username);
+            principal = Principal.de(userRepository.findByUsername(username)
+                    .orElseThrow(() -> new UserNotFoundException(username)));
+            if (cache != null) {
+                cache.put(username, principal);
+            }
+        }
+        return principal.toUser();
+    }
+
+    /**
+     * Elimina de la caché el usuario autenticado con un nombre de usuario.
+     *
+     * @param username Nombre de usuario
+     */
+    public void invalidar(String username) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache != null && username != null) {
+            cache.evict(username);
+        }
+    }
+
+    /**
+     * Usuario autenticado tal como se guarda en la caché: sin contraseña y con los roles en un conjunto
+     * inmutable.
+     *
+     * @param id        Identificador del usuario en la base de datos
+     * @param guid      Identificador público del usuario
+     * @param username  Nombre de usuario
+     * @param roles     Roles del usuario
+     * @param isDeleted Si el usuario está marcado como eliminado
+     */
+    public record Principal(Long id, String guid, String username, Set<Role> roles, Boolean isDeleted) implements Serializable {
+
+        /**
+         * Extrae el principal de un usuario cargado de la base de datos.
+         *
+         * @param user Usuario
+         * @return Principal sin contraseña
+         */
+        public static Principal de(User user) {
+            return new Principal(user.getId(), user.getGuid(), user.getUsername(), Set.copyOf(user.getRoles()), user.getIsDeleted());
+        }
+
+        /**
+         * Construye un usuario nuevo, sin contraseña, para la petición.
+         *
+         * @return Usuario con los datos del principal
+         */
+        public User toUser() {
+            return User.builder()
+                    .id(id)
+                    .guid(guid)
+                    .username(username)
+                    .roles(roles)
+                    .isDeleted(isDeleted)
+                    .build();
+        }
+    }
+}
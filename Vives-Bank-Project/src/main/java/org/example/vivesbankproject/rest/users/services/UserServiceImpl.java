@@ -6,6 +6,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.extern.slf4j.Slf4j;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
 import org.example.vivesbankproject.rest.users.dto.UserRequest;
 import org.example.vivesbankproject.rest.users.dto.UserResponse;
 import org.example.vivesbankproject.rest.users.exceptions.UserExists;
@@ -44,15 +45,22 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final CuentaUsuarioResolver cuentaUsuarioResolver;
+    private final UserPrincipalResolver userPrincipalResolver;
     /**
      * Constructor de la clase UserServiceImpl.
      *
-     * @param userRepository Repositorio para interactuar con la base de datos.
-     * @param userMapper     Manejador para mapear entre entidades y DTOs.
+     * @param userRepository        Repositorio para interactuar con la base de datos.
+     * @param userMapper            Manejador para mapear entre entidades y DTOs.
+     * @param cuentaUsuarioResolver Caché IBAN → nombre de usuario, que se invalida para las cuentas del usuario.
+     * @param userPrincipalResolver Caché del usuario autenticado, que se invalida para el usuario modificado.
      */
-    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper) {
+    public UserServiceImpl(UserRepository userRepository, UserMapper userMapper,
+                           CuentaUsuarioResolver cuentaUsuarioResolver, UserPrincipalResolver userPrincipalResolver) {
         this.userRepository = userRepository;
         this.userMapper = userMapper;
+        this.cuentaUsuarioResolver = cuentaUsuarioResolver;
+        this.userPrincipalResolver = userPrincipalResolver;
     }
     /**
      * Recupera una lista paginada de usuarios con la opción de realizar filtros por nombre de usuario o rol.
@@ -147,7 +155,7 @@ public class UserServiceImpl implements UserService {
      * @return Respuesta con la información del usuario guardado.
      */
     @Override
-    @CachePut
+    @CachePut(key = "#result.guid")
     @Operation(
             summary = "Guardar un nuevo usuario",
             description = "Crea y guarda un nuevo usuario en la base de datos"
@@ -174,7 +182,7 @@ public class UserServiceImpl implements UserService {
      * @return Respuesta con la información actualizada del usuario.
      */
     @Override
-    @CachePut
+    @CachePut(key = "#id")
     @Operation(
             summary = "Actualizar un usuario",
             description = "Actualiza la información de un usuario existente en la base de datos"
@@ -194,7 +202,11 @@ public class UserServiceImpl implements UserService {
         if (userRepository.findByUsername(userRequest.getUsername()).isPresent()) {
             throw new UserExists(userRequest.getUsername());
         }
+        String usernameAnterior = user.getUsername();
         var userUpdated = userRepository.save(userMapper.toUserUpdate(userRequest, user));
+        userPrincipalResolver.invalidar(usernameAnterior);
+        userPrincipalResolver.invalidar(userUpdated.getUsername());
+        cuentaUsuarioResolver.invalidarUsuario(id);
         return userMapper.toUserResponse(userUpdated);
     }
     /**
@@ -220,6 +232,8 @@ public class UserServiceImpl implements UserService {
         );
         user.setIsDeleted(true);
         userRepository.save(user);
+        userPrincipalResolver.invalidar(user.getUsername());
+        cuentaUsuarioResolver.invalidarUsuario(id);
     }
     @Override
 /**
@@ -0,0 +1,101 @@
+package org.example.vivesbankproject.utils.pagination;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Respuesta paginada por clave (keyset), alternativa a {@link PageResponse} para listados muy grandes.
+ *
+ * <p>En lugar de número de página lleva un cursor opaco con el que pedir la página siguiente. El total
+ * de elementos solo se calcula si se pide, de modo que una página profunda cuesta lo mismo que la primera.</p>
+ *
+ * @param <T> Tipo de contenido de la página.
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+public record CursorPageResponse<T>(
+        /**
+         * Contenido de la página.
+         */
+        @Schema(description = "Contenido de la página")
+        List<T> content,
+
+        /**
+         * Tamaño de la página (número máximo de elementos por página).
+         */
+        @Schema(description = "Tamaño de la página")
+        int pageSize,
+
+        /**
+         * Número de elementos en la página actual.
+         */
+        @Schema(description = "Número total de elementos en la página actual")
+        int totalPageElements,
+
+        /**
+         * Indica si hay más elementos después de esta página.
+         */
+        @Schema(description = "Indica si hay una página siguiente")
+        boolean hasNext,
+
+        /**
+         * Cursor con el que pedir la página siguiente, o null si es la última.
+         */
+        @Schema(description = "Cursor opaco para pedir la página siguiente", nullable = true)
+        String nextCursor,
+
+        /**
+         * Número total de elementos, solo si se ha pedido.
+         */
+        @Schema(description = "Número total de elementos, solo si se ha solicitado", nullable = true)
+        Long totalElements,
+
+        /**
+         * Campo por el cual se ordenaron los elementos.
+         */
+        @Schema(description = "Campo por el cual se ordenaron los elementos")
+        String sortBy,
+
+        /**
+         * Dirección del ordenamiento (ascendente o descendente).
+         */
+        @Schema(description = "Dirección del ordenamiento (ascendente o descendente)")
+        String direction
+) {
+    /**
+     * Construye una página a partir de los elementos leídos con un elemento de más, que solo sirve para
+     * saber si existe una página siguiente.
+     *
+     * @param <T> Tipo del contenido de la página.
+     * @param elementos Elementos leídos, como mucho {@code pageSize + 1}.
+     * @param pageSize Tamaño de la página.
+     * @param cursor Función que obtiene la posición de un elemento.
+     * @param totalElements Número total de elementos, o null si no se ha calculado.
+     * @param sortBy Campo por el cual se ordenaron los elementos.
+     * @param direction Dirección del ordenamiento.
+     * @return Una instancia de {@code CursorPageResponse} con los datos proporcionados.
+     */
+    @Schema(description = "Crea un objeto CursorPageResponse a partir de los elementos leídos")
+    public static <T> CursorPageResponse<T> of(List<T> elementos, int pageSize, Function<T, KeysetCursor> cursor,
+                                               Long totalElements, String sortBy, String direction) {
+        boolean hasNext = elementos.size() > pageSize;
+        List<T> content = hasNext ? List.copyOf(elementos.subList(0, pageSize)) : List.copyOf(elementos);
+        String nextCursor = hasNext ? cursor.apply(content.get(content.size() - 1)).encode() : null;
+        return new CursorPageResponse<>(content, pageSize, content.size(), hasNext, nextCursor, totalElements, sortBy, direction);
+    }
+
+    /**
+     * Transforma el contenido de la página manteniendo la información de paginación.
+     *
+     * @param <R> Tipo del nuevo contenido.
+     * @param mapper Función de transformación de cada elemento.
+     * @return Una nueva página con el contenido transformado.
+     */
+    public <R> CursorPageResponse<R> map(Function<T, R> mapper) {
+        return new CursorPageResponse<>(content.stream().map(mapper).toList(), pageSize, totalPageElements,
+                hasNext, nextCursor, totalElements, sortBy, direction);
+    }
+}
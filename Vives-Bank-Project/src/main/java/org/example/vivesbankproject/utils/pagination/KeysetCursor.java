@@ -0,0 +1,57 @@
+package org.example.vivesbankproject.utils.pagination;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición de una paginación por clave (keyset): la fecha de creación y el identificador del último
+ * elemento devuelto. La siguiente página empieza justo después de esa posición, así que su coste no
+ * depende de cuántos elementos se hayan recorrido antes.
+ *
+ * <p>Se envía al cliente como un token opaco en Base64 para URL, que debe devolver tal cual.</p>
+ *
+ * @param createdAt Fecha de creación del último elemento de la página
+ * @param id        Identificador del último elemento de la página, para desempatar fechas iguales
+ *
+ * @author Jaime León, Natalia González, German Fernandez, Alba García, Mario de Domingo, Alvaro Herrero
+ * @version 1.0-SNAPSHOT
+ */
+@Schema(description = "Posición de la última fila de una página en la paginación por clave")
+public record KeysetCursor(LocalDateTime createdAt, String id) {
+
+    private static final char SEPARADOR = '|';
+
+    /**
+     * Codifica la posición como token opaco.
+     *
+     * @return Token para la siguiente página
+     */
+    public String encode() {
+        String valor = createdAt + String.valueOf(SEPARADOR) + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un token generado por {@link #encode()}.
+     *
+     * @param token Token recibido del cliente
+     * @return La posición codificada en el token
+     * @throws IllegalArgumentException si el token no es válido
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separador = valor.indexOf(SEPARADOR);
+            if (separador <= 0 || separador == valor.length() - 1) {
+                throw new IllegalArgumentException("Cursor de paginación no válido: " + token);
+            }
+            return new KeysetCursor(LocalDateTime.parse(valor.substring(0, separador)), valor.substring(separador + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido: " + token, e);
+        }
+    }
+}
@@ -65,6 +65,38 @@ public class PaginationLinksUtils {
         return linkHeader.toString();
     }
 
+    /**
+     * Crea la cabecera de enlaces para la navegación de una paginación por clave (keyset).
+     *
+     * <p>Solo se pueden generar los enlaces 'next', con el cursor de la página siguiente, y 'first',
+     * sin cursor; no hay número de página con el que construir 'prev' o 'last'.</p>
+     *
+     * @param page Página actual con el cursor de la página siguiente.
+     * @param uriBuilder Herramienta para construir URIs con parámetros específicos.
+     * @return Una cadena con los enlaces de navegación en el formato de cabecera HTTP.
+     */
+    @Operation(summary = "Genera los encabezados de enlace para la navegación de paginación por cursor")
+    public String createCursorLinkHeader(
+            @Schema(description = "Página actual con el cursor de la página siguiente") CursorPageResponse<?> page,
+            @Schema(description = "Herramienta para construir las URIs de navegación", implementation = UriComponentsBuilder.class)
+            UriComponentsBuilder uriBuilder) {
+
+        final StringBuilder linkHeader = new StringBuilder();
+
+        if (page.hasNext()) {
+            String uri = uriBuilder.cloneBuilder().replaceQueryParam("cursor", page.nextCursor())
+                    .replaceQueryParam("size", page.pageSize()).build().encode().toUriString();
+            linkHeader.append(buildLinkHeader(uri, "next"));
+        }
+
+        String first = uriBuilder.cloneBuilder().replaceQueryParam("cursor")
+                .replaceQueryParam("size", page.pageSize()).build().encode().toUriString();
+        appendCommaIfNecessary(linkHeader);
+        linkHeader.append(buildLinkHeader(first, "first"));
+
+        return linkHeader.toString();
+    }
+
     /**
      * Construye una URI específica para el enlace de navegación.
      *
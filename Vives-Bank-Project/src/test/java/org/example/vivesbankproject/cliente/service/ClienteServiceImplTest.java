@@ -15,6 +15,7 @@ import org.example.vivesbankproject.rest.cuenta.mappers.TipoCuentaMapper;
 import org.example.vivesbankproject.rest.cuenta.models.TipoCuenta;
 import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
 import org.example.vivesbankproject.rest.cuenta.repositories.TipoCuentaRepository;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
 import org.example.vivesbankproject.rest.storage.images.services.StorageImagesService;
 import org.example.vivesbankproject.rest.tarjeta.models.TipoTarjeta;
 import org.example.vivesbankproject.rest.tarjeta.repositories.TarjetaRepository;
@@ -32,7 +33,6 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -52,9 +52,9 @@ class ClienteServiceImplTest {
     @Mock private TarjetaRepository tarjetaRepository;
     @Mock private UserRepository userRepository;
     @Mock private CuentaRepository cuentaRepository;
-    @Mock private RedisTemplate<String, String> redisTemplate;
     @Mock private TipoCuentaRepository tipoCuentaRepository;
     @Mock private TipoCuentaMapper tipoCuentaMapper;
+    @Mock private CuentaUsuarioResolver cuentaUsuarioResolver;
     @InjectMocks private ClienteServiceImpl clienteService;
 
     private Cliente cliente;
@@ -243,6 +243,7 @@ class ClienteServiceImplTest {
 
         assertTrue(cliente.getIsDeleted());
         verify(clienteRepository).save(cliente);
+        verify(cuentaUsuarioResolver).invalidarCliente(cliente.getGuid());
     }
 
     @Test
@@ -497,11 +498,9 @@ class ClienteServiceImplTest {
     @Test
     void derechoAlOlvido() {
         String userGuid = "user-guid";
-        Set<String> mockKeys = Set.of("clientes:1", "clientes:2");
 
         when(userRepository.findByGuid(userGuid)).thenReturn(Optional.of(user));
         when(clienteRepository.findByUserGuid(userGuid)).thenReturn(Optional.of(cliente));
-        when(redisTemplate.keys("clientes::*")).thenReturn(mockKeys);
 
         String result = clienteService.derechoAlOlvido(userGuid);
 
@@ -510,8 +509,6 @@ class ClienteServiceImplTest {
 
         verify(clienteRepository).delete(cliente);
         verify(userRepository).delete(user);
-        verify(redisTemplate).keys("clientes::*");
-        verify(redisTemplate).delete(mockKeys);
     }
 
     @Test
@@ -0,0 +1,68 @@
+package org.example.vivesbankproject.config.auth;
+
+import org.example.vivesbankproject.rest.auth.services.jwt.JwtServiceImpl;
+import org.example.vivesbankproject.rest.auth.services.jwt.TokenVerificadoCache;
+import org.example.vivesbankproject.rest.users.models.User;
+import org.example.vivesbankproject.rest.users.services.UserPrincipalResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Autentica muchas peticiones seguidas con el mismo token JWT a través de {@link JwtAuthenticationFilter}
+ * con las claves RSA reales y comprueba que el token se verifica una sola vez y que todas las peticiones
+ * quedan autenticadas.
+ * <p>
+ * Se ejecuta solo con {@code BENCHMARK_JWT=true}. La carga de usuarios se simula en memoria. Los tiempos
+ * dependen de la máquina, así que no se comprueban aquí.
+ * </p>
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_JWT", matches = "true")
+class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final int PETICIONES = 20_000;
+
+    @Test
+    void muchasPeticionesConElMismoTokenLoVerificanUnaVez() throws Exception {
+        TokenVerificadoCache cache = new TokenVerificadoCache(100_000, Duration.ofMinutes(10), System::nanoTime);
+        JwtServiceImpl jwtService = new JwtServiceImpl(new ClassPathResource("private_key_pkcs8.pem"),
+                new ClassPathResource("public_key.pem"), cache);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600L);
+        User user = User.builder().username("user").password("password").build();
+        String token = jwtService.generateToken(user);
+
+        UserPrincipalResolver userPrincipalResolver = mock(UserPrincipalResolver.class);
+        when(userPrincipalResolver.resolver("user")).thenReturn(user);
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtService, userPrincipalResolver);
+
+        int autenticadas = 0;
+        for (int i = 0; i < PETICIONES; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/cuentas/me");
+            request.addHeader("Authorization", "Bearer " + token);
+            try {
+                filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+                Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+                if (authentication != null && authentication.getPrincipal() == user) {
+                    autenticadas++;
+                }
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        }
+
+        assertEquals(PETICIONES, autenticadas);
+        assertEquals(1, cache.size());
+        verify(userPrincipalResolver, times(PETICIONES)).resolver("user");
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.vivesbankproject.config.auth;
+
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import org.example.vivesbankproject.rest.auth.dto.TokenVerificado;
+import org.example.vivesbankproject.rest.auth.services.jwt.JwtService;
+import org.example.vivesbankproject.rest.users.exceptions.UserNotFoundException;
+import org.example.vivesbankproject.rest.users.models.User;
+import org.example.vivesbankproject.rest.users.services.UserPrincipalResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String TOKEN = "token.de.prueba";
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserPrincipalResolver userPrincipalResolver;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private MockFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(jwtService, userPrincipalResolver);
+        request = new MockHttpServletRequest("GET", "/v1/cuentas/me");
+        response = new MockHttpServletResponse();
+        chain = new MockFilterChain();
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void sinCabeceraContinuaSinAutenticar() throws Exception {
+        filter.doFilter(request, response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(jwtService, userPrincipalResolver);
+    }
+
+    @Test
+    void tokenValidoSeVerificaUnaSolaVez() throws Exception {
+        User user = User.builder().username("user").password("password").build();
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        when(jwtService.verifyToken(TOKEN)).thenReturn(new TokenVerificado("user", Instant.now().plusSeconds(3600)));
+        when(userPrincipalResolver.resolver("user")).thenReturn(user);
+
+        filter.doFilter(request, response, chain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertAll(
+                () -> assertNotNull(chain.getRequest()),
+                () -> assertNotNull(authentication),
+                () -> assertSame(user, authentication.getPrincipal())
+        );
+        verify(jwtService).verifyToken(TOKEN);
+        verify(userPrincipalResolver).resolver("user");
+        verifyNoMoreInteractions(jwtService, userPrincipalResolver);
+    }
+
+    @Test
+    void usuarioInexistenteDevuelve401() throws Exception {
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        when(jwtService.verifyToken(TOKEN)).thenReturn(new TokenVerificado("borrado", Instant.now().plusSeconds(3600)));
+        when(userPrincipalResolver.resolver("borrado")).thenThrow(new UserNotFoundException("borrado"));
+
+        filter.doFilter(request, response, chain);
+
+        assertAll(
+                () -> assertEquals(401, response.getStatus()),
+                () -> assertNull(chain.getRequest())
+        );
+    }
+
+    @Test
+    void tokenNoValidoDevuelve401() throws Exception {
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        when(jwtService.verifyToken(TOKEN)).thenThrow(new SignatureVerificationException(null));
+
+        filter.doFilter(request, response, chain);
+
+        assertAll(
+                () -> assertEquals(401, response.getStatus()),
+                () -> assertNull(chain.getRequest())
+        );
+        verifyNoInteractions(userPrincipalResolver);
+    }
+
+    @Test
+    void tokenCaducadoNoAutentica() throws Exception {
+        User user = User.builder().username("user").password("password").build();
+        request.addHeader("Authorization", "Bearer " + TOKEN);
+        when(jwtService.verifyToken(TOKEN)).thenReturn(new TokenVerificado("user", Instant.now().minusSeconds(1)));
+        when(userPrincipalResolver.resolver("user")).thenReturn(user);
+
+        filter.doFilter(request, response, chain);
+
+        assertNotNull(chain.getRequest());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.vivesbankproject.config.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Vacía con {@link ScanUnlinkBatchStrategy} una caché de un millón de claves en un Redis local y comprueba
+ * que se eliminan todas sus claves y ninguna de otras cachés.
+ * <p>
+ * Se ejecuta solo con {@code BENCHMARK_REDIS=true}; el host y el puerto se toman de {@code REDIS_HOST}
+ * y {@code REDIS_PORT} (por defecto localhost:6379). Los tiempos dependen de la máquina, así que no se
+ * comprueban aquí.
+ * </p>
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_REDIS", matches = "true")
+class ScanUnlinkBatchStrategyBenchmarkTest {
+
+    private static final int CLAVES = 1_000_000;
+    private static final String PREFIJO = "benchmark::";
+    private static final byte[] OTRA_CACHE = "benchmark-otra::0".getBytes(StandardCharsets.UTF_8);
+
+    private JedisConnectionFactory connectionFactory;
+
+    @BeforeEach
+    void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getenv().getOrDefault("REDIS_HOST", "localhost"),
+                Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379")));
+        connectionFactory = new JedisConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.keyCommands().del(OTRA_CACHE);
+        }
+        connectionFactory.destroy();
+    }
+
+    private void poblar() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            byte[] valor = "valor".getBytes(StandardCharsets.UTF_8);
+            for (int inicio = 0; inicio < CLAVES; inicio += 10_000) {
+                connection.openPipeline();
+                for (int i = inicio; i < Math.min(inicio + 10_000, CLAVES); i++) {
+                    connection.stringCommands().set((PREFIJO + i).getBytes(StandardCharsets.UTF_8), valor);
+                }
+                connection.closePipeline();
+            }
+            connection.stringCommands().set(OTRA_CACHE, valor);
+        }
+    }
+
+    private long contarClaves() {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            return connection.keyCommands().keys((PREFIJO + "*").getBytes(StandardCharsets.UTF_8)).size();
+        }
+    }
+
+    @Test
+    void scanUnlinkVaciaUnMillonDeClaves() {
+        byte[] patron = (PREFIJO + "*").getBytes(StandardCharsets.UTF_8);
+        poblar();
+
+        ScanUnlinkBatchStrategy estrategia = new ScanUnlinkBatchStrategy(1000);
+        long eliminadas;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            eliminadas = estrategia.cleanCache(connection, "benchmark", patron);
+        }
+
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            assertAll(
+                    () -> assertEquals(CLAVES, eliminadas),
+                    () -> assertEquals(0, contarClaves()),
+                    () -> assertTrue(connection.keyCommands().exists(OTRA_CACHE))
+            );
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.vivesbankproject.config.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScanUnlinkBatchStrategyTest {
+
+    private static final byte[] CLAVE_1 = "cliente::1".getBytes();
+    private static final byte[] CLAVE_2 = "cliente::2".getBytes();
+    private static final byte[] CLAVE_3 = "cliente::3".getBytes();
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisKeyCommands keyCommands;
+
+    @Mock
+    private Cursor<byte[]> cursor;
+
+    @Test
+    void cleanCacheEliminaPorLotes() {
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(keyCommands.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, true, true, false);
+        when(cursor.next()).thenReturn(CLAVE_1, CLAVE_2, CLAVE_3);
+        when(keyCommands.unlink(CLAVE_1, CLAVE_2)).thenReturn(2L);
+        when(keyCommands.unlink(CLAVE_3)).thenReturn(1L);
+
+        long eliminadas = new ScanUnlinkBatchStrategy(2).cleanCache(connection, "cliente", "cliente::*".getBytes());
+
+        assertEquals(3, eliminadas);
+        verify(keyCommands).unlink(CLAVE_1, CLAVE_2);
+        verify(keyCommands).unlink(CLAVE_3);
+        verify(keyCommands, never()).keys(any());
+        verify(cursor).close();
+    }
+
+    @Test
+    void cleanCacheSinClavesNoEliminaNada() {
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(keyCommands.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(false);
+
+        long eliminadas = new ScanUnlinkBatchStrategy(100).cleanCache(connection, "cliente", "cliente::*".getBytes());
+
+        assertEquals(0, eliminadas);
+        verify(keyCommands, never()).unlink(any(byte[][].class));
+    }
+
+    @Test
+    void tamanoLoteNoValido() {
+        assertThrows(IllegalArgumentException.class, () -> new ScanUnlinkBatchStrategy(0));
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.vivesbankproject.config.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoLevelCacheManagerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrentMapCacheManager remoto;
+    private List<String> publicados;
+    private TwoLevelCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        remoto = new ConcurrentMapCacheManager();
+        publicados = new ArrayList<>();
+        cacheManager = new TwoLevelCacheManager(remoto,
+                nombre -> new TwoLevelCacheManager.Ajustes(100, Duration.ofMinutes(1)),
+                publicados::add, meterRegistry);
+    }
+
+    private DefaultMessage mensaje(String json) {
+        return new DefaultMessage("cache:invalidaciones".getBytes(StandardCharsets.UTF_8), json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getCacheDevuelveSiempreLaMisma() {
+        Cache cliente = cacheManager.getCache("cliente");
+
+        assertAll(
+                () -> assertInstanceOf(TwoLevelCache.class, cliente),
+                () -> assertSame(cliente, cacheManager.getCache("cliente")),
+                () -> assertTrue(cacheManager.getCacheNames().contains("cliente"))
+        );
+    }
+
+    @Test
+    void invalidacionDeOtroNodoDescartaLaCopiaLocal() {
+        Cache cuenta = cacheManager.getCache("cuenta");
+        cuenta.put("1111aaaa", "cuenta");
+        remoto.getCache("cuenta").put("1111aaaa", "cuenta actualizada");
+
+        cacheManager.onMessage(mensaje("{\"nodo\":\"otro\",\"cache\":\"cuenta\",\"clave\":\"1111aaaa\"}"), null);
+
+        assertAll(
+                () -> assertEquals("cuenta actualizada", cuenta.get("1111aaaa").get()),
+                () -> assertEquals(1.0, meterRegistry.get("cache.invalidaciones.recibidas").counter().count())
+        );
+    }
+
+    @Test
+    void invalidacionPropiaSeIgnora() {
+        Cache cuenta = cacheManager.getCache("cuenta");
+        cuenta.put("1111aaaa", "cuenta");
+        remoto.getCache("cuenta").put("1111aaaa", "cuenta actualizada");
+
+        cacheManager.onMessage(mensaje(publicados.get(0)), null);
+
+        assertAll(
+                () -> assertEquals("cuenta", cuenta.get("1111aaaa").get()),
+                () -> assertEquals(0.0, meterRegistry.get("cache.invalidaciones.recibidas").counter().count())
+        );
+    }
+
+    @Test
+    void invalidacionSinClaveVaciaLaCacheLocal() {
+        Cache usuario = cacheManager.getCache("usuario");
+        usuario.put("1111aaaa", "usuario");
+        usuario.put("2222bbbb", "admin");
+        remoto.getCache("usuario").clear();
+
+        cacheManager.onMessage(mensaje("{\"nodo\":\"otro\",\"cache\":\"usuario\",\"clave\":null}"), null);
+
+        assertAll(
+                () -> assertNull(usuario.get("1111aaaa")),
+                () -> assertNull(usuario.get("2222bbbb"))
+        );
+    }
+
+    @Test
+    void mensajeNoValidoSeIgnora() {
+        cacheManager.getCache("cliente");
+
+        assertDoesNotThrow(() -> cacheManager.onMessage(mensaje("no es json"), null));
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.vivesbankproject.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoLevelCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private ConcurrentMapCache remoto;
+    private List<String> publicadas;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        local = Caffeine.newBuilder().maximumSize(100).build();
+        remoto = new ConcurrentMapCache("cliente");
+        publicadas = new ArrayList<>();
+        cache = new TwoLevelCache("cliente", local, remoto, (nombre, clave) -> publicadas.add(nombre + ":" + clave), meterRegistry);
+    }
+
+    private double accesos(String nivel, String resultado) {
+        return meterRegistry.get("cache.accesos")
+                .tag("cache", "cliente")
+                .tag("nivel", nivel)
+                .tag("resultado", resultado)
+                .counter().count();
+    }
+
+    private Object enL1(String clave) {
+        return local.getIfPresent(clave);
+    }
+
+    @Test
+    void putEscribeEnAmbosNivelesYPublica() {
+        cache.put("1111aaaa", "cliente");
+
+        assertAll(
+                () -> assertEquals("cliente", enL1("1111aaaa")),
+                () -> assertEquals("cliente", remoto.get("1111aaaa").get()),
+                () -> assertEquals(List.of("cliente:1111aaaa"), publicadas)
+        );
+    }
+
+    @Test
+    void getDesdeL2CopiaALaL1() {
+        remoto.put("1111aaaa", "cliente");
+
+        assertEquals("cliente", cache.get("1111aaaa").get());
+        assertEquals("cliente", cache.get("1111aaaa").get());
+
+        assertAll(
+                () -> assertEquals("cliente", enL1("1111aaaa")),
+                () -> assertEquals(1.0, accesos("l1", "acierto")),
+                () -> assertEquals(1.0, accesos("l1", "fallo")),
+                () -> assertEquals(1.0, accesos("l2", "acierto")),
+                () -> assertEquals(0.0, accesos("l2", "fallo"))
+        );
+    }
+
+    @Test
+    void lecturaDesdeL1DevuelveLaInstanciaGuardada() {
+        List<String> valor = List.of("cuenta-1");
+        cache.put("1111aaaa", valor);
+        remoto.clear();
+
+        assertAll(
+                () -> assertSame(valor, cache.get("1111aaaa").get()),
+                () -> assertSame(valor, cache.get("1111aaaa").get()),
+                () -> assertEquals(2.0, accesos("l1", "acierto")),
+                () -> assertEquals(0.0, accesos("l2", "acierto"))
+        );
+    }
+
+    @Test
+    void valorNuloSeGuardaEnL1() {
+        cache.put("1111aaaa", null);
+
+        assertAll(
+                () -> assertNotNull(cache.get("1111aaaa")),
+                () -> assertNull(cache.get("1111aaaa").get()),
+                () -> assertEquals(2.0, accesos("l1", "acierto"))
+        );
+    }
+
+    @Test
+    void getSinValorEsFalloEnAmbosNiveles() {
+        assertNull(cache.get("no-existe"));
+
+        assertAll(
+                () -> assertEquals(1.0, accesos("l1", "fallo")),
+                () -> assertEquals(1.0, accesos("l2", "fallo"))
+        );
+    }
+
+    @Test
+    void getConCargadorLlamaUnaSolaVez() {
+        AtomicInteger cargas = new AtomicInteger();
+
+        String primero = cache.get("1111aaaa", () -> "cliente" + cargas.incrementAndGet());
+        String segundo = cache.get("1111aaaa", () -> "cliente" + cargas.incrementAndGet());
+
+        assertAll(
+                () -> assertEquals("cliente1", primero),
+                () -> assertEquals("cliente1", segundo),
+                () -> assertEquals(1, cargas.get()),
+                () -> assertEquals("cliente1", remoto.get("1111aaaa").get())
+        );
+    }
+
+    @Test
+    void evictEliminaDeAmbosNivelesYPublica() {
+        cache.put("1111aaaa", "cliente");
+        publicadas.clear();
+
+        cache.evict("1111aaaa");
+
+        assertAll(
+                () -> assertNull(local.getIfPresent("1111aaaa")),
+                () -> assertNull(remoto.get("1111aaaa")),
+                () -> assertEquals(List.of("cliente:1111aaaa"), publicadas)
+        );
+    }
+
+    @Test
+    void clearPublicaInvalidacionCompleta() {
+        cache.put("1111aaaa", "cliente");
+        publicadas.clear();
+
+        cache.clear();
+
+        assertAll(
+                () -> assertEquals(0, local.estimatedSize()),
+                () -> assertEquals(List.of("cliente:null"), publicadas)
+        );
+    }
+
+    @Test
+    void invalidarLocalNoTocaLaL2() {
+        cache.put("1111aaaa", "cliente");
+
+        cache.invalidarLocal("1111aaaa");
+
+        assertAll(
+                () -> assertNull(local.getIfPresent("1111aaaa")),
+                () -> assertEquals("cliente", remoto.get("1111aaaa").get())
+        );
+    }
+
+    @Test
+    void errorAlPublicarNoFallaLaOperacion() {
+        TwoLevelCache sinCanal = new TwoLevelCache("cuenta", local, remoto,
+                (nombre, clave) -> { throw new IllegalStateException("Redis no disponible"); }, meterRegistry);
+
+        assertDoesNotThrow(() -> sinCanal.put("1111aaaa", "cuenta"));
+        assertEquals("cuenta", sinCanal.get("1111aaaa").get());
+    }
+}
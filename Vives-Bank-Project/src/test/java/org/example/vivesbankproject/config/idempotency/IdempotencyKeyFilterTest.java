@@ -0,0 +1,307 @@
+package org.example.vivesbankproject.config.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyKeyFilterTest {
+
+    private static final String CUERPO_TRANSFERENCIA = "{\"iban_Origen\":\"ES64123412344820495463\",\"cantidad\":\"100\"}";
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final AtomicInteger ejecuciones = new AtomicInteger();
+    private IdempotencyKeyFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(inv -> redis.putIfAbsent(inv.getArgument(0), inv.getArgument(1)) == null);
+        lenient().doAnswer(inv -> redis.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        lenient().when(valueOperations.get(anyString())).thenAnswer(inv -> redis.get(inv.<String>getArgument(0)));
+        lenient().when(redisTemplate.delete(anyString())).thenAnswer(inv -> redis.remove(inv.<String>getArgument(0)) != null);
+
+        filter = new IdempotencyKeyFilter(redisTemplate, new SimpleMeterRegistry(), "v1", 24, 30000, 5000);
+        autenticar("user");
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.detener();
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void autenticar(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+
+    private static MockHttpServletRequest peticion(String ruta, String clave, String cuerpo) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", ruta);
+        request.setContentType("application/json");
+        request.setContent(cuerpo.getBytes(StandardCharsets.UTF_8));
+        if (clave != null) {
+            request.addHeader(IdempotencyKeyFilter.CABECERA, clave);
+        }
+        return request;
+    }
+
+    /**
+     * Cadena que simula el controlador: lee el cuerpo y devuelve un movimiento con un guid distinto en cada ejecución.
+     */
+    private FilterChain controlador(int status) {
+        return (req, res) -> {
+            String cuerpo = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals(CUERPO_TRANSFERENCIA, cuerpo);
+            int ejecucion = ejecuciones.incrementAndGet();
+            ((HttpServletResponse) res).setStatus(status);
+            res.setContentType("application/json");
+            res.getOutputStream().write(("{\"guid\":\"movimiento-" + ejecucion + "\"}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    @Test
+    void primeraPeticionSeEjecutaYSeGuarda() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(peticion("/v1/me/transferencia", "clave-1", CUERPO_TRANSFERENCIA), response, controlador(200));
+
+        assertAll(
+                () -> assertEquals(1, ejecuciones.get()),
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals("{\"guid\":\"movimiento-1\"}", response.getContentAsString()),
+                () -> assertNull(response.getHeader(IdempotencyKeyFilter.CABECERA_REPETIDA)),
+                () -> assertTrue(redis.get("idempotencia:user:clave-1").contains("movimiento-1"))
+        );
+    }
+
+    @Test
+    void repeticionDevuelveLaRespuestaGuardadaSinEjecutar() throws Exception {
+        filter.doFilter(peticion("/v1/me/transferencia", "clave-1", CUERPO_TRANSFERENCIA),
+                new MockHttpServletResponse(), controlador(200));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(peticion("/v1/me/transferencia", "clave-1", CUERPO_TRANSFERENCIA), response, controlador(200));
+
+        assertAll(
+                () -> assertEquals(1, ejecuciones.get()),
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals("{\"guid\":\"movimiento-1\"}", response.getContentAsString()),
+                () -> assertEquals("application/json", response.getContentType()),
+                () -> assertEquals("true", response.getHeader(IdempotencyKeyFilter.CABECERA_REPETIDA))
+        );
+    }
+
+    @Test
+    void mismaClaveDeOtroUsuarioSeEjecuta() throws Exception {
+        filter.doFilter(peticion("/v1/me/transferencia", "clave-1", CUERPO_TRANSFERENCIA),
+                new MockHttpServletResponse(), controlador(200));
+        autenticar("admin");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(peticion("/v1/me/transferencia", "clave-1", CUERPO_TRANSFERENCIA), response, controlador(200));
+
+        assertAll(
+                () -> assertEquals(2, ejecuciones.get()),
+                () -> assertEquals("{\"guid\":\"movimiento-2\"}", response.getContentAsString())
+        );
+    }
+
+    @Test
+    void claveConOtraPeticionDevuelve422() throws Exception {
+        filter.doFilter(peticion("/v1/me/transferencia", "clave-1", CUERPO_TRANSFERENCIA),
+                new MockHttpServletResponse(), controlador(200));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(peticion("/v1/me/transferencia", "clave-1", "{\"cantidad\":\"999\"}"), response, controlador(200));
+
+        assertAll(
+                () -> assertEquals(1, ejecuciones.get()),
+                () -> assertEquals(422, response.getStatus())
+        );
+    }
+
+    @Test
+    void errorDelServidorLiberaLaClave() throws Exception {
+        filter.doFilter(peticion("/v1/me/pagotarjeta", "clave-1", CUERPO_TRANSFERENCIA),
+                new MockHttpServletResponse(), controlador(500));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(peticion("/v1/me/pagotarjeta", "clave-1", CUERPO_TRANSFERENCIA), response, controlador(200));
+
+        assertAll(
+                () -> assertEquals(2, ejecuciones.get()),
+                () -> assertEquals(200, response.getStatus())
+        );
+    }
+
+    @Test
+    void duplicadosConcurrentesSeEjecutanUnaVez() throws Exception {
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        FilterChain lento = (req, res) -> {
+            dentro.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            controlador(201).doFilter(req, res);
+        };
+
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        try {
+            Callable<MockHttpServletResponse> llamada = () -> {
+                autenticar("user");
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                filter.doFilter(peticion("/v1/me/ingresonomina", "clave-1", CUERPO_TRANSFERENCIA), response, lento);
+                return response;
+            };
+            Future<MockHttpServletResponse> original = hilos.submit(llamada);
+            assertTrue(dentro.await(5, TimeUnit.SECONDS));
+            List<Future<MockHttpServletResponse>> repetidas = List.of(
+                    hilos.submit(llamada), hilos.submit(llamada), hilos.submit(llamada));
+            Thread.sleep(100);
+            liberar.countDown();
+
+            assertEquals(201, original.get(5, TimeUnit.SECONDS).getStatus());
+            for (Future<MockHttpServletResponse> repetida : repetidas) {
+                MockHttpServletResponse response = repetida.get(5, TimeUnit.SECONDS);
+                assertAll(
+                        () -> assertEquals(201, response.getStatus()),
+                        () -> assertEquals("{\"guid\":\"movimiento-1\"}", response.getContentAsString())
+                );
+            }
+            assertEquals(1, ejecuciones.get());
+        } finally {
+            hilos.shutdownNow();
+        }
+    }
+
+    @Test
+    void lecturaNoBloqueanteRecibeElCuerpo() throws Exception {
+        ByteArrayOutputStream leido = new ByteArrayOutputStream();
+        AtomicInteger completadas = new AtomicInteger();
+        FilterChain asincrono = (req, res) -> {
+            ServletInputStream entrada = req.getInputStream();
+            entrada.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] bufer = new byte[16];
+                    while (entrada.isReady() && !entrada.isFinished()) {
+                        int n = entrada.read(bufer);
+                        if (n > 0) {
+                            leido.write(bufer, 0, n);
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    completadas.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+            ((HttpServletResponse) res).setStatus(200);
+        };
+
+        filter.doFilter(peticion("/v1/me/transferencia", "clave-1", CUERPO_TRANSFERENCIA), new MockHttpServletResponse(), asincrono);
+
+        assertAll(
+                () -> assertEquals(CUERPO_TRANSFERENCIA, leido.toString(StandardCharsets.UTF_8)),
+                () -> assertEquals(1, completadas.get())
+        );
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reservaSeRenuevaMientrasLaPeticionSigueEnCurso() throws Exception {
+        filter.detener();
+        filter = new IdempotencyKeyFilter(redisTemplate, new SimpleMeterRegistry(), "v1", 24, 90, 5000);
+        FilterChain lento = (req, res) -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            controlador(200).doFilter(req, res);
+        };
+
+        filter.doFilter(peticion("/v1/me/transferencia", "clave-1", CUERPO_TRANSFERENCIA), new MockHttpServletResponse(), lento);
+
+        verify(redisTemplate, atLeast(2)).execute(any(RedisScript.class), eq(List.of("idempotencia:user:clave-1")),
+                contains("\"completada\":false"), eq("90"));
+    }
+
+    @Test
+    void peticionSinCabeceraNoSeControla() throws Exception {
+        filter.doFilter(peticion("/v1/me/transferencia", null, CUERPO_TRANSFERENCIA),
+                new MockHttpServletResponse(), controlador(200));
+        filter.doFilter(peticion("/v1/me/transferencia", null, CUERPO_TRANSFERENCIA),
+                new MockHttpServletResponse(), controlador(200));
+
+        assertEquals(2, ejecuciones.get());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void otraRutaNoSeControla() throws Exception {
+        filter.doFilter(peticion("/v1/clientes", "clave-1", CUERPO_TRANSFERENCIA),
+                new MockHttpServletResponse(), controlador(200));
+
+        assertEquals(1, ejecuciones.get());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void claveDemasiadoLargaDevuelve400() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(peticion("/v1/me/transferencia", "x".repeat(101), CUERPO_TRANSFERENCIA), response, controlador(200));
+
+        assertAll(
+                () -> assertEquals(400, response.getStatus()),
+                () -> assertEquals(0, ejecuciones.get())
+        );
+    }
+}
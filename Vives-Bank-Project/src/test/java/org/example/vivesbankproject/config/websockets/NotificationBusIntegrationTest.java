@@ -0,0 +1,142 @@
+package org.example.vivesbankproject.config.websockets;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Levanta dos nodos en el mismo proceso, cada uno con su contexto de Spring, su despachador y su handler
+ * WebSocket, conectados a un Redis local, y comprueba que una notificación publicada en un nodo se entrega
+ * en la sesión abierta contra el otro.
+ * <p>
+ * Se ejecuta solo con {@code INTEGRACION_REDIS=true}; el host y el puerto se toman de {@code REDIS_HOST}
+ * y {@code REDIS_PORT} (por defecto localhost:6379).
+ * </p>
+ */
+@EnabledIfEnvironmentVariable(named = "INTEGRACION_REDIS", matches = "true")
+class NotificationBusIntegrationTest {
+
+    private AnnotationConfigApplicationContext nodoA;
+    private AnnotationConfigApplicationContext nodoB;
+
+    @BeforeEach
+    void setUp() {
+        // Un canal propio por ejecución para no recibir notificaciones de otras pruebas contra el mismo Redis
+        String canal = "test:notificaciones:" + UUID.randomUUID();
+        nodoA = nodo(canal);
+        nodoB = nodo(canal);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodoA.close();
+        nodoB.close();
+    }
+
+    private AnnotationConfigApplicationContext nodo(String canal) {
+        AnnotationConfigApplicationContext contexto = new AnnotationConfigApplicationContext();
+        contexto.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "websocket.notificaciones.canal", canal,
+                "websocket.notificaciones.particiones-canal", "4",
+                "websocket.notificaciones.trabajadores", "2")));
+        contexto.register(Nodo.class);
+        contexto.refresh();
+        return contexto;
+    }
+
+    private WebSocketSession conectar(AnnotationConfigApplicationContext nodo, String username) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(Map.of("username", username));
+        when(session.isOpen()).thenReturn(true);
+        nodo.getBean(WebSocketHandler.class).afterConnectionEstablished(session);
+        return session;
+    }
+
+    private void enviar(AnnotationConfigApplicationContext nodo, String username, String json) {
+        nodo.getBean(NotificationDispatcher.class).enviar(nodo.getBean(WebSocketHandler.class), username, json);
+    }
+
+    private double recibidas(AnnotationConfigApplicationContext nodo, String resultado) {
+        return nodo.getBean(MeterRegistry.class).get("websocket.notificaciones.recibidas")
+                .tag("resultado", resultado).counter().count();
+    }
+
+    @Test
+    void laNotificacionLlegaAlNodoConLaSesion() throws Exception {
+        WebSocketSession sesionB = conectar(nodoB, "usuarioB");
+        WebSocketSession sesionA = conectar(nodoA, "usuarioA");
+
+        enviar(nodoA, "usuarioB", "{\"para\":\"B\"}");
+        enviar(nodoB, "usuarioA", "{\"para\":\"A\"}");
+
+        verify(sesionB, timeout(5000)).sendMessage(new TextMessage("{\"para\":\"B\"}"));
+        verify(sesionA, timeout(5000)).sendMessage(new TextMessage("{\"para\":\"A\"}"));
+        assertAll(
+                () -> assertEquals(1.0, recibidas(nodoA, "sesion_local")),
+                () -> assertEquals(1.0, recibidas(nodoA, "sin_sesion")),
+                () -> assertEquals(1.0, recibidas(nodoB, "sesion_local")),
+                () -> assertEquals(1.0, recibidas(nodoB, "sin_sesion")),
+                () -> assertEquals(1.0, nodoA.getBean(MeterRegistry.class).get("websocket.notificaciones.publicadas").counter().count())
+        );
+    }
+
+    @Test
+    void lasNotificacionesDeUnUsuarioLleganEnOrden() throws Exception {
+        WebSocketSession web = conectar(nodoB, "usuarioB");
+        WebSocketSession movil = conectar(nodoA, "usuarioB");
+        int mensajes = 200;
+
+        for (int i = 0; i < mensajes; i++) {
+            enviar(nodoA, "usuarioB", String.valueOf(i));
+        }
+
+        verify(web, timeout(10000)).sendMessage(new TextMessage(String.valueOf(mensajes - 1)));
+        verify(movil, timeout(10000)).sendMessage(new TextMessage(String.valueOf(mensajes - 1)));
+        for (WebSocketSession sesion : new WebSocketSession[]{web, movil}) {
+            var orden = inOrder(sesion);
+            for (int i = 0; i < mensajes; i++) {
+                orden.verify(sesion).sendMessage(new TextMessage(String.valueOf(i)));
+            }
+        }
+    }
+
+    @Configuration
+    @Import({NotificationBus.class, NotificationDispatcher.class})
+    static class Nodo {
+
+        @Bean
+        JedisConnectionFactory connectionFactory() {
+            return new JedisConnectionFactory(new RedisStandaloneConfiguration(
+                    System.getenv().getOrDefault("REDIS_HOST", "localhost"),
+                    Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"))));
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        WebSocketHandler webSocketMovimientosHandler() {
+            return new WebSocketHandler("Movimientos");
+        }
+    }
+}
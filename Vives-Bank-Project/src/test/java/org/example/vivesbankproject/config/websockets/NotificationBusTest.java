@@ -0,0 +1,40 @@
+package org.example.vivesbankproject.config.websockets;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class NotificationBusTest {
+
+    @Test
+    void codificarYDecodificarConservanElMensaje() {
+        String json = "{\"texto\":\"línea 1\nlínea 2\"}";
+
+        NotificationBus.Notificacion notificacion = NotificationBus.decodificar(
+                NotificationBus.codificar("Movimientos", "usuarioTest", json).getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(new NotificationBus.Notificacion("Movimientos", "usuarioTest", json), notificacion);
+    }
+
+    @Test
+    void decodificarRechazaMensajesSinCabecera() {
+        assertThrows(IllegalArgumentException.class,
+                () -> NotificationBus.decodificar("Movimientos".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void canalRepartePorUsuario() {
+        NotificationBus bus = new NotificationBus(mock(RedisConnectionFactory.class), new SimpleMeterRegistry(), "ws", 4);
+
+        assertAll(
+                () -> assertEquals(bus.canal("usuarioTest"), bus.canal("usuarioTest")),
+                () -> assertTrue(bus.canal("usuarioTest").matches("ws:[0-3]")),
+                () -> assertEquals("ws:" + Math.floorMod("otro".hashCode(), 4), bus.canal("otro"))
+        );
+    }
+}
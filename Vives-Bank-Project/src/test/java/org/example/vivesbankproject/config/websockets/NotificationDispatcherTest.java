@@ -0,0 +1,197 @@
+package org.example.vivesbankproject.config.websockets;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationDispatcherTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationDispatcher dispatcher;
+    private WebSocketSender sender;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sender = mock(WebSocketSender.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (dispatcher != null) {
+            dispatcher.detener();
+        }
+    }
+
+    @Test
+    void enviarEntregaElMensaje() throws Exception {
+        dispatcher = new NotificationDispatcher(meterRegistry, 100, 2);
+        dispatcher.iniciar();
+
+        dispatcher.enviar(sender, "usuarioTest", "{\"mensaje\":1}");
+
+        verify(sender, timeout(2000)).sendMessageToUser("usuarioTest", "{\"mensaje\":1}");
+    }
+
+    @Test
+    void enviarSinDestinoNoEncola() {
+        dispatcher = new NotificationDispatcher(meterRegistry, 100, 1);
+
+        dispatcher.enviar(null, "usuarioTest", "mensaje");
+
+        assertEquals(0, dispatcher.pendientes());
+    }
+
+    @Test
+    void colaLlenaDescartaLaMasAntigua() throws Exception {
+        dispatcher = new NotificationDispatcher(meterRegistry, 2, 1);
+
+        dispatcher.enviar(sender, "usuarioTest", "1");
+        dispatcher.enviar(sender, "usuarioTest", "2");
+        dispatcher.enviar(sender, "usuarioTest", "3");
+
+        assertAll(
+                () -> assertEquals(2, dispatcher.pendientes()),
+                () -> assertEquals(2.0, meterRegistry.get("websocket.notificaciones.cola").gauge().value()),
+                () -> assertEquals(1.0, meterRegistry.get("websocket.notificaciones.descartadas").counter().count())
+        );
+
+        dispatcher.iniciar();
+
+        verify(sender, timeout(2000)).sendMessageToUser("usuarioTest", "3");
+        verify(sender).sendMessageToUser("usuarioTest", "2");
+        verify(sender, never()).sendMessageToUser("usuarioTest", "1");
+    }
+
+    @Test
+    void errorDeEnvioNoDetieneAlTrabajador() throws Exception {
+        dispatcher = new NotificationDispatcher(meterRegistry, 100, 1);
+        doThrow(new IOException("sesión cerrada")).when(sender).sendMessageToUser("usuarioTest", "1");
+        dispatcher.iniciar();
+
+        dispatcher.enviar(sender, "usuarioTest", "1");
+        dispatcher.enviar(sender, "usuarioTest", "2");
+
+        verify(sender, timeout(2000)).sendMessageToUser("usuarioTest", "2");
+        assertAll(
+                () -> assertEquals(1.0, meterRegistry.get("websocket.notificaciones.errores").counter().count()),
+                () -> assertTrue(meterRegistry.get("websocket.notificaciones.latencia").timer().count() >= 1)
+        );
+    }
+
+    @Test
+    void rafagaNoCreaHilosDePlataforma() throws Exception {
+        int mensajes = 10_000;
+        dispatcher = new NotificationDispatcher(meterRegistry, mensajes * 8, 8);
+        CountDownLatch entregados = new CountDownLatch(mensajes);
+        WebSocketSender lento = new WebSocketSender() {
+            @Override
+            public void sendMessage(String message) {
+            }
+
+            @Override
+            public void sendMessageToUser(String username, String message) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                entregados.countDown();
+            }
+
+            @Override
+            public void sendPeriodicMessages() {
+            }
+        };
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int hilosAntes = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        dispatcher.iniciar();
+
+        for (int i = 0; i < mensajes; i++) {
+            dispatcher.enviar(lento, "usuario" + (i % 500), "mensaje " + i);
+        }
+
+        assertTrue(entregados.await(30, TimeUnit.SECONDS));
+        // Solo pueden aparecer los hilos portadores de los hilos virtuales, nunca uno por mensaje
+        int margen = Runtime.getRuntime().availableProcessors() + 16;
+        assertTrue(threads.getPeakThreadCount() - hilosAntes <= margen,
+                "Pico de hilos " + threads.getPeakThreadCount() + " con " + hilosAntes + " al inicio");
+        assertEquals(0.0, meterRegistry.get("websocket.notificaciones.descartadas").counter().count());
+    }
+
+    @Test
+    void conBusPublicaEnLugarDeEntregar() throws Exception {
+        NotificationBus bus = mock(NotificationBus.class);
+        WebSocketHandler handler = handler("Movimientos", false);
+        dispatcher = new NotificationDispatcher(meterRegistry, 100, 1, bus, List.of(handler));
+        dispatcher.iniciar();
+
+        dispatcher.enviar(handler, "usuarioTest", "{\"mensaje\":1}");
+
+        verify(bus, timeout(2000)).publicar("Movimientos", "usuarioTest", "{\"mensaje\":1}");
+        verify(bus).suscribir(dispatcher);
+        verify(handler, never()).sendMessageToUser(any(), any());
+    }
+
+    @Test
+    void falloDelBusEntregaEnEsteNodo() throws Exception {
+        NotificationBus bus = mock(NotificationBus.class);
+        WebSocketHandler handler = handler("Movimientos", true);
+        doThrow(new RedisConnectionFailureException("sin conexión")).when(bus).publicar(any(), any(), any());
+        dispatcher = new NotificationDispatcher(meterRegistry, 100, 1, bus, List.of(handler));
+        dispatcher.iniciar();
+
+        dispatcher.enviar(handler, "usuarioTest", "1");
+
+        verify(handler, timeout(2000)).sendMessageToUser("usuarioTest", "1");
+        assertEquals(1.0, meterRegistry.get("websocket.notificaciones.publicacion.fallidas").counter().count());
+    }
+
+    @Test
+    void onMessageEntregaSoloEnSesionesLocales() throws Exception {
+        WebSocketHandler conectado = handler("Movimientos", true);
+        WebSocketHandler desconectado = handler("Cuentas", false);
+        dispatcher = new NotificationDispatcher(meterRegistry, 100, 1, null, List.of(conectado, desconectado));
+        dispatcher.iniciar();
+
+        dispatcher.onMessage(mensaje("Movimientos", "usuarioTest", "{\"a\":\"b\\nc\"}"), null);
+        dispatcher.onMessage(mensaje("Cuentas", "usuarioTest", "2"), null);
+        dispatcher.onMessage(mensaje("Tarjetas", "usuarioTest", "3"), null);
+        dispatcher.onMessage(new DefaultMessage(new byte[0], "sin formato".getBytes(StandardCharsets.UTF_8)), null);
+
+        verify(conectado, timeout(2000)).sendMessageToUser("usuarioTest", "{\"a\":\"b\\nc\"}");
+        verify(desconectado, never()).sendMessageToUser(any(), any());
+        assertAll(
+                () -> assertEquals(1.0, meterRegistry.get("websocket.notificaciones.recibidas").tag("resultado", "sesion_local").counter().count()),
+                () -> assertEquals(2.0, meterRegistry.get("websocket.notificaciones.recibidas").tag("resultado", "sin_sesion").counter().count())
+        );
+    }
+
+    private WebSocketHandler handler(String entidad, boolean conectado) {
+        WebSocketHandler handler = mock(WebSocketHandler.class);
+        when(handler.getEntity()).thenReturn(entidad);
+        lenient().when(handler.isConectado("usuarioTest")).thenReturn(conectado);
+        return handler;
+    }
+
+    private DefaultMessage mensaje(String entidad, String username, String json) {
+        return new DefaultMessage("websocket:notificaciones:0".getBytes(StandardCharsets.UTF_8),
+                NotificationBus.codificar(entidad, username, json).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -7,6 +7,8 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,7 +33,7 @@ class WebSocketHandlerTest {
 
         webSocketHandler.afterConnectionEstablished(sessionMock);
 
-        verify(sessionMock, times(1)).sendMessage(new TextMessage("Updates Web socket: " + ENTITY_NAME + " - Vives Bank"));
+        verify(sessionMock, timeout(2000).times(1)).sendMessage(new TextMessage("Updates Web socket: " + ENTITY_NAME + " - Vives Bank"));
 
     }
 
@@ -62,6 +64,7 @@ class WebSocketHandlerTest {
         when(sessionMock.isOpen()).thenReturn(true);
 
         webSocketHandler.afterConnectionEstablished(sessionMock);
+        verify(sessionMock, timeout(2000)).sendMessage(any(TextMessage.class));
 
         clearInvocations(sessionMock);
 
@@ -79,7 +82,7 @@ class WebSocketHandlerTest {
 
         webSocketHandler.sendMessage("Mensaje genérico");
 
-        verify(sessionMock, times(1)).sendMessage(new TextMessage("Mensaje genérico"));
+        verify(sessionMock, timeout(2000).times(1)).sendMessage(new TextMessage("Mensaje genérico"));
     }
 
     @Test
@@ -92,7 +95,7 @@ class WebSocketHandlerTest {
 
         webSocketHandler.sendMessageToUser(username, "Mensaje a usuario especifico");
 
-        verify(sessionMock, times(1)).sendMessage(new TextMessage("Mensaje a usuario especifico"));
+        verify(sessionMock, timeout(2000).times(1)).sendMessage(new TextMessage("Mensaje a usuario especifico"));
 
     }
 
@@ -104,7 +107,7 @@ class WebSocketHandlerTest {
 
         webSocketHandler.sendPeriodicMessages();
 
-        verify(sessionMock, atLeastOnce()).sendMessage(any(TextMessage.class));
+        verify(sessionMock, timeout(2000).atLeastOnce()).sendMessage(any(TextMessage.class));
 
     }
 
@@ -125,4 +128,113 @@ class WebSocketHandlerTest {
 
     }
 
+    private WebSocketSession sesion(String username) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(Map.of("username", username));
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    @Test
+    void variasSesionesDelMismoUsuarioRecibenElMensaje() throws Exception {
+        WebSocketSession web = sesion("usuarioTest");
+        WebSocketSession movil = sesion("usuarioTest");
+        webSocketHandler.afterConnectionEstablished(web);
+        webSocketHandler.afterConnectionEstablished(movil);
+
+        webSocketHandler.sendMessageToUser("usuarioTest", "Mensaje a usuario especifico");
+
+        verify(web, timeout(2000)).sendMessage(new TextMessage("Mensaje a usuario especifico"));
+        verify(movil, timeout(2000)).sendMessage(new TextMessage("Mensaje a usuario especifico"));
+    }
+
+    @Test
+    void cerrarUnaSesionMantieneLasDemasDelUsuario() throws Exception {
+        WebSocketSession web = sesion("usuarioTest");
+        WebSocketSession movil = sesion("usuarioTest");
+        webSocketHandler.afterConnectionEstablished(web);
+        webSocketHandler.afterConnectionEstablished(movil);
+
+        webSocketHandler.afterConnectionClosed(web, CloseStatus.NORMAL);
+        webSocketHandler.sendMessageToUser("usuarioTest", "Tras cerrar");
+
+        verify(movil, timeout(2000)).sendMessage(new TextMessage("Tras cerrar"));
+        verify(web, never()).sendMessage(new TextMessage("Tras cerrar"));
+        assertTrue(webSocketHandler.isConectado("usuarioTest"));
+
+        webSocketHandler.afterConnectionClosed(movil, CloseStatus.NORMAL);
+
+        assertFalse(webSocketHandler.isConectado("usuarioTest"));
+    }
+
+    @Test
+    void clienteLentoNoBloqueaYSeDescarta() throws Exception {
+        webSocketHandler = new WebSocketHandler(ENTITY_NAME, 60_000, 16);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch atascado = new CountDownLatch(1);
+        WebSocketSession lenta = sesion("usuarioTest");
+        WebSocketSession rapida = sesion("usuarioTest");
+        doAnswer(invocation -> {
+            atascado.countDown();
+            liberar.await();
+            return null;
+        }).when(lenta).sendMessage(any());
+        try {
+            webSocketHandler.afterConnectionEstablished(rapida);
+            verify(rapida, timeout(2000)).sendMessage(new TextMessage("Updates Web socket: " + ENTITY_NAME + " - Vives Bank"));
+            // El saludo a la sesión lenta se queda escribiendo en el hilo de la sesión, no en el que conecta
+            webSocketHandler.afterConnectionEstablished(lenta);
+            assertTrue(atascado.await(2, TimeUnit.SECONDS));
+
+            long inicio = System.nanoTime();
+            webSocketHandler.sendMessageToUser("usuarioTest", "Mensaje que supera el búfer de la sesión lenta");
+            assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1));
+
+            verify(rapida, timeout(2000)).sendMessage(new TextMessage("Mensaje que supera el búfer de la sesión lenta"));
+            verify(lenta).close(any(CloseStatus.class));
+            assertTrue(webSocketHandler.isConectado("usuarioTest"));
+
+            webSocketHandler.afterConnectionClosed(rapida, CloseStatus.NORMAL);
+            assertFalse(webSocketHandler.isConectado("usuarioTest"));
+        } finally {
+            liberar.countDown();
+        }
+    }
+
+    @Test
+    void clienteAtascadoNoRetieneAlQueEnviaYSeDescartaAlSuperarElTiempo() throws Exception {
+        webSocketHandler = new WebSocketHandler(ENTITY_NAME, 100, 1024 * 1024);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch atascado = new CountDownLatch(1);
+        WebSocketSession lenta = sesion("usuarioTest");
+        WebSocketSession rapida = sesion("usuarioTest");
+        doAnswer(invocation -> {
+            atascado.countDown();
+            liberar.await();
+            return null;
+        }).when(lenta).sendMessage(any());
+        try {
+            webSocketHandler.afterConnectionEstablished(lenta);
+            assertTrue(atascado.await(2, TimeUnit.SECONDS));
+            webSocketHandler.afterConnectionEstablished(rapida);
+
+            // Mientras la sesión lenta está dentro del tiempo permitido sus mensajes solo se encolan
+            long inicio = System.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                webSocketHandler.sendMessageToUser("usuarioTest", String.valueOf(i));
+            }
+            assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1));
+            verify(rapida, timeout(2000)).sendMessage(new TextMessage("9"));
+            verify(lenta, never()).close(any(CloseStatus.class));
+
+            Thread.sleep(200);
+            webSocketHandler.sendMessageToUser("usuarioTest", "Tras superar el tiempo");
+
+            verify(lenta).close(CloseStatus.SESSION_NOT_RELIABLE);
+            verify(rapida, timeout(2000)).sendMessage(new TextMessage("Tras superar el tiempo"));
+            assertTrue(webSocketHandler.isConectado("usuarioTest"));
+        } finally {
+            liberar.countDown();
+        }
+    }
 }
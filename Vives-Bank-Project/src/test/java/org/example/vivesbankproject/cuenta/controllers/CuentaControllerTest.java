@@ -4,7 +4,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaRequest;
 import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaRequestUpdate;
 import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaResponse;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.SaldoDiarioResponse;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaIntervaloSaldosInvalido;
 import org.example.vivesbankproject.rest.cuenta.services.CuentaService;
+import org.example.vivesbankproject.rest.cuenta.services.SaldoDiarioService;
 import org.example.vivesbankproject.utils.pagination.PaginationLinksUtils;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -20,6 +23,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -48,6 +52,9 @@ class CuentaControllerTest {
     @MockBean
     private PaginationLinksUtils paginationLinksUtils;
 
+    @MockBean
+    private SaldoDiarioService saldoDiarioService;
+
     @Test
     void GetAll() throws Exception {
         CuentaResponse cuentaResponse = CuentaResponse.builder()
@@ -389,4 +396,41 @@ class CuentaControllerTest {
         mockMvc.perform(patch("/v1/cuentas/non-existent-guid"))
                 .andExpect(status().isNoContent());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getHistoricoSaldos() throws Exception {
+        String iban = "ES1234567890123456789012";
+        LocalDate desde = LocalDate.of(2024, 12, 1);
+        LocalDate hasta = LocalDate.of(2024, 12, 2);
+        List<SaldoDiarioResponse> historico = List.of(
+                SaldoDiarioResponse.builder().fecha(desde).saldoApertura(new BigDecimal("100.00")).saldoCierre(new BigDecimal("150.00"))
+                        .ingresos(new BigDecimal("50.00")).cargos(BigDecimal.ZERO).operaciones(1).build(),
+                SaldoDiarioResponse.builder().fecha(hasta).saldoApertura(new BigDecimal("150.00")).saldoCierre(new BigDecimal("150.00"))
+                        .ingresos(BigDecimal.ZERO).cargos(BigDecimal.ZERO).operaciones(0).build());
+        when(saldoDiarioService.getHistorico(iban, desde, hasta)).thenReturn(historico);
+
+        mockMvc.perform(get(myEndpoint + "/iban/" + iban + "/saldos")
+                        .param("desde", "2024-12-01")
+                        .param("hasta", "2024-12-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].fecha").value("2024-12-01"))
+                .andExpect(jsonPath("$[0].saldoCierre").value(150.00))
+                .andExpect(jsonPath("$[1].operaciones").value(0));
+
+        verify(saldoDiarioService).getHistorico(iban, desde, hasta);
+    }
+
+    @Test
+    void getHistoricoSaldos_intervaloInvalido() throws Exception {
+        String iban = "ES1234567890123456789012";
+        LocalDate desde = LocalDate.of(2024, 12, 2);
+        LocalDate hasta = LocalDate.of(2024, 12, 1);
+        when(saldoDiarioService.getHistorico(iban, desde, hasta)).thenThrow(new CuentaIntervaloSaldosInvalido(desde, hasta, 366));
+
+        mockMvc.perform(get(myEndpoint + "/iban/" + iban + "/saldos")
+                        .param("desde", "2024-12-02")
+                        .param("hasta", "2024-12-01"))
+                .andExpect(status().isBadRequest());
+    }
+}
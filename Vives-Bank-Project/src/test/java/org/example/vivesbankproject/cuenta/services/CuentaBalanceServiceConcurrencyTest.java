@@ -0,0 +1,141 @@
+package org.example.vivesbankproject.cuenta.services;
+
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaSaldoInsuficiente;
+import org.example.vivesbankproject.rest.cuenta.mappers.CuentaMapper;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaBalanceService;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba contra la base de datos que los cargos y abonos concurrentes sobre las mismas cuentas
+ * no pierden actualizaciones.
+ * <p>
+ * Necesita la base de datos PostgreSQL de la aplicación con los datos de ejemplo, así que se ejecuta
+ * solo con {@code INTEGRACION_POSTGRES=true}.
+ * </p>
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "INTEGRACION_POSTGRES", matches = "true")
+class CuentaBalanceServiceConcurrencyTest {
+
+    private static final String IBAN_A = "ES64123412344820495463";
+    private static final String IBAN_B = "ES60123412347246753334";
+    private static final int HILOS = 8;
+    private static final int OPERACIONES = 400;
+
+    @Autowired
+    private CuentaBalanceService cuentaBalanceService;
+
+    @Autowired
+    private CuentaService cuentaService;
+
+    @Autowired
+    private CuentaRepository cuentaRepository;
+
+    @Autowired
+    private CuentaMapper cuentaMapper;
+
+    private BigDecimal saldoInicialA;
+    private BigDecimal saldoInicialB;
+
+    @BeforeEach
+    void setUp() {
+        saldoInicialA = cuentaRepository.findSaldoByIban(IBAN_A).orElseThrow();
+        saldoInicialB = cuentaRepository.findSaldoByIban(IBAN_B).orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        restaurarSaldo(IBAN_A, saldoInicialA);
+        restaurarSaldo(IBAN_B, saldoInicialB);
+    }
+
+    @Test
+    void transferenciasCruzadasNoPierdenActualizaciones() throws Exception {
+        BigDecimal cantidad = new BigDecimal("1.00");
+
+        ejecutarEnParalelo(i -> {
+            if (i % 2 == 0) {
+                cuentaBalanceService.transferir(IBAN_A, IBAN_B, cantidad);
+            } else {
+                cuentaBalanceService.transferir(IBAN_B, IBAN_A, cantidad);
+            }
+        });
+
+        BigDecimal total = saldoInicialA.add(saldoInicialB);
+        BigDecimal saldoA = cuentaRepository.findSaldoByIban(IBAN_A).orElseThrow();
+        BigDecimal saldoB = cuentaRepository.findSaldoByIban(IBAN_B).orElseThrow();
+
+        assertAll(
+                () -> assertEquals(0, saldoInicialA.compareTo(saldoA)),
+                () -> assertEquals(0, saldoInicialB.compareTo(saldoB)),
+                () -> assertEquals(0, total.compareTo(saldoA.add(saldoB)))
+        );
+    }
+
+    @Test
+    void cargosConcurrentesNuncaDejanSaldoNegativo() throws Exception {
+        restaurarSaldo(IBAN_A, new BigDecimal("100.00"));
+        AtomicInteger rechazados = new AtomicInteger();
+
+        ejecutarEnParalelo(i -> {
+            try {
+                cuentaBalanceService.debitar(IBAN_A, BigDecimal.ONE);
+            } catch (CuentaSaldoInsuficiente e) {
+                rechazados.incrementAndGet();
+            }
+        });
+
+        assertAll(
+                () -> assertEquals(0, BigDecimal.ZERO.compareTo(cuentaRepository.findSaldoByIban(IBAN_A).orElseThrow())),
+                () -> assertEquals(OPERACIONES - 100, rechazados.get())
+        );
+    }
+
+    private void ejecutarEnParalelo(IntConsumerConExcepcion operacion) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < OPERACIONES; i++) {
+            final int indice = i;
+            futures.add(executor.submit(() -> {
+                salida.await();
+                operacion.accept(indice);
+                return null;
+            }));
+        }
+        salida.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void restaurarSaldo(String iban, BigDecimal saldo) {
+        var cuenta = cuentaService.getByIban(iban);
+        cuenta.setSaldo(saldo.toString());
+        cuentaService.update(cuenta.getGuid(), cuentaMapper.toCuentaRequestUpdate(cuenta));
+    }
+
+    @FunctionalInterface
+    private interface IntConsumerConExcepcion {
+        void accept(int indice) throws Exception;
+    }
+}
@@ -0,0 +1,234 @@
+package org.example.vivesbankproject.cuenta.services;
+
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFoundByIban;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaSaldoInsuficiente;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.example.vivesbankproject.rest.cuenta.repositories.SaldoDiarioRepository;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaBalanceServiceImpl;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaTransferenciaExecutor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CuentaBalanceServiceImplTest {
+
+    private static final String IBAN_ORIGEN = "ES64123412344820495463";
+    private static final String IBAN_DESTINO = "ES60123412347246753334";
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private CuentaTransferenciaExecutor transferenciaExecutor;
+
+    @Mock
+    private SaldoDiarioRepository saldoDiarioRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @InjectMocks
+    private CuentaBalanceServiceImpl cuentaBalanceService;
+
+    @Test
+    void debitar() {
+        BigDecimal cantidad = new BigDecimal("100.00");
+        when(cuentaRepository.debitarSaldo(IBAN_ORIGEN, cantidad)).thenReturn(1);
+
+        cuentaBalanceService.debitar(IBAN_ORIGEN, cantidad);
+
+        verify(cuentaRepository).debitarSaldo(IBAN_ORIGEN, cantidad);
+        verify(cuentaRepository, never()).findSaldoByIban(anyString());
+        verify(saldoDiarioRepository).registrarVariacion(IBAN_ORIGEN, LocalDate.now(), new BigDecimal("-100.00"));
+    }
+
+    @Test
+    void debitarSaldoInsuficiente() {
+        BigDecimal cantidad = new BigDecimal("100.00");
+        when(cuentaRepository.debitarSaldo(IBAN_ORIGEN, cantidad)).thenReturn(0);
+        when(cuentaRepository.findSaldoByIban(IBAN_ORIGEN)).thenReturn(Optional.of(new BigDecimal("50.00")));
+
+        var result = assertThrows(CuentaSaldoInsuficiente.class, () -> cuentaBalanceService.debitar(IBAN_ORIGEN, cantidad));
+
+        assertEquals("La cuenta con IBAN " + IBAN_ORIGEN + " no tiene saldo suficiente para cargar 100.00", result.getMessage());
+        verifyNoInteractions(saldoDiarioRepository);
+    }
+
+    @Test
+    void debitarCuentaNotFound() {
+        BigDecimal cantidad = new BigDecimal("100.00");
+        when(cuentaRepository.debitarSaldo(IBAN_ORIGEN, cantidad)).thenReturn(0);
+        when(cuentaRepository.findSaldoByIban(IBAN_ORIGEN)).thenReturn(Optional.empty());
+
+        assertThrows(CuentaNotFoundByIban.class, () -> cuentaBalanceService.debitar(IBAN_ORIGEN, cantidad));
+    }
+
+    @Test
+    void acreditar() {
+        BigDecimal cantidad = new BigDecimal("100.00");
+        when(cuentaRepository.acreditarSaldo(IBAN_DESTINO, cantidad)).thenReturn(1);
+
+        cuentaBalanceService.acreditar(IBAN_DESTINO, cantidad);
+
+        verify(cuentaRepository).acreditarSaldo(IBAN_DESTINO, cantidad);
+        verify(saldoDiarioRepository).registrarVariacion(IBAN_DESTINO, LocalDate.now(), cantidad);
+    }
+
+    @Test
+    void acreditarCuentaNotFound() {
+        BigDecimal cantidad = new BigDecimal("100.00");
+        when(cuentaRepository.acreditarSaldo(IBAN_DESTINO, cantidad)).thenReturn(0);
+
+        assertThrows(CuentaNotFoundByIban.class, () -> cuentaBalanceService.acreditar(IBAN_DESTINO, cantidad));
+    }
+
+    @Test
+    void transferir() {
+        BigDecimal cantidad = new BigDecimal("100.00");
+        when(transferenciaExecutor.ejecutar(eq(List.of(IBAN_ORIGEN, IBAN_DESTINO)), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(cuentaRepository.debitarSaldo(IBAN_ORIGEN, cantidad)).thenReturn(1);
+        when(cuentaRepository.acreditarSaldo(IBAN_DESTINO, cantidad)).thenReturn(1);
+
+        cuentaBalanceService.transferir(IBAN_ORIGEN, IBAN_DESTINO, cantidad);
+
+        verify(cuentaRepository).debitarSaldo(IBAN_ORIGEN, cantidad);
+        verify(cuentaRepository).acreditarSaldo(IBAN_DESTINO, cantidad);
+    }
+
+    @Test
+    void transferirSaldoInsuficienteNoAcredita() {
+        BigDecimal cantidad = new BigDecimal("100.00");
+        when(transferenciaExecutor.ejecutar(eq(List.of(IBAN_ORIGEN, IBAN_DESTINO)), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(cuentaRepository.debitarSaldo(IBAN_ORIGEN, cantidad)).thenReturn(0);
+        when(cuentaRepository.findSaldoByIban(IBAN_ORIGEN)).thenReturn(Optional.of(BigDecimal.ZERO));
+
+        assertThrows(CuentaSaldoInsuficiente.class, () -> cuentaBalanceService.transferir(IBAN_ORIGEN, IBAN_DESTINO, cantidad));
+
+        verify(cuentaRepository, never()).acreditarSaldo(anyString(), any(BigDecimal.class));
+    }
+
+    @Test
+    void getSaldos() {
+        List<String> ibanes = List.of(IBAN_ORIGEN, IBAN_DESTINO);
+        when(cuentaRepository.findAllByIbanIn(ibanes)).thenReturn(List.of());
+
+        var result = cuentaBalanceService.getSaldos(ibanes);
+
+        assertTrue(result.isEmpty());
+        verify(cuentaRepository, times(1)).findAllByIbanIn(ibanes);
+    }
+
+    @Test
+    void aplicarVariacionesDebitaAntesDeAcreditar() {
+        Map<String, BigDecimal> variaciones = new LinkedHashMap<>();
+        variaciones.put(IBAN_DESTINO, new BigDecimal("90.00"));
+        variaciones.put(IBAN_ORIGEN, new BigDecimal("-90.00"));
+        variaciones.put("ES00000000000000000000", BigDecimal.ZERO);
+        when(cuentaRepository.debitarSaldo(IBAN_ORIGEN, new BigDecimal("90.00"))).thenReturn(1);
+        when(cuentaRepository.acreditarSaldo(IBAN_DESTINO, new BigDecimal("90.00"))).thenReturn(1);
+
+        cuentaBalanceService.aplicarVariaciones(variaciones);
+
+        InOrder inOrder = inOrder(cuentaRepository);
+        inOrder.verify(cuentaRepository).debitarSaldo(IBAN_ORIGEN, new BigDecimal("90.00"));
+        inOrder.verify(cuentaRepository).acreditarSaldo(IBAN_DESTINO, new BigDecimal("90.00"));
+        verify(cuentaRepository, never()).debitarSaldo(eq("ES00000000000000000000"), any());
+        verify(cuentaRepository, never()).acreditarSaldo(eq("ES00000000000000000000"), any());
+    }
+
+    @Test
+    void aplicarVariacionesSaldoInsuficienteNoAcredita() {
+        Map<String, BigDecimal> variaciones = new LinkedHashMap<>();
+        variaciones.put(IBAN_ORIGEN, new BigDecimal("-90.00"));
+        variaciones.put(IBAN_DESTINO, new BigDecimal("90.00"));
+        when(cuentaRepository.debitarSaldo(IBAN_ORIGEN, new BigDecimal("90.00"))).thenReturn(0);
+        when(cuentaRepository.findSaldoByIban(IBAN_ORIGEN)).thenReturn(Optional.of(BigDecimal.TEN));
+
+        assertThrows(CuentaSaldoInsuficiente.class, () -> cuentaBalanceService.aplicarVariaciones(variaciones));
+
+        verify(cuentaRepository, never()).acreditarSaldo(anyString(), any(BigDecimal.class));
+    }
+
+    @Test
+    void acreditarSinTransaccionInvalidaLaCuentaEnCache() {
+        BigDecimal cantidad = new BigDecimal("100.00");
+        when(cuentaRepository.acreditarSaldo(IBAN_DESTINO, cantidad)).thenReturn(1);
+        when(cacheManager.getCache("cuenta")).thenReturn(cache);
+        when(cuentaRepository.findGuidsByIbanIn(Set.of(IBAN_DESTINO))).thenReturn(List.of("cuenta-guid"));
+
+        cuentaBalanceService.acreditar(IBAN_DESTINO, cantidad);
+
+        verify(cache).evict("cuenta-guid");
+    }
+
+    @Test
+    void transferirInvalidaLasCuentasEnCacheAlConfirmar() {
+        BigDecimal cantidad = new BigDecimal("100.00");
+        when(transferenciaExecutor.ejecutar(eq(List.of(IBAN_ORIGEN, IBAN_DESTINO)), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(cuentaRepository.debitarSaldo(IBAN_ORIGEN, cantidad)).thenReturn(1);
+        when(cuentaRepository.acreditarSaldo(IBAN_DESTINO, cantidad)).thenReturn(1);
+        when(cacheManager.getCache("cuenta")).thenReturn(cache);
+        when(cuentaRepository.findGuidsByIbanIn(Set.of(IBAN_ORIGEN, IBAN_DESTINO))).thenReturn(List.of("guid-origen", "guid-destino"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cuentaBalanceService.transferir(IBAN_ORIGEN, IBAN_DESTINO, cantidad);
+            verifyNoInteractions(cache);
+
+            List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+            assertEquals(1, sincronizaciones.size());
+            sincronizaciones.forEach(TransactionSynchronization::afterCommit);
+            sincronizaciones.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cuentaRepository).findGuidsByIbanIn(Set.of(IBAN_ORIGEN, IBAN_DESTINO));
+        verify(cache).evict("guid-origen");
+        verify(cache).evict("guid-destino");
+    }
+
+    @Test
+    void transferirDeshechaNoInvalidaLaCache() {
+        BigDecimal cantidad = new BigDecimal("100.00");
+        when(transferenciaExecutor.ejecutar(eq(List.of(IBAN_ORIGEN, IBAN_DESTINO)), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(cuentaRepository.debitarSaldo(IBAN_ORIGEN, cantidad)).thenReturn(1);
+        when(cuentaRepository.acreditarSaldo(IBAN_DESTINO, cantidad)).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cuentaBalanceService.transferir(IBAN_ORIGEN, IBAN_DESTINO, cantidad);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cuentaRepository, never()).findGuidsByIbanIn(any());
+        verifyNoInteractions(cacheManager);
+        assertFalse(TransactionSynchronizationManager.hasResource(cuentaBalanceService));
+    }
+}
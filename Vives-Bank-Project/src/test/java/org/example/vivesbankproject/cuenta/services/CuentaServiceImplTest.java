@@ -19,11 +19,13 @@ import org.example.vivesbankproject.rest.cuenta.models.TipoCuenta;
 import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
 import org.example.vivesbankproject.rest.cuenta.repositories.TipoCuentaRepository;
 import org.example.vivesbankproject.rest.cuenta.services.CuentaServiceImpl;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
 import org.example.vivesbankproject.rest.tarjeta.exceptions.TarjetaNotFound;
 import org.example.vivesbankproject.rest.tarjeta.exceptions.TarjetaNotFoundByNumero;
 import org.example.vivesbankproject.rest.tarjeta.mappers.TarjetaMapper;
 import org.example.vivesbankproject.rest.tarjeta.models.Tarjeta;
 import org.example.vivesbankproject.rest.tarjeta.repositories.TarjetaRepository;
+import org.example.vivesbankproject.config.websockets.NotificationDispatcher;
 import org.example.vivesbankproject.config.websockets.WebSocketConfig;
 import org.example.vivesbankproject.rest.users.models.User;
 import org.example.vivesbankproject.rest.users.repositories.UserRepository;
@@ -53,6 +55,9 @@ class CuentaServiceImplTest {
     @Mock
     private WebSocketConfig webSocketConfig;
 
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
     @Mock
     private CuentaRepository cuentaRepository;
 
@@ -83,6 +88,9 @@ class CuentaServiceImplTest {
     @Mock
     private WebSocketHandler webSocketHandler;
 
+    @Mock
+    private CuentaUsuarioResolver cuentaUsuarioResolver;
+
     private Cuenta cuenta;
     private TipoCuenta tipoCuenta;
     private Tarjeta tarjeta;
@@ -173,6 +181,23 @@ class CuentaServiceImplTest {
         verify(cuentaRepository, never()).save(any());
     }
 
+    @Test
+    void deleteById() {
+        String cuentaId = "123";
+        cuenta.setGuid(cuentaId);
+        cuenta.setIban("ES9120804243448487618583");
+
+        when(cuentaRepository.findByGuid(cuentaId)).thenReturn(Optional.of(cuenta));
+        when(cuentaMapper.toCuentaResponse(any(Cuenta.class), any(), any(), any())).thenReturn(new CuentaResponse());
+        when(userRepository.findByGuid(any())).thenReturn(Optional.of(user));
+
+        cuentaService.deleteById(cuentaId);
+
+        assertTrue(cuenta.getIsDeleted());
+        verify(cuentaRepository).save(cuenta);
+        verify(cuentaUsuarioResolver).invalidar(List.of("ES9120804243448487618583"));
+    }
+
     @Test
     void deleteByIdNotFound() {
         String cuentaId = "123";
@@ -182,6 +207,7 @@ class CuentaServiceImplTest {
         assertThrows(CuentaNotFound.class, () -> cuentaService.deleteById(cuentaId));
         verify(cuentaRepository).findByGuid(cuentaId);
         verify(cuentaRepository, never()).save(any());
+        verifyNoInteractions(cuentaUsuarioResolver);
     }
 
     @Test
@@ -0,0 +1,128 @@
+package org.example.vivesbankproject.cuenta.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaOperacionAbortada;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaTransferenciaExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CuentaTransferenciaExecutorTest {
+
+    private static final List<String> IBANES = List.of("ES64123412344820495463", "ES60123412347246753334");
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CuentaTransferenciaExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new CuentaTransferenciaExecutor(cuentaRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(executor, "backoffBaseMs", 1L);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+    }
+
+    @Test
+    void ejecutarBloqueaEnOrdenAntesDeLaOperacion() {
+        List<String> llamadas = new ArrayList<>();
+        when(cuentaRepository.bloquearPorIbanes(IBANES)).thenAnswer(inv -> {
+            llamadas.add("bloqueo");
+            return List.of(1L, 2L);
+        });
+
+        String result = executor.ejecutar(IBANES, () -> {
+            llamadas.add("operacion");
+            return "ok";
+        });
+
+        assertAll(
+                () -> assertEquals("ok", result),
+                () -> assertEquals(List.of("bloqueo", "operacion"), llamadas),
+                () -> assertEquals(1, meterRegistry.get("cuentas.transferencias.bloqueo.espera").timer().count())
+        );
+
+        InOrder inOrder = inOrder(cuentaRepository, transactionManager);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(cuentaRepository).establecerLockTimeout("2000ms");
+        inOrder.verify(cuentaRepository).bloquearPorIbanes(IBANES);
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void ejecutarReintentaTrasConflicto() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        String result = executor.ejecutar(IBANES, () -> {
+            if (intentos.incrementAndGet() < 3) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            return "ok";
+        });
+
+        assertAll(
+                () -> assertEquals("ok", result),
+                () -> assertEquals(3, intentos.get()),
+                () -> assertEquals(2.0, meterRegistry.get("cuentas.transferencias.reintentos").counter().count()),
+                () -> assertEquals(0.0, meterRegistry.get("cuentas.transferencias.abortadas").counter().count())
+        );
+
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void ejecutarAbortaTrasAgotarIntentos() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        var result = assertThrows(CuentaOperacionAbortada.class, () -> executor.ejecutar(IBANES, () -> {
+            intentos.incrementAndGet();
+            throw new CannotAcquireLockException("lock timeout");
+        }));
+
+        assertAll(
+                () -> assertEquals(4, intentos.get()),
+                () -> assertTrue(result.getMessage().contains("tras 4 intentos")),
+                () -> assertEquals(3.0, meterRegistry.get("cuentas.transferencias.reintentos").counter().count()),
+                () -> assertEquals(1.0, meterRegistry.get("cuentas.transferencias.abortadas").counter().count())
+        );
+
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void ejecutarNoReintentaErroresDeNegocio() {
+        AtomicInteger intentos = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> executor.ejecutar(IBANES, () -> {
+            intentos.incrementAndGet();
+            throw new IllegalStateException("saldo insuficiente");
+        }));
+
+        assertEquals(1, intentos.get());
+        verify(transactionManager).rollback(any());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.vivesbankproject.cuenta.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.vivesbankproject.rest.cliente.service.ClienteService;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaService;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
+import org.example.vivesbankproject.rest.users.services.UserService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cuenta con las estadísticas de Hibernate las sentencias SQL necesarias para dirigir la notificación
+ * de una transferencia al ordenante y al beneficiario, comparando la cadena cuenta → cliente → usuario
+ * con la resolución por IBAN de {@link CuentaUsuarioResolver}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CuentaUsuarioResolverConsultasTest {
+
+    private static final String IBAN_A = "ES64123412344820495463";
+    private static final String IBAN_B = "ES60123412347246753334";
+
+    @Autowired
+    private CuentaUsuarioResolver cuentaUsuarioResolver;
+
+    @Autowired
+    private CuentaService cuentaService;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (String nombre : List.of("cuenta", "cliente", "usuario", CuentaUsuarioResolver.CACHE)) {
+            Cache cache = cacheManager.getCache(nombre);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void resolverReduceLasSentenciasAMenosDeLaMitad() {
+        statistics.clear();
+        for (String iban : List.of(IBAN_A, IBAN_B)) {
+            String clienteId = cuentaService.getByIban(iban).getClienteId();
+            String userId = clienteService.getById(clienteId).getUserId();
+            userService.getById(userId).getUsername();
+        }
+        long sentenciasCadena = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        Map<String, String> usernames = cuentaUsuarioResolver.getUsernames(List.of(IBAN_A, IBAN_B));
+        long sentenciasResolver = statistics.getPrepareStatementCount();
+
+        assertAll(
+                () -> assertEquals(Map.of(IBAN_A, "userName", IBAN_B, "adminName"), usernames),
+                () -> assertEquals(1, sentenciasResolver),
+                () -> assertTrue(sentenciasResolver * 2 <= sentenciasCadena,
+                        "Resolver: " + sentenciasResolver + " sentencias, cadena: " + sentenciasCadena)
+        );
+    }
+
+    @Test
+    void resolverEnCacheNoEjecutaSentencias() {
+        cuentaUsuarioResolver.getUsernames(List.of(IBAN_A, IBAN_B));
+
+        statistics.clear();
+        String username = cuentaUsuarioResolver.getUsername(IBAN_B);
+
+        assertAll(
+                () -> assertEquals("adminName", username),
+                () -> assertEquals(0, statistics.getPrepareStatementCount())
+        );
+    }
+}
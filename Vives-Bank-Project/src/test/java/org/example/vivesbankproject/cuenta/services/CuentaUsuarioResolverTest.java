@@ -0,0 +1,125 @@
+package org.example.vivesbankproject.cuenta.services;
+
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaUsuario;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CuentaUsuarioResolverTest {
+
+    private static final String IBAN_A = "ES64123412344820495463";
+    private static final String IBAN_B = "ES60123412347246753334";
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private ConcurrentMapCache cache;
+
+    private CuentaUsuarioResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConcurrentMapCache(CuentaUsuarioResolver.CACHE);
+        resolver = new CuentaUsuarioResolver(cuentaRepository, cacheManager);
+    }
+
+    private CuentaUsuario cuentaUsuario(String iban, String username) {
+        return new CuentaUsuario() {
+            @Override
+            public String getIban() {
+                return iban;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+        };
+    }
+
+    @Test
+    void getUsernamesConsultaUnaVezYGuardaEnCache() {
+        when(cacheManager.getCache(CuentaUsuarioResolver.CACHE)).thenReturn(cache);
+        when(cuentaRepository.findUsernamesByIbanIn(Set.of(IBAN_A, IBAN_B))).thenReturn(List.of(
+                cuentaUsuario(IBAN_A, "userName"),
+                cuentaUsuario(IBAN_B, "adminName")
+        ));
+
+        Map<String, String> result = resolver.getUsernames(List.of(IBAN_A, IBAN_B));
+
+        assertAll(
+                () -> assertEquals(Map.of(IBAN_A, "userName", IBAN_B, "adminName"), result),
+                () -> assertEquals("userName", cache.get(IBAN_A, String.class)),
+                () -> assertEquals("adminName", cache.get(IBAN_B, String.class))
+        );
+        verify(cuentaRepository, times(1)).findUsernamesByIbanIn(anyCollection());
+    }
+
+    @Test
+    void getUsernameDesdeCacheNoConsulta() {
+        when(cacheManager.getCache(CuentaUsuarioResolver.CACHE)).thenReturn(cache);
+        cache.put(IBAN_A, "userName");
+
+        String result = resolver.getUsername(IBAN_A);
+
+        assertEquals("userName", result);
+        verifyNoInteractions(cuentaRepository);
+    }
+
+    @Test
+    void getUsernamesSoloConsultaLasQueFaltan() {
+        when(cacheManager.getCache(CuentaUsuarioResolver.CACHE)).thenReturn(cache);
+        cache.put(IBAN_A, "userName");
+        when(cuentaRepository.findUsernamesByIbanIn(Set.of(IBAN_B))).thenReturn(List.of(cuentaUsuario(IBAN_B, "adminName")));
+
+        Map<String, String> result = resolver.getUsernames(List.of(IBAN_A, IBAN_B));
+
+        assertEquals(Map.of(IBAN_A, "userName", IBAN_B, "adminName"), result);
+    }
+
+    @Test
+    void getUsernameCuentaNoExiste() {
+        when(cacheManager.getCache(CuentaUsuarioResolver.CACHE)).thenReturn(cache);
+        when(cuentaRepository.findUsernamesByIbanIn(Set.of("ES0000"))).thenReturn(List.of());
+
+        String result = resolver.getUsername("ES0000");
+
+        assertAll(
+                () -> assertNull(result),
+                () -> assertNull(cache.get("ES0000"))
+        );
+    }
+
+    @Test
+    void invalidarUsuarioEliminaSoloSusCuentas() {
+        when(cacheManager.getCache(CuentaUsuarioResolver.CACHE)).thenReturn(cache);
+        when(cuentaRepository.findIbanesByUserGuid("user-guid")).thenReturn(List.of(IBAN_A));
+        cache.put(IBAN_A, "userName");
+        cache.put(IBAN_B, "adminName");
+
+        resolver.invalidarUsuario("user-guid");
+
+        assertAll(
+                () -> assertNull(cache.get(IBAN_A)),
+                () -> assertEquals("adminName", cache.get(IBAN_B, String.class))
+        );
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.vivesbankproject.cuenta.services;
+
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.SaldoDiarioResponse;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaIntervaloSaldosInvalido;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFoundByIban;
+import org.example.vivesbankproject.rest.cuenta.models.SaldoDiario;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.example.vivesbankproject.rest.cuenta.repositories.SaldoDiarioRepository;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
+import org.example.vivesbankproject.rest.cuenta.services.SaldoDiarioServiceImpl;
+import org.example.vivesbankproject.rest.users.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SaldoDiarioServiceImplTest {
+
+    private static final String IBAN = "ES64123412344820495463";
+    private static final LocalDate DESDE = LocalDate.of(2024, 12, 1);
+    private static final LocalDate HASTA = LocalDate.of(2024, 12, 5);
+
+    @Mock
+    private SaldoDiarioRepository saldoDiarioRepository;
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private CuentaUsuarioResolver cuentaUsuarioResolver;
+
+    private SaldoDiarioServiceImpl saldoDiarioService;
+
+    @BeforeEach
+    void setUp() {
+        saldoDiarioService = new SaldoDiarioServiceImpl(saldoDiarioRepository, cuentaRepository, cuentaUsuarioResolver, 31);
+    }
+
+    private SaldoDiario resumen(LocalDate fecha, String apertura, String cierre, String ingresos, String cargos, int operaciones) {
+        return SaldoDiario.builder()
+                .iban(IBAN)
+                .fecha(fecha)
+                .saldoApertura(new BigDecimal(apertura))
+                .saldoCierre(new BigDecimal(cierre))
+                .ingresos(new BigDecimal(ingresos))
+                .cargos(new BigDecimal(cargos))
+                .operaciones(operaciones)
+                .build();
+    }
+
+    @Test
+    void getHistoricoCompletaLosDiasSinOperaciones() {
+        when(saldoDiarioRepository.findByIbanAndFechaBetweenOrderByFechaAsc(IBAN, DESDE, HASTA)).thenReturn(List.of(
+                resumen(LocalDate.of(2024, 12, 2), "100.00", "150.00", "50.00", "0.00", 1),
+                resumen(LocalDate.of(2024, 12, 4), "150.00", "120.00", "10.00", "40.00", 2)));
+        when(saldoDiarioRepository.findFirstByIbanAndFechaLessThanOrderByFechaDesc(IBAN, DESDE))
+                .thenReturn(Optional.of(resumen(LocalDate.of(2024, 11, 20), "80.00", "100.00", "20.00", "0.00", 1)));
+
+        List<SaldoDiarioResponse> historico = saldoDiarioService.getHistorico(IBAN, DESDE, HASTA);
+
+        assertAll(
+                () -> assertEquals(5, historico.size()),
+                () -> assertEquals(DESDE, historico.get(0).getFecha()),
+                () -> assertEquals(new BigDecimal("100.00"), historico.get(0).getSaldoApertura()),
+                () -> assertEquals(new BigDecimal("100.00"), historico.get(0).getSaldoCierre()),
+                () -> assertEquals(0, historico.get(0).getOperaciones()),
+                () -> assertEquals(new BigDecimal("150.00"), historico.get(1).getSaldoCierre()),
+                () -> assertEquals(new BigDecimal("150.00"), historico.get(2).getSaldoApertura()),
+                () -> assertEquals(new BigDecimal("150.00"), historico.get(2).getSaldoCierre()),
+                () -> assertEquals(new BigDecimal("40.00"), historico.get(3).getCargos()),
+                () -> assertEquals(2, historico.get(3).getOperaciones()),
+                () -> assertEquals(HASTA, historico.get(4).getFecha()),
+                () -> assertEquals(new BigDecimal("120.00"), historico.get(4).getSaldoCierre())
+        );
+        verifyNoInteractions(cuentaRepository);
+    }
+
+    @Test
+    void getHistoricoSinResumenAnteriorUsaLaAperturaDelPrimero() {
+        when(saldoDiarioRepository.findByIbanAndFechaBetweenOrderByFechaAsc(IBAN, DESDE, HASTA)).thenReturn(List.of(
+                resumen(LocalDate.of(2024, 12, 3), "0.00", "75.00", "75.00", "0.00", 1)));
+        when(saldoDiarioRepository.findFirstByIbanAndFechaLessThanOrderByFechaDesc(IBAN, DESDE)).thenReturn(Optional.empty());
+
+        List<SaldoDiarioResponse> historico = saldoDiarioService.getHistorico(IBAN, DESDE, HASTA);
+
+        assertAll(
+                () -> assertEquals(BigDecimal.ZERO.setScale(2), historico.get(0).getSaldoCierre()),
+                () -> assertEquals(new BigDecimal("75.00"), historico.get(4).getSaldoCierre())
+        );
+    }
+
+    @Test
+    void getHistoricoSinResumenesUsaElSaldoActual() {
+        when(saldoDiarioRepository.findByIbanAndFechaBetweenOrderByFechaAsc(IBAN, DESDE, HASTA)).thenReturn(List.of());
+        when(saldoDiarioRepository.findFirstByIbanAndFechaLessThanOrderByFechaDesc(IBAN, DESDE)).thenReturn(Optional.empty());
+        when(saldoDiarioRepository.findFirstByIbanAndFechaGreaterThanEqualOrderByFechaAsc(IBAN, HASTA.plusDays(1))).thenReturn(Optional.empty());
+        when(cuentaRepository.findSaldoByIban(IBAN)).thenReturn(Optional.of(new BigDecimal("500.00")));
+
+        List<SaldoDiarioResponse> historico = saldoDiarioService.getHistorico(IBAN, DESDE, HASTA);
+
+        assertTrue(historico.stream().allMatch(dia -> dia.getSaldoCierre().equals(new BigDecimal("500.00"))));
+    }
+
+    @Test
+    void getHistoricoCuentaNotFound() {
+        when(saldoDiarioRepository.findByIbanAndFechaBetweenOrderByFechaAsc(IBAN, DESDE, HASTA)).thenReturn(List.of());
+        when(saldoDiarioRepository.findFirstByIbanAndFechaLessThanOrderByFechaDesc(IBAN, DESDE)).thenReturn(Optional.empty());
+        when(saldoDiarioRepository.findFirstByIbanAndFechaGreaterThanEqualOrderByFechaAsc(IBAN, HASTA.plusDays(1))).thenReturn(Optional.empty());
+        when(cuentaRepository.findSaldoByIban(IBAN)).thenReturn(Optional.empty());
+
+        assertThrows(CuentaNotFoundByIban.class, () -> saldoDiarioService.getHistorico(IBAN, DESDE, HASTA));
+    }
+
+    @Test
+    void getHistoricoIntervaloInvalido() {
+        assertAll(
+                () -> assertThrows(CuentaIntervaloSaldosInvalido.class, () -> saldoDiarioService.getHistorico(IBAN, HASTA, DESDE)),
+                () -> assertThrows(CuentaIntervaloSaldosInvalido.class, () -> saldoDiarioService.getHistorico(IBAN, DESDE, DESDE.plusDays(31)))
+        );
+        verifyNoInteractions(saldoDiarioRepository);
+    }
+
+    @Test
+    void getHistoricoUsuarioDeOtraCuenta() {
+        User user = User.builder().username("user").build();
+        when(cuentaUsuarioResolver.getUsername(IBAN)).thenReturn("otro");
+
+        assertThrows(CuentaNotFoundByIban.class, () -> saldoDiarioService.getHistoricoUsuario(user, IBAN, DESDE, HASTA));
+        verify(saldoDiarioRepository, never()).findByIbanAndFechaBetweenOrderByFechaAsc(any(), any(), any());
+    }
+}
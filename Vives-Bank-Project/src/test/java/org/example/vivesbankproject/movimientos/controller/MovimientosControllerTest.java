@@ -5,6 +5,7 @@ import org.example.vivesbankproject.rest.movimientos.dto.MovimientoRequest;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoResponse;
 import org.example.vivesbankproject.rest.movimientos.models.Transferencia;
 import org.example.vivesbankproject.rest.movimientos.services.MovimientosServiceImpl;
+import org.example.vivesbankproject.utils.pagination.CursorPageResponse;
 import org.example.vivesbankproject.utils.pagination.PageResponse;
 import org.example.vivesbankproject.utils.pagination.PaginationLinksUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +30,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -106,6 +108,24 @@ class MovimientosControllerTest {
         verify(service).getAll(any(Pageable.class));
     }
 
+    @Test
+    void getAllByCursor_ShouldReturnCursorPage() {
+        CursorPageResponse<MovimientoResponse> pagina = new CursorPageResponse<>(
+                List.of(movimientoResponse), 10, 1, true, "siguiente", null, "createdAt", "desc");
+
+        when(service.getAllByCursor(null, 10, false)).thenReturn(pagina);
+        when(paginationLinksUtils.createCursorLinkHeader(eq(pagina), any())).thenReturn("link-header");
+
+        ResponseEntity<CursorPageResponse<MovimientoResponse>> response = movimientosController.getAllByCursor(null, 10, false, mockRequest);
+
+        assertAll(
+                () -> assertEquals(HttpStatus.OK, response.getStatusCode()),
+                () -> assertEquals("link-header", response.getHeaders().getFirst("link")),
+                () -> assertEquals("siguiente", response.getBody().nextCursor())
+        );
+        verify(service).getAllByCursor(null, 10, false);
+    }
+
     @Test
     void getByGuid_ShouldReturnMovimiento() {
         when(service.getByGuid("test-guid")).thenReturn(movimientoResponse);
@@ -119,15 +139,21 @@ class MovimientosControllerTest {
     }
 
     @Test
-    void getByClienteGuid_ShouldReturnMovimiento() {
-        when(service.getByClienteGuid("cliente-test")).thenReturn(movimientoResponse);
+    void getByClienteGuid_ShouldReturnHistorial() {
+        CursorPageResponse<MovimientoResponse> pagina = new CursorPageResponse<>(
+                List.of(movimientoResponse), 10, 1, false, null, null, "createdAt", "desc");
+        LocalDateTime desde = LocalDateTime.now().minusMonths(1);
 
-        ResponseEntity<MovimientoResponse> response = movimientosController.getByClienteGuid("cliente-test");
+        when(service.getByClienteGuid("cliente-test", desde, null, null, 10, false)).thenReturn(pagina);
+        when(paginationLinksUtils.createCursorLinkHeader(eq(pagina), any())).thenReturn("link-header");
+
+        ResponseEntity<CursorPageResponse<MovimientoResponse>> response =
+                movimientosController.getByClienteGuid("cliente-test", desde, null, null, 10, false, mockRequest);
 
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(movimientoResponse, response.getBody());
-        verify(service).getByClienteGuid("cliente-test");
+        assertEquals(List.of(movimientoResponse), response.getBody().content());
+        verify(service).getByClienteGuid("cliente-test", desde, null, null, 10, false);
     }
 
     @Test
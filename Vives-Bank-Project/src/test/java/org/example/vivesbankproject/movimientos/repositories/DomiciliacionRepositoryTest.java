@@ -11,7 +11,11 @@ import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.data.mongodb.core.MongoTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -130,4 +134,63 @@ class DomiciliacionRepositoryTest {
                 () -> assertFalse(updatedDomiciliacion.getActiva(), "El flag activa debe ser actualizado")
         );
     }
+
+    @Test
+    void findVencidas_deberiaDevolverSoloActivasConFechaVencida() {
+        LocalDateTime ahora = LocalDateTime.now();
+        Domiciliacion vencida = domiciliacionConProxima(ahora.minusMinutes(5), true);
+        Domiciliacion futura = domiciliacionConProxima(ahora.plusDays(1), true);
+        Domiciliacion inactiva = domiciliacionConProxima(ahora.minusMinutes(5), false);
+
+        Domiciliacion otraParticion = domiciliacionConProxima(ahora.minusMinutes(5), true);
+        otraParticion.setParticion((vencida.getParticion() + 1) % Domiciliacion.PARTICIONES);
+        mongoTemplate.save(otraParticion);
+
+        List<String> guids;
+        try (Stream<Domiciliacion> result = domiciliacionRepository.findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(
+                Set.of(vencida.getParticion()), ahora)) {
+            guids = result.map(Domiciliacion::getGuid).toList();
+        }
+
+        assertAll(
+                () -> assertTrue(guids.contains(vencida.getGuid()), "La domiciliacion vencida deberia devolverse"),
+                () -> assertFalse(guids.contains(futura.getGuid()), "La domiciliacion futura no deberia devolverse"),
+                () -> assertFalse(guids.contains(inactiva.getGuid()), "La domiciliacion inactiva no deberia devolverse"),
+                () -> assertFalse(guids.contains(otraParticion.getGuid()), "La domiciliacion de otra particion no deberia devolverse")
+        );
+    }
+
+    @Test
+    void findSinProgramar_deberiaDevolverActivasSinProximaEjecucionOParticion() {
+        Domiciliacion programada = domiciliacionConProxima(LocalDateTime.now().plusDays(1), true);
+        Domiciliacion sinParticion = domiciliacionConProxima(LocalDateTime.now().plusDays(1), true);
+        sinParticion.setParticion(null);
+        mongoTemplate.save(sinParticion);
+
+        List<String> guids;
+        try (Stream<Domiciliacion> result = domiciliacionRepository.findSinProgramar()) {
+            guids = result.map(Domiciliacion::getGuid).toList();
+        }
+
+        assertAll(
+                () -> assertTrue(guids.contains(domiciliacion.getGuid()), "La domiciliacion sin fecha deberia devolverse"),
+                () -> assertTrue(guids.contains(sinParticion.getGuid()), "La domiciliacion sin particion deberia devolverse"),
+                () -> assertFalse(guids.contains(programada.getGuid()), "La domiciliacion programada no deberia devolverse")
+        );
+    }
+
+    private Domiciliacion domiciliacionConProxima(LocalDateTime proximaEjecucion, boolean activa) {
+        Domiciliacion nueva = Domiciliacion.builder()
+                .guid(IdGenerator.generarId())
+                .clienteGuid(IdGenerator.generarId())
+                .ibanOrigen("ES1234567890123456789012")
+                .ibanDestino("ES9876543210987654321098")
+                .cantidad(BigDecimal.valueOf(10))
+                .periodicidad(Periodicidad.DIARIA)
+                .activa(activa)
+                .proximaEjecucion(proximaEjecucion)
+                .particion(Domiciliacion.particionDe("ES1234567890123456789012"))
+                .build();
+        return mongoTemplate.insert(nueva);
+    }
 }
@@ -1,5 +1,6 @@
 package org.example.vivesbankproject.movimientos.repositories;
 
+import org.bson.types.ObjectId;
 import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
 import org.example.vivesbankproject.rest.movimientos.models.Domiciliacion;
 import org.example.vivesbankproject.rest.movimientos.models.IngresoDeNomina;
@@ -11,9 +12,14 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -70,15 +76,18 @@ class MovimientoRepositoryTest {
 
     @Test
     void findMovimientosByClienteGuid() {
-        System.out.println("Cliente GUID esperado: " + clienteGuid );
-
-        movimientosRepository.save(movimiento);
+        Movimiento anterior = mongoTemplate.insert(Movimiento.builder()
+                .guid(IdGenerator.generarId())
+                .clienteGuid(clienteGuid)
+                .createdAt(movimiento.getCreatedAt().minusDays(1))
+                .build());
 
-        Optional<Movimiento> result = movimientosRepository.findByClienteGuid(clienteGuid);
+        List<Movimiento> result = movimientosRepository.findAllByClienteGuidOrderByCreatedAtDesc(clienteGuid);
 
         assertAll(
-                () -> assertTrue(result.isPresent(), "Movimiento deberia ser encontrado para el cliente existente"),
-                () -> assertEquals(clienteGuid, movimiento.getClienteGuid())
+                () -> assertEquals(2, result.size(), "Deberian encontrarse todos los movimientos del cliente"),
+                () -> assertEquals(movimiento.getGuid(), result.get(0).getGuid(), "El mas reciente debe ir primero"),
+                () -> assertEquals(anterior.getGuid(), result.get(1).getGuid())
         );
     }
 
@@ -86,11 +95,74 @@ class MovimientoRepositoryTest {
     void findMovimientosByClienteGuid_ClienteNoExiste() {
         String nonExistentClienteGuid = IdGenerator.generarId();
 
-        Optional<Movimiento> result = movimientosRepository.findByClienteGuid(nonExistentClienteGuid);
+        List<Movimiento> result = movimientosRepository.findAllByClienteGuidOrderByCreatedAtDesc(nonExistentClienteGuid);
 
         assertTrue(result.isEmpty(), "El resultado deberia estar vacio para un GUID de cliente inexistente");
     }
 
+    @Test
+    void findHistorialCliente_filtraPorFechasYOmiteDomiciliacion() {
+        LocalDateTime base = movimiento.getCreatedAt().withNano(0);
+        for (int dia = 1; dia <= 5; dia++) {
+            mongoTemplate.insert(Movimiento.builder()
+                    .guid(IdGenerator.generarId())
+                    .clienteGuid(clienteGuid)
+                    .domiciliacion(Domiciliacion.builder().guid(IdGenerator.generarId()).build())
+                    .createdAt(base.minusDays(dia))
+                    .build());
+        }
+        // Movimiento de otro cliente en el mismo intervalo
+        mongoTemplate.insert(Movimiento.builder().clienteGuid(IdGenerator.generarId()).createdAt(base.minusDays(2)).build());
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+        ObjectId ultimo = new ObjectId("ffffffffffffffffffffffff");
+
+        List<Movimiento> sinDomiciliacion = movimientosRepository.findHistorialCliente(
+                clienteGuid, base.minusDays(4), base.minusDays(2), ultimo, pageable);
+        List<Movimiento> conDomiciliacion = movimientosRepository.findHistorialClienteConDomiciliacion(
+                clienteGuid, base.minusDays(4), base.minusDays(2), ultimo, pageable);
+
+        assertAll(
+                () -> assertEquals(3, sinDomiciliacion.size(), "Solo los movimientos del cliente entre ambas fechas, incluidas"),
+                () -> assertEquals(base.minusDays(2), sinDomiciliacion.get(0).getCreatedAt()),
+                () -> assertTrue(sinDomiciliacion.stream().allMatch(m -> m.getDomiciliacion() == null)),
+                () -> assertEquals(3, conDomiciliacion.size()),
+                () -> assertTrue(conDomiciliacion.stream().allMatch(m -> m.getDomiciliacion() != null))
+        );
+    }
+
+    @Test
+    void findAnterioresA_recorreSinSaltosNiRepetidos() {
+        mongoTemplate.dropCollection(Movimiento.class);
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 7; i++) {
+            // Dos movimientos por instante para comprobar el desempate por _id
+            mongoTemplate.insert(Movimiento.builder()
+                    .guid(IdGenerator.generarId())
+                    .clienteGuid(clienteGuid)
+                    .createdAt(base.minusSeconds(i / 2))
+                    .build());
+        }
+        Pageable pageable = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "createdAt", "id"));
+
+        List<Movimiento> recorridos = new ArrayList<>(movimientosRepository.findAllBy(pageable));
+        List<Movimiento> pagina = recorridos;
+        while (!pagina.isEmpty()) {
+            Movimiento ultimo = pagina.get(pagina.size() - 1);
+            pagina = movimientosRepository.findAnterioresA(ultimo.getCreatedAt(), ultimo.getId(), pageable);
+            recorridos.addAll(pagina);
+        }
+
+        assertAll(
+                () -> assertEquals(7, recorridos.size()),
+                () -> assertEquals(7, recorridos.stream().map(Movimiento::getGuid).distinct().count()),
+                () -> {
+                    for (int i = 1; i < recorridos.size(); i++) {
+                        assertFalse(recorridos.get(i).getCreatedAt().isAfter(recorridos.get(i - 1).getCreatedAt()));
+                    }
+                }
+        );
+    }
+
     @Test
     void save() {
         Movimiento newMovimiento = Movimiento.builder()
@@ -0,0 +1,164 @@
+package org.example.vivesbankproject.movimientos.services;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.WriteModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
+import org.example.vivesbankproject.rest.movimientos.models.MovimientoOutbox;
+import org.example.vivesbankproject.rest.movimientos.repositories.MovimientoOutboxRepository;
+import org.example.vivesbankproject.rest.movimientos.services.MovimientoOutboxServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
+class MovimientoOutboxServiceImplTest {
+
+    @Mock
+    private MovimientoOutboxRepository outboxRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoConverter mongoConverter;
+
+    @Mock
+    private MongoCollection<Document> coleccion;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private MovimientoOutboxServiceImpl outboxService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxService = new MovimientoOutboxServiceImpl(outboxRepository, mongoTemplate, meterRegistry);
+    }
+
+    private MovimientoOutbox entrada(long id, MovimientoOutbox.Operacion operacion) {
+        ObjectId objectId = new ObjectId();
+        return MovimientoOutbox.builder()
+                .id(id)
+                .guid("guid-" + id)
+                .operacion(operacion)
+                .documento(new Document("_id", objectId).append("guid", "guid-" + id).toJson())
+                .build();
+    }
+
+    @Test
+    void registrarAlta() {
+        Movimiento movimiento = Movimiento.builder().clienteGuid("client123").build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+
+        outboxService.registrarAlta(movimiento);
+
+        ArgumentCaptor<MovimientoOutbox> captor = ArgumentCaptor.forClass(MovimientoOutbox.class);
+        verify(mongoConverter).write(eq(movimiento), any(Document.class));
+        verify(outboxRepository).save(captor.capture());
+        assertAll(
+                () -> assertEquals(movimiento.getGuid(), captor.getValue().getGuid()),
+                () -> assertEquals(MovimientoOutbox.Operacion.ALTA, captor.getValue().getOperacion()),
+                () -> assertFalse(captor.getValue().getEntregado())
+        );
+    }
+
+    @Test
+    void registrarActualizacion() {
+        Movimiento movimiento = Movimiento.builder().clienteGuid("client123").isDeleted(true).build();
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+
+        outboxService.registrarActualizacion(movimiento);
+
+        ArgumentCaptor<MovimientoOutbox> captor = ArgumentCaptor.forClass(MovimientoOutbox.class);
+        verify(outboxRepository).save(captor.capture());
+        assertEquals(MovimientoOutbox.Operacion.ACTUALIZACION, captor.getValue().getOperacion());
+    }
+
+    @Test
+    void publicarPendientesVacio() {
+        when(outboxRepository.bloquearPendientes(100)).thenReturn(List.of());
+
+        int result = outboxService.publicarPendientes(100);
+
+        assertEquals(0, result);
+        verifyNoInteractions(mongoTemplate);
+        verify(outboxRepository, never()).marcarEntregados(any());
+    }
+
+    @Test
+    void publicarPendientes() {
+        var alta1 = entrada(1L, MovimientoOutbox.Operacion.ALTA);
+        var alta2 = entrada(2L, MovimientoOutbox.Operacion.ALTA);
+        var actualizacion = entrada(3L, MovimientoOutbox.Operacion.ACTUALIZACION);
+        when(outboxRepository.bloquearPendientes(100)).thenReturn(List.of(alta1, alta2, actualizacion));
+        when(mongoTemplate.getCollectionName(Movimiento.class)).thenReturn("movimientos");
+        when(mongoTemplate.getCollection("movimientos")).thenReturn(coleccion);
+
+        int result = outboxService.publicarPendientes(100);
+
+        assertAll(
+                () -> assertEquals(3, result),
+                () -> assertEquals(3.0, meterRegistry.get("movimientos.outbox.publicados").counter().count())
+        );
+        ArgumentCaptor<List<Document>> altas = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<WriteModel<Document>>> actualizaciones = ArgumentCaptor.forClass(List.class);
+        verify(coleccion).insertMany(altas.capture(), any(InsertManyOptions.class));
+        verify(coleccion).bulkWrite(actualizaciones.capture(), any(BulkWriteOptions.class));
+        assertAll(
+                () -> assertEquals(List.of("guid-1", "guid-2"), altas.getValue().stream().map(d -> d.getString("guid")).toList()),
+                () -> assertEquals(1, actualizaciones.getValue().size())
+        );
+        verify(outboxRepository).marcarEntregados(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void publicarPendientesIgnoraDuplicados() {
+        var alta = entrada(1L, MovimientoOutbox.Operacion.ALTA);
+        when(outboxRepository.bloquearPendientes(100)).thenReturn(List.of(alta));
+        when(mongoTemplate.getCollectionName(Movimiento.class)).thenReturn("movimientos");
+        when(mongoTemplate.getCollection("movimientos")).thenReturn(coleccion);
+        MongoBulkWriteException duplicado = mock(MongoBulkWriteException.class);
+        when(duplicado.getWriteErrors()).thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 0)));
+        when(coleccion.insertMany(anyList(), any(InsertManyOptions.class))).thenThrow(duplicado);
+
+        int result = outboxService.publicarPendientes(100);
+
+        assertEquals(1, result);
+        verify(outboxRepository).marcarEntregados(List.of(1L));
+    }
+
+    @Test
+    void publicarPendientesErrorNoMarcaEntregados() {
+        var alta = entrada(1L, MovimientoOutbox.Operacion.ALTA);
+        when(outboxRepository.bloquearPendientes(100)).thenReturn(List.of(alta));
+        when(mongoTemplate.getCollectionName(Movimiento.class)).thenReturn("movimientos");
+        when(mongoTemplate.getCollection("movimientos")).thenReturn(coleccion);
+        MongoBulkWriteException error = mock(MongoBulkWriteException.class);
+        when(error.getWriteErrors()).thenReturn(List.of(new BulkWriteError(121, "validation", new BsonDocument(), 0)));
+        when(coleccion.insertMany(anyList(), any(InsertManyOptions.class))).thenThrow(error);
+
+        assertThrows(MongoBulkWriteException.class, () -> outboxService.publicarPendientes(100));
+
+        verify(outboxRepository, never()).marcarEntregados(any());
+    }
+}
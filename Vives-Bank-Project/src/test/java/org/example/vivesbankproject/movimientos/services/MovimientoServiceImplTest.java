@@ -5,16 +5,21 @@ import org.example.vivesbankproject.rest.cliente.dto.ClienteResponse;
 import org.example.vivesbankproject.rest.cliente.exceptions.ClienteNotFoundByUser;
 import org.example.vivesbankproject.rest.cliente.models.Cliente;
 import org.example.vivesbankproject.rest.cliente.service.ClienteService;
-import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaRequestUpdate;
 import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaResponse;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaSaldo;
 import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFound;
 import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFoundByClienteGuid;
 import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaNotFoundByTarjetaId;
-import org.example.vivesbankproject.rest.cuenta.mappers.CuentaMapper;
+import org.example.vivesbankproject.rest.cuenta.exceptions.cuenta.CuentaSaldoInsuficiente;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaBalanceService;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaTransferenciaExecutor;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
 import org.example.vivesbankproject.rest.cuenta.models.Cuenta;
 import org.example.vivesbankproject.rest.cuenta.services.CuentaService;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoRequest;
 import org.example.vivesbankproject.rest.movimientos.dto.MovimientoResponse;
+import org.example.vivesbankproject.rest.movimientos.dto.TransferenciaBatchResultado;
+import org.example.vivesbankproject.rest.movimientos.dto.TransferenciasBatchResponse;
 import org.example.vivesbankproject.rest.movimientos.exceptions.domiciliacion.DuplicatedDomiciliacionException;
 import org.example.vivesbankproject.rest.movimientos.exceptions.domiciliacion.SaldoInsuficienteException;
 import org.example.vivesbankproject.rest.movimientos.exceptions.movimientos.*;
@@ -22,15 +27,19 @@ import org.example.vivesbankproject.rest.movimientos.mappers.MovimientoMapper;
 import org.example.vivesbankproject.rest.movimientos.models.*;
 import org.example.vivesbankproject.rest.movimientos.repositories.DomiciliacionRepository;
 import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
+import org.example.vivesbankproject.rest.movimientos.repositories.TransferenciaRevocadaRepository;
+import org.example.vivesbankproject.rest.movimientos.services.MovimientoOutboxService;
 import org.example.vivesbankproject.rest.movimientos.services.MovimientosServiceImpl;
 import org.example.vivesbankproject.rest.tarjeta.dto.TarjetaResponse;
 import org.example.vivesbankproject.rest.tarjeta.exceptions.TarjetaNotFoundByNumero;
 import org.example.vivesbankproject.rest.tarjeta.models.Tarjeta;
 import org.example.vivesbankproject.rest.tarjeta.service.TarjetaService;
+import org.example.vivesbankproject.config.websockets.NotificationDispatcher;
 import org.example.vivesbankproject.config.websockets.WebSocketConfig;
 import org.example.vivesbankproject.rest.users.dto.UserResponse;
 import org.example.vivesbankproject.rest.users.models.User;
-import org.example.vivesbankproject.rest.users.services.UserService;
+import org.example.vivesbankproject.utils.pagination.CursorPageResponse;
+import org.example.vivesbankproject.utils.pagination.KeysetCursor;
 import org.example.vivesbankproject.websocket.notifications.dto.DomiciliacionResponse;
 import org.example.vivesbankproject.websocket.notifications.mappers.NotificationMapper;
 import org.example.vivesbankproject.websocket.notifications.models.Notification;
@@ -44,13 +53,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -75,7 +88,13 @@ class MovimientoServiceImplTest {
     private CuentaService cuentaService;
 
     @Mock
-    private CuentaMapper cuentaMapper;
+    private CuentaBalanceService cuentaBalanceService;
+
+    @Mock
+    private CuentaTransferenciaExecutor cuentaTransferenciaExecutor;
+
+    @Mock
+    private MovimientoOutboxService movimientoOutboxService;
 
     @Mock
     private NotificationMapper notificationMapper;
@@ -87,7 +106,13 @@ class MovimientoServiceImplTest {
     private WebSocketConfig webSocketConfig;
 
     @Mock
-    private UserService userService;
+    private NotificationDispatcher notificationDispatcher;
+
+    @Mock
+    private CuentaUsuarioResolver cuentaUsuarioResolver;
+
+    @Mock
+    private TransferenciaRevocadaRepository transferenciaRevocadaRepository;
 
     @InjectMocks
     private MovimientosServiceImpl movimientosService;
@@ -144,6 +169,54 @@ class MovimientoServiceImplTest {
         verify(movimientosRepository).findAll(pageable);
     }
 
+    @Test
+    void testGetAllByCursor_PrimeraPagina() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Movimiento> leidos = List.of(
+                Movimiento.builder().createdAt(ahora).build(),
+                Movimiento.builder().createdAt(ahora.minusSeconds(1)).build(),
+                Movimiento.builder().createdAt(ahora.minusSeconds(2)).build());
+        when(movimientosRepository.findAllBy(any(Pageable.class))).thenReturn(leidos);
+        when(movimientosMapper.toMovimientoResponse(any(Movimiento.class))).thenReturn(movimientoResponse);
+
+        CursorPageResponse<MovimientoResponse> result = movimientosService.getAllByCursor(null, 2, false);
+
+        assertAll(
+                () -> assertEquals(2, result.content().size()),
+                () -> assertTrue(result.hasNext()),
+                () -> assertNull(result.totalElements()),
+                () -> assertEquals(new KeysetCursor(leidos.get(1).getCreatedAt(), leidos.get(1).get_id()),
+                        KeysetCursor.decode(result.nextCursor()))
+        );
+        verify(movimientosRepository).findAllBy(PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "createdAt", "id")));
+        verify(movimientosRepository, never()).count();
+    }
+
+    @Test
+    void testGetAllByCursor_PaginaSiguienteConTotal() {
+        ObjectId id = new ObjectId();
+        LocalDateTime fecha = LocalDateTime.now().withNano(0);
+        String cursor = new KeysetCursor(fecha, id.toHexString()).encode();
+        when(movimientosRepository.findAnterioresA(eq(fecha), eq(id), any(Pageable.class))).thenReturn(List.of(movimiento));
+        when(movimientosRepository.count()).thenReturn(11L);
+        when(movimientosMapper.toMovimientoResponse(movimiento)).thenReturn(movimientoResponse);
+
+        CursorPageResponse<MovimientoResponse> result = movimientosService.getAllByCursor(cursor, 10, true);
+
+        assertAll(
+                () -> assertEquals(1, result.content().size()),
+                () -> assertFalse(result.hasNext()),
+                () -> assertNull(result.nextCursor()),
+                () -> assertEquals(11L, result.totalElements())
+        );
+    }
+
+    @Test
+    void testGetAllByCursor_CursorInvalido() {
+        assertThrows(CursorInvalidoException.class, () -> movimientosService.getAllByCursor("no-es-un-cursor", 10, false));
+        verifyNoInteractions(movimientosRepository);
+    }
+
     @Test
     void testGetById_Existing() {
         ObjectId objectId = new ObjectId();
@@ -214,31 +287,75 @@ class MovimientoServiceImplTest {
     }
 
     @Test
-    void testGetByClienteGuid_Existing() {
+    void testGetByClienteGuid_PrimeraPagina() {
         String clienteGuid = "client123";
+        LocalDateTime hasta = LocalDateTime.now().withNano(0);
 
         when(clienteService.getById(clienteGuid)).thenReturn(null);
-        when(movimientosRepository.findByClienteGuid(clienteGuid))
-                .thenReturn(Optional.of(movimiento));
+        when(movimientosRepository.findHistorialCliente(eq(clienteGuid), any(LocalDateTime.class), eq(hasta),
+                eq(new ObjectId("ffffffffffffffffffffffff")), any(Pageable.class)))
+                .thenReturn(List.of(movimiento));
         when(movimientosMapper.toMovimientoResponse(movimiento))
                 .thenReturn(movimientoResponse);
 
-        MovimientoResponse result = movimientosService.getByClienteGuid(clienteGuid);
+        CursorPageResponse<MovimientoResponse> result = movimientosService.getByClienteGuid(clienteGuid, null, hasta, null, 10, false);
 
-        assertNotNull(result);
-        assertEquals("client123", result.getClienteGuid());
+        assertAll(
+                () -> assertEquals(1, result.content().size()),
+                () -> assertEquals("client123", result.content().get(0).getClienteGuid()),
+                () -> assertFalse(result.hasNext())
+        );
+        verify(movimientosRepository, never()).findHistorialClienteConDomiciliacion(any(), any(), any(), any(), any());
     }
 
     @Test
-    void testGetByClienteGuid_NoMovements() {
+    void testGetByClienteGuid_SinMovimientos() {
         String clienteGuid = "client-no-movements";
 
         when(clienteService.getById(clienteGuid)).thenReturn(null);
-        when(movimientosRepository.findByClienteGuid(clienteGuid))
-                .thenReturn(Optional.empty());
+        when(movimientosRepository.findHistorialCliente(eq(clienteGuid), any(), any(), any(), any()))
+                .thenReturn(List.of());
+
+        CursorPageResponse<MovimientoResponse> result = movimientosService.getByClienteGuid(clienteGuid, null, null, null, 10, false);
+
+        assertAll(
+                () -> assertTrue(result.content().isEmpty()),
+                () -> assertNull(result.nextCursor())
+        );
+    }
+
+    @Test
+    void testGetMovimientosUsuario_ConCursorYDomiciliacion() {
+        User user = User.builder().guid("user-guid").build();
+        ObjectId id = new ObjectId();
+        LocalDateTime fecha = LocalDateTime.now().withNano(0);
+        LocalDateTime desde = fecha.minusDays(30);
+        String cursor = new KeysetCursor(fecha, id.toHexString()).encode();
+
+        when(clienteService.getUserAuthenticatedByGuid("user-guid")).thenReturn(clienteResponse);
+        when(movimientosRepository.findHistorialClienteConDomiciliacion(eq("client123"), eq(desde), eq(fecha), eq(id), any(Pageable.class)))
+                .thenReturn(List.of(movimiento, movimiento));
+        when(movimientosMapper.toMovimientoResponse(movimiento)).thenReturn(movimientoResponse);
+
+        CursorPageResponse<MovimientoResponse> result = movimientosService.getMovimientosUsuario(user, desde, null, cursor, 1, true);
+
+        assertAll(
+                () -> assertEquals(1, result.content().size()),
+                () -> assertTrue(result.hasNext()),
+                () -> assertNotNull(result.nextCursor())
+        );
+        verify(movimientosRepository, never()).findHistorialCliente(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void testGetMovimientosUsuario_CursorInvalido() {
+        User user = User.builder().guid("user-guid").build();
+        String cursor = new KeysetCursor(LocalDateTime.now(), "no-es-un-object-id").encode();
+
+        when(clienteService.getUserAuthenticatedByGuid("user-guid")).thenReturn(clienteResponse);
 
-        assertThrows(ClienteHasNoMovements.class,
-                () -> movimientosService.getByClienteGuid(clienteGuid));
+        assertThrows(CursorInvalidoException.class,
+                () -> movimientosService.getMovimientosUsuario(user, null, null, cursor, 10, false));
     }
 
     @Test
@@ -282,8 +399,6 @@ class MovimientoServiceImplTest {
         when(domiciliacionRepository.findByClienteGuid(anyString())).thenReturn(Optional.empty());
         when(domiciliacionRepository.save(any(Domiciliacion.class))).thenReturn(domiciliacion);
         when(notificationMapper.toDomiciliacionDto(domiciliacion)).thenReturn(domiciliacionResponse);
-        when(clienteService.getById(anyString())).thenReturn(clienteResponse);
-        when(userService.getById(anyString())).thenReturn(userResponse); // Add this line to mock the userService call
 
         // Act
         Domiciliacion result = movimientosService.saveDomiciliacion(user, domiciliacion);
@@ -295,6 +410,8 @@ class MovimientoServiceImplTest {
         );
 
         verify(domiciliacionRepository).save(domiciliacion);
+        verify(notificationDispatcher).enviar(any(), eq(userResponse.getUsername()), anyString());
+        verifyNoInteractions(cuentaUsuarioResolver);
     }
 
     @Test
@@ -439,12 +556,9 @@ class MovimientoServiceImplTest {
 
         when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(clienteResponse);
         when(cuentaService.getByIban(ingresoDeNomina.getIban_Destino())).thenReturn(cuenta);
-        when(movimientosRepository.save(any(Movimiento.class))).thenReturn(movimiento);
-        when(movimientosMapper.toMovimientoResponse(movimiento)).thenReturn(expectedResponse);
-        when(cuentaMapper.toCuentaRequestUpdate(any())).thenReturn(new CuentaRequestUpdate());
-        when(cuentaService.getByIban(domiciliacion.getIbanOrigen())).thenReturn(cuenta);
-        when(clienteService.getById(anyString())).thenReturn(clienteResponse);
-        when(userService.getById(anyString())).thenReturn(userResponse);
+        when(cuentaTransferenciaExecutor.ejecutar(anyList(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(movimientosMapper.toMovimientoResponse(any(Movimiento.class))).thenReturn(expectedResponse);
+        when(cuentaUsuarioResolver.getUsername(cuenta.getIban())).thenReturn("username123");
 
         // Act
         MovimientoResponse actualResponse = movimientosService.saveIngresoDeNomina(user, ingresoDeNomina);
@@ -456,7 +570,10 @@ class MovimientoServiceImplTest {
                 () -> assertNotEquals(null, actualResponse.getIngresoDeNomina())
         );
 
-        verify(movimientosRepository, times(1)).save(any(Movimiento.class));
+        verify(movimientoOutboxService, times(1)).registrarAlta(any(Movimiento.class));
+        verify(movimientosRepository, never()).save(any(Movimiento.class));
+        verify(cuentaBalanceService).acreditar(cuenta.getIban(), new BigDecimal("100.0"));
+        verify(notificationDispatcher).enviar(any(), eq("username123"), anyString());
     }
 
     @Test
@@ -570,10 +687,7 @@ class MovimientoServiceImplTest {
         when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(clienteResponse);
         when(tarjetaService.getByNumeroTarjeta(pagoConTarjeta.getNumeroTarjeta())).thenReturn(clienteTarjetaResponse);
         when(cuentaService.getAllCuentasByClienteGuid(clienteResponse.getGuid())).thenReturn(new ArrayList<>(List.of(cuenta)));
-        when(cuentaService.getByNumTarjeta(clienteTarjeta.getNumeroTarjeta())).thenReturn(cuenta);
-        when(clienteService.getById(cuenta.getClienteId())).thenReturn(clienteResponse);
-        when(userService.getById(clienteResponse.getUserId())).thenReturn(userResponse);
-        when(movimientosRepository.save(any(Movimiento.class))).thenReturn(movimiento);
+        when(cuentaTransferenciaExecutor.ejecutar(anyList(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
         when(movimientosMapper.toMovimientoResponse(any(Movimiento.class))).thenReturn(movimientoResponse);
 
         // Act
@@ -582,8 +696,11 @@ class MovimientoServiceImplTest {
         // Assert
         assertNotNull(response.getPagoConTarjeta());
 
-        verify(movimientosRepository).save(any(Movimiento.class));
+        verify(movimientoOutboxService).registrarAlta(any(Movimiento.class));
         verify(movimientosMapper).toMovimientoResponse(any(Movimiento.class));
+        verify(cuentaBalanceService).debitar(cuenta.getIban(), new BigDecimal("100.0"));
+        verify(notificationDispatcher).enviar(any(), isNull(), anyString());
+        verifyNoInteractions(cuentaUsuarioResolver);
     }
 
     @Test
@@ -804,11 +921,9 @@ class MovimientoServiceImplTest {
         when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(clienteResponse);
         when(cuentaService.getByIban(transferencia.getIban_Origen())).thenReturn(cuenta);
         when(cuentaService.getByIban(transferencia.getIban_Destino())).thenReturn(cuenta);
-        when(movimientosRepository.save(any(Movimiento.class))).thenReturn(movimiento);
-        when(movimientosMapper.toMovimientoResponse(movimiento)).thenReturn(expectedResponse);
-        when(cuentaMapper.toCuentaRequestUpdate(any())).thenReturn(new CuentaRequestUpdate());
-        when(userService.getById(clienteResponse.getUserId())).thenReturn(userResponse);
-        when(clienteService.getById(anyString())).thenReturn(clienteResponse);
+        when(cuentaTransferenciaExecutor.ejecutar(anyList(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(movimientosMapper.toMovimientoResponse(any(Movimiento.class))).thenReturn(expectedResponse);
+        when(cuentaUsuarioResolver.getUsername(transferencia.getIban_Destino())).thenReturn("beneficiario");
 
 
 
@@ -822,7 +937,11 @@ class MovimientoServiceImplTest {
                 () -> assertNotEquals(null, actualResponse.getTransferencia())
         );
 
-        verify(movimientosRepository, times(2)).save(any(Movimiento.class));
+        verify(movimientoOutboxService, times(2)).registrarAlta(any(Movimiento.class));
+        verify(movimientosRepository, never()).save(any(Movimiento.class));
+        verify(cuentaBalanceService).transferir(cuenta.getIban(), cuenta.getIban(), transferencia.getCantidad());
+        verify(notificationDispatcher).enviar(any(), eq("beneficiario"), anyString());
+        verify(cuentaUsuarioResolver, times(1)).getUsername(anyString());
     }
 
     @Test
@@ -991,6 +1110,170 @@ class MovimientoServiceImplTest {
         verify(movimientosRepository, times(0)).save(any(Movimiento.class));
     }
 
+    private CuentaSaldo cuentaSaldo(String iban, String saldo, String clienteGuid) {
+        return new CuentaSaldo() {
+            @Override
+            public String getIban() {
+                return iban;
+            }
+
+            @Override
+            public BigDecimal getSaldo() {
+                return new BigDecimal(saldo);
+            }
+
+            @Override
+            public String getClienteGuid() {
+                return clienteGuid;
+            }
+        };
+    }
+
+    @Test
+    void testSaveTransferenciasBatch_Success() {
+        // Arrange
+        User user = User.builder()
+                .guid("user-guid")
+                .build();
+
+        String ibanOrigen = "ES6812341234724675333400";
+        String ibanDestino1 = "ES8012341234482049546300";
+        String ibanDestino2 = "ES8412341234724675333500";
+
+        List<Transferencia> transferencias = List.of(
+                Transferencia.builder().iban_Origen(ibanOrigen).iban_Destino(ibanDestino1).cantidad(new BigDecimal("60.00")).nombreBeneficiario("Uno").build(),
+                Transferencia.builder().iban_Origen(ibanOrigen).iban_Destino(ibanDestino2).cantidad(new BigDecimal("30.00")).nombreBeneficiario("Dos").build(),
+                Transferencia.builder().iban_Origen(ibanOrigen).iban_Destino(ibanDestino1).cantidad(new BigDecimal("20.00")).nombreBeneficiario("Tres").build()
+        );
+
+        when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(clienteResponse);
+        when(cuentaTransferenciaExecutor.ejecutar(anyCollection(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(cuentaBalanceService.getSaldos(anyCollection())).thenReturn(List.of(
+                cuentaSaldo(ibanOrigen, "100.00", clienteResponse.getGuid()),
+                cuentaSaldo(ibanDestino1, "0.00", "otro-cliente"),
+                cuentaSaldo(ibanDestino2, "0.00", "otro-cliente")
+        ));
+        when(movimientosMapper.toMovimientoResponse(any(Movimiento.class))).thenReturn(movimientoResponse);
+        when(cuentaUsuarioResolver.getUsernames(Set.of(ibanDestino1, ibanDestino2))).thenReturn(Map.of(ibanDestino1, "uno", ibanDestino2, "dos"));
+
+        // Act
+        TransferenciasBatchResponse response = movimientosService.saveTransferenciasBatch(user, transferencias);
+
+        // Assert
+        assertAll(
+                () -> assertEquals(3, response.getTotal()),
+                () -> assertEquals(2, response.getRealizadas()),
+                () -> assertEquals(1, response.getRechazadas()),
+                () -> assertEquals(TransferenciaBatchResultado.Estado.REALIZADA, response.getResultados().get(0).getEstado()),
+                () -> assertEquals(TransferenciaBatchResultado.Estado.REALIZADA, response.getResultados().get(1).getEstado()),
+                () -> assertEquals(TransferenciaBatchResultado.Estado.RECHAZADA, response.getResultados().get(2).getEstado()),
+                () -> assertEquals(2, response.getResultados().get(2).getIndice()),
+                () -> assertNotNull(response.getResultados().get(2).getError())
+        );
+
+        verify(cuentaBalanceService).aplicarVariaciones(Map.of(
+                ibanOrigen, new BigDecimal("-90.00"),
+                ibanDestino1, new BigDecimal("60.00"),
+                ibanDestino2, new BigDecimal("30.00")
+        ));
+        verify(movimientoOutboxService).registrarAltas(argThat(movimientos -> movimientos.size() == 4));
+        verify(cuentaBalanceService, times(1)).getSaldos(anyCollection());
+        verify(movimientosRepository, never()).save(any(Movimiento.class));
+        verify(notificationDispatcher).enviar(any(), eq("uno"), anyString());
+        verify(notificationDispatcher).enviar(any(), eq("dos"), anyString());
+        verify(cuentaUsuarioResolver, times(1)).getUsernames(anyCollection());
+    }
+
+    @Test
+    void testSaveTransferenciasBatch_CuentaAjenaYCuentaNoExiste() {
+        // Arrange
+        User user = User.builder()
+                .guid("user-guid")
+                .build();
+
+        String ibanPropio = "ES6812341234724675333400";
+        String ibanAjeno = "ES8012341234482049546300";
+        String ibanInexistente = "ES4112341234724675339900";
+
+        List<Transferencia> transferencias = List.of(
+                Transferencia.builder().iban_Origen(ibanAjeno).iban_Destino(ibanPropio).cantidad(new BigDecimal("10.00")).nombreBeneficiario("Uno").build(),
+                Transferencia.builder().iban_Origen(ibanPropio).iban_Destino(ibanInexistente).cantidad(new BigDecimal("10.00")).nombreBeneficiario("Dos").build()
+        );
+
+        when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(clienteResponse);
+        when(cuentaTransferenciaExecutor.ejecutar(anyCollection(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(cuentaBalanceService.getSaldos(anyCollection())).thenReturn(List.of(
+                cuentaSaldo(ibanPropio, "100.00", clienteResponse.getGuid()),
+                cuentaSaldo(ibanAjeno, "100.00", "otro-cliente")
+        ));
+
+        // Act
+        TransferenciasBatchResponse response = movimientosService.saveTransferenciasBatch(user, transferencias);
+
+        // Assert
+        assertAll(
+                () -> assertEquals(0, response.getRealizadas()),
+                () -> assertEquals(2, response.getRechazadas()),
+                () -> assertEquals("El iban " + ibanAjeno + " no es válido como Iban de origen", response.getResultados().get(0).getError()),
+                () -> assertEquals(TransferenciaBatchResultado.Estado.RECHAZADA, response.getResultados().get(1).getEstado())
+        );
+
+        verify(cuentaBalanceService, never()).aplicarVariaciones(any());
+        verify(movimientoOutboxService, never()).registrarAltas(any());
+    }
+
+    @Test
+    void testSaveTransferenciasBatch_IbanInvalidoYMismaCuenta() {
+        // Arrange
+        User user = User.builder()
+                .guid("user-guid")
+                .build();
+
+        String ibanPropio = "ES6812341234724675333400";
+        String ibanInvalido = "ES0012341234724675333400";
+
+        List<Transferencia> transferencias = List.of(
+                Transferencia.builder().iban_Origen(ibanPropio).iban_Destino(ibanInvalido).cantidad(new BigDecimal("10.00")).nombreBeneficiario("Uno").build(),
+                Transferencia.builder().iban_Origen(ibanPropio).iban_Destino(ibanPropio).cantidad(new BigDecimal("10.00")).nombreBeneficiario("Dos").build()
+        );
+
+        when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(clienteResponse);
+        when(cuentaTransferenciaExecutor.ejecutar(anyCollection(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(cuentaBalanceService.getSaldos(anyCollection())).thenReturn(List.of(
+                cuentaSaldo(ibanPropio, "100.00", clienteResponse.getGuid()),
+                cuentaSaldo(ibanInvalido, "100.00", "otro-cliente")
+        ));
+
+        // Act
+        TransferenciasBatchResponse response = movimientosService.saveTransferenciasBatch(user, transferencias);
+
+        // Assert
+        assertAll(
+                () -> assertEquals(0, response.getRealizadas()),
+                () -> assertEquals(2, response.getRechazadas()),
+                () -> assertEquals(new IbanInvalido(ibanInvalido).getMessage(), response.getResultados().get(0).getError()),
+                () -> assertEquals(new TransferenciaMismaCuenta(ibanPropio).getMessage(), response.getResultados().get(1).getError())
+        );
+
+        verify(cuentaBalanceService, never()).aplicarVariaciones(any());
+        verify(movimientoOutboxService, never()).registrarAltas(any());
+    }
+
+    @Test
+    void testSaveTransferenciasBatch_ClienteNotFound() {
+        // Arrange
+        User user = User.builder()
+                .guid("user-guid")
+                .build();
+
+        when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(ClienteNotFoundByUser.class, () -> movimientosService.saveTransferenciasBatch(user, List.of(new Transferencia())));
+
+        verify(cuentaTransferenciaExecutor, never()).ejecutar(anyCollection(), any());
+    }
+
     @Test
     void testRevocarTransferencia_Success() {
         // Arrange
@@ -1021,19 +1304,119 @@ class MovimientoServiceImplTest {
 
         when(movimientosRepository.findByGuid(movimiento.getGuid())).thenReturn(Optional.of(movimiento));
         when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(clienteResponse);
-        when(cuentaService.getByIban(transferencia.getIban_Origen())).thenReturn(cuenta);
-        when(cuentaService.getByIban(transferencia.getIban_Destino())).thenReturn(cuenta);
         when(movimientosRepository.findByGuid(movimiento.getTransferencia().getMovimientoDestino())).thenReturn(Optional.of(movimiento));
         when(movimientosMapper.toMovimientoResponse(movimiento)).thenReturn(expectedResponse);
-        when(clienteService.getById(anyString())).thenReturn(clienteResponse);
-        when(userService.getById(clienteResponse.getUserId())).thenReturn(userResponse);
+        when(cuentaUsuarioResolver.getUsername(transferencia.getIban_Destino())).thenReturn("beneficiario");
+        when(cuentaTransferenciaExecutor.ejecutar(anyList(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(transferenciaRevocadaRepository.reclamar(movimiento.getGuid())).thenReturn(1);
 
         // Act
         MovimientoResponse response = movimientosService.revocarTransferencia(user, movimiento.getGuid());
 
         // Assert
         assertNotNull(response);
-        verify(movimientosRepository, times(2)).save(any(Movimiento.class));
+        verify(movimientoOutboxService, times(2)).registrarActualizacion(any(Movimiento.class));
+        verify(cuentaBalanceService).transferir(transferencia.getIban_Destino(), transferencia.getIban_Origen(), transferencia.getCantidad());
+        verify(notificationDispatcher, times(4)).enviar(any(), eq("beneficiario"), anyString());
+        verify(cuentaUsuarioResolver, times(1)).getUsername(anyString());
+    }
+
+    @Test
+    void testRevocarTransferencia_SaldoInsuficienteNoMarcaNiNotifica() {
+        // Arrange
+        User user = User.builder()
+                .guid("user-guid")
+                .build();
+
+        Transferencia transferencia = Transferencia.builder()
+                .iban_Origen("ES60123412347246753334")
+                .iban_Destino("ES60123412347246753335")
+                .cantidad(new BigDecimal("100.00"))
+                .nombreBeneficiario("Beneficiario")
+                .build();
+
+        Movimiento movimiento = Movimiento.builder()
+                .id(new ObjectId())
+                .clienteGuid(clienteResponse.getGuid())
+                .transferencia(transferencia)
+                .build();
+
+        when(movimientosRepository.findByGuid(movimiento.getGuid())).thenReturn(Optional.of(movimiento));
+        when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(clienteResponse);
+        when(movimientosRepository.findByGuid(movimiento.getTransferencia().getMovimientoDestino())).thenReturn(Optional.of(movimiento));
+        when(cuentaUsuarioResolver.getUsername(transferencia.getIban_Destino())).thenReturn("beneficiario");
+        when(cuentaTransferenciaExecutor.ejecutar(anyList(), any()))
+                .thenThrow(new CuentaSaldoInsuficiente(transferencia.getIban_Destino(), transferencia.getCantidad()));
+
+        // Act & Assert
+        assertThrows(CuentaSaldoInsuficiente.class, () -> movimientosService.revocarTransferencia(user, movimiento.getGuid()));
+
+        assertFalse(Boolean.TRUE.equals(movimiento.getIsDeleted()));
+        verify(movimientoOutboxService, never()).registrarActualizacion(any(Movimiento.class));
+        verify(notificationDispatcher, never()).enviar(any(), anyString(), anyString());
+    }
+
+    @Test
+    void testRevocarTransferencia_YaReclamadaNoDevuelveElDinero() {
+        // Arrange
+        User user = User.builder()
+                .guid("user-guid")
+                .build();
+
+        Transferencia transferencia = Transferencia.builder()
+                .iban_Origen("ES60123412347246753334")
+                .iban_Destino("ES60123412347246753335")
+                .cantidad(new BigDecimal("100.00"))
+                .nombreBeneficiario("Beneficiario")
+                .build();
+
+        Movimiento movimiento = Movimiento.builder()
+                .id(new ObjectId())
+                .clienteGuid(clienteResponse.getGuid())
+                .transferencia(transferencia)
+                .build();
+
+        // MongoDB aún no refleja la revocación anterior, pero PostgreSQL ya la tiene registrada
+        when(movimientosRepository.findByGuid(movimiento.getGuid())).thenReturn(Optional.of(movimiento));
+        when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(clienteResponse);
+        when(movimientosRepository.findByGuid(movimiento.getTransferencia().getMovimientoDestino())).thenReturn(Optional.of(movimiento));
+        when(cuentaUsuarioResolver.getUsername(transferencia.getIban_Destino())).thenReturn("beneficiario");
+        when(cuentaTransferenciaExecutor.ejecutar(anyList(), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(transferenciaRevocadaRepository.reclamar(movimiento.getGuid())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(TransferenciaYaRevocada.class, () -> movimientosService.revocarTransferencia(user, movimiento.getGuid()));
+
+        verify(cuentaBalanceService, never()).transferir(anyString(), anyString(), any());
+        verify(movimientoOutboxService, never()).registrarActualizacion(any(Movimiento.class));
+        verify(notificationDispatcher, never()).enviar(any(), anyString(), anyString());
+    }
+
+    @Test
+    void testRevocarTransferencia_YaRevocadaEnMongo() {
+        // Arrange
+        User user = User.builder()
+                .guid("user-guid")
+                .build();
+
+        Movimiento movimiento = Movimiento.builder()
+                .id(new ObjectId())
+                .clienteGuid(clienteResponse.getGuid())
+                .transferencia(Transferencia.builder()
+                        .iban_Origen("ES60123412347246753334")
+                        .iban_Destino("ES60123412347246753335")
+                        .cantidad(new BigDecimal("100.00"))
+                        .build())
+                .isDeleted(true)
+                .build();
+
+        when(movimientosRepository.findByGuid(movimiento.getGuid())).thenReturn(Optional.of(movimiento));
+        when(clienteService.getUserAuthenticatedByGuid(user.getGuid())).thenReturn(clienteResponse);
+
+        // Act & Assert
+        assertThrows(TransferenciaYaRevocada.class, () -> movimientosService.revocarTransferencia(user, movimiento.getGuid()));
+
+        verifyNoInteractions(cuentaTransferenciaExecutor, cuentaBalanceService, transferenciaRevocadaRepository);
     }
 
     @Test
@@ -0,0 +1,187 @@
+package org.example.vivesbankproject.movimientos.utils;
+
+import org.example.vivesbankproject.rest.movimientos.utils.DomiciliacionLeaseManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba el reparto de particiones con varias instancias de {@link DomiciliacionLeaseManager} en el mismo
+ * proceso, como si fueran nodos distintos, contra un Redis local ({@code REDIS_HOST}/{@code REDIS_PORT},
+ * por defecto localhost:6379).
+ */
+class DomiciliacionLeaseManagerTest {
+
+    private static final int PARTICIONES = 16;
+
+    private JedisConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private String prefijo;
+    private final List<DomiciliacionLeaseManager> nodos = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getenv().getOrDefault("REDIS_HOST", "localhost"),
+                Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379")));
+        connectionFactory = new JedisConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        prefijo = "test-domiciliaciones-" + UUID.randomUUID();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodos.forEach(DomiciliacionLeaseManager::liberarTodas);
+        Set<String> claves = redisTemplate.keys(prefijo + ":*");
+        if (claves != null && !claves.isEmpty()) {
+            redisTemplate.delete(claves);
+        }
+        connectionFactory.destroy();
+    }
+
+    private DomiciliacionLeaseManager nodo(Duration ttl) {
+        DomiciliacionLeaseManager nodo = new DomiciliacionLeaseManager(redisTemplate, prefijo, PARTICIONES, ttl);
+        nodos.add(nodo);
+        return nodo;
+    }
+
+    /**
+     * Ejecuta varias rondas de adquisición en todos los nodos, como harían pasadas sucesivas del programador.
+     */
+    private List<Set<Integer>> rondas(List<DomiciliacionLeaseManager> activos, int numero) {
+        List<Set<Integer>> resultado = new ArrayList<>();
+        for (int ronda = 0; ronda < numero; ronda++) {
+            resultado.clear();
+            for (DomiciliacionLeaseManager nodo : activos) {
+                resultado.add(nodo.adquirir());
+            }
+        }
+        return resultado;
+    }
+
+    private static void assertRepartoCompletoYDisjunto(List<Set<Integer>> reparto) {
+        Set<Integer> todas = new HashSet<>();
+        int total = 0;
+        for (Set<Integer> propias : reparto) {
+            todas.addAll(propias);
+            total += propias.size();
+        }
+        assertEquals(PARTICIONES, total, "Alguna partición está asignada a dos nodos o a ninguno: " + reparto);
+        assertEquals(PARTICIONES, todas.size(), "Faltan particiones: " + reparto);
+    }
+
+    @Test
+    void unNodoTieneTodasLasParticiones() {
+        DomiciliacionLeaseManager unico = nodo(Duration.ofSeconds(30));
+
+        Set<Integer> propias = unico.adquirir();
+
+        assertAll(
+                () -> assertEquals(PARTICIONES, propias.size()),
+                () -> assertTrue(unico.posee(0))
+        );
+    }
+
+    @Test
+    void tresNodosSeRepartenLasParticionesSinSolaparse() {
+        List<DomiciliacionLeaseManager> activos = List.of(
+                nodo(Duration.ofSeconds(30)), nodo(Duration.ofSeconds(30)), nodo(Duration.ofSeconds(30)));
+
+        List<Set<Integer>> reparto = rondas(activos, 3);
+
+        assertRepartoCompletoYDisjunto(reparto);
+        reparto.forEach(propias -> assertTrue(propias.size() >= PARTICIONES / 3, "Reparto desequilibrado: " + reparto));
+    }
+
+    @Test
+    void nodoQueSaleLiberaSusParticiones() {
+        DomiciliacionLeaseManager a = nodo(Duration.ofSeconds(30));
+        DomiciliacionLeaseManager b = nodo(Duration.ofSeconds(30));
+        DomiciliacionLeaseManager c = nodo(Duration.ofSeconds(30));
+        rondas(List.of(a, b, c), 3);
+
+        c.liberarTodas();
+        List<Set<Integer>> reparto = rondas(List.of(a, b), 2);
+
+        assertRepartoCompletoYDisjunto(reparto);
+        assertFalse(c.posee(0));
+    }
+
+    @Test
+    void nodoCaidoPierdeSusParticionesAlCaducar() throws InterruptedException {
+        Duration ttl = Duration.ofMillis(500);
+        DomiciliacionLeaseManager a = nodo(ttl);
+        DomiciliacionLeaseManager caido = nodo(ttl);
+        rondas(List.of(a, caido), 3);
+        Set<Integer> deA = a.adquirir();
+        assertTrue(deA.size() < PARTICIONES);
+
+        // El nodo caído deja de renovar: su latido y sus concesiones caducan
+        Thread.sleep(ttl.toMillis() * 2);
+        Set<Integer> propias = rondas(List.of(a), 2).get(0);
+
+        assertEquals(PARTICIONES, propias.size());
+    }
+
+    @Test
+    void nodoSinConcesionesSigueEnElRepartoTrasElTtl() throws InterruptedException {
+        Duration ttl = Duration.ofMillis(500);
+        DomiciliacionLeaseManager a = nodo(ttl);
+        a.adquirir();
+
+        // El nodo que entra no obtiene nada mientras el primero conserva todas sus concesiones
+        DomiciliacionLeaseManager nuevo = nodo(ttl);
+        assertTrue(nuevo.adquirir().isEmpty());
+
+        // Solo se renueva periódicamente, sin pasadas, durante más del doble del TTL
+        for (long fin = System.currentTimeMillis() + ttl.toMillis() * 2; System.currentTimeMillis() < fin; ) {
+            a.renovar();
+            nuevo.renovar();
+            Thread.sleep(ttl.toMillis() / 5);
+        }
+
+        // El primero sigue viendo al nodo nuevo y le cede su parte
+        assertTrue(a.adquirir().size() < PARTICIONES);
+        assertRepartoCompletoYDisjunto(rondas(List.of(a, nuevo), 2));
+    }
+
+    @Test
+    void concesionTomadaPorOtroNodoNoSeConfirma() {
+        DomiciliacionLeaseManager a = nodo(Duration.ofSeconds(30));
+        a.adquirir();
+
+        // La concesión caduca y otro nodo la toma antes de que este la renueve
+        redisTemplate.opsForValue().set(prefijo + ":particion:0", "otro-nodo");
+
+        assertAll(
+                () -> assertFalse(a.confirmar(0)),
+                () -> assertFalse(a.posee(0)),
+                () -> assertTrue(a.confirmar(1))
+        );
+    }
+
+    @Test
+    void concesionTomadaPorOtroNodoNoSeRenueva() {
+        DomiciliacionLeaseManager a = nodo(Duration.ofSeconds(30));
+        a.adquirir();
+
+        // Otro nodo se apropia de la partición 0 (por ejemplo, tras caducar la concesión)
+        redisTemplate.opsForValue().set(prefijo + ":particion:0", "otro-nodo");
+        a.renovar();
+
+        assertAll(
+                () -> assertFalse(a.posee(0)),
+                () -> assertTrue(a.posee(1))
+        );
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.vivesbankproject.movimientos.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vivesbankproject.rest.movimientos.models.Domiciliacion;
+import org.example.vivesbankproject.rest.movimientos.utils.DomiciliacionPartitionExecutor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ejecuta con {@link DomiciliacionPartitionExecutor} un millón de domiciliaciones sintéticas repartidas en
+ * 100.000 cuentas, variando el número de particiones hasta el número de núcleos, y comprueba que se procesan
+ * todas, que los cargos de una misma cuenta nunca se solapan y se ejecutan en orden, y que el resultado no
+ * depende del número de particiones.
+ * <p>
+ * Cada domiciliación simula su coste con trabajo de CPU para que las particiones trabajen a la vez de verdad.
+ * Se ejecuta solo con {@code BENCHMARK_DOMICILIACIONES=true}. Los tiempos dependen de la máquina, así que no
+ * se comprueban aquí.
+ * </p>
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_DOMICILIACIONES", matches = "true")
+class DomiciliacionPartitionExecutorBenchmarkTest {
+
+    private static final int DOMICILIACIONES = 1_000_000;
+    private static final int CUENTAS = 100_000;
+    private static final String PREFIJO_GUID = "domiciliacion-";
+
+    private static long trabajo(Domiciliacion domiciliacion) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = domiciliacion.getGuid().getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < 20; i++) {
+                hash = digest.digest(hash);
+            }
+            return hash[0];
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Ejecuta todas las domiciliaciones con el número de particiones indicado.
+     *
+     * @return Suma de los resultados del trabajo de cada domiciliación
+     */
+    private static long ejecutar(int particiones) {
+        DomiciliacionPartitionExecutor executor = new DomiciliacionPartitionExecutor(new SimpleMeterRegistry(), particiones, 1000);
+        LongAdder resultado = new LongAdder();
+        Set<String> enCurso = ConcurrentHashMap.newKeySet();
+        AtomicIntegerArray ultimaPorCuenta = new AtomicIntegerArray(CUENTAS);
+        LongAdder solapadas = new LongAdder();
+        LongAdder desordenadas = new LongAdder();
+        try {
+            long total = executor.ejecutar(
+                    IntStream.range(0, DOMICILIACIONES).mapToObj(i -> Domiciliacion.builder()
+                            .guid(PREFIJO_GUID + i)
+                            .ibanOrigen("ES" + (i % CUENTAS))
+                            .build()),
+                    d -> {
+                        if (!enCurso.add(d.getIbanOrigen())) {
+                            solapadas.increment();
+                        }
+                        int indice = Integer.parseInt(d.getGuid().substring(PREFIJO_GUID.length()));
+                        // Se guarda el índice + 1 para distinguir la primera domiciliación de cada cuenta
+                        if (ultimaPorCuenta.getAndSet(indice % CUENTAS, indice + 1) > indice) {
+                            desordenadas.increment();
+                        }
+                        resultado.add(trabajo(d));
+                        enCurso.remove(d.getIbanOrigen());
+                    });
+            assertAll(
+                    () -> assertEquals(DOMICILIACIONES, total),
+                    () -> assertEquals(0, solapadas.sum(), particiones + " particiones solapan cargos de una cuenta"),
+                    () -> assertEquals(0, desordenadas.sum(), particiones + " particiones desordenan cargos de una cuenta")
+            );
+            return resultado.sum();
+        } finally {
+            executor.detener();
+        }
+    }
+
+    @Test
+    void procesaTodasSinSolaparCuentasConCualquierNumeroDeParticiones() {
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        long esperado = ejecutar(1);
+
+        for (int particiones = 2; particiones <= nucleos; particiones *= 2) {
+            assertEquals(esperado, ejecutar(particiones));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.vivesbankproject.movimientos.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vivesbankproject.rest.movimientos.models.Domiciliacion;
+import org.example.vivesbankproject.rest.movimientos.utils.DomiciliacionPartitionExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomiciliacionPartitionExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DomiciliacionPartitionExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new DomiciliacionPartitionExecutor(meterRegistry, 4, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.detener();
+    }
+
+    private Domiciliacion domiciliacion(String iban, int orden) {
+        return Domiciliacion.builder()
+                .guid(iban + "-" + orden)
+                .ibanOrigen(iban)
+                .proximaEjecucion(LocalDateTime.now().minusMinutes(1))
+                .build();
+    }
+
+    @Test
+    void ejecutarProcesaTodas() {
+        Set<String> procesadas = ConcurrentHashMap.newKeySet();
+
+        long total = executor.ejecutar(
+                IntStream.range(0, 500).mapToObj(i -> domiciliacion("ES" + (i % 37), i)),
+                d -> procesadas.add(d.getGuid()));
+
+        assertAll(
+                () -> assertEquals(500, total),
+                () -> assertEquals(500, procesadas.size()),
+                () -> assertEquals(0, executor.pendientes()),
+                () -> assertEquals(500.0, meterRegistry.get("domiciliaciones.procesadas").counter().count()),
+                () -> assertEquals(1, meterRegistry.get("domiciliaciones.pasada").timer().count())
+        );
+    }
+
+    @Test
+    void mismaCuentaSeEjecutaEnSerieYEnOrden() {
+        Map<String, AtomicInteger> enCurso = new ConcurrentHashMap<>();
+        Map<String, List<Integer>> orden = new ConcurrentHashMap<>();
+        AtomicInteger solapes = new AtomicInteger();
+
+        executor.ejecutar(
+                IntStream.range(0, 400).mapToObj(i -> domiciliacion("ES" + (i % 5), i)),
+                d -> {
+                    AtomicInteger activos = enCurso.computeIfAbsent(d.getIbanOrigen(), k -> new AtomicInteger());
+                    if (activos.incrementAndGet() > 1) {
+                        solapes.incrementAndGet();
+                    }
+                    orden.computeIfAbsent(d.getIbanOrigen(), k -> new CopyOnWriteArrayList<>())
+                            .add(Integer.parseInt(d.getGuid().substring(d.getGuid().indexOf('-') + 1)));
+                    Thread.yield();
+                    activos.decrementAndGet();
+                });
+
+        assertEquals(0, solapes.get());
+        orden.values().forEach(lista -> {
+            for (int i = 1; i < lista.size(); i++) {
+                assertTrue(lista.get(i - 1) < lista.get(i), "Orden alterado: " + lista);
+            }
+        });
+    }
+
+    @Test
+    void mismaCuentaVaSiempreALaMismaParticion() {
+        Set<String> hilos = ConcurrentHashMap.newKeySet();
+
+        executor.ejecutar(
+                IntStream.range(0, 50).mapToObj(i -> domiciliacion("ES64123412344820495463", i)),
+                d -> hilos.add(Thread.currentThread().getName()));
+
+        assertEquals(1, hilos.size());
+    }
+
+    @Test
+    void errorNoDetieneLaParticion() {
+        AtomicInteger procesadas = new AtomicInteger();
+
+        long total = executor.ejecutar(
+                Stream.of(domiciliacion("ES1", 1), domiciliacion("ES1", 2), domiciliacion("ES1", 3)),
+                d -> {
+                    if (d.getGuid().equals("ES1-2")) {
+                        throw new IllegalStateException("fallo");
+                    }
+                    procesadas.incrementAndGet();
+                });
+
+        assertAll(
+                () -> assertEquals(3, total),
+                () -> assertEquals(2, procesadas.get()),
+                () -> assertEquals(1.0, meterRegistry.get("domiciliaciones.errores").counter().count())
+        );
+    }
+
+    @Test
+    void sinVencidasNoProcesaNada() {
+        long total = executor.ejecutar(Stream.empty(), d -> fail("No debería procesar nada"));
+
+        assertAll(
+                () -> assertEquals(0, total),
+                () -> assertEquals(4, meterRegistry.get("domiciliaciones.particion.retraso").gauges().size())
+        );
+    }
+}
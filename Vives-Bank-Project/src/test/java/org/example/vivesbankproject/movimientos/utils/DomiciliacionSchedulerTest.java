@@ -1,20 +1,20 @@
 package org.example.vivesbankproject.movimientos.utils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.vivesbankproject.config.websockets.NotificationDispatcher;
 import org.example.vivesbankproject.config.websockets.WebSocketConfig;
 import org.example.vivesbankproject.config.websockets.WebSocketHandler;
-import org.example.vivesbankproject.rest.cliente.dto.ClienteResponse;
-import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaRequestUpdate;
 import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaResponse;
 import org.example.vivesbankproject.rest.movimientos.models.Periodicidad;
 import org.example.vivesbankproject.rest.movimientos.repositories.DomiciliacionRepository;
-import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
+import org.example.vivesbankproject.rest.movimientos.services.MovimientoOutboxService;
 import org.example.vivesbankproject.rest.cuenta.services.CuentaService;
-import org.example.vivesbankproject.rest.cuenta.mappers.CuentaMapper;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaBalanceService;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaTransferenciaExecutor;
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
+import org.example.vivesbankproject.rest.movimientos.utils.DomiciliacionLeaseManager;
+import org.example.vivesbankproject.rest.movimientos.utils.DomiciliacionPartitionExecutor;
 import org.example.vivesbankproject.rest.movimientos.utils.DomiciliacionScheduler;
-import org.example.vivesbankproject.rest.users.dto.UserResponse;
-import org.example.vivesbankproject.rest.users.services.UserService;
-import org.example.vivesbankproject.rest.cliente.service.ClienteService;
 import org.example.vivesbankproject.rest.movimientos.models.Domiciliacion;
 import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
 
@@ -29,8 +29,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,29 +46,38 @@ class DomiciliacionSchedulerTest {
     private DomiciliacionRepository domiciliacionRepository;
 
     @Mock
-    private MovimientosRepository movimientosRepository;
+    private MovimientoOutboxService movimientoOutboxService;
 
     @Mock
     private CuentaService cuentaService;
 
     @Mock
-    private CuentaMapper cuentaMapper;
+    private CuentaBalanceService cuentaBalanceService;
+
+    @Mock
+    private CuentaTransferenciaExecutor cuentaTransferenciaExecutor;
 
     @Mock
-    private UserService userService;
+    private CuentaUsuarioResolver cuentaUsuarioResolver;
 
     @Mock
     private WebSocketConfig webSocketConfig;
 
     @Mock
-    private NotificationMapper notificationMapper;
+    private NotificationDispatcher notificationDispatcher;
 
     @Mock
-    private ClienteService clienteService;
+    private NotificationMapper notificationMapper;
 
     @Mock
     private WebSocketHandler webSocketService;
 
+    @Mock
+    private DomiciliacionPartitionExecutor domiciliacionPartitionExecutor;
+
+    @Mock
+    private DomiciliacionLeaseManager domiciliacionLeaseManager;
+
     @Mock
     ObjectMapper mockMapper = mock(ObjectMapper.class);
 
@@ -72,16 +87,10 @@ class DomiciliacionSchedulerTest {
 
     private Domiciliacion domiciliacion;
     CuentaResponse cuenta = new CuentaResponse();
-    ClienteResponse clienteResponse = new ClienteResponse();
-    UserResponse userResponse = new UserResponse();
 
 
     @BeforeEach
     void setUp() {
-        userResponse.setUsername("username123");
-
-        clienteResponse.setUserId("user123");
-
         cuenta.setIban("IBAN123");
         cuenta.setSaldo("100.00");
         cuenta.setClienteId("CLIENTE123");
@@ -92,36 +101,92 @@ class DomiciliacionSchedulerTest {
         domiciliacion.setPeriodicidad(Periodicidad.DIARIA);
         domiciliacion.setIbanOrigen("IBAN123");
         domiciliacion.setCantidad(new BigDecimal("100.00"));
+        domiciliacion.setParticion(0);
+
+        // Un único nodo con todas las particiones
+        lenient().when(domiciliacionLeaseManager.adquirir()).thenReturn(
+                IntStream.range(0, Domiciliacion.PARTICIONES).boxed().collect(Collectors.toSet()));
+        lenient().when(domiciliacionLeaseManager.confirmar(anyInt())).thenReturn(true);
+
+        // El ejecutor particionado procesa las domiciliaciones en el propio hilo del test
+        lenient().when(domiciliacionPartitionExecutor.ejecutar(any(), any())).thenAnswer(inv -> {
+            Stream<Domiciliacion> vencidas = inv.getArgument(0);
+            Consumer<Domiciliacion> accion = inv.getArgument(1);
+            List<Domiciliacion> lista = vencidas.toList();
+            lista.forEach(accion);
+            return (long) lista.size();
+        });
     }
 
     @Test
     void testProcesarDomiciliaciones() {
 
-        when(clienteService.getById("CLIENTE123")).thenReturn(clienteResponse);
-        when(userService.getById("user123")).thenReturn(userResponse);
-        when(domiciliacionRepository.findAll()).thenReturn(List.of(domiciliacion));
+        when(cuentaUsuarioResolver.getUsername("IBAN123")).thenReturn("username123");
+        when(domiciliacionRepository.findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(anyCollection(), any(LocalDateTime.class))).thenReturn(Stream.of(domiciliacion));
         when(cuentaService.getByIban("IBAN123")).thenReturn(cuenta);
-        when(cuentaMapper.toCuentaRequestUpdate(any())).thenReturn(new CuentaRequestUpdate());
+        when(cuentaTransferenciaExecutor.ejecutar(eq(List.of("IBAN123")), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(domiciliacionRepository.reprogramarSiNoHaCambiado(eq(domiciliacion.getId()), eq(domiciliacion.getProximaEjecucion()), any(), any())).thenReturn(1L);
+
+        domiciliacionScheduler.procesarDomiciliaciones();
+
+        verify(domiciliacionRepository).reprogramarSiNoHaCambiado(eq(domiciliacion.getId()), isNull(), any(), eq(domiciliacion.getProximaEjecucion()));
+        verify(domiciliacionRepository, never()).save(any());
+        verify(movimientoOutboxService).registrarAlta(any(Movimiento.class));
+        verify(cuentaBalanceService).debitar("IBAN123", new BigDecimal("100.00"));
+        verify(notificationDispatcher).enviar(any(), eq("username123"), anyString());
+        assertTrue(domiciliacion.getProximaEjecucion().isAfter(LocalDateTime.now()));
+        assertEquals(domiciliacion.getUltimaEjecucion().plusDays(1), domiciliacion.getProximaEjecucion());
+    }
+
+    @Test
+    void testProcesarDomiciliaciones_SinVencidasNoConsultaCuentas() {
+        when(domiciliacionRepository.findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(anyCollection(), any(LocalDateTime.class))).thenReturn(Stream.empty());
+
+        domiciliacionScheduler.procesarDomiciliaciones();
+
+        verify(domiciliacionRepository, never()).findAll();
+        verifyNoInteractions(cuentaService, cuentaBalanceService, movimientoOutboxService);
+    }
+
+    @Test
+    void testProcesarDomiciliaciones_ProgramaLasQueNoTienenFecha() {
+        LocalDateTime ultima = LocalDateTime.now().minusHours(2);
+        domiciliacion.setUltimaEjecucion(ultima);
+        domiciliacion.setProximaEjecucion(null);
+        when(domiciliacionRepository.findSinProgramar()).thenReturn(Stream.of(domiciliacion));
+        when(domiciliacionRepository.findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(anyCollection(), any(LocalDateTime.class))).thenReturn(Stream.empty());
 
         domiciliacionScheduler.procesarDomiciliaciones();
 
         verify(domiciliacionRepository).save(domiciliacion);
-        verify(movimientosRepository).save(any(Movimiento.class));
+        assertAll(
+                () -> assertEquals(ultima, domiciliacion.getUltimaEjecucion()),
+                () -> assertEquals(ultima.plusDays(1), domiciliacion.getProximaEjecucion())
+        );
+        verifyNoInteractions(cuentaService);
     }
 
     @Test
     void testProcesarDomiciliaciones_InvalidSaldo_mensual() {
         cuenta.setSaldo("0.00");
         domiciliacion.setPeriodicidad(Periodicidad.MENSUAL);
-        domiciliacion.setUltimaEjecucion(LocalDateTime.now().minusMonths(2));
+        LocalDateTime ultima = LocalDateTime.now().minusMonths(2);
+        domiciliacion.setUltimaEjecucion(ultima);
+        domiciliacion.setProximaEjecucion(ultima.plusMonths(1));
+        LocalDateTime vencimiento = domiciliacion.getProximaEjecucion();
 
-        when(domiciliacionRepository.findAll()).thenReturn(List.of(domiciliacion));
+        when(domiciliacionRepository.findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(anyCollection(), any(LocalDateTime.class))).thenReturn(Stream.of(domiciliacion));
+        when(domiciliacionRepository.reprogramarSiNoHaCambiado(eq(domiciliacion.getId()), any(), any(), any())).thenReturn(1L);
         when(cuentaService.getByIban("IBAN123")).thenReturn(cuenta);
 
         domiciliacionScheduler.procesarDomiciliaciones();
 
+        verify(domiciliacionRepository).reprogramarSiNoHaCambiado(eq(domiciliacion.getId()), eq(vencimiento), any(), any());
+        // Se devuelve a su vencimiento para reintentarla en la siguiente pasada
+        verify(domiciliacionRepository).reprogramarSiNoHaCambiado(eq(domiciliacion.getId()), any(), eq(ultima), eq(vencimiento));
         verify(domiciliacionRepository, times(0)).save(domiciliacion);
-        verify(movimientosRepository, times(0)).save(any(Movimiento.class));
+        verify(movimientoOutboxService, times(0)).registrarAlta(any(Movimiento.class));
+        assertEquals(vencimiento, domiciliacion.getProximaEjecucion());
     }
 
     @Test
@@ -130,28 +195,93 @@ class DomiciliacionSchedulerTest {
         domiciliacion.setPeriodicidad(Periodicidad.MENSUAL);
         domiciliacion.setUltimaEjecucion(LocalDateTime.now().minusWeeks(2));
 
-        when(domiciliacionRepository.findAll()).thenReturn(List.of(domiciliacion));
+        // Con la próxima ejecución dentro de un mes la consulta de vencidas no la devuelve
+        when(domiciliacionRepository.findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(anyCollection(), any(LocalDateTime.class))).thenReturn(Stream.empty());
 
 
         domiciliacionScheduler.procesarDomiciliaciones();
 
         verify(domiciliacionRepository, times(0)).save(domiciliacion);
-        verify(movimientosRepository, times(0)).save(any(Movimiento.class));
+        verify(movimientoOutboxService, times(0)).registrarAlta(any(Movimiento.class));
     }
 
     @Test
     void testProcesarDomiciliaciones_InvalidSaldo_anual() {
         cuenta.setSaldo("0.00");
         domiciliacion.setPeriodicidad(Periodicidad.MENSUAL);
-        domiciliacion.setUltimaEjecucion(LocalDateTime.now().minusYears(2));
+        LocalDateTime ultima = LocalDateTime.now().minusYears(2);
+        domiciliacion.setUltimaEjecucion(ultima);
+        domiciliacion.setProximaEjecucion(ultima.plusMonths(1));
+        LocalDateTime vencimiento = domiciliacion.getProximaEjecucion();
 
-        when(domiciliacionRepository.findAll()).thenReturn(List.of(domiciliacion));
+        when(domiciliacionRepository.findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(anyCollection(), any(LocalDateTime.class))).thenReturn(Stream.of(domiciliacion));
+        when(domiciliacionRepository.reprogramarSiNoHaCambiado(eq(domiciliacion.getId()), any(), any(), any())).thenReturn(1L);
         when(cuentaService.getByIban("IBAN123")).thenReturn(cuenta);
 
         domiciliacionScheduler.procesarDomiciliaciones();
 
+        verify(domiciliacionRepository).reprogramarSiNoHaCambiado(eq(domiciliacion.getId()), eq(vencimiento), any(), any());
+        // Se devuelve a su vencimiento para reintentarla en la siguiente pasada
+        verify(domiciliacionRepository).reprogramarSiNoHaCambiado(eq(domiciliacion.getId()), any(), eq(ultima), eq(vencimiento));
         verify(domiciliacionRepository, times(0)).save(domiciliacion);
-        verify(movimientosRepository, times(0)).save(any(Movimiento.class));
+        verify(movimientoOutboxService, times(0)).registrarAlta(any(Movimiento.class));
+        assertEquals(vencimiento, domiciliacion.getProximaEjecucion());
+    }
+
+    @Test
+    void testProcesarDomiciliaciones_SinParticionesNoConsulta() {
+        when(domiciliacionLeaseManager.adquirir()).thenReturn(Set.of());
+
+        domiciliacionScheduler.procesarDomiciliaciones();
+
+        verifyNoInteractions(domiciliacionRepository, domiciliacionPartitionExecutor, cuentaService);
+    }
+
+    @Test
+    void testProcesarDomiciliaciones_ErrorEnRedisNoEjecuta() {
+        when(domiciliacionLeaseManager.adquirir()).thenThrow(new IllegalStateException("Redis no disponible"));
+
+        domiciliacionScheduler.procesarDomiciliaciones();
+
+        verifyNoInteractions(domiciliacionRepository, domiciliacionPartitionExecutor, cuentaService);
+    }
+
+    @Test
+    void testProcesarDomiciliaciones_SoloConsultaLasParticionesPropias() {
+        Set<Integer> propias = Set.of(3, 7);
+        when(domiciliacionLeaseManager.adquirir()).thenReturn(propias);
+        when(domiciliacionRepository.findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(eq(propias), any(LocalDateTime.class))).thenReturn(Stream.empty());
+
+        domiciliacionScheduler.procesarDomiciliaciones();
+
+        // Sin la partición 0 no completa los documentos sin programar
+        verify(domiciliacionRepository, never()).findSinProgramar();
+        verify(domiciliacionRepository).findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(eq(propias), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testProcesarDomiciliaciones_ConcesionPerdidaNoEjecuta() {
+        when(domiciliacionLeaseManager.confirmar(0)).thenReturn(false);
+        when(domiciliacionRepository.findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(anyCollection(), any(LocalDateTime.class))).thenReturn(Stream.of(domiciliacion));
+
+        domiciliacionScheduler.procesarDomiciliaciones();
+
+        verify(domiciliacionRepository, never()).save(any());
+        verify(domiciliacionRepository, never()).reprogramarSiNoHaCambiado(any(), any(), any(), any());
+        verifyNoInteractions(cuentaService, cuentaBalanceService, movimientoOutboxService);
+    }
+
+    @Test
+    void testProcesarDomiciliaciones_ReclamadaPorOtroNodoNoEjecuta() {
+        LocalDateTime vencimiento = LocalDateTime.now().minusMinutes(1);
+        domiciliacion.setProximaEjecucion(vencimiento);
+        when(domiciliacionRepository.findByActivaTrueAndParticionInAndProximaEjecucionLessThanEqualOrderByProximaEjecucionAsc(anyCollection(), any(LocalDateTime.class))).thenReturn(Stream.of(domiciliacion));
+        when(domiciliacionRepository.reprogramarSiNoHaCambiado(eq(domiciliacion.getId()), eq(vencimiento), any(), any())).thenReturn(0L);
+
+        domiciliacionScheduler.procesarDomiciliaciones();
+
+        verify(domiciliacionRepository, times(1)).reprogramarSiNoHaCambiado(any(), any(), any(), any());
+        verifyNoInteractions(cuentaService, cuentaBalanceService, cuentaTransferenciaExecutor, movimientoOutboxService, notificationDispatcher);
     }
 
     @Test
@@ -0,0 +1,100 @@
+package org.example.vivesbankproject.rest.auth.services.authentication;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vivesbankproject.rest.auth.exceptions.AuthServicioSaturado;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptPasswordHasherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BCryptPasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        hasher.detener();
+    }
+
+    @Test
+    void encodeYMatchesCalculanElHashEnElGrupo() {
+        hasher = new BCryptPasswordHasher(new BCryptPasswordEncoder(4), 2, 4, registry);
+
+        String hash = hasher.encode("password");
+
+        assertAll(
+                () -> assertTrue(hash.startsWith("$2a$04$")),
+                () -> assertTrue(hasher.matches("password", hash)),
+                () -> assertFalse(hasher.matches("otra", hash)),
+                () -> assertEquals(1, registry.get("auth.bcrypt.duracion").tag("operacion", "codificar").timer().count()),
+                () -> assertEquals(2, registry.get("auth.bcrypt.duracion").tag("operacion", "comprobar").timer().count()),
+                () -> assertEquals(3, registry.get("auth.bcrypt.espera").timer().count())
+        );
+    }
+
+    @Test
+    void upgradeEncodingDetectaHashesConMenorCoste() {
+        hasher = new BCryptPasswordHasher(new BCryptPasswordEncoder(5), 1, 1, registry);
+        String antiguo = new BCryptPasswordEncoder(4).encode("password");
+
+        assertAll(
+                () -> assertTrue(hasher.upgradeEncoding(antiguo)),
+                () -> assertFalse(hasher.upgradeEncoding(hasher.encode("password")))
+        );
+    }
+
+    @Test
+    void rechazaConLaColaLlena() throws Exception {
+        CountDownLatch empezado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        PasswordEncoder bloqueante = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                empezado.countDown();
+                try {
+                    liberar.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }
+        };
+        hasher = new BCryptPasswordHasher(bloqueante, 1, 1, registry);
+
+        CompletableFuture<Boolean> enCurso = CompletableFuture.supplyAsync(() -> hasher.matches("a", "a"));
+        assertTrue(empezado.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> enCola = CompletableFuture.supplyAsync(() -> hasher.encode("b"));
+        while (registry.get("auth.bcrypt.cola").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(AuthServicioSaturado.class, () -> hasher.encode("c"));
+        assertEquals(1, registry.get("auth.bcrypt.rechazadas").counter().count());
+        assertEquals(1, registry.get("auth.bcrypt.activos").gauge().value());
+
+        liberar.countDown();
+        assertAll(
+                () -> assertTrue(enCurso.get(5, TimeUnit.SECONDS)),
+                () -> assertEquals("b", enCola.get(5, TimeUnit.SECONDS))
+        );
+    }
+
+    @Test
+    void propagaLasExcepcionesDelCodificador() {
+        hasher = new BCryptPasswordHasher(new BCryptPasswordEncoder(4), 1, 1, registry);
+
+        assertThrows(IllegalArgumentException.class, () -> hasher.encode(null));
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.vivesbankproject.rest.auth.services.authentication;
+
+import org.example.vivesbankproject.rest.users.models.User;
+import org.example.vivesbankproject.rest.users.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PasswordUpgradeServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private PasswordUpgradeService passwordUpgradeService;
+
+    @Test
+    void updatePasswordGuardaElNuevoHash() {
+        User user = User.builder().username("user").password("$2a$04$antiguo").build();
+        when(userRepository.updatePasswordByUsername("user", "$2a$10$nuevo")).thenReturn(1);
+
+        UserDetails result = passwordUpgradeService.updatePassword(user, "$2a$10$nuevo");
+
+        assertAll(
+                () -> assertSame(user, result),
+                () -> assertEquals("$2a$10$nuevo", result.getPassword())
+        );
+        verify(userRepository).updatePasswordByUsername("user", "$2a$10$nuevo");
+    }
+}
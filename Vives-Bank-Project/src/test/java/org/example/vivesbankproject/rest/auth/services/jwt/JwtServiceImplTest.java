@@ -0,0 +1,101 @@
+package org.example.vivesbankproject.rest.auth.services.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import org.example.vivesbankproject.rest.auth.dto.TokenVerificado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceImplTest {
+
+    private final UserDetails user = User.withUsername("user").password("password").roles("USER").build();
+
+    private TokenVerificadoCache cache;
+    private JwtServiceImpl jwtService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cache = new TokenVerificadoCache(100, Duration.ofMinutes(10), System::nanoTime);
+        jwtService = new JwtServiceImpl(new ClassPathResource("private_key_pkcs8.pem"),
+                new ClassPathResource("public_key.pem"), cache);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3600L);
+    }
+
+    private String tokenFirmadoCon(KeyPair claves, Instant expiracion) {
+        return JWT.create()
+                .withSubject("user")
+                .withExpiresAt(Date.from(expiracion))
+                .sign(Algorithm.RSA256((RSAPublicKey) claves.getPublic(), (RSAPrivateKey) claves.getPrivate()));
+    }
+
+    @Test
+    void verifyTokenGenerado() {
+        String token = jwtService.generateToken(user);
+
+        TokenVerificado verificado = jwtService.verifyToken(token);
+
+        assertAll(
+                () -> assertEquals("user", verificado.username()),
+                () -> assertTrue(verificado.expiracion().isAfter(Instant.now().plusSeconds(3500))),
+                () -> assertEquals("user", jwtService.extractUserName(token)),
+                () -> assertTrue(jwtService.isTokenValid(token, user)),
+                () -> assertFalse(jwtService.isTokenValid(token, User.withUsername("otro").password("password").build()))
+        );
+    }
+
+    @Test
+    void verifyTokenReutilizaLaVerificacion() {
+        String token = jwtService.generateToken(user);
+
+        TokenVerificado primero = jwtService.verifyToken(token);
+        jwtService.extractUserName(token);
+        jwtService.isTokenValid(token, user);
+
+        assertAll(
+                () -> assertSame(primero, jwtService.verifyToken(token)),
+                () -> assertEquals(1, cache.size())
+        );
+    }
+
+    @Test
+    void verifyTokenFirmadoConOtraClave() throws Exception {
+        KeyPairGenerator generador = KeyPairGenerator.getInstance("RSA");
+        generador.initialize(2048);
+        String token = tokenFirmadoCon(generador.generateKeyPair(), Instant.now().plusSeconds(3600));
+
+        assertThrows(SignatureVerificationException.class, () -> jwtService.verifyToken(token));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void verifyTokenCaducado() {
+        String token = JWT.create()
+                .withSubject("user")
+                .withExpiresAt(Date.from(Instant.now().minusSeconds(60)))
+                .sign((Algorithm) ReflectionTestUtils.getField(jwtService, "algorithm"));
+
+        assertThrows(TokenExpiredException.class, () -> jwtService.verifyToken(token));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void verifyTokenMalFormado() {
+        assertThrows(Exception.class, () -> jwtService.verifyToken("no-es-un-token"));
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.vivesbankproject.rest.auth.services.jwt;
+
+import org.example.vivesbankproject.rest.auth.dto.TokenVerificado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenVerificadoCacheTest {
+
+    private final AtomicLong tiempo = new AtomicLong();
+    private final AtomicInteger verificaciones = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        tiempo.set(0);
+        verificaciones.set(0);
+    }
+
+    private Function<String, TokenVerificado> verificar(Instant expiracion) {
+        return token -> {
+            verificaciones.incrementAndGet();
+            return new TokenVerificado("user", expiracion);
+        };
+    }
+
+    private void avanzar(long segundos) {
+        tiempo.addAndGet(TimeUnit.SECONDS.toNanos(segundos));
+    }
+
+    @Test
+    void getVerificaCadaTokenUnaSolaVez() {
+        TokenVerificadoCache cache = new TokenVerificadoCache(100, Duration.ofMinutes(10), tiempo::get);
+        Function<String, TokenVerificado> verificar = verificar(Instant.now().plusSeconds(3600));
+
+        TokenVerificado primero = cache.get("token-1", verificar);
+        TokenVerificado segundo = cache.get("token-1", verificar);
+        cache.get("token-2", verificar);
+
+        assertAll(
+                () -> assertSame(primero, segundo),
+                () -> assertEquals(2, verificaciones.get()),
+                () -> assertEquals(2, cache.size())
+        );
+    }
+
+    @Test
+    void getVuelveAVerificarCuandoCaducaElToken() {
+        TokenVerificadoCache cache = new TokenVerificadoCache(100, Duration.ofMinutes(10), tiempo::get);
+        Function<String, TokenVerificado> verificar = verificar(Instant.now().plusSeconds(60));
+
+        cache.get("token", verificar);
+        avanzar(30);
+        cache.get("token", verificar);
+        avanzar(31);
+        cache.get("token", verificar);
+
+        assertEquals(2, verificaciones.get());
+    }
+
+    @Test
+    void getVuelveAVerificarTrasElTtlMaximo() {
+        TokenVerificadoCache cache = new TokenVerificadoCache(100, Duration.ofSeconds(60), tiempo::get);
+        Function<String, TokenVerificado> verificar = verificar(Instant.now().plusSeconds(3600));
+
+        cache.get("token", verificar);
+        avanzar(61);
+        cache.get("token", verificar);
+
+        assertEquals(2, verificaciones.get());
+    }
+
+    @Test
+    void getNoGuardaLosTokensQueNoSeVerifican() {
+        TokenVerificadoCache cache = new TokenVerificadoCache(100, Duration.ofMinutes(10), tiempo::get);
+        Function<String, TokenVerificado> rechazar = token -> {
+            verificaciones.incrementAndGet();
+            throw new IllegalStateException("firma no válida");
+        };
+
+        assertThrows(IllegalStateException.class, () -> cache.get("token", rechazar));
+        assertThrows(IllegalStateException.class, () -> cache.get("token", rechazar));
+
+        assertAll(
+                () -> assertEquals(2, verificaciones.get()),
+                () -> assertEquals(0, cache.size())
+        );
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.vivesbankproject.storage.backupZip.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpServletRequest;
 import org.example.vivesbankproject.rest.storage.backupZip.controller.ZipStorageController;
@@ -7,6 +8,7 @@ import org.example.vivesbankproject.rest.storage.backupZip.services.ZipFileSyste
 import org.example.vivesbankproject.rest.storage.backupZip.services.ZipStorageService;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.junit.jupiter.api.*;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -18,6 +20,7 @@ import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.io.File;
@@ -27,6 +30,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import static org.bson.assertions.Assertions.assertNotNull;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -92,24 +96,52 @@ class ZipStorageControllerTest {
     @Test
     void generateZip() throws Exception {
         String storedFilename = "generated-file.zip";
-        when(storageService.export()).thenReturn(storedFilename);
+        when(storageService.export(eq(false), any(StorageJob.class))).thenReturn(storedFilename);
+
+        MvcResult result = mockMvc.perform(post("/storage/zip/generate"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", startsWith("/storage/jobs/")))
+                .andExpect(jsonPath("$.tipo").value("backupZip"))
+                .andReturn();
+
+        assertEquals("COMPLETADO", esperarFin(result.getResponse().getHeader("Location")));
+        mockMvc.perform(get(result.getResponse().getHeader("Location")))
+                .andExpect(jsonPath("$.fichero").value(storedFilename));
+        verify(storageService, times(1)).export(eq(false), any(StorageJob.class));
+    }
 
-        mockMvc.perform(post("/storage/zip/generate"))
-                .andExpect(status().isOk())
-                .andExpect(content().string("Archivo ZIP generado con éxito: " + storedFilename));
+    @Test
+    void generateZipIncremental() throws Exception {
+        when(storageService.export(eq(true), any(StorageJob.class))).thenReturn("clientes_incremental.zip");
 
-        verify(storageService, times(1)).export();
+        mockMvc.perform(post("/storage/zip/generate").param("incremental", "true"))
+                .andExpect(status().isAccepted());
+
+        verify(storageService, timeout(2000)).export(eq(true), any(StorageJob.class));
     }
 
     @Test
     void generateZip_InternalServerError() throws Exception {
-        when(storageService.export()).thenThrow(new StorageInternal("Error interno al generar el archivo"));
+        when(storageService.export(eq(false), any(StorageJob.class))).thenThrow(new StorageInternal("Error interno al generar el archivo"));
 
-        mockMvc.perform(post("/storage/zip/generate"))
-                .andExpect(status().isInternalServerError())
-                .andExpect(content().string("Error al generar el archivo ZIP."));
+        MvcResult result = mockMvc.perform(post("/storage/zip/generate"))
+                .andExpect(status().isAccepted())
+                .andReturn();
 
-        verify(storageService, times(1)).export();
+        assertEquals("ERROR", esperarFin(result.getResponse().getHeader("Location")));
+        mockMvc.perform(get(result.getResponse().getHeader("Location")))
+                .andExpect(jsonPath("$.error").value("Error interno al generar el archivo"));
+    }
+
+    private String esperarFin(String location) throws Exception {
+        for (int intento = 0; intento < 100; intento++) {
+            String estado = JsonPath.read(mockMvc.perform(get(location)).andReturn().getResponse().getContentAsString(), "$.estado");
+            if (!"EN_CURSO".equals(estado)) {
+                return estado;
+            }
+            Thread.sleep(20);
+        }
+        return "EN_CURSO";
     }
 
     @Test
@@ -148,6 +180,34 @@ class ZipStorageControllerTest {
         verify(storageService, times(1)).loadFromZip(any(File.class));
     }
 
+    @Test
+    void restoreFromZip() throws Exception {
+        String filename = "restaurar.zip";
+        Path filePath = TEST_DIRECTORY.resolve(filename);
+        Files.write(filePath, new byte[0]);
+        when(storageService.load(filename)).thenReturn(filePath);
+        when(storageService.restore(any(File.class), any(StorageJob.class))).thenReturn("1 clientes y 2 movimientos nuevos restaurados");
+
+        MvcResult result = mockMvc.perform(post("/storage/zip/import/" + filename))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.tipo").value("restauracionZip"))
+                .andReturn();
+
+        assertEquals("COMPLETADO", esperarFin(result.getResponse().getHeader("Location")));
+        mockMvc.perform(get(result.getResponse().getHeader("Location")))
+                .andExpect(jsonPath("$.fichero").value("1 clientes y 2 movimientos nuevos restaurados"));
+    }
+
+    @Test
+    void restoreFromZipFileNotFound() throws Exception {
+        when(storageService.load("nonexistent.zip")).thenReturn(TEST_DIRECTORY.resolve("nonexistent.zip"));
+
+        mockMvc.perform(post("/storage/zip/import/nonexistent.zip"))
+                .andExpect(status().isNotFound());
+
+        verify(storageService, never()).restore(any(File.class), any(StorageJob.class));
+    }
+
     @Test
     void serveFile() throws Exception {
         String filename = "test.zip";
@@ -0,0 +1,128 @@
+package org.example.vivesbankproject.storage.backupZip.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.vivesbankproject.rest.storage.backupZip.models.FicheroBackup;
+import org.example.vivesbankproject.rest.storage.backupZip.models.ManifiestoBackup;
+import org.example.vivesbankproject.rest.storage.backupZip.services.ZipFileSystemStorage;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Genera la copia de seguridad ZIP de unos 2 GB de ficheros JSON sintéticos en {@code dataAdmin}, variando el
+ * número de hilos de compresión hasta el número de núcleos, y comprueba que con cualquier número de hilos el
+ * ZIP contiene todos los ficheros completos y el manifiesto recoge su SHA-256. Los ficheros se generan con
+ * datos parecidos a los de las exportaciones, de modo que la compresión cuesta lo mismo que con datos reales.
+ * Se ejecuta solo con {@code BENCHMARK_BACKUP=true}. Los tiempos dependen de la máquina, así que no se
+ * comprueban aquí.
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_BACKUP", matches = "true")
+class ZipBackupBenchmarkTest {
+
+    private static final Path DATOS = Path.of("dataAdmin", "benchmark-backup");
+    private static final Path DESTINO = Path.of("data", "benchmark-backup");
+    private static final int FICHEROS = 64;
+    private static final int MOVIMIENTOS_POR_FICHERO = 150_000;
+
+    /**
+     * SHA-256 de cada fichero generado, por su nombre relativo a {@code dataAdmin}.
+     */
+    private static final Map<String, String> HASHES = new HashMap<>();
+
+    @BeforeAll
+    static void generarDatos() throws Exception {
+        Files.createDirectories(DATOS);
+        Random random = new Random(42);
+        for (int i = 0; i < FICHEROS; i++) {
+            try (BufferedWriter writer = Files.newBufferedWriter(DATOS.resolve("admin_movimientos_" + i + ".json"))) {
+                writer.write("[");
+                for (int j = 0; j < MOVIMIENTOS_POR_FICHERO; j++) {
+                    writer.write(String.format("{\"guid\":\"%016x\",\"clienteGuid\":\"cliente-%d\",\"transferencia\":{\"cantidad\":%d.%02d}},",
+                            random.nextLong(), random.nextInt(10_000), random.nextInt(100_000), random.nextInt(100)));
+                }
+                writer.write("{}]");
+            }
+            HASHES.put("benchmark-backup/admin_movimientos_" + i + ".json", sha256(DATOS.resolve("admin_movimientos_" + i + ".json")));
+        }
+    }
+
+    private static String sha256(Path fichero) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream entrada = new DigestInputStream(Files.newInputStream(fichero), digest)) {
+            entrada.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @AfterAll
+    static void borrarDatos() throws IOException {
+        for (Path directorio : new Path[]{DATOS, DESTINO}) {
+            if (Files.exists(directorio)) {
+                try (Stream<Path> rutas = Files.walk(directorio)) {
+                    for (Path ruta : rutas.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.delete(ruta);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void comprobar(int hilos) throws IOException {
+        ZipFileSystemStorage storage = new ZipFileSystemStorage(DESTINO.toString(), null, hilos, 6, "pdf:0", 1000);
+        try {
+            storage.init();
+            String result = storage.export(false, new StorageJob("backupZip"));
+
+            try (ZipFile zip = new ZipFile(DESTINO.resolve(result).toFile())) {
+                ManifiestoBackup manifiesto = new ObjectMapper().readValue(
+                        zip.getInputStream(zip.getEntry(ManifiestoBackup.ENTRADA)), ManifiestoBackup.class);
+                Map<String, FicheroBackup> ficheros = manifiesto.getFicheros().stream()
+                        .collect(Collectors.toMap(FicheroBackup::getNombre, Function.identity()));
+
+                for (Map.Entry<String, String> esperado : HASHES.entrySet()) {
+                    FicheroBackup fichero = ficheros.get(esperado.getKey());
+                    ZipEntry entrada = zip.getEntry(esperado.getKey());
+                    assertNotNull(fichero, hilos + " hilos: falta " + esperado.getKey() + " en el manifiesto");
+                    assertNotNull(entrada, hilos + " hilos: falta " + esperado.getKey() + " en el ZIP");
+                    assertAll(
+                            () -> assertEquals(esperado.getValue(), fichero.getSha256()),
+                            () -> assertEquals(fichero.getTamano(), entrada.getSize())
+                    );
+                }
+            }
+        } finally {
+            storage.detener();
+        }
+    }
+
+    @Test
+    void generaLaMismaCopiaConCualquierNumeroDeHilos() throws IOException {
+        int nucleos = Runtime.getRuntime().availableProcessors();
+        for (int hilos = 1; hilos <= nucleos; hilos *= 2) {
+            comprobar(hilos);
+        }
+    }
+}
@@ -1,23 +1,23 @@
 package org.example.vivesbankproject.storage.backupZip.services;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.vivesbankproject.rest.cliente.models.Cliente;
-import org.example.vivesbankproject.rest.cliente.repositories.ClienteRepository;
 import org.example.vivesbankproject.rest.cuenta.models.Cuenta;
-import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
 import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
-import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
+import org.example.vivesbankproject.rest.storage.backupZip.models.FicheroBackup;
+import org.example.vivesbankproject.rest.storage.backupZip.models.ManifiestoBackup;
 import org.example.vivesbankproject.rest.storage.backupZip.services.ZipFileSystemStorage;
+import org.example.vivesbankproject.rest.storage.backupZip.services.ZipRestauracionLotes;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
-import org.example.vivesbankproject.rest.tarjeta.repositories.TarjetaRepository;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.example.vivesbankproject.rest.users.models.User;
-import org.example.vivesbankproject.rest.users.repositories.UserRepository;
-import org.example.vivesbankproject.rest.users.mappers.UserMapper;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.core.io.Resource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -27,10 +27,15 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
 import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Optional;
 import java.util.zip.ZipEntry;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
@@ -46,26 +51,11 @@ class ZipFileSystemStorageTest {
     private ZipFileSystemStorage zipFileSystemStorage;
 
     @MockBean
-    private ClienteRepository clienteRepository;
-
-    @MockBean
-    private UserRepository userRepository;
-
-    @MockBean
-    private TarjetaRepository tarjetaRepository;
-
-    @MockBean
-    private CuentaRepository cuentaRepository;
-
-    @MockBean
-    private MovimientosRepository movimientosRepository;
-
-    @MockBean
-    private UserMapper userMapper;
+    private ZipRestauracionLotes zipRestauracionLotes;
 
     @BeforeEach
     void setUp() throws IOException {
-        zipFileSystemStorage = new ZipFileSystemStorage(TEST_ROOT_LOCATION, clienteRepository, movimientosRepository, userRepository, tarjetaRepository, cuentaRepository, userMapper);
+        zipFileSystemStorage = new ZipFileSystemStorage(TEST_ROOT_LOCATION, zipRestauracionLotes, 2, 6, "pdf:0", 2);
 
         Path testPath = Paths.get(TEST_ROOT_LOCATION);
         if (Files.exists(testPath)) {
@@ -91,6 +81,7 @@ class ZipFileSystemStorageTest {
 
     @AfterEach
     void tearDown() throws IOException {
+        zipFileSystemStorage.detener();
         Path testPath = Paths.get(TEST_ROOT_LOCATION);
         if (Files.exists(testPath)) {
             Files.walkFileTree(testPath, new SimpleFileVisitor<>() {
@@ -189,6 +180,82 @@ class ZipFileSystemStorageTest {
         Files.delete(zipPath);
     }
 
+    @Test
+    void exportComprimeEnParaleloConManifiesto() throws Exception {
+        Path dataDir = Paths.get("dataAdmin");
+        Files.createDirectories(dataDir);
+        Path json = dataDir.resolve("backupTest_datos.json");
+        Path pdf = dataDir.resolve("backupTest_extracto.pdf");
+        Files.write(json, "[{\"guid\":\"1\"}]".repeat(1000).getBytes());
+        Files.write(pdf, "%PDF-1.7 contenido de prueba".getBytes());
+        StorageJob trabajo = new StorageJob("backupZip");
+
+        try {
+            String result = zipFileSystemStorage.export(false, trabajo);
+
+            Path zipPath = Path.of(TEST_ROOT_LOCATION).resolve(result);
+            try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+                ManifiestoBackup manifiesto = new ObjectMapper().readValue(
+                        zip.getInputStream(zip.getEntry(ManifiestoBackup.ENTRADA)), ManifiestoBackup.class);
+                FicheroBackup ficheroJson = manifiesto.getFicheros().stream()
+                        .filter(f -> f.getNombre().equals("backupTest_datos.json")).findFirst().orElseThrow();
+
+                assertAll(
+                        () -> assertEquals("clientes.zip", result),
+                        () -> assertEquals(ZipEntry.DEFLATED, zip.getEntry("backupTest_datos.json").getMethod()),
+                        () -> assertEquals(ZipEntry.STORED, zip.getEntry("backupTest_extracto.pdf").getMethod()),
+                        () -> assertArrayEquals(Files.readAllBytes(json), zip.getInputStream(zip.getEntry("backupTest_datos.json")).readAllBytes()),
+                        () -> assertEquals(ManifiestoBackup.COMPLETA, manifiesto.getTipo()),
+                        () -> assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(json))), ficheroJson.getSha256()),
+                        () -> assertEquals(Files.size(json), ficheroJson.getTamano()),
+                        () -> assertEquals(Files.size(zipPath), trabajo.getBytes().get()),
+                        () -> assertFalse(Files.exists(zipPath.resolveSibling(result + ".part")))
+                );
+            }
+        } finally {
+            Files.deleteIfExists(json);
+            Files.deleteIfExists(pdf);
+        }
+    }
+
+    @Test
+    void exportIncrementalSoloIncluyeLosFicherosCambiados() throws Exception {
+        Path dataDir = Paths.get("dataAdmin");
+        Files.createDirectories(dataDir);
+        Path sinCambios = dataDir.resolve("backupTest_sinCambios.json");
+        Path cambiado = dataDir.resolve("backupTest_cambiado.json");
+        Files.write(sinCambios, "[]".getBytes());
+        Files.write(cambiado, "[]".getBytes());
+
+        try {
+            zipFileSystemStorage.export(false, new StorageJob("backupZip"));
+            Files.write(cambiado, "[{\"guid\":\"2\"}]".getBytes());
+            Files.setLastModifiedTime(cambiado, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+            String result = zipFileSystemStorage.export(true, new StorageJob("backupZip"));
+
+            try (ZipFile zip = new ZipFile(Path.of(TEST_ROOT_LOCATION).resolve(result).toFile())) {
+                ManifiestoBackup manifiesto = new ObjectMapper().readValue(
+                        zip.getInputStream(zip.getEntry(ManifiestoBackup.ENTRADA)), ManifiestoBackup.class);
+
+                assertAll(
+                        () -> assertTrue(result.startsWith("clientes_incremental_")),
+                        () -> assertNotNull(zip.getEntry("backupTest_cambiado.json")),
+                        () -> assertNull(zip.getEntry("backupTest_sinCambios.json")),
+                        () -> assertEquals(ManifiestoBackup.INCREMENTAL, manifiesto.getTipo()),
+                        () -> assertEquals("clientes.zip", manifiesto.getBase()),
+                        () -> assertTrue(manifiesto.getFicheros().stream().anyMatch(f ->
+                                f.getNombre().equals("backupTest_sinCambios.json") && f.getBackup().equals("clientes.zip"))),
+                        () -> assertTrue(manifiesto.getFicheros().stream().anyMatch(f ->
+                                f.getNombre().equals("backupTest_cambiado.json") && f.getBackup().equals(result)))
+                );
+            }
+        } finally {
+            Files.deleteIfExists(sinCambios);
+            Files.deleteIfExists(cambiado);
+        }
+    }
+
     @Test
     void exportDataAdminNotExist() {
         Path dataDir = Paths.get("dataAdmin");
@@ -215,6 +282,59 @@ class ZipFileSystemStorageTest {
         assertTrue(exception.getMessage().contains("El archivo ZIP no existe"));
     }
 
+    @Test
+    void restoreEnStreamingPorLotes() throws IOException {
+        Path zipPath = Path.of(TEST_ROOT_LOCATION).resolve("restaurar.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+            zos.putNextEntry(new ZipEntry("movimientos_cliente_2024-12-08.json.gz"));
+            GZIPOutputStream gzip = new GZIPOutputStream(zos);
+            gzip.write("[{\"guid\":\"m1\"},{\"guid\":\"m2\"},{\"guid\":\"m3\"}]".getBytes());
+            gzip.finish();
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("admin_clientes_2024-12-08.json"));
+            zos.write("[{\"guid\":\"c1\"},{\"guid\":\"c2\"},{\"guid\":\"c3\"}]".getBytes());
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry("otros.json"));
+            zos.write("[{\"guid\":\"x\"}]".getBytes());
+            zos.closeEntry();
+        }
+        when(zipRestauracionLotes.guardarClientes(anyList())).thenAnswer(invocacion -> ((List<?>) invocacion.getArgument(0)).size());
+        when(zipRestauracionLotes.guardarMovimientos(anyList())).thenReturn(1);
+        StorageJob trabajo = new StorageJob("restauracionZip");
+
+        String resumen = zipFileSystemStorage.restore(new File("restaurar.zip"), trabajo);
+
+        InOrder orden = inOrder(zipRestauracionLotes);
+        orden.verify(zipRestauracionLotes, times(2)).guardarClientes(anyList());
+        orden.verify(zipRestauracionLotes, times(2)).guardarMovimientos(anyList());
+        assertAll(
+                () -> assertEquals(6, trabajo.getElementos().get()),
+                () -> assertTrue(resumen.startsWith("3 clientes y 2 movimientos"))
+        );
+    }
+
+    @Test
+    void restoreUsaElContenidoDelManifiesto() throws IOException {
+        Path zipPath = Path.of(TEST_ROOT_LOCATION).resolve("restaurar.zip");
+        ManifiestoBackup manifiesto = ManifiestoBackup.builder()
+                .ficheros(List.of(FicheroBackup.builder().nombre("datos.json").contenido(FicheroBackup.MOVIMIENTOS).build()))
+                .build();
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+            zos.putNextEntry(new ZipEntry("datos.json"));
+            zos.write("[{\"guid\":\"m1\"}]".getBytes());
+            zos.closeEntry();
+            zos.putNextEntry(new ZipEntry(ManifiestoBackup.ENTRADA));
+            zos.write(new ObjectMapper().writeValueAsBytes(manifiesto));
+            zos.closeEntry();
+        }
+        when(zipRestauracionLotes.guardarMovimientos(anyList())).thenReturn(1);
+
+        zipFileSystemStorage.restore(new File("restaurar.zip"), new StorageJob("restauracionZip"));
+
+        verify(zipRestauracionLotes).guardarMovimientos(argThat(lote -> lote.size() == 1));
+        verify(zipRestauracionLotes, never()).guardarClientes(anyList());
+    }
+
     @Test
     void loadJson() throws IOException {
         String jsonContent = "[{\"name\":\"John Doe\"}, {\"name\":\"Jane Doe\"}]";
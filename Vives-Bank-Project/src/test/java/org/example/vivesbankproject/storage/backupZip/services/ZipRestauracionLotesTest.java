@@ -0,0 +1,177 @@
+package org.example.vivesbankproject.storage.backupZip.services;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonDocument;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.example.vivesbankproject.rest.cliente.dto.ClienteJsonZip;
+import org.example.vivesbankproject.rest.cliente.models.Cliente;
+import org.example.vivesbankproject.rest.cliente.repositories.ClienteRepository;
+import org.example.vivesbankproject.rest.cuenta.dto.cuenta.CuentaZip;
+import org.example.vivesbankproject.rest.cuenta.models.Cuenta;
+import org.example.vivesbankproject.rest.cuenta.repositories.CuentaRepository;
+import org.example.vivesbankproject.rest.movimientos.dto.MovimientoResponse;
+import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
+import org.example.vivesbankproject.rest.storage.backupZip.services.ZipRestauracionLotes;
+import org.example.vivesbankproject.rest.users.models.User;
+import org.example.vivesbankproject.rest.users.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
+class ZipRestauracionLotesTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ClienteRepository clienteRepository;
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoConverter mongoConverter;
+
+    @Mock
+    private MongoCollection<Document> coleccion;
+
+    private ZipRestauracionLotes zipRestauracionLotes;
+
+    @BeforeEach
+    void setUp() {
+        zipRestauracionLotes = new ZipRestauracionLotes(userRepository, clienteRepository, cuentaRepository, mongoTemplate);
+    }
+
+    private ClienteJsonZip cliente(String guid, String userGuid, CuentaZip... cuentas) {
+        return ClienteJsonZip.builder()
+                .guid(guid)
+                .usuario(User.builder().id(99L).guid(userGuid).username(userGuid).password("password").build())
+                .cuentas(Set.of(cuentas))
+                .createdAt("2024-12-08T10:00:00")
+                .updatedAt("2024-12-08T10:00:00")
+                .isDeleted(false)
+                .build();
+    }
+
+    @Test
+    void guardarClientesConsultaPorLotesYSoloGuardaLosNuevos() {
+        User existente = User.builder().id(1L).guid("user-1").build();
+        Cliente clienteExistente = Cliente.builder().id(1L).guid("cliente-1").user(existente).build();
+        when(userRepository.findByGuidIn(Set.of("user-1", "user-2"))).thenReturn(List.of(existente));
+        when(clienteRepository.findByGuidIn(Set.of("cliente-1", "cliente-2"))).thenReturn(List.of(clienteExistente));
+        when(cuentaRepository.findGuidsByGuidIn(Set.of("cuenta-1", "cuenta-2"))).thenReturn(List.of("cuenta-1"));
+
+        int nuevos = zipRestauracionLotes.guardarClientes(List.of(
+                cliente("cliente-1", "user-1", CuentaZip.builder().guid("cuenta-1").build()),
+                cliente("cliente-2", "user-2", CuentaZip.builder().guid("cuenta-2").build())));
+
+        ArgumentCaptor<List<User>> usuarios = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Cliente>> clientes = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Cuenta>> cuentas = ArgumentCaptor.forClass(List.class);
+        verify(userRepository).saveAll(usuarios.capture());
+        verify(clienteRepository).saveAll(clientes.capture());
+        verify(cuentaRepository).saveAll(cuentas.capture());
+        assertAll(
+                () -> assertEquals(1, nuevos),
+                () -> assertEquals(1, usuarios.getValue().size()),
+                () -> assertNull(usuarios.getValue().get(0).getId()),
+                () -> assertEquals("cliente-2", clientes.getValue().get(0).getGuid()),
+                () -> assertEquals("user-2", clientes.getValue().get(0).getUser().getGuid()),
+                () -> assertEquals(1, cuentas.getValue().size()),
+                () -> assertEquals("cuenta-2", cuentas.getValue().get(0).getGuid()),
+                () -> assertSame(clientes.getValue().get(0), cuentas.getValue().get(0).getCliente())
+        );
+        verify(userRepository, never()).findByGuid(any());
+        verify(clienteRepository, never()).findByGuid(any());
+    }
+
+    @Test
+    void guardarMovimientosConUnUnicoBulkWrite() {
+        BulkWriteResult resultado = mock(BulkWriteResult.class);
+        when(resultado.getUpserts()).thenReturn(List.of(new BulkWriteUpsert(1, new BsonObjectId())));
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoTemplate.getCollectionName(Movimiento.class)).thenReturn("movimientos");
+        when(mongoTemplate.getCollection("movimientos")).thenReturn(coleccion);
+        when(coleccion.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(resultado);
+
+        int nuevos = zipRestauracionLotes.guardarMovimientos(List.of(
+                MovimientoResponse.builder().guid("m1").createdAt("2024-12-08 10:00:00").build(),
+                MovimientoResponse.builder().guid("m2").createdAt("2024-12-08T10:00:00").build()));
+
+        ArgumentCaptor<List<WriteModel<Document>>> captor = ArgumentCaptor.forClass(List.class);
+        verify(coleccion).bulkWrite(captor.capture(), any(BulkWriteOptions.class));
+        UpdateOneModel<Document> upsert = (UpdateOneModel<Document>) captor.getValue().get(0);
+        assertAll(
+                () -> assertEquals(1, nuevos),
+                () -> assertEquals(2, captor.getValue().size()),
+                () -> assertTrue(upsert.getOptions().isUpsert()),
+                () -> assertTrue(((Document) upsert.getUpdate()).containsKey("$setOnInsert"))
+        );
+        verify(mongoConverter, times(2)).write(any(Movimiento.class), any(Document.class));
+    }
+
+    @Test
+    void guardarMovimientosIgnoraLosInsertadosPorOtraRestauracion() {
+        BulkWriteResult resultado = BulkWriteResult.acknowledged(0, 0, 0, 0,
+                List.of(new BulkWriteUpsert(0, new BsonObjectId())), List.of());
+        BulkWriteError duplicado = new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 1);
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoTemplate.getCollectionName(Movimiento.class)).thenReturn("movimientos");
+        when(mongoTemplate.getCollection("movimientos")).thenReturn(coleccion);
+        when(coleccion.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+                .thenThrow(new MongoBulkWriteException(resultado, List.of(duplicado), null, new ServerAddress(), Set.of()));
+
+        int nuevos = zipRestauracionLotes.guardarMovimientos(List.of(
+                MovimientoResponse.builder().guid("m1").createdAt("2024-12-08T10:00:00").build(),
+                MovimientoResponse.builder().guid("m2").createdAt("2024-12-08T10:00:00").build()));
+
+        assertEquals(1, nuevos);
+    }
+
+    @Test
+    void guardarMovimientosPropagaOtrosErrores() {
+        BulkWriteResult resultado = BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of());
+        BulkWriteError error = new BulkWriteError(121, "Document failed validation", new BsonDocument(), 0);
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoTemplate.getCollectionName(Movimiento.class)).thenReturn("movimientos");
+        when(mongoTemplate.getCollection("movimientos")).thenReturn(coleccion);
+        when(coleccion.bulkWrite(anyList(), any(BulkWriteOptions.class)))
+                .thenThrow(new MongoBulkWriteException(resultado, List.of(error), null, new ServerAddress(), Set.of()));
+
+        List<MovimientoResponse> lote = List.of(MovimientoResponse.builder().guid("m1").createdAt("2024-12-08T10:00:00").build());
+
+        assertThrows(MongoBulkWriteException.class, () -> zipRestauracionLotes.guardarMovimientos(lote));
+    }
+
+    @Test
+    void guardarMovimientosVacio() {
+        assertEquals(0, zipRestauracionLotes.guardarMovimientos(List.of()));
+        verifyNoInteractions(mongoTemplate);
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.vivesbankproject.storage.csv.services;
+
+import org.example.vivesbankproject.rest.storage.csv.dto.ErrorFilaCsv;
+import org.example.vivesbankproject.rest.storage.csv.dto.InformeImportacionCsv;
+import org.example.vivesbankproject.rest.storage.csv.models.FilaCsv;
+import org.example.vivesbankproject.rest.storage.csv.services.CsvDefinicion;
+import org.example.vivesbankproject.rest.storage.csv.services.CsvImportador;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CsvImportadorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DefinicionPrueba definicion;
+
+    @BeforeEach
+    void setUp() {
+        definicion = new DefinicionPrueba();
+    }
+
+    private InputStream csv(String contenido) {
+        return new ByteArrayInputStream(contenido.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Long> lineas(InformeImportacionCsv informe) {
+        return informe.getDetalleErrores().stream().map(ErrorFilaCsv::getLinea).toList();
+    }
+
+    @Test
+    void importarPorLotesConCamposEntreComillas() throws IOException {
+        CsvImportador importador = new CsvImportador(transactionManager, 2, 100);
+        String contenido = "\uFEFFvalor,nombre\n" +
+                "1,\"Cuenta, con coma\"\n" +
+                "2,\"Cuenta \"\"premium\"\"\"\n" +
+                "3,\"Cuenta\nen dos líneas\"\n" +
+                "\n" +
+                "4,Cuenta D\n" +
+                "5,Cuenta E\n";
+
+        InformeImportacionCsv informe = importador.importar(csv(contenido), definicion);
+
+        assertAll(
+                () -> assertEquals(5, informe.getFilas()),
+                () -> assertEquals(5, informe.getInsertadas()),
+                () -> assertEquals(0, informe.getErrores()),
+                () -> assertEquals(List.of(
+                        List.of("Cuenta, con coma", "Cuenta \"premium\""),
+                        List.of("Cuenta\nen dos líneas", "Cuenta D"),
+                        List.of("Cuenta E")), definicion.insertados),
+                () -> assertEquals(3, definicion.consultas)
+        );
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void importarInformaDeLasFilasNoValidasRepetidasYExistentes() throws IOException {
+        CsvImportador importador = new CsvImportador(transactionManager, 500, 100);
+        definicion.existentes.add("Existente");
+        String contenido = "nombre,valor\n" +
+                "Cuenta A,1\n" +
+                "Cuenta B,abc\n" +
+                ",3\n" +
+                "Cuenta A,4\n" +
+                "Existente,5\n" +
+                "Cuenta C,6\n";
+
+        InformeImportacionCsv informe = importador.importar(csv(contenido), definicion);
+
+        assertAll(
+                () -> assertEquals(6, informe.getFilas()),
+                () -> assertEquals(2, informe.getInsertadas()),
+                () -> assertEquals(1, informe.getExistentes()),
+                () -> assertEquals(3, informe.getErrores()),
+                () -> assertEquals(List.of(3L, 4L, 5L), lineas(informe)),
+                () -> assertEquals("El valor debe ser un número", informe.getDetalleErrores().get(0).getMensaje()),
+                () -> assertEquals("Registro repetido en el archivo (línea 2)", informe.getDetalleErrores().get(2).getMensaje()),
+                () -> assertEquals(List.of(List.of("Cuenta A", "Cuenta C")), definicion.insertados)
+        );
+    }
+
+    @Test
+    void importarCuentaComoExistentesLosConflictosAlInsertar() throws IOException {
+        CsvImportador importador = new CsvImportador(transactionManager, 500, 100);
+        definicion.conflictos.add("Cuenta B");
+
+        InformeImportacionCsv informe = importador.importar(csv("nombre,valor\nCuenta A,1\nCuenta B,2\n"), definicion);
+
+        assertAll(
+                () -> assertEquals(1, informe.getInsertadas()),
+                () -> assertEquals(1, informe.getExistentes())
+        );
+    }
+
+    @Test
+    void importarAnotaComoErroresLasFilasDeUnLoteQueFalla() throws IOException {
+        CsvImportador importador = new CsvImportador(transactionManager, 1, 100);
+        definicion.fallo = new DataIntegrityViolationException("valor demasiado largo");
+
+        InformeImportacionCsv informe = importador.importar(csv("nombre,valor\nCuenta A,1\nCuenta B,2\nCuenta C,3\n"), definicion);
+
+        assertAll(
+                () -> assertEquals(1, informe.getInsertadas()),
+                () -> assertEquals(2, informe.getErrores()),
+                () -> assertEquals(List.of(2L, 3L), lineas(informe)),
+                () -> assertTrue(informe.getDetalleErrores().get(0).getMensaje().contains("valor demasiado largo"))
+        );
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void importarConComillaSinCerrarDetieneLaLectura() throws IOException {
+        CsvImportador importador = new CsvImportador(transactionManager, 500, 100);
+
+        InformeImportacionCsv informe = importador.importar(csv("nombre,valor\nCuenta A,1\n\"Cuenta B,2\nCuenta C,3\n"), definicion);
+
+        assertAll(
+                () -> assertEquals(1, informe.getInsertadas()),
+                () -> assertEquals(1, informe.getErrores()),
+                () -> assertEquals(List.of(3L), lineas(informe))
+        );
+    }
+
+    @Test
+    void importarLimitaElDetalleDeErrores() throws IOException {
+        CsvImportador importador = new CsvImportador(transactionManager, 500, 1);
+
+        InformeImportacionCsv informe = importador.importar(csv("nombre,valor\nA,x\nB,y\nC,z\n"), definicion);
+
+        assertAll(
+                () -> assertEquals(3, informe.getErrores()),
+                () -> assertEquals(1, informe.getDetalleErrores().size())
+        );
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void importarSinColumnasObligatoriasOVacio() {
+        CsvImportador importador = new CsvImportador(transactionManager, 500, 100);
+
+        Exception cabecera = assertThrows(IllegalArgumentException.class,
+                () -> importador.importar(csv("nombre,interes\nCuenta A,1\n"), definicion));
+        Exception vacio = assertThrows(IllegalArgumentException.class, () -> importador.importar(csv(""), definicion));
+
+        assertAll(
+                () -> assertEquals("Faltan columnas en la cabecera del CSV: valor", cabecera.getMessage()),
+                () -> assertEquals("El archivo CSV está vacío.", vacio.getMessage())
+        );
+        verifyNoInteractions(transactionManager);
+    }
+
+    /**
+     * Definición de prueba con dos columnas: un nombre único y un valor numérico.
+     */
+    private static class DefinicionPrueba implements CsvDefinicion<String[], String> {
+        private final Set<String> existentes = new HashSet<>();
+        private final Set<String> conflictos = new HashSet<>();
+        private final List<List<String>> insertados = new ArrayList<>();
+        private RuntimeException fallo;
+        private int consultas;
+
+        @Override
+        public List<String> columnas() {
+            return List.of("nombre", "valor");
+        }
+
+        @Override
+        public String[] leer(FilaCsv fila) {
+            if (fila.valor("nombre").isEmpty()) {
+                throw new IllegalArgumentException("El nombre no puede estar vacío");
+            }
+            try {
+                Integer.parseInt(fila.valor("valor"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("El valor debe ser un número");
+            }
+            return new String[]{fila.valor("nombre"), fila.valor("valor")};
+        }
+
+        @Override
+        public String clave(String[] registro) {
+            return registro[0];
+        }
+
+        @Override
+        public Set<String> existentes(Collection<String> claves) {
+            consultas++;
+            Set<String> encontradas = new HashSet<>(claves);
+            encontradas.retainAll(existentes);
+            return encontradas;
+        }
+
+        @Override
+        public int[] insertar(List<String[]> registros) {
+            if (fallo != null && !insertados.isEmpty()) {
+                throw fallo;
+            }
+            insertados.add(registros.stream().map(registro -> registro[0]).toList());
+            return registros.stream().mapToInt(registro -> conflictos.contains(registro[0]) ? 0 : 1).toArray();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.example.vivesbankproject.storage.csvProductos.controller;
 
+import org.example.vivesbankproject.rest.storage.csv.dto.ErrorFilaCsv;
+import org.example.vivesbankproject.rest.storage.csv.dto.InformeImportacionCsv;
 import org.example.vivesbankproject.rest.storage.csvProductos.services.CsvStorageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,9 +15,11 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.io.IOException;
+import java.util.List;
 
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -52,10 +56,22 @@ class CsvStorageControllerTest {
 
     @Test
     void importCsv_validFile_shouldReturnOk() throws Exception {
+        // Arrange
+        when(csvStorageService.importCsv(validCsvFile)).thenReturn(InformeImportacionCsv.builder()
+                .filas(3)
+                .insertadas(1)
+                .existentes(1)
+                .errores(1)
+                .detalleErrores(List.of(new ErrorFilaCsv(4, "El interés no puede ser negativo")))
+                .build());
+
         // Act & Assert
         mockMvc.perform(multipart("/storage/csvProductos/import").file(validCsvFile))
                 .andExpect(status().isOk())
-                .andExpect(content().string("Archivo CSV importado exitosamente."));
+                .andExpect(jsonPath("$.insertadas").value(1))
+                .andExpect(jsonPath("$.existentes").value(1))
+                .andExpect(jsonPath("$.detalleErrores[0].linea").value(4))
+                .andExpect(jsonPath("$.detalleErrores[0].mensaje").value("El interés no puede ser negativo"));
 
         verify(csvStorageService).importCsv(validCsvFile);
     }
@@ -1,9 +1,9 @@
 package org.example.vivesbankproject.storage.csvProductos.services;
 
-import org.example.vivesbankproject.rest.cuenta.dto.tipoCuenta.TipoCuentaRequest;
-import org.example.vivesbankproject.rest.cuenta.exceptions.tipoCuenta.TipoCuentaExists;
-import org.example.vivesbankproject.rest.cuenta.services.TipoCuentaService;
+import org.example.vivesbankproject.rest.storage.csv.dto.InformeImportacionCsv;
+import org.example.vivesbankproject.rest.storage.csv.services.CsvImportador;
 import org.example.vivesbankproject.rest.storage.csvProductos.services.CsvStorageServiceImpl;
+import org.example.vivesbankproject.rest.storage.csvProductos.services.CsvTipoCuentaDefinicion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -12,15 +12,19 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.io.InputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class CsvStorageServiceImplTest {
 
     @Mock
-    private TipoCuentaService tipoCuentaService;
+    private CsvImportador csvImportador;
+
+    @Mock
+    private CsvTipoCuentaDefinicion csvTipoCuentaDefinicion;
 
     @InjectMocks
     private CsvStorageServiceImpl csvStorageService;
@@ -31,7 +35,7 @@ class CsvStorageServiceImplTest {
     }
 
     @Test
-    void importCsv_validFile_shouldImportSuccessfully() throws IOException {
+    void importCsv_validFile_shouldReturnReport() throws IOException {
         // Arrange
         String csvContent = "nombre,interes\nCuenta A,1.5\nCuenta B,2.0";
         MockMultipartFile file = new MockMultipartFile(
@@ -40,17 +44,15 @@ class CsvStorageServiceImplTest {
                 "text/csv",
                 csvContent.getBytes()
         );
+        InformeImportacionCsv informe = InformeImportacionCsv.builder().filas(2).insertadas(2).build();
+        when(csvImportador.importar(any(InputStream.class), eq(csvTipoCuentaDefinicion))).thenReturn(informe);
 
         // Act
-        csvStorageService.importCsv(file);
+        InformeImportacionCsv result = csvStorageService.importCsv(file);
 
         // Assert
-        verify(tipoCuentaService, times(1)).save(
-                TipoCuentaRequest.builder().nombre("Cuenta A").interes(BigDecimal.valueOf(1.5)).build()
-        );
-        verify(tipoCuentaService, times(1)).save(
-                TipoCuentaRequest.builder().nombre("Cuenta B").interes(BigDecimal.valueOf(2.0)).build()
-        );
+        assertSame(informe, result);
+        verify(csvImportador, times(1)).importar(any(InputStream.class), eq(csvTipoCuentaDefinicion));
     }
 
     @Test
@@ -66,71 +68,24 @@ class CsvStorageServiceImplTest {
         // Act & Assert
         Exception exception = assertThrows(IllegalArgumentException.class, () -> csvStorageService.importCsv(file));
         assertEquals("El archivo debe tener formato CSV.", exception.getMessage());
-        verifyNoInteractions(tipoCuentaService);
+        verifyNoInteractions(csvImportador);
     }
 
     @Test
-    void importCsv_invalidRowFormat_shouldSkipInvalidLines() throws IOException {
+    void importCsv_invalidHeader_shouldThrowIllegalArgumentException() throws IOException {
         // Arrange
-        String csvContent = "nombre,interes\nCuenta A,1.5\nInvalidLine\nCuenta B,2.0";
         MockMultipartFile file = new MockMultipartFile(
                 "file",
                 "test.csv",
                 "text/csv",
-                csvContent.getBytes()
-        );
-
-        // Act
-        csvStorageService.importCsv(file);
-
-        // Assert
-        verify(tipoCuentaService, times(1)).save(
-                TipoCuentaRequest.builder().nombre("Cuenta A").interes(BigDecimal.valueOf(1.5)).build()
-        );
-        verify(tipoCuentaService, times(1)).save(
-                TipoCuentaRequest.builder().nombre("Cuenta B").interes(BigDecimal.valueOf(2.0)).build()
-        );
-        verifyNoMoreInteractions(tipoCuentaService);
-    }
-
-    @Test
-    void importCsv_tipoCuentaAlreadyExists_shouldLogWarning() throws IOException {
-        // Arrange
-        String csvContent = "nombre,interes\nCuenta A,1.5";
-        MockMultipartFile file = new MockMultipartFile(
-                "file",
-                "test.csv",
-                "text/csv",
-                csvContent.getBytes()
+                "nombre\nCuenta A".getBytes()
         );
+        when(csvImportador.importar(any(InputStream.class), eq(csvTipoCuentaDefinicion)))
+                .thenThrow(new IllegalArgumentException("Faltan columnas en la cabecera del CSV: interes"));
 
-        doThrow(new TipoCuentaExists("El tipo de cuenta ya existe."))
-                .when(tipoCuentaService)
-                .save(any(TipoCuentaRequest.class));
-
-        // Act
-        csvStorageService.importCsv(file);
-
-        // Assert
-        verify(tipoCuentaService, times(1)).save(any(TipoCuentaRequest.class));
-    }
-
-    @Test
-    void importCsv_invalidNumberFormat_shouldLogError() throws IOException {
-        // Arrange
-        String csvContent = "nombre,interes\nCuenta A,abc";
-        MockMultipartFile file = new MockMultipartFile(
-                "file",
-                "test.csv",
-                "text/csv",
-                csvContent.getBytes()
-        );
-
-        // Act
-        csvStorageService.importCsv(file);
-
-        // Assert
-        verifyNoInteractions(tipoCuentaService);
+        // Act & Assert
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> csvStorageService.importCsv(file));
+        assertEquals("Faltan columnas en la cabecera del CSV: interes", exception.getMessage());
     }
 
     @Test
@@ -143,6 +98,6 @@ class CsvStorageServiceImplTest {
         // Act & Assert
         Exception exception = assertThrows(IOException.class, () -> csvStorageService.importCsv(file));
         assertEquals("Error al leer el archivo CSV.", exception.getMessage());
-        verifyNoInteractions(tipoCuentaService);
+        verifyNoInteractions(csvImportador);
     }
 }
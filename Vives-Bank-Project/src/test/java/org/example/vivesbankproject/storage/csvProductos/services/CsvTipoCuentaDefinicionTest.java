@@ -0,0 +1,95 @@
+package org.example.vivesbankproject.storage.csvProductos.services;
+
+import jakarta.validation.Validation;
+import org.example.vivesbankproject.rest.cuenta.mappers.TipoCuentaMapper;
+import org.example.vivesbankproject.rest.cuenta.models.TipoCuenta;
+import org.example.vivesbankproject.rest.cuenta.repositories.TipoCuentaRepository;
+import org.example.vivesbankproject.rest.storage.csv.models.FilaCsv;
+import org.example.vivesbankproject.rest.storage.csvProductos.services.CsvTipoCuentaDefinicion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
+class CsvTipoCuentaDefinicionTest {
+
+    private static final Map<String, Integer> COLUMNAS = Map.of("nombre", 0, "interes", 1);
+
+    @Mock
+    private TipoCuentaRepository tipoCuentaRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CsvTipoCuentaDefinicion definicion;
+
+    @BeforeEach
+    void setUp() {
+        definicion = new CsvTipoCuentaDefinicion(tipoCuentaRepository, new TipoCuentaMapper(), jdbcTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    private FilaCsv fila(String... campos) {
+        return new FilaCsv(2, COLUMNAS, campos);
+    }
+
+    @Test
+    void leerFilaValida() {
+        TipoCuenta tipoCuenta = definicion.leer(fila(" Cuenta Ahorro ", "2.50"));
+
+        assertAll(
+                () -> assertEquals("Cuenta Ahorro", tipoCuenta.getNombre()),
+                () -> assertEquals(new BigDecimal("2.50"), tipoCuenta.getInteres()),
+                () -> assertNotNull(tipoCuenta.getGuid()),
+                () -> assertEquals("Cuenta Ahorro", definicion.clave(tipoCuenta))
+        );
+    }
+
+    @Test
+    void leerFilasNoValidas() {
+        assertAll(
+                () -> assertEquals("El interés no puede ser negativo",
+                        assertThrows(IllegalArgumentException.class, () -> definicion.leer(fila("Cuenta", "-1"))).getMessage()),
+                () -> assertEquals("El interés debe ser un número válido",
+                        assertThrows(IllegalArgumentException.class, () -> definicion.leer(fila("Cuenta", "1.234"))).getMessage()),
+                () -> assertEquals("El interés debe ser un número válido: abc",
+                        assertThrows(IllegalArgumentException.class, () -> definicion.leer(fila("Cuenta", "abc"))).getMessage()),
+                () -> assertEquals("El interés no puede estar vacío",
+                        assertThrows(IllegalArgumentException.class, () -> definicion.leer(fila("Cuenta"))).getMessage()),
+                () -> assertEquals("El nombre del tipo de cuenta no puede estar vacío",
+                        assertThrows(IllegalArgumentException.class, () -> definicion.leer(fila(" ", "1.5"))).getMessage())
+        );
+    }
+
+    @Test
+    void existentesConUnaConsulta() {
+        when(tipoCuentaRepository.findNombresByNombreIn(List.of("Cuenta A", "Cuenta B"))).thenReturn(Set.of("Cuenta B"));
+
+        assertEquals(Set.of("Cuenta B"), definicion.existentes(List.of("Cuenta A", "Cuenta B")));
+    }
+
+    @Test
+    void insertarEnUnaSentenciaPorLotes() {
+        List<TipoCuenta> tiposCuenta = List.of(
+                TipoCuenta.builder().nombre("Cuenta A").interes(new BigDecimal("1.00")).build(),
+                TipoCuenta.builder().nombre("Cuenta B").interes(new BigDecimal("2.00")).build());
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO tipo_cuenta"), eq(tiposCuenta), eq(2), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{{1, 0}});
+
+        assertArrayEquals(new int[]{1, 0}, definicion.insertar(tiposCuenta));
+    }
+}
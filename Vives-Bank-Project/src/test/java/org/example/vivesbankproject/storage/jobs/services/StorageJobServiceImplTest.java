@@ -0,0 +1,89 @@
+package org.example.vivesbankproject.storage.jobs.services;
+
+import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
+import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
+import org.example.vivesbankproject.rest.storage.jobs.dto.StorageJobResponse;
+import org.example.vivesbankproject.rest.storage.jobs.services.StorageJobServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StorageJobServiceImplTest {
+
+    private StorageJobServiceImpl storageJobService;
+
+    @BeforeEach
+    void setUp() {
+        storageJobService = new StorageJobServiceImpl(1, 60);
+    }
+
+    @AfterEach
+    void tearDown() {
+        storageJobService.detener();
+    }
+
+    private StorageJobResponse esperarFin(String id) throws InterruptedException {
+        for (int intento = 0; intento < 100; intento++) {
+            StorageJobResponse estado = storageJobService.getEstado(id);
+            if (!"EN_CURSO".equals(estado.getEstado())) {
+                return estado;
+            }
+            Thread.sleep(20);
+        }
+        return fail("El trabajo no ha terminado");
+    }
+
+    @Test
+    void lanzarInformaDelProgresoYDelFichero() throws InterruptedException {
+        CountDownLatch continuar = new CountDownLatch(1);
+
+        StorageJobResponse inicial = storageJobService.lanzar("jsonMovimientos", trabajo -> {
+            trabajo.avanzar(1000);
+            trabajo.setBytes(4096);
+            try {
+                continuar.await(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "admin_movimientos.json";
+        });
+
+        assertEquals("EN_CURSO", inicial.getEstado());
+        continuar.countDown();
+        StorageJobResponse fin = esperarFin(inicial.getId());
+
+        assertAll(
+                () -> assertEquals("COMPLETADO", fin.getEstado()),
+                () -> assertEquals("admin_movimientos.json", fin.getFichero()),
+                () -> assertEquals(1000L, fin.getElementos()),
+                () -> assertEquals(4096L, fin.getBytes()),
+                () -> assertTrue(fin.getElementosPorSegundo() > 0),
+                () -> assertNotNull(fin.getFin())
+        );
+    }
+
+    @Test
+    void lanzarTareaConError() throws InterruptedException {
+        StorageJobResponse inicial = storageJobService.lanzar("jsonMovimientos", trabajo -> {
+            throw new StorageInternal("Disco lleno");
+        });
+
+        StorageJobResponse fin = esperarFin(inicial.getId());
+
+        assertAll(
+                () -> assertEquals("ERROR", fin.getEstado()),
+                () -> assertEquals("Disco lleno", fin.getError()),
+                () -> assertNull(fin.getFichero())
+        );
+    }
+
+    @Test
+    void getEstadoTrabajoNoExistente() {
+        assertThrows(StorageNotFound.class, () -> storageJobService.getEstado("no-existe"));
+    }
+}
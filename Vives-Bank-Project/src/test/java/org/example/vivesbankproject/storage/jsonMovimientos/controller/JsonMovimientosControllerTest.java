@@ -5,6 +5,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.example.vivesbankproject.rest.storage.backupZip.services.ZipStorageService;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.example.vivesbankproject.rest.storage.jsonMovimientos.controller.JsonMovimientosController;
 import org.example.vivesbankproject.rest.storage.jsonMovimientos.services.JsonMovimientosFileSystemStorage;
 import org.junit.jupiter.api.*;
@@ -19,6 +20,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.File;
 import java.io.IOException;
@@ -92,25 +94,54 @@ class JsonMovimientosControllerTest {
 
     @Test
     void generateMovimientosJson() throws Exception {
-        String storedFilename = "movimientos.json";
-        when(jsonMovimientosFileSystemStorage.storeAll()).thenReturn(storedFilename);
+        String storedFilename = "admin_movimientos.json.gz";
+        when(jsonMovimientosFileSystemStorage.storeAll(eq(true), any(StorageJob.class))).thenReturn(storedFilename);
 
-        mockMvc.perform(post("/storage/jsonMovimientos/generate"))
-                .andExpect(status().isOk())
-                .andExpect(content().string("Archivo JSON de movimientos generado con éxito: " + storedFilename));
+        MvcResult result = mockMvc.perform(post("/storage/jsonMovimientos/generate").param("comprimir", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", org.hamcrest.Matchers.startsWith("/storage/jobs/")))
+                .andExpect(jsonPath("$.tipo").value("jsonMovimientos"))
+                .andReturn();
+
+        verify(jsonMovimientosFileSystemStorage, timeout(2000)).storeAll(eq(true), any(StorageJob.class));
+        String estado = esperarFin(result.getResponse().getHeader("Location"));
 
-        verify(jsonMovimientosFileSystemStorage, times(1)).storeAll();
+        mockMvc.perform(get(result.getResponse().getHeader("Location")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("COMPLETADO"))
+                .andExpect(jsonPath("$.fichero").value(storedFilename));
+        assertEquals("COMPLETADO", estado);
     }
 
     @Test
     void generateMovimientosJson_InternalServerError() throws Exception {
-        when(jsonMovimientosFileSystemStorage.storeAll()).thenThrow(new StorageInternal("Error interno al generar el archivo"));
+        when(jsonMovimientosFileSystemStorage.storeAll(eq(false), any(StorageJob.class))).thenThrow(new StorageInternal("Error interno al generar el archivo"));
 
-        mockMvc.perform(post("/storage/jsonMovimientos/generate"))
-                .andExpect(status().isInternalServerError())
-                .andExpect(content().string("Error al generar el archivo JSON de movimientos."));
+        MvcResult result = mockMvc.perform(post("/storage/jsonMovimientos/generate"))
+                .andExpect(status().isAccepted())
+                .andReturn();
+
+        assertEquals("ERROR", esperarFin(result.getResponse().getHeader("Location")));
+        mockMvc.perform(get(result.getResponse().getHeader("Location")))
+                .andExpect(jsonPath("$.error").value("Error interno al generar el archivo"));
+    }
 
-        verify(jsonMovimientosFileSystemStorage, times(1)).storeAll();
+    @Test
+    void estadoTrabajoNoExistente() throws Exception {
+        mockMvc.perform(get("/storage/jobs/no-existe"))
+                .andExpect(status().isNotFound());
+    }
+
+    private String esperarFin(String location) throws Exception {
+        for (int intento = 0; intento < 100; intento++) {
+            String estado = com.jayway.jsonpath.JsonPath.read(
+                    mockMvc.perform(get(location)).andReturn().getResponse().getContentAsString(), "$.estado");
+            if (!"EN_CURSO".equals(estado)) {
+                return estado;
+            }
+            Thread.sleep(20);
+        }
+        return "EN_CURSO";
     }
 
     @Test
@@ -4,7 +4,10 @@ import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
 import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.example.vivesbankproject.rest.storage.jsonMovimientos.services.JsonMovimientosFileSystemStorage;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,14 +19,22 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -40,7 +51,7 @@ class JsonMovimientosFileSystemStorageTest {
 
     @BeforeEach
     void setUp() throws IOException {
-        storageService = new JsonMovimientosFileSystemStorage(TEST_ROOT_LOCATION, movimientosRepository);
+        storageService = new JsonMovimientosFileSystemStorage(TEST_ROOT_LOCATION, movimientosRepository, 8192);
 
         Path testPath = Paths.get(TEST_ROOT_LOCATION);
         if (Files.exists(testPath)) {
@@ -92,7 +103,7 @@ class JsonMovimientosFileSystemStorageTest {
         movimiento.setCreatedAt(LocalDateTime.now());
         movimiento.setIsDeleted(false);
 
-        when(movimientosRepository.findAll()).thenReturn(List.of(movimiento));
+        when(movimientosRepository.streamAllBy()).thenReturn(Stream.of(movimiento));
 
         String filename = storageService.storeAll();
 
@@ -109,7 +120,7 @@ class JsonMovimientosFileSystemStorageTest {
 
     @Test
     void storeAllEmptyList() throws IOException {
-        when(movimientosRepository.findAll()).thenReturn(List.of());
+        when(movimientosRepository.streamAllBy()).thenReturn(Stream.empty());
 
         String filename = storageService.storeAll();
 
@@ -120,6 +131,80 @@ class JsonMovimientosFileSystemStorageTest {
         assertEquals("[ ]", fileContent);
     }
 
+    @Test
+    void storeAllComprimidoEnStreaming() throws IOException {
+        List<Movimiento> movimientos = IntStream.range(0, 2500)
+                .mapToObj(i -> {
+                    Movimiento movimiento = new Movimiento();
+                    movimiento.setGuid("mov-" + i);
+                    movimiento.setClienteGuid("cliente-" + (i % 10));
+                    movimiento.setCreatedAt(LocalDateTime.of(2024, 12, 8, 10, 0));
+                    movimiento.setIsDeleted(false);
+                    return movimiento;
+                })
+                .toList();
+        AtomicBoolean cerrado = new AtomicBoolean();
+        when(movimientosRepository.streamAllBy()).thenReturn(movimientos.stream().onClose(() -> cerrado.set(true)));
+        StorageJob trabajo = new StorageJob("jsonMovimientos");
+
+        String filename = storageService.storeAll(true, trabajo);
+
+        Path fichero = Path.of("dataAdmin").resolve(filename);
+        try (InputStream entrada = new GZIPInputStream(Files.newInputStream(fichero))) {
+            List<Map<String, Object>> leidos = new ObjectMapper().readValue(entrada, new TypeReference<>() {});
+
+            assertAll(
+                    () -> assertTrue(filename.endsWith(".json.gz")),
+                    () -> assertEquals(2500, leidos.size()),
+                    () -> assertEquals("mov-0", leidos.get(0).get("guid")),
+                    () -> assertEquals("2024-12-08 10:00:00", leidos.get(2499).get("createdAt")),
+                    () -> assertEquals(2500, trabajo.getElementos().get()),
+                    () -> assertEquals(Files.size(fichero), trabajo.getBytes().get()),
+                    () -> assertTrue(cerrado.get(), "El cursor de movimientos debe cerrarse"),
+                    () -> assertFalse(existeTemporal(fichero.getParent(), filename))
+            );
+        } finally {
+            Files.deleteIfExists(fichero);
+        }
+    }
+
+    @Test
+    void storeAllSimultaneosNoCompartenTemporal() throws Exception {
+        List<Movimiento> movimientos = IntStream.range(0, 2000)
+                .mapToObj(i -> {
+                    Movimiento movimiento = new Movimiento();
+                    movimiento.setGuid("mov-" + i);
+                    movimiento.setCreatedAt(LocalDateTime.of(2024, 12, 8, 10, 0));
+                    movimiento.setIsDeleted(false);
+                    return movimiento;
+                })
+                .toList();
+        when(movimientosRepository.streamAllBy()).thenAnswer(inv -> movimientos.stream());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        String filename;
+        try {
+            Future<String> primero = executor.submit(() -> storageService.storeAll(false, new StorageJob("jsonMovimientos")));
+            Future<String> segundo = executor.submit(() -> storageService.storeAll(false, new StorageJob("jsonMovimientos")));
+            filename = primero.get(30, TimeUnit.SECONDS);
+            assertEquals(filename, segundo.get(30, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        Path fichero = Path.of("dataAdmin").resolve(filename);
+        try {
+            List<Map<String, Object>> leidos = new ObjectMapper().readValue(fichero.toFile(), new TypeReference<>() {});
+
+            assertAll(
+                    () -> assertEquals(2000, leidos.size()),
+                    () -> assertFalse(existeTemporal(fichero.getParent(), filename))
+            );
+        } finally {
+            Files.deleteIfExists(fichero);
+        }
+    }
+
     @Test
     void store() throws IOException {
         String guid = "12345";
@@ -129,7 +214,7 @@ class JsonMovimientosFileSystemStorageTest {
         movimiento.setCreatedAt(LocalDateTime.now());
         movimiento.setIsDeleted(false);
 
-        when(movimientosRepository.findByClienteGuid(guid)).thenReturn(Optional.of(movimiento));
+        when(movimientosRepository.findAllByClienteGuidOrderByCreatedAtDesc(guid)).thenReturn(List.of(movimiento));
 
         String filename = storageService.store(guid);
 
@@ -144,7 +229,7 @@ class JsonMovimientosFileSystemStorageTest {
     @Test
     void storeClienteSinMovimientos() throws IOException {
         String guid = "12345";
-        when(movimientosRepository.findByClienteGuid(guid)).thenReturn(Optional.empty());
+        when(movimientosRepository.findAllByClienteGuidOrderByCreatedAtDesc(guid)).thenReturn(List.of());
 
         String filename = storageService.store(guid);
 
@@ -158,7 +243,7 @@ class JsonMovimientosFileSystemStorageTest {
     @Test
     void storeClienteNotFound() throws IOException {
         String guid = "not-found";
-        when(movimientosRepository.findByClienteGuid(guid)).thenReturn(Optional.empty());
+        when(movimientosRepository.findAllByClienteGuidOrderByCreatedAtDesc(guid)).thenReturn(List.of());
 
         String filename = storageService.store(guid);
 
@@ -178,10 +263,10 @@ class JsonMovimientosFileSystemStorageTest {
         movimiento.setCreatedAt(LocalDateTime.now());
         movimiento.setIsDeleted(false);
 
-        when(movimientosRepository.findByClienteGuid(guid)).thenReturn(Optional.of(movimiento));
+        when(movimientosRepository.findAllByClienteGuidOrderByCreatedAtDesc(guid)).thenReturn(List.of(movimiento));
 
         String invalidPath = "/invalid";
-        storageService = new JsonMovimientosFileSystemStorage(invalidPath, movimientosRepository);
+        storageService = new JsonMovimientosFileSystemStorage(invalidPath, movimientosRepository, 8192);
 
         StorageInternal exception = assertThrows(StorageInternal.class, () -> storageService.store(guid));
         assertTrue(exception.getMessage().contains("Fallo al almacenar el archivo JSON de movimientos del cliente"));
@@ -196,7 +281,7 @@ class JsonMovimientosFileSystemStorageTest {
         movimiento.setCreatedAt(LocalDateTime.now());
         movimiento.setIsDeleted(false);
 
-        when(movimientosRepository.findByClienteGuid(guid)).thenReturn(Optional.of(movimiento));
+        when(movimientosRepository.findAllByClienteGuidOrderByCreatedAtDesc(guid)).thenReturn(List.of(movimiento));
 
         String filename = storageService.store(guid);
 
@@ -328,4 +413,11 @@ class JsonMovimientosFileSystemStorageTest {
 
         assertFalse(Files.exists(filePath), "El archivo debería haber sido eliminado");
     }
-}
\ No newline at end of file
+
+    private static boolean existeTemporal(Path directorio, String filename) throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            return ficheros.map(path -> path.getFileName().toString())
+                    .anyMatch(nombre -> nombre.startsWith(filename) && nombre.endsWith(".part"));
+        }
+    }
+}
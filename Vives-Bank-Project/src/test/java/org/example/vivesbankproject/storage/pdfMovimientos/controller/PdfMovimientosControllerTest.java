@@ -1,9 +1,11 @@
 package org.example.vivesbankproject.storage.pdfMovimientos.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpServletRequest;
 import org.example.vivesbankproject.rest.storage.backupZip.services.ZipStorageService;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageInternal;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.example.vivesbankproject.rest.storage.pdfMovimientos.controller.PdfMovimientosController;
 import org.example.vivesbankproject.rest.storage.pdfMovimientos.services.PdfMovimientosStorageService;
 import org.junit.jupiter.api.*;
@@ -19,6 +21,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -26,11 +29,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static org.bson.assertions.Assertions.assertNotNull;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -96,20 +101,69 @@ class PdfMovimientosControllerTest {
     @Test
     void generateMovimientosPdf() throws Exception {
         String filename = "movimientos.pdf";
-        when(storageService.storeAll()).thenReturn(filename);
+        when(storageService.storeAll(any(StorageJob.class))).thenReturn(filename);
 
-        mockMvc.perform(post("/storage/pdfMovimientos/generate"))
-                .andExpect(status().isOk())
-                .andExpect(content().string("Archivo PDF de movimientos generado con éxito: " + filename));
+        MvcResult result = mockMvc.perform(post("/storage/pdfMovimientos/generate"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", startsWith("/storage/jobs/")))
+                .andExpect(jsonPath("$.tipo").value("pdfMovimientos"))
+                .andReturn();
+
+        assertEquals("COMPLETADO", esperarFin(result.getResponse().getHeader("Location")));
+        mockMvc.perform(get(result.getResponse().getHeader("Location")))
+                .andExpect(jsonPath("$.fichero").value(filename));
     }
 
     @Test
     void generateMovimientosPdfError() throws Exception {
-        when(storageService.storeAll()).thenThrow(new StorageInternal("Error generating PDF"));
+        when(storageService.storeAll(any(StorageJob.class))).thenThrow(new StorageInternal("Error generating PDF"));
 
-        mockMvc.perform(post("/storage/pdfMovimientos/generate"))
-                .andExpect(status().isInternalServerError())
-                .andExpect(content().string("Error al generar el archivo PDF de movimientos."));
+        MvcResult result = mockMvc.perform(post("/storage/pdfMovimientos/generate"))
+                .andExpect(status().isAccepted())
+                .andReturn();
+
+        assertEquals("ERROR", esperarFin(result.getResponse().getHeader("Location")));
+        mockMvc.perform(get(result.getResponse().getHeader("Location")))
+                .andExpect(jsonPath("$.error").value("Error generating PDF"));
+    }
+
+    @Test
+    void generateClientesPdf() throws Exception {
+        List<String> guids = List.of("cliente-1", "cliente-2");
+        when(storageService.storeClientes(eq(guids), any(StorageJob.class)))
+                .thenReturn(List.of("movimientos_cliente-1.pdf", "movimientos_cliente-2.pdf"));
+
+        MvcResult result = mockMvc.perform(post("/storage/pdfMovimientos/generate/clientes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"cliente-1\",\"cliente-2\"]"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.tipo").value("pdfMovimientosClientes"))
+                .andReturn();
+
+        assertEquals("COMPLETADO", esperarFin(result.getResponse().getHeader("Location")));
+        mockMvc.perform(get(result.getResponse().getHeader("Location")))
+                .andExpect(jsonPath("$.fichero").value("2 extractos PDF generados"));
+    }
+
+    @Test
+    void generateClientesPdfSinCuerpoGeneraTodos() throws Exception {
+        when(storageService.storeClientes(eq(List.of()), any(StorageJob.class))).thenReturn(List.of());
+
+        mockMvc.perform(post("/storage/pdfMovimientos/generate/clientes"))
+                .andExpect(status().isAccepted());
+
+        verify(storageService, timeout(2000)).storeClientes(eq(List.of()), any(StorageJob.class));
+    }
+
+    private String esperarFin(String location) throws Exception {
+        for (int intento = 0; intento < 100; intento++) {
+            String estado = JsonPath.read(mockMvc.perform(get(location)).andReturn().getResponse().getContentAsString(), "$.estado");
+            if (!"EN_CURSO".equals(estado)) {
+                return estado;
+            }
+            Thread.sleep(20);
+        }
+        return "EN_CURSO";
     }
 
     @Test
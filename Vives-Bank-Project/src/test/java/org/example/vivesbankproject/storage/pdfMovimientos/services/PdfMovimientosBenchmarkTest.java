@@ -0,0 +1,78 @@
+package org.example.vivesbankproject.storage.pdfMovimientos.services;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import org.example.vivesbankproject.rest.movimientos.models.Movimiento;
+import org.example.vivesbankproject.rest.movimientos.models.Transferencia;
+import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
+import org.example.vivesbankproject.rest.storage.pdfMovimientos.services.PdfMovimientosFileSystemStorage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Genera el extracto PDF de todos los movimientos con un millón de movimientos sintéticos y comprueba que
+ * incluye todos, hasta el último, y que el tamaño registrado en el trabajo coincide con el del fichero. Los
+ * movimientos se generan al vuelo desde el cursor simulado, sin cargarlos en memoria.
+ * Se ejecuta solo con {@code BENCHMARK_PDF=true}. Los tiempos y la memoria dependen de la máquina y del
+ * recolector, así que no se comprueban aquí.
+ */
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_PDF", matches = "true")
+class PdfMovimientosBenchmarkTest {
+
+    private static final int MOVIMIENTOS = 1_000_000;
+
+    private static Movimiento movimiento(int i) {
+        return Movimiento.builder()
+                .guid("movimiento-" + i)
+                .clienteGuid("cliente-" + (i % 10_000))
+                .createdAt(LocalDateTime.of(2024, 12, 1, 0, 0).plusSeconds(i))
+                .transferencia(Transferencia.builder()
+                        .iban_Origen("ES64123412344820495463")
+                        .iban_Destino("ES60123412347246753334")
+                        .cantidad(BigDecimal.valueOf(i % 100_000, 2))
+                        .build())
+                .build();
+    }
+
+    @Test
+    void extractoDeUnMillonDeMovimientos() throws Exception {
+        MovimientosRepository repository = mock(MovimientosRepository.class);
+        when(repository.streamAllBy()).thenAnswer(invocacion -> IntStream.range(0, MOVIMIENTOS).mapToObj(PdfMovimientosBenchmarkTest::movimiento));
+        PdfMovimientosFileSystemStorage storage = new PdfMovimientosFileSystemStorage("data/test", repository, 1, 65536);
+        Files.createDirectories(Path.of("dataAdmin"));
+
+        StorageJob trabajo = new StorageJob("pdfMovimientos");
+        Path pdf = null;
+        try {
+            pdf = Path.of("dataAdmin").resolve(storage.storeAll(trabajo));
+
+            try (PdfDocument pdfDoc = new PdfDocument(new PdfReader(pdf.toString()))) {
+                String ultimaPagina = PdfTextExtractor.getTextFromPage(pdfDoc.getPage(pdfDoc.getNumberOfPages()));
+                Path fichero = pdf;
+                assertAll(
+                        () -> assertEquals(MOVIMIENTOS, trabajo.getElementos().get()),
+                        () -> assertEquals(Files.size(fichero), trabajo.getBytes().get()),
+                        () -> assertTrue(pdfDoc.getNumberOfPages() > 1),
+                        () -> assertTrue(ultimaPagina.contains("movimiento-" + (MOVIMIENTOS - 1)))
+                );
+            }
+        } finally {
+            storage.detener();
+            if (pdf != null) {
+                Files.deleteIfExists(pdf);
+            }
+        }
+    }
+}
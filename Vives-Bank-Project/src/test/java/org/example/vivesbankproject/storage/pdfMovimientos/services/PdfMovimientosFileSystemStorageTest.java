@@ -2,10 +2,12 @@ package org.example.vivesbankproject.storage.pdfMovimientos.services;
 
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
 import org.bson.types.ObjectId;
 import org.example.vivesbankproject.rest.movimientos.models.*;
 import org.example.vivesbankproject.rest.movimientos.repositories.MovimientosRepository;
 import org.example.vivesbankproject.rest.storage.exceptions.StorageNotFound;
+import org.example.vivesbankproject.rest.storage.jobs.models.StorageJob;
 import org.example.vivesbankproject.rest.storage.pdfMovimientos.services.PdfMovimientosFileSystemStorage;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
@@ -17,15 +19,20 @@ import org.springframework.core.io.Resource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(SpringExtension.class)
@@ -40,7 +47,7 @@ class PdfMovimientosFileSystemStorageTest {
 
     @BeforeEach
     void setUp() throws IOException {
-        storageService = new PdfMovimientosFileSystemStorage(TEST_ROOT_LOCATION, movimientosRepository);
+        storageService = new PdfMovimientosFileSystemStorage(TEST_ROOT_LOCATION, movimientosRepository, 2, 8192);
 
         Path testPath = Paths.get(TEST_ROOT_LOCATION);
         if (Files.exists(testPath)) {
@@ -66,6 +73,7 @@ class PdfMovimientosFileSystemStorageTest {
 
     @AfterEach
     void tearDown() throws IOException {
+        storageService.detener();
         Path testPath = Paths.get(TEST_ROOT_LOCATION);
         if (Files.exists(testPath)) {
             Files.walkFileTree(testPath, new SimpleFileVisitor<>() {
@@ -107,7 +115,7 @@ class PdfMovimientosFileSystemStorageTest {
                         .build()
         );
 
-        when(movimientosRepository.findAll()).thenReturn(movimientos);
+        when(movimientosRepository.streamAllBy()).thenReturn(movimientos.stream());
 
         String filename = storageService.storeAll();
 
@@ -143,8 +151,8 @@ class PdfMovimientosFileSystemStorageTest {
         mockMovimiento.setPagoConTarjeta(new PagoConTarjeta());
         mockMovimiento.setTransferencia(new Transferencia());
 
-        when(movimientosRepository.findByClienteGuid(guid))
-                .thenReturn(Optional.of(mockMovimiento));
+        when(movimientosRepository.streamByClienteGuidOrderByCreatedAtDescIdDesc(guid))
+                .thenReturn(Stream.of(mockMovimiento));
 
         String storedFilename = storageService.store(guid);
 
@@ -162,6 +170,100 @@ class PdfMovimientosFileSystemStorageTest {
         }
     }
 
+    @Test
+    void storeAllEnStreamingConVariasPaginas() throws IOException {
+        List<Movimiento> movimientos = IntStream.range(0, 500)
+                .mapToObj(i -> Movimiento.builder()
+                        .guid("mov-" + i)
+                        .clienteGuid("cliente-" + (i % 5))
+                        .transferencia(Transferencia.builder()
+                                .iban_Origen("ES64123412344820495463")
+                                .iban_Destino("ES60123412347246753334")
+                                .cantidad(new BigDecimal("10.00"))
+                                .build())
+                        .build())
+                .toList();
+        AtomicBoolean cerrado = new AtomicBoolean();
+        when(movimientosRepository.streamAllBy()).thenReturn(movimientos.stream().onClose(() -> cerrado.set(true)));
+        StorageJob trabajo = new StorageJob("pdfMovimientos");
+
+        String filename = storageService.storeAll(trabajo);
+
+        Path pdfPath = Path.of("dataAdmin").resolve(filename);
+        try (PdfReader reader = new PdfReader(pdfPath.toString());
+             PdfDocument pdfDoc = new PdfDocument(reader)) {
+            String ultimaPagina = PdfTextExtractor.getTextFromPage(pdfDoc.getPage(pdfDoc.getNumberOfPages()));
+
+            assertAll(
+                    () -> assertTrue(pdfDoc.getNumberOfPages() > 1, "500 movimientos no caben en una página"),
+                    () -> assertTrue(ultimaPagina.contains("mov-499")),
+                    () -> assertEquals(500, trabajo.getElementos().get()),
+                    () -> assertEquals(Files.size(pdfPath), trabajo.getBytes().get()),
+                    () -> assertTrue(cerrado.get(), "El cursor de movimientos debe cerrarse"),
+                    () -> assertFalse(existeTemporal(pdfPath.getParent(), filename))
+            );
+        } finally {
+            Files.deleteIfExists(pdfPath);
+        }
+    }
+
+    @Test
+    void storeClienteSinMovimientos() {
+        when(movimientosRepository.streamByClienteGuidOrderByCreatedAtDescIdDesc("sin-movimientos")).thenReturn(Stream.empty());
+
+        assertThrows(StorageNotFound.class, () -> storageService.store("sin-movimientos"));
+        assertFalse(Files.exists(Path.of(TEST_ROOT_LOCATION).resolve(
+                "movimientos_sin-movimientos_" + LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")) + ".pdf")));
+    }
+
+    @Test
+    void storeClientesEnParalelo() {
+        List<String> clientes = List.of("cliente-1", "cliente-2", "cliente-3", "sin-movimientos");
+        for (String cliente : clientes.subList(0, 3)) {
+            when(movimientosRepository.streamByClienteGuidOrderByCreatedAtDescIdDesc(cliente)).thenAnswer(invocacion ->
+                    IntStream.range(0, 20).mapToObj(i -> Movimiento.builder().guid(cliente + "-" + i).clienteGuid(cliente).build()));
+        }
+        when(movimientosRepository.streamByClienteGuidOrderByCreatedAtDescIdDesc("sin-movimientos")).thenReturn(Stream.empty());
+        StorageJob trabajo = new StorageJob("pdfMovimientosClientes");
+
+        List<String> generados = storageService.storeClientes(clientes, trabajo);
+
+        assertAll(
+                () -> assertEquals(3, generados.size()),
+                () -> assertTrue(generados.stream().allMatch(f -> Files.exists(Path.of(TEST_ROOT_LOCATION).resolve(f)))),
+                () -> assertEquals(60, trabajo.getElementos().get())
+        );
+    }
+
+    @Test
+    void storeClientesGeneraMasClientesQueHuecos() {
+        List<String> clientes = IntStream.range(0, 50).mapToObj(i -> "cliente-" + i).toList();
+        when(movimientosRepository.streamByClienteGuidOrderByCreatedAtDescIdDesc(anyString())).thenAnswer(invocacion ->
+                Stream.of(Movimiento.builder().guid("mov-" + invocacion.getArgument(0)).clienteGuid(invocacion.getArgument(0)).build()));
+        StorageJob trabajo = new StorageJob("pdfMovimientosClientes");
+
+        List<String> generados = storageService.storeClientes(clientes, trabajo);
+
+        assertAll(
+                () -> assertEquals(50, generados.size()),
+                () -> assertEquals(50, trabajo.getElementos().get())
+        );
+    }
+
+    @Test
+    void storeClientesSinIndicarUsaTodosLosClientesConMovimientos() {
+        AtomicBoolean cerrado = new AtomicBoolean();
+        when(movimientosRepository.findClienteGuids()).thenReturn(Stream.of("cliente-1").onClose(() -> cerrado.set(true)));
+        when(movimientosRepository.streamByClienteGuidOrderByCreatedAtDescIdDesc("cliente-1"))
+                .thenReturn(Stream.of(Movimiento.builder().guid("mov-1").clienteGuid("cliente-1").build()));
+
+        List<String> generados = storageService.storeClientes(List.of(), new StorageJob("pdfMovimientosClientes"));
+
+        assertEquals(1, generados.size());
+        assertTrue(generados.get(0).contains("cliente-1"));
+        assertTrue(cerrado.get(), "El cursor de clientes debe cerrarse");
+    }
+
     @Test
     void loadAll() throws IOException {
         Path testFile1 = Paths.get(TEST_ROOT_LOCATION).resolve("testFile1.pdf");
@@ -287,4 +389,11 @@ class PdfMovimientosFileSystemStorageTest {
 
         assertFalse(Files.exists(filePath), "El archivo debería haber sido eliminado");
     }
-}
\ No newline at end of file
+
+    private static boolean existeTemporal(Path directorio, String filename) throws IOException {
+        try (Stream<Path> ficheros = Files.list(directorio)) {
+            return ficheros.map(path -> path.getFileName().toString())
+                    .anyMatch(nombre -> nombre.startsWith(filename) && nombre.endsWith(".part"));
+        }
+    }
+}
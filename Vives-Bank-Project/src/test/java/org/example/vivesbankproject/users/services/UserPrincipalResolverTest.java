@@ -0,0 +1,135 @@
+package org.example.vivesbankproject.users.services;
+
+import org.example.vivesbankproject.rest.users.exceptions.UserNotFoundException;
+import org.example.vivesbankproject.rest.users.models.Role;
+import org.example.vivesbankproject.rest.users.models.User;
+import org.example.vivesbankproject.rest.users.repositories.UserRepository;
+import org.example.vivesbankproject.rest.users.services.UserPrincipalResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserPrincipalResolverTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    private ConcurrentMapCache cache;
+
+    private UserPrincipalResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ConcurrentMapCache(UserPrincipalResolver.CACHE);
+        resolver = new UserPrincipalResolver(userRepository, cacheManager);
+    }
+
+    private User usuario() {
+        return User.builder()
+                .id(1L)
+                .guid("user-guid")
+                .username("user")
+                .password("password")
+                .roles(new HashSet<>(Set.of(Role.USER, Role.ADMIN)))
+                .build();
+    }
+
+    @Test
+    void resolverConsultaUnaVezYGuardaEnCache() {
+        when(cacheManager.getCache(UserPrincipalResolver.CACHE)).thenReturn(cache);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(usuario()));
+
+        User primero = resolver.resolver("user");
+        User segundo = resolver.resolver("user");
+
+        assertAll(
+                () -> assertEquals("user-guid", primero.getGuid()),
+                () -> assertEquals(Set.of(Role.USER, Role.ADMIN), segundo.getRoles()),
+                () -> assertEquals(2, segundo.getAuthorities().size()),
+                () -> assertNotNull(cache.get("user", UserPrincipalResolver.Principal.class))
+        );
+        verify(userRepository, times(1)).findByUsername("user");
+    }
+
+    @Test
+    void resolverEntregaCopiasSeparadasDeLaCache() {
+        User entidad = usuario();
+        when(cacheManager.getCache(UserPrincipalResolver.CACHE)).thenReturn(cache);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(entidad));
+
+        User primero = resolver.resolver("user");
+        primero.setUsername("modificado");
+        entidad.getRoles().clear();
+
+        User segundo = resolver.resolver("user");
+
+        assertAll(
+                () -> assertNotSame(primero, segundo),
+                () -> assertEquals("user", segundo.getUsername()),
+                () -> assertEquals(Set.of(Role.USER, Role.ADMIN), segundo.getRoles()),
+                () -> assertThrows(UnsupportedOperationException.class, () -> segundo.getRoles().add(Role.USER))
+        );
+    }
+
+    @Test
+    void resolverNoGuardaNiEntregaLaContrasena() {
+        when(cacheManager.getCache(UserPrincipalResolver.CACHE)).thenReturn(cache);
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(usuario()));
+
+        User usuario = resolver.resolver("user");
+
+        assertAll(
+                () -> assertNull(usuario.getPassword()),
+                () -> assertEquals(new UserPrincipalResolver.Principal(1L, "user-guid", "user", Set.of(Role.USER, Role.ADMIN), false),
+                        cache.get("user", UserPrincipalResolver.Principal.class))
+        );
+    }
+
+    @Test
+    void resolverUsuarioInexistente() {
+        when(cacheManager.getCache(UserPrincipalResolver.CACHE)).thenReturn(cache);
+        when(userRepository.findByUsername("nadie")).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> resolver.resolver("nadie"));
+        assertNull(cache.get("nadie"));
+    }
+
+    @Test
+    void resolverSinCacheConsultaSiempre() {
+        when(userRepository.findByUsername("user")).thenReturn(Optional.of(usuario()));
+
+        List.of(1, 2).forEach(i -> resolver.resolver("user"));
+
+        verify(userRepository, times(2)).findByUsername("user");
+    }
+
+    @Test
+    void invalidarEliminaSoloEseUsuario() {
+        when(cacheManager.getCache(UserPrincipalResolver.CACHE)).thenReturn(cache);
+        cache.put("user", UserPrincipalResolver.Principal.de(usuario()));
+        cache.put("otro", UserPrincipalResolver.Principal.de(usuario()));
+
+        resolver.invalidar("user");
+
+        assertAll(
+                () -> assertNull(cache.get("user")),
+                () -> assertNotNull(cache.get("otro"))
+        );
+    }
+}
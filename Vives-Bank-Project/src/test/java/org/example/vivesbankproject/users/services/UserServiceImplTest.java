@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
+import org.example.vivesbankproject.rest.cuenta.services.CuentaUsuarioResolver;
 import org.example.vivesbankproject.rest.users.dto.UserRequest;
 import org.example.vivesbankproject.rest.users.dto.UserResponse;
 import org.example.vivesbankproject.rest.users.exceptions.UserExists;
@@ -16,6 +17,7 @@ import org.example.vivesbankproject.rest.users.mappers.UserMapper;
 import org.example.vivesbankproject.rest.users.models.Role;
 import org.example.vivesbankproject.rest.users.models.User;
 import org.example.vivesbankproject.rest.users.repositories.UserRepository;
+import org.example.vivesbankproject.rest.users.services.UserPrincipalResolver;
 import org.example.vivesbankproject.rest.users.services.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,6 +40,12 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private CuentaUsuarioResolver cuentaUsuarioResolver;
+
+    @Mock
+    private UserPrincipalResolver userPrincipalResolver;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -168,6 +176,8 @@ class UserServiceImplTest {
 
         assertNotNull(result);
         assertEquals("testuser", result.getUsername());
+        verify(userPrincipalResolver, times(2)).invalidar(username);
+        verify(cuentaUsuarioResolver, times(1)).invalidarUsuario(id);
     }
 
     @Test
@@ -191,6 +201,7 @@ class UserServiceImplTest {
         UserExists thrown = assertThrows(UserExists.class, () -> userService.update(id, userRequest));
 
         assertEquals("El nombre de usuario 'testuser' ya existe", thrown.getMessage());
+        verifyNoInteractions(userPrincipalResolver, cuentaUsuarioResolver);
     }
 
     @Test
@@ -209,6 +220,8 @@ class UserServiceImplTest {
         userService.deleteById(id);
 
         verify(userRepository, times(1)).findByGuid(id);
+        verify(userPrincipalResolver, times(1)).invalidar("testuser");
+        verify(cuentaUsuarioResolver, times(1)).invalidarUsuario(id);
     }
 
     @Test
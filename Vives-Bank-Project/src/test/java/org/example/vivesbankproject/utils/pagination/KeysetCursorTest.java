@@ -0,0 +1,67 @@
+package org.example.vivesbankproject.utils.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeYDecodeSonSimetricos() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 12, 8, 14, 30, 0, 123_000_000), "507f1f77bcf86cd799439011");
+
+        KeysetCursor decodificado = KeysetCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decodificado);
+    }
+
+    @Test
+    void encodeEsSeguroParaUrl() {
+        String token = new KeysetCursor(LocalDateTime.now(), "507f1f77bcf86cd799439011").encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), "El token no debe necesitar escaparse en la URL: " + token);
+    }
+
+    @Test
+    void decodeCursorInvalido() {
+        String sinSeparador = Base64.getUrlEncoder().encodeToString("2024-12-08T14:30".getBytes());
+        String fechaInvalida = Base64.getUrlEncoder().encodeToString("ayer|507f1f77bcf86cd799439011".getBytes());
+
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("%%%")),
+                () -> assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(sinSeparador)),
+                () -> assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(fechaInvalida))
+        );
+    }
+
+    @Test
+    void cursorPageResponseDescartaElElementoDeMas() {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        CursorPageResponse<Integer> pagina = CursorPageResponse.of(List.of(3, 2, 1), 2,
+                n -> new KeysetCursor(ahora.minusSeconds(n), String.valueOf(n)), null, "createdAt", "desc");
+
+        assertAll(
+                () -> assertEquals(List.of(3, 2), pagina.content()),
+                () -> assertTrue(pagina.hasNext()),
+                () -> assertEquals(new KeysetCursor(ahora.minusSeconds(2), "2"), KeysetCursor.decode(pagina.nextCursor())),
+                () -> assertEquals(List.of("3", "2"), pagina.map(String::valueOf).content())
+        );
+    }
+
+    @Test
+    void cursorPageResponseUltimaPagina() {
+        CursorPageResponse<Integer> pagina = CursorPageResponse.of(List.of(1), 2,
+                n -> fail("La última página no tiene cursor"), 1L, "createdAt", "desc");
+
+        assertAll(
+                () -> assertFalse(pagina.hasNext()),
+                () -> assertNull(pagina.nextCursor()),
+                () -> assertEquals(1L, pagina.totalElements())
+        );
+    }
+}